@@ -0,0 +1,80 @@
+package org.aksw.limes.core.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.aksw.limes.core.io.cache.ACache;
+import org.aksw.limes.core.io.mapping.AMapping;
+import org.aksw.limes.core.measures.mapper.AMapper;
+import org.aksw.limes.core.measures.mapper.MapperFactory;
+import org.aksw.limes.core.measures.measure.MeasureFactory;
+import org.aksw.limes.core.util.DataGenerator;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Base class of the mapper benchmarks. The source and the target cache are
+ * generated once per trial by the {@link DataGenerator} of the subclass with
+ * the seeds {@link #SOURCE_SEED} and {@link #TARGET_SEED}, so that every run
+ * measures the mapper on the same data. The benchmark itself computes the
+ * mapping of one atomic expression.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public abstract class AMapperBenchmark {
+
+    public static final long SOURCE_SEED = 42L;
+    public static final long TARGET_SEED = 4711L;
+
+    protected ACache source;
+    protected ACache target;
+    protected AMapper mapper;
+    protected String expression;
+
+    /**
+     * @param seed
+     *            Seed of the generator
+     * @return the generator of the source and the target data
+     */
+    protected abstract DataGenerator getGenerator(long seed);
+
+    /**
+     * @return size of the source and of the target cache
+     */
+    protected abstract int getSize();
+
+    /**
+     * @return atomic expression of the benchmark
+     */
+    protected abstract String getExpression();
+
+    /**
+     * @return threshold of the expression
+     */
+    protected abstract double getThreshold();
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        source = getGenerator(SOURCE_SEED).generateData(getSize());
+        target = getGenerator(TARGET_SEED).generateData(getSize());
+        expression = getExpression();
+        mapper = MapperFactory.createMapper(MeasureFactory.getMeasureType(expression));
+    }
+
+    @Benchmark
+    public AMapping getMapping() {
+        return mapper.getMapping(source, target, "?x", "?y", expression, getThreshold());
+    }
+}
@@ -0,0 +1,84 @@
+package org.aksw.limes.core.benchmarks;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.concurrent.TimeUnit;
+
+import org.aksw.limes.core.io.cache.ACache;
+import org.aksw.limes.core.io.cache.HybridCache;
+import org.aksw.limes.core.io.cache.Instance;
+import org.aksw.limes.core.util.RandomStringGenerator;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks writing a {@link HybridCache} to a cache file and reading it
+ * back, with and without materializing all instances after loading.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class CacheBenchmark {
+
+    @Param({ "10000", "100000", "500000" })
+    public int size;
+
+    private File folder;
+    private HybridCache cache;
+    private File loadFile;
+    private File saveFile;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        ACache data = new RandomStringGenerator(4, 12, AMapperBenchmark.SOURCE_SEED).generateData(size);
+        // HybridCache.loadFromFile expects the file to be in a folder named cache
+        folder = new File(Files.createTempDirectory("limes-benchmark").toFile(), "cache");
+        folder.mkdirs();
+        cache = new HybridCache(folder.getParentFile());
+        for (Instance instance : data.getAllInstances()) {
+            cache.addInstance(instance);
+        }
+        loadFile = new File(folder, "load.ser");
+        saveFile = new File(folder, "save.ser");
+        cache.saveToFile(loadFile);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        loadFile.delete();
+        saveFile.delete();
+        folder.delete();
+        folder.getParentFile().delete();
+    }
+
+    @Benchmark
+    public File save() {
+        cache.saveToFile(saveFile);
+        return saveFile;
+    }
+
+    @Benchmark
+    public HybridCache load() throws IOException {
+        return HybridCache.loadFromFile(loadFile);
+    }
+
+    @Benchmark
+    public int loadAndMaterialize() throws IOException {
+        return HybridCache.loadFromFile(loadFile).getAllInstances().size();
+    }
+}
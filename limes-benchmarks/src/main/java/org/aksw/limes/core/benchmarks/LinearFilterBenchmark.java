@@ -0,0 +1,90 @@
+package org.aksw.limes.core.benchmarks;
+
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.aksw.limes.core.execution.engine.filter.LinearFilter;
+import org.aksw.limes.core.io.cache.ACache;
+import org.aksw.limes.core.io.mapping.AMapping;
+import org.aksw.limes.core.io.mapping.MappingFactory;
+import org.aksw.limes.core.util.DataGenerator;
+import org.aksw.limes.core.util.RandomStringGenerator;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks the {@link LinearFilter} on a mapping that links every source
+ * instance to {@link #LINKS_PER_SOURCE} random target instances.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class LinearFilterBenchmark {
+
+    public static final int LINKS_PER_SOURCE = 10;
+
+    @Param({ "jaro", "trigram", "levenshtein", "exactmatch" })
+    public String measure;
+
+    @Param({ "1000", "10000", "50000" })
+    public int size;
+
+    @Param({ "0.5", "0.8" })
+    public double threshold;
+
+    private ACache source;
+    private ACache target;
+    private AMapping mapping;
+    private String condition;
+    private LinearFilter filter = new LinearFilter();
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        source = new RandomStringGenerator(4, 12, AMapperBenchmark.SOURCE_SEED).generateData(size);
+        target = new RandomStringGenerator(4, 12, AMapperBenchmark.TARGET_SEED).generateData(size);
+        List<String> sourceUris = source.getAllUris();
+        List<String> targetUris = target.getAllUris();
+        Random random = new Random(AMapperBenchmark.SOURCE_SEED);
+        mapping = MappingFactory.createDefaultMapping();
+        for (String s : sourceUris) {
+            for (int i = 0; i < LINKS_PER_SOURCE; i++) {
+                mapping.add(s, targetUris.get(random.nextInt(targetUris.size())), random.nextDouble());
+            }
+        }
+        condition = measure + "(x." + DataGenerator.LABEL + ",y." + DataGenerator.LABEL + ")";
+    }
+
+    @Benchmark
+    public AMapping filterByThreshold() {
+        return filter.filter(mapping, threshold);
+    }
+
+    @Benchmark
+    public AMapping filterByCondition() {
+        return filter.filter(mapping, condition, threshold, source, target, "?x", "?y");
+    }
+
+    @Benchmark
+    public AMapping filterByConditionAndThreshold() {
+        return filter.filter(mapping, condition, threshold, 0.5, source, target, "?x", "?y");
+    }
+
+    @Benchmark
+    public AMapping reverseFilter() {
+        return filter.reversefilter(mapping, condition, threshold, 0.5, source, target, "?x", "?y");
+    }
+}
@@ -0,0 +1,91 @@
+package org.aksw.limes.core.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.aksw.limes.core.execution.engine.SimpleExecutionEngine;
+import org.aksw.limes.core.execution.planning.plan.NestedPlan;
+import org.aksw.limes.core.execution.planning.planner.ExecutionPlannerFactory;
+import org.aksw.limes.core.execution.planning.planner.IPlanner;
+import org.aksw.limes.core.io.cache.ACache;
+import org.aksw.limes.core.io.ls.LinkSpecification;
+import org.aksw.limes.core.io.mapping.AMapping;
+import org.aksw.limes.core.util.RandomStringGenerator;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks the plan paths of the {@link ExecutionPlannerFactory#HELIOS} and
+ * the {@link ExecutionPlannerFactory#DYNAMIC} planner: planning alone and
+ * planning together with the execution by the {@link SimpleExecutionEngine}.
+ * A new planner is created for each invocation, since the dynamic planner
+ * keeps the runtimes of executed plans.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class PlannerBenchmark {
+
+    @Param({ ExecutionPlannerFactory.HELIOS, ExecutionPlannerFactory.DYNAMIC })
+    public String planner;
+
+    @Param({ "and", "or", "minus", "nested" })
+    public String spec;
+
+    @Param({ "1000", "5000" })
+    public int size;
+
+    private ACache source;
+    private ACache target;
+    private LinkSpecification linkSpec;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        source = new RandomStringGenerator(4, 12, AMapperBenchmark.SOURCE_SEED).generateData(size);
+        target = new RandomStringGenerator(4, 12, AMapperBenchmark.TARGET_SEED).generateData(size);
+        linkSpec = new LinkSpecification(getExpression(spec), 0.5);
+    }
+
+    private static String getExpression(String spec) {
+        switch (spec) {
+        case "and":
+            return "AND(jaro(x.label,y.label)|0.8,trigram(x.label,y.label)|0.6)";
+        case "or":
+            return "OR(jaro(x.label,y.label)|0.9,levenshtein(x.label,y.label)|0.8)";
+        case "minus":
+            return "MINUS(trigram(x.label,y.label)|0.6,exactmatch(x.label,y.label)|0.5)";
+        default:
+            return "OR(AND(jaro(x.label,y.label)|0.8,trigram(x.label,y.label)|0.6)|0.6,"
+                    + "MINUS(levenshtein(x.label,y.label)|0.7,qgrams(x.label,y.label)|0.9)|0.7)";
+        }
+    }
+
+    private IPlanner createPlanner() {
+        return ExecutionPlannerFactory.getPlanner(ExecutionPlannerFactory.getExecutionPlannerType(planner), source,
+                target);
+    }
+
+    @Benchmark
+    public NestedPlan plan() {
+        IPlanner p = createPlanner();
+        return p.plan(p.normalize(linkSpec.clone()));
+    }
+
+    @Benchmark
+    public AMapping planAndExecute() {
+        SimpleExecutionEngine engine = new SimpleExecutionEngine(source, target, "?x", "?y");
+        return engine.execute(linkSpec.clone(), createPlanner());
+    }
+}
@@ -0,0 +1,46 @@
+package org.aksw.limes.core.benchmarks;
+
+import org.aksw.limes.core.util.DataGenerator;
+import org.aksw.limes.core.util.RandomPolygonGenerator;
+import org.openjdk.jmh.annotations.Param;
+
+/**
+ * Benchmarks the OrchidMapper with the point set measures on random
+ * polygons.
+ */
+public class PointsetMapperBenchmark extends AMapperBenchmark {
+
+    @Param({ "geo_hausdorff", "geo_fast_hausdorff", "geo_indexed_hausdorff", "geo_centroid_indexed_hausdorff",
+            "geo_scan_indexed_hausdorff", "geo_mean", "geo_min", "geo_max", "geo_frechet", "geo_sum_of_min",
+            "geo_surjection", "geo_fairsurjection" })
+    public String measure;
+
+    @Param({ "100", "500", "1000" })
+    public int size;
+
+    /**
+     * Similarity threshold, the distance threshold is 1/threshold - 1
+     */
+    @Param({ "0.01" })
+    public double threshold;
+
+    @Override
+    protected DataGenerator getGenerator(long seed) {
+        return new RandomPolygonGenerator(4, 16, 0.5, seed);
+    }
+
+    @Override
+    protected int getSize() {
+        return size;
+    }
+
+    @Override
+    protected String getExpression() {
+        return measure + "(x." + RandomPolygonGenerator.WKT + ",y." + RandomPolygonGenerator.WKT + ")";
+    }
+
+    @Override
+    protected double getThreshold() {
+        return threshold;
+    }
+}
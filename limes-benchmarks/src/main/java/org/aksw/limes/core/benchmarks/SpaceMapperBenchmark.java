@@ -0,0 +1,38 @@
+package org.aksw.limes.core.benchmarks;
+
+import org.aksw.limes.core.util.DataGenerator;
+import org.aksw.limes.core.util.RandomPointGenerator;
+import org.openjdk.jmh.annotations.Param;
+
+/**
+ * Benchmarks the HR3Mapper on random two-dimensional points.
+ */
+public class SpaceMapperBenchmark extends AMapperBenchmark {
+
+    @Param({ "1000", "10000", "50000" })
+    public int size;
+
+    @Param({ "0.9", "0.95" })
+    public double threshold;
+
+    @Override
+    protected DataGenerator getGenerator(long seed) {
+        return new RandomPointGenerator(0d, 100d, seed);
+    }
+
+    @Override
+    protected int getSize() {
+        return size;
+    }
+
+    @Override
+    protected String getExpression() {
+        String properties = RandomPointGenerator.LATITUDE + "|" + RandomPointGenerator.LONGITUDE;
+        return "euclidean(x." + properties + ",y." + properties + ")";
+    }
+
+    @Override
+    protected double getThreshold() {
+        return threshold;
+    }
+}
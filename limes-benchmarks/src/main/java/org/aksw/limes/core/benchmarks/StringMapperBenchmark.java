@@ -0,0 +1,42 @@
+package org.aksw.limes.core.benchmarks;
+
+import org.aksw.limes.core.util.DataGenerator;
+import org.aksw.limes.core.util.RandomStringGenerator;
+import org.openjdk.jmh.annotations.Param;
+
+/**
+ * Benchmarks the string mappers (PPJoinPlusPlus, EDJoinMapper,
+ * FastNGramMapper, JaroWinklerMapper, ...) on random strings.
+ */
+public class StringMapperBenchmark extends AMapperBenchmark {
+
+    @Param({ "trigram", "jaccard", "cosine", "overlap", "levenshtein", "qgrams", "jaro", "jarowinkler",
+            "ratcliff", "exactmatch", "soundex", "mongeelkan" })
+    public String measure;
+
+    @Param({ "1000", "5000", "10000" })
+    public int size;
+
+    @Param({ "0.8" })
+    public double threshold;
+
+    @Override
+    protected DataGenerator getGenerator(long seed) {
+        return new RandomStringGenerator(4, 12, seed);
+    }
+
+    @Override
+    protected int getSize() {
+        return size;
+    }
+
+    @Override
+    protected String getExpression() {
+        return measure + "(x." + DataGenerator.LABEL + ",y." + DataGenerator.LABEL + ")";
+    }
+
+    @Override
+    protected double getThreshold() {
+        return threshold;
+    }
+}
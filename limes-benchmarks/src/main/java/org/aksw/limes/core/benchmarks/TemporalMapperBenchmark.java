@@ -0,0 +1,42 @@
+package org.aksw.limes.core.benchmarks;
+
+import org.aksw.limes.core.util.DataGenerator;
+import org.aksw.limes.core.util.RandomIntervalGenerator;
+import org.openjdk.jmh.annotations.Param;
+
+/**
+ * Benchmarks the Allen algebra mappers and the simple temporal mappers on
+ * random time intervals.
+ */
+public class TemporalMapperBenchmark extends AMapperBenchmark {
+
+    @Param({ "tmp_after", "tmp_before", "tmp_during", "tmp_during_reverse", "tmp_equals", "tmp_finishes",
+            "tmp_is_finished_by", "tmp_is_met_by", "tmp_is_overlapped_by", "tmp_is_started_by", "tmp_meets",
+            "tmp_overlaps", "tmp_starts", "tmp_concurrent", "tmp_predecessor", "tmp_successor" })
+    public String relation;
+
+    @Param({ "1000", "5000", "10000" })
+    public int size;
+
+    @Override
+    protected DataGenerator getGenerator(long seed) {
+        // one week, intervals of up to one day
+        return new RandomIntervalGenerator(7 * 24 * 60, 24 * 60, seed);
+    }
+
+    @Override
+    protected int getSize() {
+        return size;
+    }
+
+    @Override
+    protected String getExpression() {
+        String properties = RandomIntervalGenerator.BEGIN + "|" + RandomIntervalGenerator.END;
+        return relation + "(x." + properties + ",y." + properties + ")";
+    }
+
+    @Override
+    protected double getThreshold() {
+        return 1d;
+    }
+}
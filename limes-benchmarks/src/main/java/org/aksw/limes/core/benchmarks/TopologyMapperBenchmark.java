@@ -0,0 +1,38 @@
+package org.aksw.limes.core.benchmarks;
+
+import org.aksw.limes.core.util.DataGenerator;
+import org.aksw.limes.core.util.RandomPolygonGenerator;
+import org.openjdk.jmh.annotations.Param;
+
+/**
+ * Benchmarks the topological mappers, i.e. RADON, on random polygons.
+ */
+public class TopologyMapperBenchmark extends AMapperBenchmark {
+
+    @Param({ "top_intersects", "top_disjoint", "top_touches", "top_crosses", "top_overlaps", "top_equals",
+            "top_within", "top_contains", "top_covers", "top_covered_by" })
+    public String relation;
+
+    @Param({ "1000", "5000", "10000" })
+    public int size;
+
+    @Override
+    protected DataGenerator getGenerator(long seed) {
+        return new RandomPolygonGenerator(4, 16, 2d, seed);
+    }
+
+    @Override
+    protected int getSize() {
+        return size;
+    }
+
+    @Override
+    protected String getExpression() {
+        return relation + "(x." + RandomPolygonGenerator.WKT + ",y." + RandomPolygonGenerator.WKT + ")";
+    }
+
+    @Override
+    protected double getThreshold() {
+        return 1d;
+    }
+}
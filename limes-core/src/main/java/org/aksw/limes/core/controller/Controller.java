@@ -3,19 +3,37 @@ package org.aksw.limes.core.controller;
 import static org.fusesource.jansi.Ansi.ansi;
 import static org.fusesource.jansi.Ansi.Color.RED;
 
+import java.io.File;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
 import org.aksw.limes.core.exceptions.UnsupportedMLImplementationException;
 import org.aksw.limes.core.execution.engine.ExecutionEngineFactory;
+import org.aksw.limes.core.execution.engine.ExecutionProfile;
+import org.aksw.limes.core.execution.planning.planner.CostModel;
+import org.aksw.limes.core.execution.planning.planner.CostModelCalibration;
 import org.aksw.limes.core.execution.planning.planner.ExecutionPlannerFactory;
 import org.aksw.limes.core.execution.rewriter.RewriterFactory;
 //import org.aksw.limes.core.gui.LimesGUI;
 import org.aksw.limes.core.io.cache.HybridCache;
 import org.aksw.limes.core.io.config.Configuration;
+import org.aksw.limes.core.io.config.KBInfo;
 import org.aksw.limes.core.io.config.reader.AConfigurationReader;
 import org.aksw.limes.core.io.config.reader.rdf.RDFConfigurationReader;
 import org.aksw.limes.core.io.config.reader.xml.XMLConfigurationReader;
+import org.aksw.limes.core.io.ls.LinkSpecification;
 import org.aksw.limes.core.io.mapping.AMapping;
+import org.aksw.limes.core.io.mapping.SplitLinkSink;
 import org.aksw.limes.core.io.serializer.ISerializer;
 import org.aksw.limes.core.io.serializer.SerializerFactory;
+import org.aksw.limes.core.io.serializer.SerializerLinkSink;
 import org.aksw.limes.core.measures.mapper.MappingOperations;
 import org.apache.commons.cli.BasicParser;
 import org.apache.commons.cli.CommandLine;
@@ -60,6 +78,25 @@ public class Controller {
 //        } else if (cmd.hasOption('g')){
 //            LimesGUI.startGUI(new String[0]);
 //            System.exit(0);
+        } else if (cmd.hasOption('c')) {
+            try {
+                new CostModelCalibration(CostModelCalibration.DEFAULT_SIZES, CostModelCalibration.DEFAULT_THRESHOLDS)
+                        .calibrate(new File(cmd.getOptionValue('c')));
+            } catch (IOException e) {
+                logger.error("Error:\n\t Could not write the cost model: " + e.getMessage());
+                System.exit(1);
+            }
+        } else if (cmd.hasOption('w')) {
+            try {
+                LinkingWorker worker = LinkingWorker.create(cmd.getOptionValue('w'));
+                worker.start();
+                worker.join();
+            } catch (IOException e) {
+                logger.error("Error:\n\t Could not start the worker: " + e.getMessage());
+                System.exit(1);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
         } else if (cmd.hasOption('s')){
             int port = serverPort;
             if (cmd.hasOption('p')) port = Integer.parseInt(cmd.getOptionValue('p'));
@@ -73,8 +110,24 @@ public class Controller {
             }
 
             Configuration config = getConfig(cmd);
-            ResultMappings mappings = getMapping(config);
-            writeResults(mappings, config);
+            if (config.getMlAlgorithmName().equals("")) {
+                List<InetSocketAddress> workers = cmd.hasOption('d')
+                        ? LinkingCoordinator.parseWorkers(cmd.getOptionValue('d')) : null;
+                if (workers != null && cmd.hasOption('e')) {
+                    logger.warn("Execution profiles are not supported for distributed linking, ignoring -e.");
+                }
+                writeMapping(config, cmd.hasOption('e') && workers == null ? new File(cmd.getOptionValue('e')) : null,
+                        workers);
+            } else {
+                if (cmd.hasOption('e')) {
+                    logger.warn("Execution profiles are not supported for machine learning, ignoring -e.");
+                }
+                if (cmd.hasOption('d')) {
+                    logger.warn("Distributed linking is not supported for machine learning, ignoring -d.");
+                }
+                ResultMappings mappings = getMapping(config);
+                writeResults(mappings, config);
+            }
         }
     }
 
@@ -140,8 +193,9 @@ public class Controller {
         AMapping results = null;
 
         // 3. Fill Caches
-        HybridCache sourceCache = HybridCache.getData(config.getSourceInfo());
-        HybridCache targetCache = HybridCache.getData(config.getTargetInfo());
+        HybridCache[] caches = loadCaches(config);
+        HybridCache sourceCache = caches[0];
+        HybridCache targetCache = caches[1];
 
         // 4. Machine Learning or Planning
         StopWatch stopWatch = new StopWatch();
@@ -172,6 +226,136 @@ public class Controller {
         return new ResultMappings(verificationMapping, acceptanceMapping);
     }
 
+    /**
+     * Execute the link specification of the configuration and write the links
+     * to the acceptance and verification files while they are computed. The
+     * result mapping is never held in memory as a whole.
+     *
+     * @param config
+     *            LIMES configuration object without machine learning algorithm
+     */
+    public static void writeMapping(Configuration config) {
+        writeMapping(config, null);
+    }
+
+    /**
+     * Execute the link specification of the configuration like
+     * {@link #writeMapping(Configuration)}. If a profile file is given, the
+     * execution is profiled, the annotated plan is printed and written as
+     * JSON to the file.
+     *
+     * @param config
+     *            LIMES configuration object without machine learning algorithm
+     * @param profileFile
+     *            File for the execution profile, null to not profile
+     */
+    public static void writeMapping(Configuration config, File profileFile) {
+        writeMapping(config, profileFile, null);
+    }
+
+    /**
+     * Execute the link specification of the configuration like
+     * {@link #writeMapping(Configuration, File)}. If workers are given, the
+     * source instances are partitioned and linked by the workers, see
+     * {@link LinkingCoordinator}; the execution can not be profiled then.
+     *
+     * @param config
+     *            LIMES configuration object without machine learning algorithm
+     * @param profileFile
+     *            File for the execution profile, null to not profile
+     * @param workers
+     *            Addresses of the workers, null to link in this process
+     */
+    public static void writeMapping(Configuration config, File profileFile, List<InetSocketAddress> workers) {
+        if (logger == null)
+            logger = LoggerFactory.getLogger(Controller.class);
+        HybridCache[] caches = loadCaches(config);
+        HybridCache sourceCache = caches[0];
+        HybridCache targetCache = caches[1];
+
+        StopWatch stopWatch = new StopWatch();
+        stopWatch.start();
+        SplitLinkSink sink = new SplitLinkSink(config.getAcceptanceThreshold(),
+                createSink(config, config.getAcceptanceRelation(), config.getAcceptanceFile()),
+                createSink(config, config.getVerificationRelation(), config.getVerificationFile()));
+        ExecutionProfile profile = null;
+        LinkSpecification ls = new LinkSpecification(config.getMetricExpression(), config.getVerificationThreshold());
+        try {
+            if (workers != null) {
+                new LinkingCoordinator(workers).execute(sourceCache, targetCache, ls,
+                        config.getSourceInfo().getVar(), config.getTargetInfo().getVar(),
+                        RewriterFactory.getRewriterType(config.getExecutionRewriter()),
+                        ExecutionPlannerFactory.getExecutionPlannerType(config.getExecutionPlanner()),
+                        ExecutionEngineFactory.getExecutionEngineType(config.getExecutionEngine()), sink);
+            } else if (profileFile == null) {
+                LSPipeline.execute(sourceCache, targetCache, ls,
+                        config.getSourceInfo().getVar(), config.getTargetInfo().getVar(),
+                        RewriterFactory.getRewriterType(config.getExecutionRewriter()),
+                        ExecutionPlannerFactory.getExecutionPlannerType(config.getExecutionPlanner()),
+                        ExecutionEngineFactory.getExecutionEngineType(config.getExecutionEngine()), sink);
+            } else {
+                profile = LSPipeline.explain(sourceCache, targetCache, ls,
+                        config.getSourceInfo().getVar(), config.getTargetInfo().getVar(),
+                        RewriterFactory.getRewriterType(config.getExecutionRewriter()),
+                        ExecutionPlannerFactory.getExecutionPlannerType(config.getExecutionPlanner()),
+                        ExecutionEngineFactory.getExecutionEngineType(config.getExecutionEngine()), sink);
+            }
+        } finally {
+            sink.close();
+        }
+        logger.info("Mapping task finished in " + stopWatch.getTime() + " ms");
+        if (profile != null) {
+            System.out.print(profile.toText());
+            try {
+                Files.write(profileFile.toPath(), profile.toJson().getBytes(StandardCharsets.UTF_8));
+                logger.info("Execution profile written to " + profileFile.getAbsolutePath());
+            } catch (IOException e) {
+                logger.error("Error:\n\t Could not write the execution profile: " + e.getMessage());
+            }
+        }
+        logger.info("Mapping size: " + sink.getAboveCount() + " (accepted) + " + sink.getBelowCount()
+                + " (need verification) = " + (sink.getAboveCount() + sink.getBelowCount()) + " (total)");
+    }
+
+    /**
+     * Loads the source and the target cache of a configuration at the same
+     * time. If both knowledge bases are stored in the same cache file, they
+     * are loaded one after the other.
+     *
+     * @param config
+     *            LIMES configuration object
+     * @return the source cache and the target cache
+     */
+    public static HybridCache[] loadCaches(Configuration config) {
+        KBInfo sourceInfo = config.getSourceInfo();
+        KBInfo targetInfo = config.getTargetInfo();
+        if (sourceInfo.hashCode() == targetInfo.hashCode()) {
+            return new HybridCache[] { HybridCache.getData(sourceInfo), HybridCache.getData(targetInfo) };
+        }
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            Future<HybridCache> source = executor.submit(() -> HybridCache.getData(sourceInfo));
+            HybridCache target = HybridCache.getData(targetInfo);
+            return new HybridCache[] { source.get(), target };
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException(e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw new RuntimeException(e.getCause());
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    private static SerializerLinkSink createSink(Configuration config, String relation, String file) {
+        ISerializer output = SerializerFactory.createSerializer(config.getOutputFormat());
+        output.setPrefixes(config.getPrefixes());
+        return new SerializerLinkSink(output, relation, file);
+    }
+
     private static void writeResults(ResultMappings mappings, Configuration config) {
         String outputFormat = config.getOutputFormat();
         ISerializer output = SerializerFactory.createSerializer(outputFormat);
@@ -201,6 +385,14 @@ public class Controller {
         options.addOption("o", true, "Set path of log file. Default is 'limes.log'");
         options.addOption("f", true, "Optionally configure format of <config_file_or_uri>, either \"xml\" (default) or " +
                 "\"rdf\". If not specified, LIMES tries to infer the format from file ending.");
+        options.addOption("c", true, "Calibrate the cost model of the planners on this machine and write it to the " +
+                "given file. Set the system property " + CostModel.FILE_PROPERTY + " to the file to use it.");
+        options.addOption("e", true, "Profile the execution of the link specification (EXPLAIN ANALYZE): print " +
+                "the plan annotated with runtimes, mapping sizes and selectivities and write it as JSON to the given file.");
+        options.addOption("w", true, "Run a worker for distributed linking that listens on the given [host:]port, " +
+                "on the loopback interface if no host is given");
+        options.addOption("d", true, "Link with the workers at the given comma-separated host:port addresses, " +
+                "each worker links a partition of the source");
         options.addOption("p", true, "Optionally configure HTTP server port. Only effective if -s is specified. Default port is 8080.");
         // options.addOption("s", false, "Silent run");
         // options.addOption("v", false, "Verbose run");
@@ -1,7 +1,18 @@
 package org.aksw.limes.core.controller;
 
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+
+import org.aksw.limes.core.execution.engine.AtomicMappingCache;
+import org.aksw.limes.core.execution.engine.ChunkedExecutionEngine;
 import org.aksw.limes.core.execution.engine.ExecutionEngine;
 import org.aksw.limes.core.execution.engine.ExecutionEngineFactory;
+import org.aksw.limes.core.execution.engine.ExecutionProfile;
+import org.aksw.limes.core.execution.engine.SimpleExecutionEngine;
+import org.aksw.limes.core.execution.planning.plan.Instruction;
 import org.aksw.limes.core.execution.planning.planner.ExecutionPlannerFactory;
 import org.aksw.limes.core.execution.planning.planner.Planner;
 import org.aksw.limes.core.execution.rewriter.Rewriter;
@@ -9,6 +20,9 @@ import org.aksw.limes.core.execution.rewriter.RewriterFactory;
 import org.aksw.limes.core.io.cache.ACache;
 import org.aksw.limes.core.io.ls.LinkSpecification;
 import org.aksw.limes.core.io.mapping.AMapping;
+import org.aksw.limes.core.io.mapping.ILinkSink;
+import org.aksw.limes.core.measures.mapper.AMapper;
+import org.aksw.limes.core.measures.mapper.LinkingScheduler;
 
 /**
  * Execution pipeline for generating mappings out of link specifications.
@@ -73,6 +87,190 @@ public class LSPipeline {
         return engine.execute(rwLs, planner);
     }
 
+    /**
+     * Execute a given LS and pass the generated links to a sink while they are
+     * computed, instead of collecting them in a mapping. The sink is not
+     * closed.
+     *
+     * @param sourceCache Resources from source KB
+     * @param targetCache Resources from target KB
+     * @param ls LIMES Link Specification
+     * @param sourceVar Name of SPARQL variable for resources from source KB
+     * @param targetVar Name of SPARQL variable for resources from target KB
+     * @param rewriterType Specifies rewriter module to use
+     * @param executionPlannerType Specifies executionPlanner module to use
+     * @param executionEngineType Specifies executionEngine module to use
+     * @param sink Receives the links of resources in sourceCache to resources in targetCache with similarity &gt; threshold
+     */
+    public static void execute(ACache sourceCache, ACache targetCache, LinkSpecification ls, String sourceVar,
+                               String targetVar, RewriterFactory.RewriterType rewriterType,
+                               ExecutionPlannerFactory.ExecutionPlannerType executionPlannerType,
+                               ExecutionEngineFactory.ExecutionEngineType executionEngineType, ILinkSink sink) {
+        Rewriter rw = RewriterFactory.getRewriter(rewriterType);
+        assert rw != null;
+        LinkSpecification rwLs = rw.rewrite(ls);
+        Planner planner = ExecutionPlannerFactory.getPlanner(executionPlannerType, sourceCache, targetCache);
+        assert planner != null;
+        ExecutionEngine engine = ExecutionEngineFactory.getEngine(executionEngineType, sourceCache, targetCache,
+                sourceVar, targetVar);
+        assert engine != null;
+        engine.execute(rwLs, planner, sink);
+    }
+
+    /**
+     * Execute a given LS chunk by chunk of the source cache and pass the links of each chunk to a sink, so that the
+     * memory needed does not grow with the size of the source cache, see {@link ChunkedExecutionEngine}. The sink is
+     * not closed.
+     *
+     * @param sourceCache Resources from source KB
+     * @param targetCache Resources from target KB
+     * @param ls LIMES Link Specification
+     * @param sourceVar Name of SPARQL variable for resources from source KB
+     * @param targetVar Name of SPARQL variable for resources from target KB
+     * @param rewriterType Specifies rewriter module to use
+     * @param executionPlannerType Specifies executionPlanner module to use
+     * @param executionEngineType Specifies the executionEngine module that executes each chunk
+     * @param chunkSize Number of source resources per chunk
+     * @param blockingProperty Source property by which the source resources are partitioned, null to partition by
+     *                         size only
+     * @param sink Receives the links of resources in sourceCache to resources in targetCache with similarity &gt; threshold
+     */
+    public static void executeChunked(ACache sourceCache, ACache targetCache, LinkSpecification ls, String sourceVar,
+                                      String targetVar, RewriterFactory.RewriterType rewriterType,
+                                      ExecutionPlannerFactory.ExecutionPlannerType executionPlannerType,
+                                      ExecutionEngineFactory.ExecutionEngineType executionEngineType, int chunkSize,
+                                      String blockingProperty, ILinkSink sink) {
+        Rewriter rw = RewriterFactory.getRewriter(rewriterType);
+        assert rw != null;
+        LinkSpecification rwLs = rw.rewrite(ls);
+        Planner planner = ExecutionPlannerFactory.getPlanner(executionPlannerType, sourceCache, targetCache);
+        assert planner != null;
+        ChunkedExecutionEngine engine = new ChunkedExecutionEngine(sourceCache, targetCache, sourceVar, targetVar);
+        engine.setChunkSize(chunkSize);
+        engine.setBlockingProperty(blockingProperty);
+        if (executionEngineType != ExecutionEngineFactory.ExecutionEngineType.CHUNKED) {
+            engine.setChunkEngineType(executionEngineType);
+        }
+        engine.execute(rwLs, planner, sink);
+    }
+
+    /**
+     * Execute a given LS with profiling (EXPLAIN ANALYZE) and pass the generated links to a sink. The profile
+     * annotates every executed plan and instruction with its runtime, mapping sizes and selectivities, see
+     * {@link ExecutionProfile}. The sink is not closed.
+     *
+     * @param sourceCache Resources from source KB
+     * @param targetCache Resources from target KB
+     * @param ls LIMES Link Specification
+     * @param sourceVar Name of SPARQL variable for resources from source KB
+     * @param targetVar Name of SPARQL variable for resources from target KB
+     * @param rewriterType Specifies rewriter module to use
+     * @param executionPlannerType Specifies executionPlanner module to use
+     * @param executionEngineType Specifies executionEngine module to use
+     * @param sink Receives the links of resources in sourceCache to resources in targetCache with similarity &gt; threshold
+     * @return Profile of the execution
+     */
+    public static ExecutionProfile explain(ACache sourceCache, ACache targetCache, LinkSpecification ls,
+                                           String sourceVar, String targetVar, RewriterFactory.RewriterType rewriterType,
+                                           ExecutionPlannerFactory.ExecutionPlannerType executionPlannerType,
+                                           ExecutionEngineFactory.ExecutionEngineType executionEngineType,
+                                           ILinkSink sink) {
+        Rewriter rw = RewriterFactory.getRewriter(rewriterType);
+        assert rw != null;
+        LinkSpecification rwLs = rw.rewrite(ls);
+        Planner planner = ExecutionPlannerFactory.getPlanner(executionPlannerType, sourceCache, targetCache);
+        assert planner != null;
+        ExecutionEngine engine = ExecutionEngineFactory.getEngine(executionEngineType, sourceCache, targetCache,
+                sourceVar, targetVar);
+        assert engine != null;
+        engine.setProfiling(true);
+        engine.execute(rwLs, planner, sink);
+        return engine.getProfile();
+    }
+
+    /**
+     * Execute several LS over the same source and target KB, generating one mapping per LS. Atomic measures that
+     * occur in more than one LS, e.g. trigrams(x.label,y.label) with threshold 0.8 in one LS and 0.6 in another, are
+     * computed only once, with the lowest threshold of all LS that run them. The mappings of higher thresholds are
+     * obtained by filtering, see {@link AtomicMappingCache}. Value indexes of the mappers are shared by all LS, see
+     * {@link AMapper#retainIndexes(ACache)}.
+     *
+     * @param sourceCache Resources from source KB
+     * @param targetCache Resources from target KB
+     * @param specs LIMES Link Specifications
+     * @param sourceVar Name of SPARQL variable for resources from source KB
+     * @param targetVar Name of SPARQL variable for resources from target KB
+     * @param rewriterType Specifies rewriter module to use
+     * @param executionPlannerType Specifies executionPlanner module to use
+     * @param executionEngineType Specifies executionEngine module to use, must not be CHUNKED
+     * @return Mappings of resources in sourceCache to resources in targetCache, in the order of specs
+     */
+    public static List<AMapping> executeBatch(ACache sourceCache, ACache targetCache, List<LinkSpecification> specs,
+                                              String sourceVar, String targetVar,
+                                              RewriterFactory.RewriterType rewriterType,
+                                              ExecutionPlannerFactory.ExecutionPlannerType executionPlannerType,
+                                              ExecutionEngineFactory.ExecutionEngineType executionEngineType) {
+        if (executionEngineType == ExecutionEngineFactory.ExecutionEngineType.CHUNKED) {
+            throw new IllegalArgumentException("Batches can not be executed by a chunked execution engine");
+        }
+        Rewriter rw = RewriterFactory.getRewriter(rewriterType);
+        assert rw != null;
+        List<LinkSpecification> rwSpecs = new ArrayList<>(specs.size());
+        // lowest threshold of each distinct atomic measure that is run
+        Map<String, Double> runs = new LinkedHashMap<>();
+        for (LinkSpecification ls : specs) {
+            LinkSpecification rwLs = rw.rewrite(ls);
+            rwSpecs.add(rwLs);
+            Planner planner = ExecutionPlannerFactory.getPlanner(executionPlannerType, sourceCache, targetCache);
+            assert planner != null;
+            if (planner.isStatic()) {
+                for (Instruction inst : planner.plan(planner.normalize(rwLs)).getInstructionList()) {
+                    if (inst.getCommand().equals(Instruction.Command.RUN)) {
+                        addRun(runs, inst.getMeasureExpression(), Double.parseDouble(inst.getThreshold()));
+                    }
+                }
+            } else {
+                // the Dynamic planner decides while executing which leaves are run
+                for (LinkSpecification leaf : rwLs.getAllLeaves()) {
+                    if (leaf.getFilterExpression() != null && leaf.getThreshold() > 0) {
+                        addRun(runs, leaf.getFilterExpression(), leaf.getThreshold());
+                    }
+                }
+            }
+        }
+        AtomicMappingCache mappingCache = new AtomicMappingCache(Long.MAX_VALUE);
+        AMapper.retainIndexes(sourceCache);
+        AMapper.retainIndexes(targetCache);
+        try {
+            // engines keep per-execution state, hence every run has its own
+            List<Entry<String, Double>> runList = new ArrayList<>(runs.entrySet());
+            LinkingScheduler.forEach(runList.size(), i -> {
+                SimpleExecutionEngine runEngine = new SimpleExecutionEngine(sourceCache, targetCache, sourceVar,
+                        targetVar);
+                runEngine.setMappingCache(mappingCache);
+                runEngine.executeRun(new Instruction(Instruction.Command.RUN, runList.get(i).getKey(),
+                        String.valueOf(runList.get(i).getValue()), -1, -1, 0));
+            });
+            List<AMapping> result = new ArrayList<>(rwSpecs.size());
+            for (LinkSpecification rwLs : rwSpecs) {
+                Planner planner = ExecutionPlannerFactory.getPlanner(executionPlannerType, sourceCache, targetCache);
+                ExecutionEngine engine = ExecutionEngineFactory.getEngine(executionEngineType, sourceCache,
+                        targetCache, sourceVar, targetVar);
+                assert engine != null;
+                engine.setMappingCache(mappingCache);
+                result.add(engine.execute(rwLs, planner));
+            }
+            return result;
+        } finally {
+            AMapper.releaseIndexes(targetCache);
+            AMapper.releaseIndexes(sourceCache);
+        }
+    }
+
+    private static void addRun(Map<String, Double> runs, String measureExpression, double threshold) {
+        runs.merge(measureExpression.replaceAll("\\s", ""), threshold, Math::min);
+    }
+
     /**
      * Execute a given LS with default rewriter, planner and execution engine,
      * generating a mapping.
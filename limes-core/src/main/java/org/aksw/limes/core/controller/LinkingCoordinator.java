@@ -0,0 +1,260 @@
+package org.aksw.limes.core.controller;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map.Entry;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.aksw.limes.core.execution.engine.ChunkedExecutionEngine;
+import org.aksw.limes.core.execution.engine.ExecutionEngineFactory;
+import org.aksw.limes.core.execution.planning.planner.ExecutionPlannerFactory;
+import org.aksw.limes.core.execution.rewriter.RewriterFactory;
+import org.aksw.limes.core.io.cache.ACache;
+import org.aksw.limes.core.io.cache.BinaryCacheFile;
+import org.aksw.limes.core.io.cache.ColumnarCache;
+import org.aksw.limes.core.io.cache.Instance;
+import org.aksw.limes.core.io.cache.MemoryCache;
+import org.aksw.limes.core.io.ls.LinkSpecification;
+import org.aksw.limes.core.io.mapping.AMapping;
+import org.aksw.limes.core.io.mapping.BinaryMappingFile;
+import org.aksw.limes.core.io.mapping.ILinkSink;
+import org.aksw.limes.core.io.mapping.MappingLinkSink;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Coordinator of distributed linking. The source cache is split into one
+ * partition per worker, by the hash of the URIs or of a blocking property.
+ * Each partition is sent together with the whole target cache to a
+ * {@link LinkingWorker}, which runs {@link LSPipeline#execute} on it. The
+ * workers run at the same time; the mappings they return are passed to a
+ * sink one after the other. Since every source instance is linked by exactly
+ * one worker, the merged mapping equals the mapping of a local execution.
+ * <br>
+ * Workers are plain JVMs started with {@code java -cp limes-core.jar
+ * org.aksw.limes.core.controller.LinkingWorker <port>} or with the
+ * {@code -w <port>} option of the {@link Controller}, on this machine or any
+ * other machine the coordinator can reach. Workers only accept connections
+ * from the same machine unless they are bound to another address, see
+ * {@link LinkingWorker} for the trust model.
+ */
+public class LinkingCoordinator {
+
+    private static final Logger logger = LoggerFactory.getLogger(LinkingCoordinator.class);
+
+    private final List<InetSocketAddress> workers;
+    private String blockingProperty = null;
+
+    /**
+     * Constructor
+     *
+     * @param workers
+     *            Addresses of the workers
+     */
+    public LinkingCoordinator(List<InetSocketAddress> workers) {
+        if (workers.isEmpty()) {
+            throw new IllegalArgumentException("At least one worker is needed");
+        }
+        this.workers = new ArrayList<>(workers);
+    }
+
+    /**
+     * Parses a list of worker addresses.
+     *
+     * @param addresses
+     *            Comma-separated list of host:port pairs
+     * @return the worker addresses
+     */
+    public static List<InetSocketAddress> parseWorkers(String addresses) {
+        List<InetSocketAddress> result = new ArrayList<>();
+        for (String address : addresses.split(",")) {
+            address = address.trim();
+            int colon = address.lastIndexOf(':');
+            if (colon <= 0) {
+                throw new IllegalArgumentException("Worker address " + address + " is not of the form host:port");
+            }
+            result.add(new InetSocketAddress(address.substring(0, colon),
+                    Integer.parseInt(address.substring(colon + 1))));
+        }
+        return result;
+    }
+
+    /**
+     * Partitions the source cache by a blocking property instead of the URIs,
+     * so that source instances with the same first value of the property are
+     * linked by the same worker.
+     *
+     * @param blockingProperty
+     *            Source property, null to partition by URI
+     */
+    public void setBlockingProperty(String blockingProperty) {
+        this.blockingProperty = blockingProperty;
+    }
+
+    public String getBlockingProperty() {
+        return blockingProperty;
+    }
+
+    /**
+     * Executes a LS on the workers and collects the links in a mapping.
+     *
+     * @param sourceCache Resources from source KB
+     * @param targetCache Resources from target KB
+     * @param ls LIMES Link Specification
+     * @param sourceVar Name of SPARQL variable for resources from source KB
+     * @param targetVar Name of SPARQL variable for resources from target KB
+     * @param rewriterType Specifies rewriter module the workers use
+     * @param executionPlannerType Specifies executionPlanner module the workers use
+     * @param executionEngineType Specifies executionEngine module the workers use
+     * @return Mapping of resources in sourceCache to resources in targetCache with similarity &gt; threshold
+     */
+    public AMapping execute(ACache sourceCache, ACache targetCache, LinkSpecification ls, String sourceVar,
+                            String targetVar, RewriterFactory.RewriterType rewriterType,
+                            ExecutionPlannerFactory.ExecutionPlannerType executionPlannerType,
+                            ExecutionEngineFactory.ExecutionEngineType executionEngineType) {
+        MappingLinkSink sink = new MappingLinkSink();
+        execute(sourceCache, targetCache, ls, sourceVar, targetVar, rewriterType, executionPlannerType,
+                executionEngineType, sink);
+        return sink.getMapping();
+    }
+
+    /**
+     * Executes a LS on the workers and passes the links returned by the
+     * workers to a sink. The sink is not closed.
+     *
+     * @param sourceCache Resources from source KB
+     * @param targetCache Resources from target KB
+     * @param ls LIMES Link Specification
+     * @param sourceVar Name of SPARQL variable for resources from source KB
+     * @param targetVar Name of SPARQL variable for resources from target KB
+     * @param rewriterType Specifies rewriter module the workers use
+     * @param executionPlannerType Specifies executionPlanner module the workers use
+     * @param executionEngineType Specifies executionEngine module the workers use
+     * @param sink Receives the links of resources in sourceCache to resources in targetCache with similarity &gt; threshold
+     */
+    public void execute(ACache sourceCache, ACache targetCache, LinkSpecification ls, String sourceVar,
+                        String targetVar, RewriterFactory.RewriterType rewriterType,
+                        ExecutionPlannerFactory.ExecutionPlannerType executionPlannerType,
+                        ExecutionEngineFactory.ExecutionEngineType executionEngineType, ILinkSink sink) {
+        List<ACache> partitions = partition(sourceCache);
+        // the target cache is converted once and streamed to every worker
+        ColumnarCache target = toColumnarCache(targetCache);
+        ExecutorService executor = Executors.newFixedThreadPool(workers.size());
+        try {
+            List<Future<AMapping>> results = new ArrayList<>();
+            for (int w = 0; w < workers.size(); w++) {
+                InetSocketAddress worker = workers.get(w);
+                ACache partition = partitions.get(w);
+                if (partition.size() == 0) {
+                    continue;
+                }
+                results.add(executor.submit(() -> runTask(worker, partition, target, ls, sourceVar, targetVar,
+                        rewriterType, executionPlannerType, executionEngineType)));
+            }
+            for (Future<AMapping> result : results) {
+                AMapping m = result.get();
+                for (Entry<String, HashMap<String, Double>> s : m.getMap().entrySet()) {
+                    for (Entry<String, Double> t : s.getValue().entrySet()) {
+                        sink.addLink(s.getKey(), t.getKey(), t.getValue());
+                    }
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException(e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw new RuntimeException(e.getCause());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private List<ACache> partition(ACache sourceCache) {
+        List<ACache> partitions = new ArrayList<>(workers.size());
+        for (int w = 0; w < workers.size(); w++) {
+            partitions.add(new MemoryCache());
+        }
+        Iterator<Instance> instances = sourceCache.iterateInstances();
+        while (instances.hasNext()) {
+            Instance i = instances.next();
+            partitions.get(ChunkedExecutionEngine.getPartition(i, blockingProperty, workers.size())).addInstance(i);
+        }
+        return partitions;
+    }
+
+    /**
+     * @return the cache itself if it is a {@link ColumnarCache}, else a
+     *         columnar copy that {@link BinaryCacheFile} can write without
+     *         converting it again for every worker
+     */
+    private static ColumnarCache toColumnarCache(ACache cache) {
+        if (cache instanceof ColumnarCache) {
+            return (ColumnarCache) cache;
+        }
+        ColumnarCache result = new ColumnarCache(cache.size());
+        Iterator<Instance> instances = cache.iterateInstances();
+        while (instances.hasNext()) {
+            result.addInstance(instances.next());
+        }
+        return result;
+    }
+
+    private static AMapping runTask(InetSocketAddress worker, ACache source, ColumnarCache target,
+                                    LinkSpecification ls,
+                                    String sourceVar, String targetVar, RewriterFactory.RewriterType rewriterType,
+                                    ExecutionPlannerFactory.ExecutionPlannerType executionPlannerType,
+                                    ExecutionEngineFactory.ExecutionEngineType executionEngineType) {
+        logger.info("Sending " + source.size() + " source instances to worker " + worker);
+        try (Socket socket = new Socket(worker.getAddress(), worker.getPort());
+             DataOutputStream out = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream(), 1 << 16));
+             DataInputStream in = new DataInputStream(new BufferedInputStream(socket.getInputStream(), 1 << 16))) {
+            try {
+                out.writeInt(LinkingWorker.MAGIC);
+                out.writeInt(LinkingWorker.PROTOCOL_VERSION);
+                out.writeUTF(ls.getFullExpression());
+                out.writeDouble(ls.getThreshold());
+                out.writeUTF(sourceVar);
+                out.writeUTF(targetVar);
+                out.writeUTF(rewriterType.name());
+                out.writeUTF(executionPlannerType.name());
+                out.writeUTF(executionEngineType.name());
+                BinaryCacheFile.write(source, out);
+                BinaryCacheFile.write(target, out);
+                out.flush();
+            } catch (IOException e) {
+                // the worker may have rejected the task before reading all of it
+                try {
+                    if (in.readByte() != LinkingWorker.OK) {
+                        throw new RuntimeException("Worker " + worker + " failed: " + in.readUTF());
+                    }
+                } catch (IOException ignored) {
+                }
+                throw e;
+            }
+            if (in.readByte() != LinkingWorker.OK) {
+                throw new RuntimeException("Worker " + worker + " failed: " + in.readUTF());
+            }
+            AMapping m = BinaryMappingFile.read(in);
+            logger.info("Worker " + worker + " returned " + m.size() + " links");
+            return m;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Communication with worker " + worker + " failed", e);
+        }
+    }
+}
@@ -0,0 +1,239 @@
+package org.aksw.limes.core.controller;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import org.aksw.limes.core.execution.engine.ExecutionEngineFactory;
+import org.aksw.limes.core.execution.planning.planner.ExecutionPlannerFactory;
+import org.aksw.limes.core.execution.rewriter.RewriterFactory;
+import org.aksw.limes.core.io.cache.ACache;
+import org.aksw.limes.core.io.cache.BinaryCacheFile;
+import org.aksw.limes.core.io.ls.LinkSpecification;
+import org.aksw.limes.core.io.mapping.AMapping;
+import org.aksw.limes.core.io.mapping.BinaryMappingFile;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Worker process of distributed linking, see {@link LinkingCoordinator}. The
+ * worker listens on a TCP port. For each connection, it reads a linking task,
+ * runs {@link LSPipeline#execute} on it and sends the mapping back:
+ *
+ * <pre>
+ * request   magic, protocol version, metric expression, threshold,
+ *           source variable, target variable, rewriter, planner, engine,
+ *           source cache, target cache
+ * response  status; the mapping if the status is OK, else an error message
+ * </pre>
+ *
+ * Caches are sent in the format of {@link BinaryCacheFile}, mappings in the
+ * format of {@link BinaryMappingFile}, all other values as modified UTF-8
+ * strings and big-endian numbers. Connections are handled concurrently.
+ * <p>
+ * The protocol has no authentication and no encryption. Anyone who can
+ * connect to the port can make the worker compute link specifications on
+ * arbitrary data, which costs memory and CPU time, and can read the links
+ * of the tasks it sends. By default, a worker therefore only listens on the
+ * loopback interface. Bind it to another address only within a trusted
+ * network, e.g. a cluster behind a firewall or an SSH tunnel.
+ */
+public class LinkingWorker implements Closeable {
+
+    private static final Logger logger = LoggerFactory.getLogger(LinkingWorker.class);
+
+    /**
+     * "LIMW" in ASCII.
+     */
+    static final int MAGIC = 0x4C494D57;
+    static final int PROTOCOL_VERSION = 1;
+    static final byte OK = 0;
+    static final byte FAILED = 1;
+
+    private final ServerSocket serverSocket;
+    private final ExecutorService executor = Executors.newCachedThreadPool();
+    private Thread acceptor = null;
+
+    /**
+     * Opens the server socket of a worker on the loopback interface, so that
+     * only processes of the same machine can send tasks.
+     *
+     * @param port
+     *            Port to listen on, 0 for any free port
+     * @throws IOException
+     *             if the port can not be opened
+     */
+    public LinkingWorker(int port) throws IOException {
+        this(InetAddress.getLoopbackAddress(), port);
+    }
+
+    /**
+     * Opens the server socket of a worker on the given address. See the
+     * class description for the trust model.
+     *
+     * @param bindAddress
+     *            Local address to listen on, null for all interfaces
+     * @param port
+     *            Port to listen on, 0 for any free port
+     * @throws IOException
+     *             if the port can not be opened
+     */
+    public LinkingWorker(InetAddress bindAddress, int port) throws IOException {
+        serverSocket = new ServerSocket(port, 50, bindAddress);
+    }
+
+    /**
+     * @return the local address the worker listens on
+     */
+    public InetAddress getAddress() {
+        return serverSocket.getInetAddress();
+    }
+
+    /**
+     * @return the port the worker listens on
+     */
+    public int getPort() {
+        return serverSocket.getLocalPort();
+    }
+
+    /**
+     * Starts accepting tasks in a background thread.
+     */
+    public synchronized void start() {
+        if (acceptor != null) {
+            return;
+        }
+        acceptor = new Thread(this::acceptTasks, "limes-worker-" + getPort());
+        acceptor.start();
+        logger.info("LIMES worker listening on " + getAddress().getHostAddress() + " port " + getPort());
+    }
+
+    /**
+     * Waits until the worker is closed.
+     *
+     * @throws InterruptedException
+     *             if the waiting thread is interrupted
+     */
+    public void join() throws InterruptedException {
+        Thread t;
+        synchronized (this) {
+            t = acceptor;
+        }
+        if (t != null) {
+            t.join();
+        }
+    }
+
+    /**
+     * Stops accepting tasks. Tasks that are running are finished.
+     */
+    @Override
+    public void close() throws IOException {
+        serverSocket.close();
+        executor.shutdown();
+    }
+
+    private void acceptTasks() {
+        while (!serverSocket.isClosed()) {
+            try {
+                Socket socket = serverSocket.accept();
+                executor.execute(() -> handle(socket));
+            } catch (SocketException e) {
+                // the server socket was closed
+            } catch (IOException e) {
+                logger.error("Could not accept a connection: " + e.getMessage());
+            }
+        }
+    }
+
+    private void handle(Socket socket) {
+        try (Socket s = socket;
+                DataInputStream in = new DataInputStream(new BufferedInputStream(s.getInputStream(), 1 << 16));
+                DataOutputStream out = new DataOutputStream(
+                        new BufferedOutputStream(s.getOutputStream(), 1 << 16))) {
+            AMapping mapping;
+            try {
+                mapping = execute(in);
+            } catch (IOException | RuntimeException e) {
+                // e.g. a malformed task or another protocol version
+                logger.error("Linking task from " + s.getRemoteSocketAddress() + " failed", e);
+                out.writeByte(FAILED);
+                out.writeUTF(String.valueOf(e.getMessage()));
+                return;
+            }
+            out.writeByte(OK);
+            BinaryMappingFile.write(mapping, out);
+        } catch (IOException e) {
+            logger.error("Connection to " + socket.getRemoteSocketAddress() + " failed: " + e.getMessage());
+        }
+    }
+
+    private static AMapping execute(DataInputStream in) throws IOException {
+        if (in.readInt() != MAGIC) {
+            throw new IOException("Not a LIMES linking task");
+        }
+        int version = in.readInt();
+        if (version != PROTOCOL_VERSION) {
+            throw new IOException("Unsupported protocol version " + version + ", expected " + PROTOCOL_VERSION);
+        }
+        String expression = in.readUTF();
+        double threshold = in.readDouble();
+        String sourceVar = in.readUTF();
+        String targetVar = in.readUTF();
+        RewriterFactory.RewriterType rewriterType = RewriterFactory.RewriterType.valueOf(in.readUTF());
+        ExecutionPlannerFactory.ExecutionPlannerType plannerType = ExecutionPlannerFactory.ExecutionPlannerType
+                .valueOf(in.readUTF());
+        ExecutionEngineFactory.ExecutionEngineType engineType = ExecutionEngineFactory.ExecutionEngineType
+                .valueOf(in.readUTF());
+        ACache source = BinaryCacheFile.read(in);
+        ACache target = BinaryCacheFile.read(in);
+        logger.info("Linking " + source.size() + " source and " + target.size() + " target instances");
+        return LSPipeline.execute(source, target, new LinkSpecification(expression, threshold), sourceVar,
+                targetVar, rewriterType, plannerType, engineType);
+    }
+
+    /**
+     * Creates a worker for an address of the form <code>[host:]port</code>.
+     * Without a host, the worker listens on the loopback interface.
+     *
+     * @param address
+     *            Port or host and port to listen on
+     * @return the worker
+     * @throws IOException
+     *             if the port can not be opened
+     */
+    public static LinkingWorker create(String address) throws IOException {
+        int colon = address.lastIndexOf(':');
+        if (colon < 0) {
+            return new LinkingWorker(Integer.parseInt(address.trim()));
+        }
+        return new LinkingWorker(InetAddress.getByName(address.substring(0, colon).trim()),
+                Integer.parseInt(address.substring(colon + 1).trim()));
+    }
+
+    /**
+     * Starts a worker and waits until it is stopped.
+     *
+     * @param args
+     *            The port or host:port to listen on, 0 or none for any free
+     *            port on the loopback interface
+     * @throws Exception
+     *             if the worker can not be started
+     */
+    public static void main(String[] args) throws Exception {
+        LinkingWorker worker = create(args.length > 0 ? args[0] : "0");
+        worker.start();
+        // the port is read by coordinators that start their own workers
+        System.out.println("LIMES worker listening on port " + worker.getPort());
+        worker.join();
+    }
+}
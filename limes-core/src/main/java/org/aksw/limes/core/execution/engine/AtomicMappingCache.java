@@ -0,0 +1,429 @@
+package org.aksw.limes.core.execution.engine;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map.Entry;
+import java.util.WeakHashMap;
+
+import org.aksw.limes.core.io.cache.ACache;
+import org.aksw.limes.core.io.cache.Instance;
+import org.aksw.limes.core.io.mapping.AMapping;
+import org.aksw.limes.core.io.mapping.BinaryMappingFile;
+import org.aksw.limes.core.io.mapping.MappingFactory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Caches the mappings of atomic link specifications across executions. A
+ * mapping is stored under its measure expression, the source and target
+ * variables and SHA-256 fingerprints of the content of the source and target
+ * cache. Since a mapping
+ * computed with threshold t contains all links of the same measure with a
+ * similarity of at least t, a request with threshold t' &gt;= t is answered
+ * by filtering the cached mapping. Only the mapping with the lowest threshold
+ * is kept for each key. Mappings are evicted in least recently used order as
+ * soon as their estimated memory footprint exceeds the capacity. Optionally,
+ * mappings are also written to a folder and read from there in later runs.
+ * <br>
+ * The fingerprint of a cache object is computed again whenever the cache is
+ * modified, see {@link ACache#getVersion()}. Hence, instances returned by the
+ * caches must not be changed directly after their first use with a mapping
+ * cache.
+ */
+public class AtomicMappingCache {
+
+    static Logger logger = LoggerFactory.getLogger(AtomicMappingCache.class);
+    /**
+     * Default capacity in bytes.
+     */
+    public static final long DEFAULT_CAPACITY = 256L * 1024 * 1024;
+    /**
+     * Magic number at the start of every mapping file ("LIMA").
+     */
+    public static final int MAGIC = 0x4C494D41;
+    /**
+     * Version of the mapping file format, which stores the mapping in the
+     * {@link BinaryMappingFile} format. Files of other versions are ignored
+     * and overwritten.
+     */
+    public static final int VERSION = 1;
+    /**
+     * Estimated number of bytes needed for a link apart from its URIs.
+     */
+    private static final int LINK_OVERHEAD = 96;
+    private static final String EXTENSION = ".map";
+
+    private static AtomicMappingCache defaultCache = null;
+
+    private final long capacity;
+    private final File folder;
+    private long footprint = 0;
+    private int hits = 0;
+    private int misses = 0;
+    private final LinkedHashMap<String, CachedMapping> mappings = new LinkedHashMap<>(16, 0.75f, true);
+    private final WeakHashMap<ACache, Fingerprint> fingerprints = new WeakHashMap<>();
+
+    private static class CachedMapping {
+        final double threshold;
+        final AMapping mapping;
+        final long footprint;
+
+        CachedMapping(double threshold, AMapping mapping) {
+            this.threshold = threshold;
+            this.mapping = mapping;
+            this.footprint = footprint(mapping);
+        }
+    }
+
+    private static class Fingerprint {
+        final long version;
+        final String digest;
+
+        Fingerprint(long version, String digest) {
+            this.version = version;
+            this.digest = digest;
+        }
+    }
+
+    /**
+     * Constructor for a mapping cache that is kept in memory only.
+     *
+     * @param capacity
+     *            Maximal estimated memory footprint of all mappings in bytes
+     */
+    public AtomicMappingCache(long capacity) {
+        this(capacity, null);
+    }
+
+    /**
+     * Constructor for a mapping cache that also stores its mappings on disk.
+     *
+     * @param capacity
+     *            Maximal estimated memory footprint of all mappings in bytes
+     * @param folder
+     *            Folder for the mapping files, null for no persistence
+     */
+    public AtomicMappingCache(long capacity, File folder) {
+        this.capacity = capacity;
+        this.folder = folder;
+        if (folder != null && !folder.exists() && !folder.mkdirs()) {
+            logger.warn("Could not create mapping cache folder " + folder + ", mappings are not persisted.");
+        }
+    }
+
+    /**
+     * @return the mapping cache shared by the machine learning algorithms
+     */
+    public static synchronized AtomicMappingCache getDefault() {
+        if (defaultCache == null) {
+            defaultCache = new AtomicMappingCache(DEFAULT_CAPACITY);
+        }
+        return defaultCache;
+    }
+
+    /**
+     * Interface for computing the mapping of an atomic link specification.
+     */
+    public interface MappingSupplier {
+        AMapping compute(double threshold);
+    }
+
+    /**
+     * Returns the links of an atomic measure with a similarity of at least
+     * threshold, computing them only if no cached mapping with a lower or
+     * equal threshold exists.
+     *
+     * @param source
+     *            Source cache
+     * @param target
+     *            Target cache
+     * @param sourceVar
+     *            Source variable
+     * @param targetVar
+     *            Target variable
+     * @param measureExpression
+     *            Atomic measure expression, e.g. trigram(x.label,y.label)
+     * @param threshold
+     *            Similarity threshold
+     * @param supplier
+     *            Computes the mapping on a cache miss
+     * @return a new mapping that may be changed by the caller
+     */
+    public AMapping getMapping(ACache source, ACache target, String sourceVar, String targetVar,
+            String measureExpression, double threshold, MappingSupplier supplier) {
+        String key = getKey(source, target, sourceVar, targetVar, measureExpression);
+        CachedMapping cached;
+        synchronized (this) {
+            cached = mappings.get(key);
+        }
+        if (cached == null) {
+            cached = read(key);
+            if (cached != null) {
+                put(key, cached);
+            }
+        }
+        if (cached != null && cached.threshold <= threshold) {
+            synchronized (this) {
+                hits++;
+            }
+            return subMap(cached.mapping, threshold);
+        }
+        synchronized (this) {
+            misses++;
+        }
+        AMapping computed = supplier.compute(threshold);
+        CachedMapping entry = new CachedMapping(threshold, subMap(computed, threshold));
+        put(key, entry);
+        write(key, entry);
+        return computed;
+    }
+
+    /**
+     * @return the number of requests answered from the cache
+     */
+    public synchronized int getHits() {
+        return hits;
+    }
+
+    /**
+     * @return the number of requests that were computed
+     */
+    public synchronized int getMisses() {
+        return misses;
+    }
+
+    /**
+     * @return the estimated memory footprint of all cached mappings in bytes
+     */
+    public synchronized long getFootprint() {
+        return footprint;
+    }
+
+    /**
+     * Removes all mappings from memory. Mapping files are kept.
+     */
+    public synchronized void clear() {
+        mappings.clear();
+        footprint = 0;
+    }
+
+    private synchronized void put(String key, CachedMapping entry) {
+        CachedMapping old = mappings.get(key);
+        if (old != null && old.threshold <= entry.threshold) {
+            // a concurrent request already cached a larger mapping
+            return;
+        }
+        if (old != null) {
+            footprint -= old.footprint;
+        }
+        mappings.put(key, entry);
+        footprint += entry.footprint;
+        Iterator<CachedMapping> it = mappings.values().iterator();
+        while (footprint > capacity && it.hasNext()) {
+            CachedMapping evicted = it.next();
+            it.remove();
+            footprint -= evicted.footprint;
+        }
+    }
+
+    private String getKey(ACache source, ACache target, String sourceVar, String targetVar,
+            String measureExpression) {
+        return getFingerprint(source) + "|" + getFingerprint(target) + "|" + sourceVar + "|" + targetVar + "|" + measureExpression.replaceAll("\\s", "");
+    }
+
+    /**
+     * Computes a SHA-256 fingerprint of the content of a cache that does not
+     * depend on the order of its instances and properties. Each instance is
+     * digested with its URI, properties and values in sorted order, the
+     * instance digests are summed up in four 64-bit lanes and the sums are
+     * digested together with the number of instances. The instances are read
+     * one at a time with {@link ACache#iterateInstances()}.
+     */
+    private String getFingerprint(ACache cache) {
+        long version = cache.getVersion();
+        synchronized (fingerprints) {
+            Fingerprint fingerprint = fingerprints.get(cache);
+            if (fingerprint != null && fingerprint.version == version) {
+                return fingerprint.digest;
+            }
+        }
+        MessageDigest digest = sha256();
+        long[] sum = new long[4];
+        long count = 0;
+        for (Iterator<Instance> it = cache.iterateInstances(); it.hasNext();) {
+            Instance instance = it.next();
+            update(digest, instance.getUri());
+            List<String> properties = new ArrayList<>(instance.getAllProperties());
+            Collections.sort(properties);
+            for (String p : properties) {
+                update(digest, p);
+                digest.update(toBytes(instance.getProperty(p).size()));
+                // the values of an instance are sorted
+                for (String value : instance.getProperty(p)) {
+                    update(digest, value);
+                }
+            }
+            byte[] h = digest.digest();
+            for (int lane = 0; lane < 4; lane++) {
+                long v = 0;
+                for (int i = 0; i < 8; i++) {
+                    v = v << 8 | (h[lane * 8 + i] & 0xff);
+                }
+                sum[lane] += v;
+            }
+            count++;
+        }
+        digest.update(toBytes(count));
+        for (long lane : sum) {
+            digest.update(toBytes(lane));
+        }
+        StringBuilder result = new StringBuilder();
+        for (byte b : digest.digest()) {
+            result.append(Character.forDigit((b >> 4) & 0xf, 16)).append(Character.forDigit(b & 0xf, 16));
+        }
+        synchronized (fingerprints) {
+            fingerprints.put(cache, new Fingerprint(version, result.toString()));
+        }
+        return result.toString();
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            // every Java platform supports SHA-256
+            throw new RuntimeException(e);
+        }
+    }
+
+    /**
+     * Adds a string with its length to a digest, so that the boundaries of
+     * consecutive strings are part of the digest.
+     */
+    private static void update(MessageDigest digest, String value) {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        digest.update(toBytes(bytes.length));
+        digest.update(bytes);
+    }
+
+    private static byte[] toBytes(long value) {
+        byte[] bytes = new byte[8];
+        for (int i = 7; i >= 0; i--) {
+            bytes[i] = (byte) value;
+            value >>>= 8;
+        }
+        return bytes;
+    }
+
+    private static long mix(long h) {
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        return h ^ (h >>> 33);
+    }
+
+    private static AMapping subMap(AMapping mapping, double threshold) {
+        AMapping result = MappingFactory.createDefaultMapping();
+        for (Entry<String, HashMap<String, Double>> s : mapping.getMap().entrySet()) {
+            for (Entry<String, Double> t : s.getValue().entrySet()) {
+                if (t.getValue() >= threshold) {
+                    result.add(s.getKey(), t.getKey(), t.getValue());
+                }
+            }
+        }
+        return result;
+    }
+
+    private static long footprint(AMapping mapping) {
+        long result = 0;
+        for (Entry<String, HashMap<String, Double>> s : mapping.getMap().entrySet()) {
+            result += LINK_OVERHEAD + 2 * s.getKey().length();
+            for (String t : s.getValue().keySet()) {
+                result += LINK_OVERHEAD + 2 * t.length();
+            }
+        }
+        return result;
+    }
+
+    private File getFile(String key) {
+        long h = 1125899906842597L;
+        for (int i = 0; i < key.length(); i++) {
+            h = 31 * h + key.charAt(i);
+        }
+        return new File(folder, Long.toHexString(mix(h)) + EXTENSION);
+    }
+
+    private CachedMapping read(String key) {
+        if (folder == null || !getFile(key).exists()) {
+            return null;
+        }
+        try (DataInputStream in = new DataInputStream(
+                new BufferedInputStream(new FileInputStream(getFile(key))))) {
+            if (in.readInt() != MAGIC) {
+                logger.warn(getFile(key) + " is not a mapping file, ignoring it.");
+                return null;
+            }
+            int version = in.readInt();
+            if (version != VERSION) {
+                logger.info("Ignoring mapping file " + getFile(key) + " of version " + version + ", expected "
+                        + VERSION);
+                return null;
+            }
+            if (!in.readUTF().equals(key)) {
+                // hash collision of the file names
+                return null;
+            }
+            double threshold = in.readDouble();
+            AMapping mapping = BinaryMappingFile.read(in);
+            return new CachedMapping(threshold, mapping);
+        } catch (IOException e) {
+            logger.warn("Could not read mapping file " + getFile(key) + ": " + e.getMessage());
+            return null;
+        }
+    }
+
+    private void write(String key, CachedMapping entry) {
+        if (folder == null || !folder.isDirectory()) {
+            return;
+        }
+        File file = getFile(key);
+        File tmp = new File(folder, file.getName() + "." + Thread.currentThread().getId() + ".tmp");
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(tmp)))) {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeUTF(key);
+            out.writeDouble(entry.threshold);
+            BinaryMappingFile.write(entry.mapping, out);
+        } catch (IOException e) {
+            logger.warn("Could not write mapping file " + file + ": " + e.getMessage());
+            tmp.delete();
+            return;
+        }
+        try {
+            // readers never see a partially written file
+            Files.move(tmp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING,
+                    StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            logger.warn("Could not write mapping file " + file + ": " + e.getMessage());
+            tmp.delete();
+        }
+    }
+}
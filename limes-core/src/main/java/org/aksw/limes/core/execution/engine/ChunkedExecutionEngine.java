@@ -0,0 +1,355 @@
+package org.aksw.limes.core.execution.engine;
+
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+import org.aksw.limes.core.execution.engine.ExecutionEngineFactory.ExecutionEngineType;
+import org.aksw.limes.core.execution.planning.plan.NestedPlan;
+import org.aksw.limes.core.execution.planning.planner.DynamicPlanner;
+import org.aksw.limes.core.execution.planning.planner.IPlanner;
+import org.aksw.limes.core.io.cache.ACache;
+import org.aksw.limes.core.io.cache.Instance;
+import org.aksw.limes.core.io.cache.MemoryCache;
+import org.aksw.limes.core.io.ls.LinkSpecification;
+import org.aksw.limes.core.io.mapping.AMapping;
+import org.aksw.limes.core.io.mapping.ILinkSink;
+import org.aksw.limes.core.io.mapping.MappingLinkSink;
+import org.aksw.limes.core.measures.mapper.AMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Execution engine for source caches that are too large to be linked at once.
+ * The source cache is split into chunks and the link specification is
+ * executed for each chunk against the complete target cache, one chunk after
+ * the other. The links of a chunk are passed to the sink as soon as the chunk
+ * is done, hence only one chunk, the target cache and the links of one chunk
+ * are held in memory.
+ * <br>
+ * The source instances are read with {@link ACache#iterateInstances()}. For a
+ * cache loaded from a binary cache file, instances are materialized only
+ * while their chunk is executed. Chunks are either consecutive instances of
+ * the source cache or, if a blocking property is set, the instances whose
+ * first value of that property has the same hash modulo the number of chunks.
+ * In the latter case, the source is read once per chunk.
+ * <br>
+ * The specification is planned once for the whole source cache by static
+ * planners; the Dynamic planner plans each chunk anew. The value indexes that
+ * mappers build for the target cache are kept across chunks, see
+ * {@link AMapper#retainIndexes(ACache)}. Each chunk is executed by an engine
+ * of the chosen chunk engine type.
+ */
+public class ChunkedExecutionEngine extends ExecutionEngine {
+
+    static Logger logger = LoggerFactory.getLogger(ChunkedExecutionEngine.class);
+
+    /**
+     * Default number of source instances per chunk.
+     */
+    public static final int DEFAULT_CHUNK_SIZE = 100000;
+
+    private int chunkSize = DEFAULT_CHUNK_SIZE;
+    private String blockingProperty = null;
+    private ExecutionEngineType chunkEngineType = ExecutionEngineType.SIMPLE;
+
+    /**
+     * Constructor for a chunked execution engine.
+     *
+     * @param source
+     *            Source cache
+     * @param target
+     *            Target cache
+     * @param sourceVar
+     *            Source variable
+     * @param targetVar
+     *            Target variable
+     */
+    public ChunkedExecutionEngine(ACache source, ACache target, String sourceVar, String targetVar) {
+        super(source, target, sourceVar, targetVar);
+    }
+
+    /**
+     * @param chunkSize
+     *            Number of source instances per chunk
+     */
+    public void setChunkSize(int chunkSize) {
+        if (chunkSize <= 0) {
+            throw new IllegalArgumentException("Chunk size must be positive, got " + chunkSize);
+        }
+        this.chunkSize = chunkSize;
+    }
+
+    public int getChunkSize() {
+        return chunkSize;
+    }
+
+    /**
+     * Partitions the source cache by a blocking property instead of its
+     * order. Source instances with the same first value of the property are
+     * executed in the same chunk. Chunks have the chunk size on average, but
+     * a frequent value makes its chunk larger.
+     *
+     * @param blockingProperty
+     *            Source property, null to partition by size only
+     */
+    public void setBlockingProperty(String blockingProperty) {
+        this.blockingProperty = blockingProperty;
+    }
+
+    public String getBlockingProperty() {
+        return blockingProperty;
+    }
+
+    /**
+     * @param chunkEngineType
+     *            Type of the engines that execute the chunks
+     */
+    public void setChunkEngineType(ExecutionEngineType chunkEngineType) {
+        if (chunkEngineType == ExecutionEngineType.CHUNKED) {
+            throw new IllegalArgumentException("Chunks can not be executed by a chunked execution engine");
+        }
+        this.chunkEngineType = chunkEngineType;
+    }
+
+    public ExecutionEngineType getChunkEngineType() {
+        return chunkEngineType;
+    }
+
+    /**
+     * Executes a link specification chunk by chunk and collects the links of
+     * all chunks in a mapping. Use
+     * {@link #execute(LinkSpecification, IPlanner, ILinkSink)} to keep the
+     * memory bounded.
+     *
+     * @param spec
+     *            The link specification, after it was re-written
+     * @param planner
+     *            The chosen planner
+     * @return The mapping obtained from executing the link specification
+     */
+    @Override
+    public AMapping execute(LinkSpecification spec, IPlanner planner) {
+        MappingLinkSink sink = new MappingLinkSink();
+        execute(spec, planner, sink);
+        return sink.getMapping();
+    }
+
+    /**
+     * Executes a link specification chunk by chunk and passes the links of
+     * each chunk to a sink. The sink is not closed.
+     *
+     * @param spec
+     *            The link specification, after it was re-written
+     * @param planner
+     *            The chosen planner
+     * @param sink
+     *            Sink that receives the links
+     */
+    @Override
+    public void execute(LinkSpecification spec, IPlanner planner, ILinkSink sink) {
+        ExecutionProfile root = null;
+        if (profiling) {
+            root = new ExecutionProfile(ExecutionProfile.SPECIFICATION, "CHUNKED " + spec.getFullExpression());
+            root.start();
+        }
+        profile = root;
+        CountingLinkSink counter = new CountingLinkSink(sink);
+        NestedPlan plan = null;
+        LinkSpecification chunkSpec = spec;
+        if (planner.isStatic()) {
+            chunkSpec = planner.normalize(spec);
+            plan = planner.plan(chunkSpec);
+        }
+        AMapper.retainIndexes(target);
+        try {
+            if (blockingProperty == null) {
+                executeChunks(source.iterateInstances(), true, chunkSpec, plan, counter);
+            } else {
+                int partitions = Math.max(1, (int) Math.ceil(source.size() / (double) chunkSize));
+                for (int partition = 0; partition < partitions; partition++) {
+                    executeChunks(new PartitionIterator(source.iterateInstances(), partition, partitions), false,
+                            chunkSpec, plan, counter);
+                }
+            }
+        } finally {
+            AMapper.releaseIndexes(target);
+        }
+        if (root != null) {
+            root.stop(source.size(), counter.count, (double) source.size() * target.size());
+        }
+    }
+
+    /**
+     * Collects the instances of an iterator into chunks and executes them.
+     *
+     * @param instances
+     *            Source instances
+     * @param split
+     *            True to start a new chunk every chunk size instances, false
+     *            to execute all instances in one chunk
+     * @param spec
+     *            The link specification, normalized for static planners
+     * @param plan
+     *            The plan of a static planner, null for the Dynamic planner
+     * @param sink
+     *            Sink that receives the links
+     */
+    private void executeChunks(Iterator<Instance> instances, boolean split, LinkSpecification spec, NestedPlan plan,
+            ILinkSink sink) {
+        ACache chunk = new MemoryCache();
+        while (instances.hasNext()) {
+            chunk.addInstance(instances.next());
+            if (split && chunk.size() >= chunkSize) {
+                executeChunk(chunk, spec, plan, sink);
+                chunk = new MemoryCache();
+            }
+        }
+        if (chunk.size() > 0) {
+            executeChunk(chunk, spec, plan, sink);
+        }
+    }
+
+    /**
+     * Executes the link specification for one chunk of the source cache.
+     *
+     * @param chunk
+     *            Source instances of the chunk
+     * @param spec
+     *            The link specification, normalized for static planners
+     * @param plan
+     *            The plan of a static planner, null for the Dynamic planner
+     * @param sink
+     *            Sink that receives the links
+     */
+    protected void executeChunk(ACache chunk, LinkSpecification spec, NestedPlan plan, ILinkSink sink) {
+        logger.info("Executing chunk of " + chunk.size() + " source instances");
+        ExecutionEngine engine = ExecutionEngineFactory.getEngine(chunkEngineType, chunk, target, sourceVariable,
+                targetVariable);
+        engine.setProfiling(profiling);
+        engine.setLanguage(language);
+        IPlanner planner = plan == null ? new DynamicPlanner(chunk, target) : new FixedPlanner(plan);
+        engine.execute(spec, planner, sink);
+        if (profiling && engine.getProfile() != null) {
+            profile.addChild(engine.getProfile());
+        }
+    }
+
+    /**
+     * Assigns a source instance to a partition, either by the hash of its
+     * URI or by the hash of the first value of a blocking property.
+     *
+     * @param instance
+     *            Source instance
+     * @param blockingProperty
+     *            Blocking property, null to partition by URI
+     * @param partitions
+     *            Number of partitions
+     * @return the partition of the instance, between 0 and partitions - 1
+     */
+    public static int getPartition(Instance instance, String blockingProperty, int partitions) {
+        String key;
+        if (blockingProperty == null) {
+            key = instance.getUri();
+        } else {
+            Set<String> values = instance.getProperty(blockingProperty);
+            key = values.isEmpty() ? "" : values.iterator().next();
+        }
+        return Math.floorMod(key.hashCode(), partitions);
+    }
+
+    /**
+     * Static planner that returns a plan computed before, so that all chunks
+     * are executed with the plan of the whole source cache.
+     */
+    private static class FixedPlanner implements IPlanner {
+
+        private final NestedPlan plan;
+
+        FixedPlanner(NestedPlan plan) {
+            this.plan = plan;
+        }
+
+        @Override
+        public NestedPlan plan(LinkSpecification spec) {
+            return plan;
+        }
+
+        @Override
+        public boolean isStatic() {
+            return true;
+        }
+
+        @Override
+        public LinkSpecification normalize(LinkSpecification spec) {
+            return spec;
+        }
+    }
+
+    /**
+     * Iterates over the instances of one partition of the source cache.
+     */
+    private class PartitionIterator implements Iterator<Instance> {
+
+        private final Iterator<Instance> instances;
+        private final int partition;
+        private final int partitions;
+        private Instance next;
+
+        PartitionIterator(Iterator<Instance> instances, int partition, int partitions) {
+            this.instances = instances;
+            this.partition = partition;
+            this.partitions = partitions;
+            advance();
+        }
+
+        private void advance() {
+            next = null;
+            while (next == null && instances.hasNext()) {
+                Instance i = instances.next();
+                if (getPartition(i, blockingProperty, partitions) == partition) {
+                    next = i;
+                }
+            }
+        }
+
+        @Override
+        public boolean hasNext() {
+            return next != null;
+        }
+
+        @Override
+        public Instance next() {
+            if (next == null) {
+                throw new NoSuchElementException();
+            }
+            Instance result = next;
+            advance();
+            return result;
+        }
+    }
+
+    /**
+     * Passes links to another sink and counts them.
+     */
+    private static class CountingLinkSink implements ILinkSink {
+
+        private final ILinkSink sink;
+        private long count = 0;
+
+        CountingLinkSink(ILinkSink sink) {
+            this.sink = sink;
+        }
+
+        @Override
+        public synchronized void addLink(String source, String target, double confidence) {
+            count++;
+            sink.addLink(source, target, confidence);
+        }
+
+        @Override
+        public void close() {
+            sink.close();
+        }
+    }
+}
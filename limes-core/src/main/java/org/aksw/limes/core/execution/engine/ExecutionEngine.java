@@ -1,10 +1,17 @@
 package org.aksw.limes.core.execution.engine;
 
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map.Entry;
 
+import org.aksw.limes.core.execution.planning.planner.CostModel;
+import org.aksw.limes.core.execution.planning.planner.IPlanner;
 import org.aksw.limes.core.io.cache.ACache;
+import org.aksw.limes.core.io.ls.LinkSpecification;
 import org.aksw.limes.core.io.mapping.AMapping;
+import org.aksw.limes.core.io.mapping.ILinkSink;
+import org.aksw.limes.core.measures.mapper.IMapper.Language;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -39,6 +46,25 @@ public abstract class ExecutionEngine implements IExecutionEngine {
      * Target cache.
      */
     protected ACache target;
+    /**
+     * Cache for the mappings of atomic link specifications, null if mappings
+     * are always computed.
+     */
+    protected AtomicMappingCache mappingCache = null;
+    /**
+     * Language of the source and target data. The runtimes of atomic
+     * measures are recorded for this language in the {@link CostModel}.
+     * Defaults to the language assumed by the planners.
+     */
+    protected Language language = Language.EN;
+    /**
+     * True if the execution is profiled.
+     */
+    protected boolean profiling = false;
+    /**
+     * Profile of the last execution, null if it was not profiled.
+     */
+    protected ExecutionProfile profile = null;
 
     /**
      * Constructor for an execution engine.
@@ -59,4 +85,99 @@ public abstract class ExecutionEngine implements IExecutionEngine {
         this.sourceVariable = sourceVar;
         this.targetVariable = targetVar;
     }
+
+    /**
+     * Sets the cache used for the mappings of atomic link specifications.
+     *
+     * @param mappingCache
+     *            Mapping cache, null to always compute the mappings
+     */
+    public void setMappingCache(AtomicMappingCache mappingCache) {
+        this.mappingCache = mappingCache;
+    }
+
+    /**
+     * @return the cache used for the mappings of atomic link specifications,
+     *         null if there is none
+     */
+    public AtomicMappingCache getMappingCache() {
+        return mappingCache;
+    }
+
+    /**
+     * Sets the language of the source and target data.
+     *
+     * @param language
+     *            Language of the data, {@link Language#NULL} if unknown
+     */
+    public void setLanguage(Language language) {
+        this.language = language;
+    }
+
+    /**
+     * @return the language of the source and target data
+     */
+    public Language getLanguage() {
+        return language;
+    }
+
+    /**
+     * Enables or disables profiling. A profiled execution records the wall
+     * time, CPU time, mapping sizes and selectivities of every executed
+     * nested plan and instruction, see {@link ExecutionProfile}.
+     *
+     * @param profiling
+     *            true to profile the following executions
+     */
+    public void setProfiling(boolean profiling) {
+        this.profiling = profiling;
+    }
+
+    /**
+     * @return true if the executions are profiled
+     */
+    public boolean isProfiling() {
+        return profiling;
+    }
+
+    /**
+     * @return the profile of the last execution, null if it was not profiled
+     */
+    public ExecutionProfile getProfile() {
+        return profile;
+    }
+
+    /**
+     * Executes a link specification and passes the links of the result to a
+     * sink. Engines that can emit the links of the last step of a plan while
+     * computing it override this method. By default, the result mapping is
+     * computed as a whole and its links are passed to the sink afterwards.
+     * The sink is not closed.
+     *
+     * @param spec
+     *            The link specification, after it was re-written
+     * @param planner
+     *            The chosen planner
+     * @param sink
+     *            Sink that receives the links
+     */
+    public void execute(LinkSpecification spec, IPlanner planner, ILinkSink sink) {
+        emit(execute(spec, planner), sink);
+    }
+
+    /**
+     * Passes all links of a mapping to a sink.
+     *
+     * @param m
+     *            Mapping whose links are passed
+     * @param sink
+     *            Sink that receives the links
+     */
+    protected static void emit(AMapping m, ILinkSink sink) {
+        for (Entry<String, HashMap<String, Double>> s : m.getMap().entrySet()) {
+            for (Entry<String, Double> t : s.getValue().entrySet()) {
+                sink.addLink(s.getKey(), t.getKey(), t.getValue());
+            }
+        }
+    }
 }
@@ -19,7 +19,7 @@ public class ExecutionEngineFactory {
      * Enum class of allowed execution engine types.
      */
     public enum ExecutionEngineType {
-        DEFAULT, SIMPLE
+        DEFAULT, SIMPLE, PARALLEL, CHUNKED
     }
 
     /**
@@ -30,6 +30,14 @@ public class ExecutionEngineFactory {
      * Execution engine factory field for simple execution engine.
      */
     public static final String SIMPLE = "simple";
+    /**
+     * Execution engine factory field for parallel execution engine.
+     */
+    public static final String PARALLEL = "parallel";
+    /**
+     * Execution engine factory field for chunked execution engine.
+     */
+    public static final String CHUNKED = "chunked";
 
     /**
      * Factory function for retrieving an execution engine name from
@@ -46,6 +54,12 @@ public class ExecutionEngineFactory {
         if (name.equalsIgnoreCase(SIMPLE)) {
             return ExecutionEngineType.SIMPLE;
         }
+        if (name.equalsIgnoreCase(PARALLEL)) {
+            return ExecutionEngineType.PARALLEL;
+        }
+        if (name.equalsIgnoreCase(CHUNKED)) {
+            return ExecutionEngineType.CHUNKED;
+        }
         logger.error(
                 "Sorry, " + name + " is not yet implemented. Returning the default execution engine type instead...");
         return ExecutionEngineType.DEFAULT;
@@ -73,6 +87,10 @@ public class ExecutionEngineFactory {
             case DEFAULT:
             case SIMPLE:
                 return new SimpleExecutionEngine(source, target, sourceVar, targetVar);
+            case PARALLEL:
+                return new ParallelExecutionEngine(source, target, sourceVar, targetVar);
+            case CHUNKED:
+                return new ChunkedExecutionEngine(source, target, sourceVar, targetVar);
             default:
                 logger.error(
                         "Sorry, " + type + " is not yet implemented. Returning the default execution engine instead...");
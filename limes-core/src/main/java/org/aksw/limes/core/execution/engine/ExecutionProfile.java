@@ -0,0 +1,336 @@
+package org.aksw.limes.core.execution.engine;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+
+import org.aksw.limes.core.execution.planning.plan.Instruction;
+import org.aksw.limes.core.execution.planning.plan.NestedPlan;
+import org.aksw.limes.core.execution.planning.plan.Plan;
+
+/**
+ * Node of the profile of an executed link specification, the counterpart of
+ * EXPLAIN ANALYZE in databases. Each node belongs to an executed instruction,
+ * nested plan or (for the Dynamic planner) link specification and records
+ * its wall time, CPU time, the sizes of its input and output mappings, its
+ * actual selectivity and the selectivity, mapping size and runtime estimated
+ * by the planner. The children of a nested plan are its sub-plans, its
+ * instructions and its operator and filter.
+ * <br>
+ * The mappers do not count the similarity computations they perform, hence
+ * the comparisons are only known for instructions that work on mappings:
+ * filters compare every input link, set operators look up every input link.
+ * For RUN instructions, the number of comparisons is -1. The actual
+ * selectivity of all nodes is relative to the candidate pairs |S| * |T|.
+ */
+public class ExecutionProfile {
+
+    public static final String SPECIFICATION = "specification";
+    public static final String PLAN = "plan";
+    public static final String INSTRUCTION = "instruction";
+    public static final String OPERATOR = "operator";
+
+    private static final ThreadMXBean THREADS = ManagementFactory.getThreadMXBean();
+
+    private final String type;
+    private final String label;
+    private final List<ExecutionProfile> children = new ArrayList<>();
+
+    private long beginWall;
+    private long beginCpu;
+    private double wallTime = 0;
+    private double cpuTime = -1;
+    private long inputSize = 0;
+    private long outputSize = 0;
+    private long comparisons = -1;
+    private double pairs = 0;
+    private double estimatedRuntime = Double.NaN;
+    private double estimatedSelectivity = Double.NaN;
+    private double estimatedMappingSize = Double.NaN;
+
+    /**
+     * Constructor
+     *
+     * @param type
+     *            Type of the node, e.g. {@value #PLAN}
+     * @param label
+     *            Label of the node
+     */
+    public ExecutionProfile(String type, String label) {
+        this.type = type;
+        this.label = label;
+    }
+
+    /**
+     * Creates the node of a nested plan, including the estimates of the
+     * planner.
+     *
+     * @param plan
+     *            The nested plan
+     * @return the profile node
+     */
+    public static ExecutionProfile of(NestedPlan plan) {
+        String label;
+        if (plan.isEmpty()) {
+            label = "EMPTY";
+        } else if (plan.isAtomic()) {
+            label = "ATOMIC";
+        } else {
+            label = String.valueOf(plan.getOperator());
+        }
+        ExecutionProfile profile = new ExecutionProfile(PLAN, label);
+        profile.setEstimates(plan);
+        return profile;
+    }
+
+    /**
+     * Creates the node of an instruction.
+     *
+     * @param inst
+     *            The instruction
+     * @return the profile node
+     */
+    public static ExecutionProfile of(Instruction inst) {
+        StringBuilder label = new StringBuilder().append(inst.getCommand());
+        if (inst.getMeasureExpression() != null && !inst.getMeasureExpression().isEmpty()) {
+            label.append(' ').append(inst.getMeasureExpression());
+        }
+        if (inst.getThreshold() != null) {
+            label.append(" >= ").append(inst.getThreshold());
+        }
+        return new ExecutionProfile(INSTRUCTION, label.toString());
+    }
+
+    /**
+     * Starts the clocks of the node. Must be called in the thread that does
+     * the work of the node.
+     */
+    public void start() {
+        beginWall = System.nanoTime();
+        beginCpu = cpuTime();
+    }
+
+    /**
+     * Stops the clocks of the node and records its sizes.
+     *
+     * @param inputSize
+     *            Number of links of the input mappings
+     * @param outputSize
+     *            Number of links of the output mapping
+     * @param pairs
+     *            Number of candidate pairs |S| * |T|
+     */
+    public void stop(long inputSize, long outputSize, double pairs) {
+        wallTime = (System.nanoTime() - beginWall) / 1e6;
+        long endCpu = cpuTime();
+        cpuTime = (beginCpu < 0 || endCpu < 0) ? -1 : (endCpu - beginCpu) / 1e6;
+        this.inputSize = inputSize;
+        this.outputSize = outputSize;
+        this.pairs = pairs;
+    }
+
+    private static long cpuTime() {
+        return THREADS.isCurrentThreadCpuTimeSupported() ? THREADS.getCurrentThreadCpuTime() : -1;
+    }
+
+    /**
+     * Copies the runtime, selectivity and mapping size estimated by the
+     * planner.
+     *
+     * @param plan
+     *            Plan with estimates
+     */
+    public void setEstimates(Plan plan) {
+        estimatedRuntime = plan.getRuntimeCost();
+        estimatedSelectivity = plan.getSelectivity();
+        estimatedMappingSize = plan.getMappingSize();
+    }
+
+    /**
+     * @param comparisons
+     *            Number of comparisons, -1 if unknown
+     */
+    public void setComparisons(long comparisons) {
+        this.comparisons = comparisons;
+    }
+
+    /**
+     * Adds a child node. Children of the same node can be added from
+     * different threads.
+     *
+     * @param child
+     *            Child node
+     */
+    public synchronized void addChild(ExecutionProfile child) {
+        children.add(child);
+    }
+
+    public synchronized List<ExecutionProfile> getChildren() {
+        return Collections.unmodifiableList(new ArrayList<>(children));
+    }
+
+    public String getType() {
+        return type;
+    }
+
+    public String getLabel() {
+        return label;
+    }
+
+    /**
+     * @return wall time in ms
+     */
+    public double getWallTime() {
+        return wallTime;
+    }
+
+    /**
+     * @return CPU time of the executing thread in ms, -1 if the JVM does not
+     *         measure it. CPU time of other threads (e.g. parallel mappers)
+     *         is not included.
+     */
+    public double getCpuTime() {
+        return cpuTime;
+    }
+
+    public long getInputSize() {
+        return inputSize;
+    }
+
+    public long getOutputSize() {
+        return outputSize;
+    }
+
+    /**
+     * @return number of comparisons, -1 if unknown
+     */
+    public long getComparisons() {
+        return comparisons;
+    }
+
+    /**
+     * @return output size divided by the number of candidate pairs, NaN if
+     *         there are no candidate pairs
+     */
+    public double getSelectivity() {
+        return pairs > 0 ? outputSize / pairs : Double.NaN;
+    }
+
+    /**
+     * @return selectivity estimated by the planner, NaN if there is none
+     */
+    public double getEstimatedSelectivity() {
+        return estimatedSelectivity;
+    }
+
+    /**
+     * @return runtime estimated by the planner, NaN if there is none
+     */
+    public double getEstimatedRuntime() {
+        return estimatedRuntime;
+    }
+
+    /**
+     * @return mapping size estimated by the planner, NaN if there is none
+     */
+    public double getEstimatedMappingSize() {
+        return estimatedMappingSize;
+    }
+
+    /**
+     * @return the profile tree as JSON object
+     */
+    public String toJson() {
+        StringBuilder sb = new StringBuilder();
+        toJson(sb, "");
+        return sb.append('\n').toString();
+    }
+
+    private void toJson(StringBuilder sb, String indent) {
+        String inner = indent + "  ";
+        sb.append("{\n");
+        sb.append(inner).append("\"type\": ").append(quote(type)).append(",\n");
+        sb.append(inner).append("\"label\": ").append(quote(label)).append(",\n");
+        sb.append(inner).append("\"wallTimeMs\": ").append(number(wallTime)).append(",\n");
+        sb.append(inner).append("\"cpuTimeMs\": ").append(cpuTime < 0 ? "null" : number(cpuTime)).append(",\n");
+        sb.append(inner).append("\"inputSize\": ").append(inputSize).append(",\n");
+        sb.append(inner).append("\"outputSize\": ").append(outputSize).append(",\n");
+        sb.append(inner).append("\"comparisons\": ").append(comparisons < 0 ? "null" : comparisons)
+                .append(",\n");
+        sb.append(inner).append("\"selectivity\": ").append(number(getSelectivity())).append(",\n");
+        sb.append(inner).append("\"estimatedSelectivity\": ").append(number(estimatedSelectivity)).append(",\n");
+        sb.append(inner).append("\"estimatedMappingSize\": ").append(number(estimatedMappingSize)).append(",\n");
+        sb.append(inner).append("\"estimatedRuntime\": ").append(number(estimatedRuntime)).append(",\n");
+        sb.append(inner).append("\"children\": [");
+        List<ExecutionProfile> list = getChildren();
+        for (int i = 0; i < list.size(); i++) {
+            sb.append(i == 0 ? "\n" : ",\n").append(inner).append("  ");
+            list.get(i).toJson(sb, inner + "  ");
+        }
+        if (!list.isEmpty()) {
+            sb.append('\n').append(inner);
+        }
+        sb.append("]\n").append(indent).append('}');
+    }
+
+    private static String number(double d) {
+        if (Double.isNaN(d) || Double.isInfinite(d)) {
+            return "null";
+        }
+        return String.format(Locale.ENGLISH, "%.6g", d).replaceFirst("\\.?0+(e|$)", "$1");
+    }
+
+    private static String quote(String s) {
+        StringBuilder sb = new StringBuilder("\"");
+        for (char c : s.toCharArray()) {
+            if (c == '"' || c == '\\') {
+                sb.append('\\').append(c);
+            } else if (c < 0x20) {
+                sb.append(String.format("\\u%04x", (int) c));
+            } else {
+                sb.append(c);
+            }
+        }
+        return sb.append('"').toString();
+    }
+
+    /**
+     * @return the profile tree as indented text, one node per line
+     */
+    public String toText() {
+        StringBuilder sb = new StringBuilder();
+        toText(sb, "");
+        return sb.toString();
+    }
+
+    private void toText(StringBuilder sb, String indent) {
+        sb.append(indent).append(label).append("  (");
+        sb.append(String.format(Locale.ENGLISH, "wall=%.3fms", wallTime));
+        if (cpuTime >= 0) {
+            sb.append(String.format(Locale.ENGLISH, " cpu=%.3fms", cpuTime));
+        }
+        sb.append(" in=").append(inputSize).append(" out=").append(outputSize);
+        if (comparisons >= 0) {
+            sb.append(" comparisons=").append(comparisons);
+        }
+        if (!Double.isNaN(getSelectivity())) {
+            sb.append(String.format(Locale.ENGLISH, " sel=%.3g", getSelectivity()));
+        }
+        if (!Double.isNaN(estimatedSelectivity)) {
+            sb.append(String.format(Locale.ENGLISH, " est.sel=%.3g", estimatedSelectivity));
+        }
+        if (!Double.isNaN(estimatedMappingSize)) {
+            sb.append(String.format(Locale.ENGLISH, " est.size=%.0f", estimatedMappingSize));
+        }
+        if (!Double.isNaN(estimatedRuntime)) {
+            sb.append(String.format(Locale.ENGLISH, " est.runtime=%.3g", estimatedRuntime));
+        }
+        sb.append(")\n");
+        for (ExecutionProfile child : getChildren()) {
+            child.toText(sb, indent + "  ");
+        }
+    }
+}
@@ -1,23 +1,55 @@
 package org.aksw.limes.core.execution.engine;
 
-import org.aksw.limes.core.execution.planning.planner.IPlanner;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+import org.aksw.limes.core.execution.planning.plan.Instruction.Command;
+import org.aksw.limes.core.execution.planning.plan.NestedPlan;
 import org.aksw.limes.core.io.cache.ACache;
-import org.aksw.limes.core.io.ls.LinkSpecification;
 import org.aksw.limes.core.io.mapping.AMapping;
+import org.aksw.limes.core.io.mapping.MappingFactory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 /**
- * Implements the default execution engine class. The idea is that the engine
+ * Implements the parallel execution engine class. The idea is that the engine
  * gets as input a link specification and a planner type, executes the
  * independent parts of the plan returned from the planner in parallel and
- * returns a MemoryMemoryMapping.
- *
+ * returns a MemoryMemoryMapping. The sub-plans of a complex nested plan do not
+ * depend on each other, hence they are executed as separate tasks of a
+ * fork/join pool and their results are merged with the operator of the plan
+ * once all of them are available. The later sub-plans of a semi-join depend
+ * on the mapping of the first one and are executed after it. Link
+ * specifications planned by the Dynamic
+ * planner are re-planned after each executed step and are therefore executed
+ * sequentially.
+ * <br>
+ * An engine that was created with a level of parallelism owns its pool and
+ * has to be closed when it is no longer needed. Pools that are passed to the
+ * engine are never shut down by it.
  *
  * @author Kleanthi Georgala (georgala@informatik.uni-leipzig.de)
  * @version 1.0
  */
-public class ParallelExecutionEngine extends ExecutionEngine {
+public class ParallelExecutionEngine extends SimpleExecutionEngine implements AutoCloseable {
+
+    static Logger logger = LoggerFactory.getLogger(ParallelExecutionEngine.class);
+    /**
+     * Pool that executes the independent sub-plans.
+     */
+    private ForkJoinPool pool;
+    /**
+     * True if the pool was created by the engine and is shut down by
+     * {@link #close()}.
+     */
+    private boolean ownsPool = false;
+
     /**
-     * Constructor for a parallel execution engine.
+     * Constructor for a parallel execution engine. The sub-plans are executed
+     * using the common fork/join pool of the JVM.
      *
      * @param source
      *            Source cache
@@ -29,22 +61,204 @@ public class ParallelExecutionEngine extends ExecutionEngine {
      *            Target variable
      */
     public ParallelExecutionEngine(ACache source, ACache target, String sourceVar, String targetVar) {
+        this(source, target, sourceVar, targetVar, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Constructor for a parallel execution engine with a given level of
+     * parallelism. The engine creates its own pool, which is shut down by
+     * {@link #close()}.
+     *
+     * @param source
+     *            Source cache
+     * @param target
+     *            Target cache
+     * @param sourceVar
+     *            Source variable
+     * @param targetVar
+     *            Target variable
+     * @param parallelism
+     *            Maximal number of sub-plans that are executed at the same
+     *            time
+     */
+    public ParallelExecutionEngine(ACache source, ACache target, String sourceVar, String targetVar,
+            int parallelism) {
+        this(source, target, sourceVar, targetVar, new ForkJoinPool(parallelism));
+        this.ownsPool = true;
+    }
+
+    /**
+     * Constructor for a parallel execution engine that uses a given pool.
+     *
+     * @param source
+     *            Source cache
+     * @param target
+     *            Target cache
+     * @param sourceVar
+     *            Source variable
+     * @param targetVar
+     *            Target variable
+     * @param pool
+     *            Pool that executes the sub-plans
+     */
+    public ParallelExecutionEngine(ACache source, ACache target, String sourceVar, String targetVar,
+            ForkJoinPool pool) {
         super(source, target, sourceVar, targetVar);
+        this.pool = pool;
+    }
+
+    /**
+     * Returns the pool that executes the independent sub-plans.
+     *
+     * @return the fork/join pool of the engine
+     */
+    public ForkJoinPool getPool() {
+        return pool;
+    }
+
+    /**
+     * Shuts down the pool of the engine if the engine created it. Sub-plans
+     * that are still running are completed.
+     */
+    @Override
+    public void close() {
+        if (ownsPool) {
+            pool.shutdown();
+        }
     }
 
     /**
-     * Implementation of the execution of an execution plan. Independent parts
-     * of the plan are executed in parallel.
+     * Executes an immutable nested plan. If the plan is atomic, it is executed
+     * and the result mapping is returned. If it is complex, all its sub-plans
+     * are executed in parallel, the operator of the plan is applied to the
+     * retrieved mappings in the order of the sub-plans and the result gets
+     * filtered using the filtering instruction of the plan (if any). The
+     * result is the same as the one of
+     * {@link SimpleExecutionEngine#executeStatic(NestedPlan)}.
      *
-     * @param spec
-     *            The input link specification
-     * @param planner
-     *            The chosen planner
-     * @return The mapping from running the plan
+     * @param plan
+     *            A nested plan created by a static planner (Canonical or
+     *            Helios)
+     * @return The mapping obtained from executing the plan
      */
     @Override
-    public AMapping execute(LinkSpecification spec, IPlanner planner) {
-        throw new UnsupportedOperationException("Not implemented yet");
+    public AMapping executeStatic(NestedPlan plan) {
+        NestedPlanTask task = new NestedPlanTask(plan, currentProfile, sourceCandidates, targetCandidates);
+        if (task.node != null && currentProfile == null) {
+            profile = task.node;
+        }
+        return pool.invoke(task);
+    }
+
+    /**
+     * Executes the sub-plans of a complex nested plan in parallel.
+     *
+     * @param plan
+     *            A complex nested plan
+     * @return The mappings of the sub-plans, in the order of the sub-plans
+     */
+    @Override
+    protected List<AMapping> executeSubPlans(NestedPlan plan) {
+        List<NestedPlanTask> tasks = new ArrayList<NestedPlanTask>();
+        for (NestedPlan subPlan : plan.getSubPlans()) {
+            NestedPlanTask task = new NestedPlanTask(subPlan, currentProfile, sourceCandidates,
+                    targetCandidates);
+            pool.execute(task);
+            tasks.add(task);
+        }
+        List<AMapping> mappings = new ArrayList<AMapping>();
+        for (NestedPlanTask task : tasks) {
+            mappings.add(task.join());
+        }
+        return mappings;
+    }
+
+    /**
+     * Task that executes a nested plan. Atomic plans are executed by a
+     * separate simple execution engine, since the instruction buffer of an
+     * engine can not be shared among threads. If the execution is profiled,
+     * the profile node of the task is added to the node of its parent plan
+     * when the task is created, hence the nodes keep the order of the
+     * sub-plans.
+     */
+    private class NestedPlanTask extends RecursiveTask<AMapping> {
+
+        private static final long serialVersionUID = -3574620941382722536L;
+
+        private NestedPlan plan;
+        private ExecutionProfile node = null;
+        private Set<String> sourceCandidates;
+        private Set<String> targetCandidates;
+
+        NestedPlanTask(NestedPlan plan, ExecutionProfile parent, Set<String> sourceCandidates,
+                Set<String> targetCandidates) {
+            this.plan = plan;
+            this.sourceCandidates = sourceCandidates;
+            this.targetCandidates = targetCandidates;
+            if (profiling) {
+                node = ExecutionProfile.of(plan);
+                if (parent != null) {
+                    parent.addChild(node);
+                }
+            }
+        }
+
+        @Override
+        protected AMapping compute() {
+            if (node != null) {
+                node.start();
+            }
+            long input = 0;
+            AMapping m = MappingFactory.createDefaultMapping();
+            if (plan.isEmpty()) {
+            } else if (plan.isAtomic()) {
+                SimpleExecutionEngine engine = new SimpleExecutionEngine(source, target, sourceVariable,
+                        targetVariable);
+                engine.setMappingCache(mappingCache);
+                engine.setLanguage(language);
+                engine.setMemoryBudget(memoryBudget);
+                engine.setProfiling(profiling);
+                engine.currentProfile = node;
+                engine.setCandidates(sourceCandidates, targetCandidates);
+                m = engine.executeInstructions(plan);
+            } else if (Command.SEMIJOIN.equals(plan.getOperator())) {
+                m = new NestedPlanTask(plan.getSubPlans().get(0), node, sourceCandidates, targetCandidates)
+                        .compute();
+                input = m.size();
+                for (int i = 1; i < plan.getSubPlans().size(); i++) {
+                    AMapping m2 = new NestedPlanTask(plan.getSubPlans().get(i), node, getSourceUris(m),
+                            getTargetUris(m)).compute();
+                    input += m2.size();
+                    m = executeOperator(plan, m, m2, node);
+                }
+                if (plan.getFilteringInstruction() != null) {
+                    m = executeFilter(plan.getFilteringInstruction(), m, node);
+                }
+            } else {
+                List<NestedPlanTask> tasks = new ArrayList<NestedPlanTask>();
+                for (NestedPlan subPlan : plan.getSubPlans()) {
+                    tasks.add(new NestedPlanTask(subPlan, node, sourceCandidates, targetCandidates));
+                }
+                // run the first sub-plan in the current thread
+                for (int i = 1; i < tasks.size(); i++) {
+                    tasks.get(i).fork();
+                }
+                m = tasks.get(0).compute();
+                input = m.size();
+                for (int i = 1; i < tasks.size(); i++) {
+                    AMapping m2 = tasks.get(i).join();
+                    input += m2.size();
+                    m = executeOperator(plan, m, m2, node);
+                }
+                if (plan.getFilteringInstruction() != null) {
+                    m = executeFilter(plan.getFilteringInstruction(), m, node);
+                }
+            }
+            if (node != null) {
+                node.stop(input, m.size(), getPairs());
+            }
+            return m;
+        }
     }
 
 }
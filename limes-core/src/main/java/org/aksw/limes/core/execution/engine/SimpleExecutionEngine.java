@@ -1,8 +1,14 @@
 package org.aksw.limes.core.execution.engine;
 
+import java.io.File;
+import java.io.IOException;
 import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Set;
 
 import org.aksw.limes.core.datastrutures.LogicOperator;
 import org.aksw.limes.core.exceptions.InvalidThresholdException;
@@ -11,17 +17,21 @@ import org.aksw.limes.core.execution.planning.plan.Instruction;
 import org.aksw.limes.core.execution.planning.plan.Instruction.Command;
 import org.aksw.limes.core.execution.planning.plan.NestedPlan;
 import org.aksw.limes.core.execution.planning.plan.Plan;
+import org.aksw.limes.core.execution.planning.planner.CostModel;
 import org.aksw.limes.core.execution.planning.planner.DynamicPlanner;
 import org.aksw.limes.core.execution.planning.planner.IPlanner;
 import org.aksw.limes.core.io.cache.ACache;
 import org.aksw.limes.core.io.ls.LinkSpecification;
 import org.aksw.limes.core.io.mapping.AMapping;
+import org.aksw.limes.core.io.mapping.BinaryMappingFile;
+import org.aksw.limes.core.io.mapping.ILinkSink;
 import org.aksw.limes.core.io.mapping.MappingFactory;
 import org.aksw.limes.core.io.mapping.MemoryMapping;
 import org.aksw.limes.core.measures.mapper.IMapper;
 import org.aksw.limes.core.measures.mapper.MapperFactory;
 import org.aksw.limes.core.measures.mapper.MappingOperations;
 import org.aksw.limes.core.measures.measure.MeasureFactory;
+import org.aksw.limes.core.measures.measure.MeasureProcessor;
 import org.aksw.limes.core.measures.measure.MeasureType;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -43,6 +53,33 @@ public class SimpleExecutionEngine extends ExecutionEngine {
      * Map of intermediate mappings. Used for dynamic planning.
      */
     private HashMap<String, AMapping> dynamicResults = new HashMap<String, AMapping>();
+    /**
+     * Maximal number of links of the intermediate mappings kept in memory.
+     */
+    protected long memoryBudget = Long.MAX_VALUE;
+    /**
+     * Number of links of the intermediate mappings in memory.
+     */
+    private long liveLinks = 0;
+    /**
+     * Buffer slots whose mappings were written to disk.
+     */
+    private Map<Integer, File> spilled = new HashMap<>();
+    /**
+     * Profile node that receives the profiles of the executed steps, null if
+     * the execution is not profiled.
+     */
+    protected ExecutionProfile currentProfile = null;
+    /**
+     * URIs of the source instances that RUN instructions are restricted to,
+     * null for all instances.
+     */
+    protected Set<String> sourceCandidates = null;
+    /**
+     * URIs of the target instances that RUN instructions are restricted to,
+     * null for all instances.
+     */
+    protected Set<String> targetCandidates = null;
 
     /**
      * Constructor for a simple execution engine.
@@ -60,11 +97,40 @@ public class SimpleExecutionEngine extends ExecutionEngine {
         super(source, target, sourceVar, targetVar);
     }
 
+    /**
+     * Sets the maximal number of links of the intermediate mappings that are
+     * kept in memory while a plan is executed. If the live intermediate
+     * mappings exceed the budget, the largest ones are written to temporary
+     * files until they are needed again.
+     *
+     * @param memoryBudget
+     *            Maximal number of links in memory, Long.MAX_VALUE (default)
+     *            never writes mappings to disk
+     */
+    public void setMemoryBudget(long memoryBudget) {
+        this.memoryBudget = memoryBudget;
+    }
+
+    /**
+     * Restricts the RUN instructions to candidate source and target
+     * instances. Used to execute the later sub-plans of a semi-join.
+     *
+     * @param sourceCandidates
+     *            URIs of the candidate source instances, null for all
+     * @param targetCandidates
+     *            URIs of the candidate target instances, null for all
+     */
+    public void setCandidates(Set<String> sourceCandidates, Set<String> targetCandidates) {
+        this.sourceCandidates = sourceCandidates;
+        this.targetCandidates = targetCandidates;
+    }
+
     /**
      * Implementation of the execution of a plan. It receives a plan as a set of
      * instructions and executes them sequentially. This function does not
      * execute nested plans. In case of a RUN command, the instruction must
-     * include an atomic link specification.
+     * include an atomic link specification. Intermediate mappings are
+     * released as soon as no later instruction reads them.
      *
      * @param plan
      *            An execution plan
@@ -72,79 +138,263 @@ public class SimpleExecutionEngine extends ExecutionEngine {
      */
     public AMapping executeInstructions(Plan plan) {
         buffer = new ArrayList<>();
+        spilled = new HashMap<>();
+        liveLinks = 0;
         if (plan.isEmpty()) {
             logger.info("Plan is empty. Done.");
             return MappingFactory.createDefaultMapping();
         }
         List<Instruction> instructions = plan.getInstructionList();
-        AMapping m = MappingFactory.createDefaultMapping();
-        for (int i = 0; i < instructions.size(); i++) {
-            Instruction inst = instructions.get(i);
-            // get the index for writing the results
-            int index = inst.getResultIndex();
-            // first process the RUN operator
-            if (inst.getCommand().equals(Command.RUN)) {
-                m = executeRun(inst);
-            } // runs the filter operator
-            else if (inst.getCommand().equals(Command.FILTER)) {
-                m = executeFilter(inst, buffer.get(inst.getSourceIndex()));
-            } else if (inst.getCommand().equals(Command.REVERSEFILTER)) {
-                m = executeReverseFilter(inst, buffer.get(inst.getSourceIndex()));
-            } // runs set operations such as intersection,
-            else if (inst.getCommand().equals(Command.INTERSECTION)) {
-                m = executeIntersection(buffer.get(inst.getSourceIndex()), buffer.get(inst.getTargetIndex()));
-            } // union
-            else if (inst.getCommand().equals(Command.UNION)) {
-                m = executeUnion(buffer.get(inst.getSourceIndex()), buffer.get(inst.getTargetIndex()));
-            } // diff
-            else if (inst.getCommand().equals(Command.DIFF)) {
-                m = executeDifference(buffer.get(inst.getSourceIndex()), buffer.get(inst.getTargetIndex()));
-            } // xor
-            else if (inst.getCommand().equals(Command.XOR)) {
-                LinearFilter f = new LinearFilter();
-                AMapping m1 = executeUnion(buffer.get(inst.getSourceIndex()), buffer.get(inst.getTargetIndex()));
-                m1 = f.filter(m1, Double.parseDouble(inst.getThreshold()));
-                AMapping m2 = executeIntersection(buffer.get(inst.getSourceIndex()), buffer.get(inst.getTargetIndex()));
-                m2 = f.filter(m2, Double.parseDouble(inst.getThreshold()));
-                m = executeDifference(m1, m2);
-            } // end of processing. Return the indicated mapping
-            else if (inst.getCommand().equals(Command.RETURN)) {
-                if (buffer.isEmpty()) {
-                    return m;
+        List<List<Integer>> releases = getReleases(instructions);
+        try {
+            AMapping m = MappingFactory.createDefaultMapping();
+            for (int i = 0; i < instructions.size(); i++) {
+                Instruction inst = instructions.get(i);
+                // get the index for writing the results
+                int index = inst.getResultIndex();
+                ExecutionProfile node = null;
+                ExecutionProfile parent = null;
+                long input = 0;
+                if (profiling && !inst.getCommand().equals(Command.RETURN)) {
+                    input = getInputSize(inst);
+                    node = ExecutionProfile.of(inst);
+                    parent = enterProfile(node);
                 }
-                if (index < 0) {// return last element of buffer
-                    return buffer.get(buffer.size() - 1);
-                } else {
-                    return buffer.get(index);
+                // first process the RUN operator
+                if (inst.getCommand().equals(Command.RUN)) {
+                    m = executeRun(inst);
+                } // runs the filter operator
+                else if (inst.getCommand().equals(Command.FILTER)) {
+                    m = executeFilter(inst, getBuffered(inst.getSourceIndex()));
+                } else if (inst.getCommand().equals(Command.REVERSEFILTER)) {
+                    m = executeReverseFilter(inst, getBuffered(inst.getSourceIndex()));
+                } // runs set operations such as intersection,
+                else if (inst.getCommand().equals(Command.INTERSECTION)) {
+                    m = executeIntersection(getBuffered(inst.getSourceIndex()), getBuffered(inst.getTargetIndex()));
+                } // union
+                else if (inst.getCommand().equals(Command.UNION)) {
+                    m = executeUnion(getBuffered(inst.getSourceIndex()), getBuffered(inst.getTargetIndex()));
+                } // diff
+                else if (inst.getCommand().equals(Command.DIFF)) {
+                    m = executeDifference(getBuffered(inst.getSourceIndex()), getBuffered(inst.getTargetIndex()));
+                } // xor
+                else if (inst.getCommand().equals(Command.XOR)) {
+                    LinearFilter f = new LinearFilter();
+                    AMapping m1 = executeUnion(getBuffered(inst.getSourceIndex()), getBuffered(inst.getTargetIndex()));
+                    m1 = f.filter(m1, Double.parseDouble(inst.getThreshold()));
+                    AMapping m2 = executeIntersection(getBuffered(inst.getSourceIndex()),
+                            getBuffered(inst.getTargetIndex()));
+                    m2 = f.filter(m2, Double.parseDouble(inst.getThreshold()));
+                    m = executeDifference(m1, m2);
+                } // end of processing. Return the indicated mapping
+                else if (inst.getCommand().equals(Command.RETURN)) {
+                    if (buffer.isEmpty()) {
+                        return m;
+                    }
+                    if (index < 0) {// return last element of buffer
+                        return getBuffered(buffer.size() - 1);
+                    } else {
+                        return getBuffered(index);
+                    }
                 }
-            }
-            // place resulting mapping in the buffer
-            if (index < 0) {// add the new mapping at the end of the list
-                buffer.add((MemoryMapping) m);
-            } else {
-                // avoid overriding places in buffer
-                // by adding the result at the end
-                if (index < buffer.size()) {
+                if (node != null) {
+                    node.setComparisons(inst.getCommand().equals(Command.RUN) ? -1 : input);
+                    exitProfile(node, parent, input, m);
+                }
+                // place resulting mapping in the buffer
+                if (index < 0) {// add the new mapping at the end of the list
                     buffer.add((MemoryMapping) m);
                 } else {
-                    // add placeholders to ensure that the mapping can be placed
-                    // where the user wanted to have it
-                    // new mappings are added at the end
-                    while ((index + 1) > buffer.size()) {
-                        buffer.add(MappingFactory.createDefaultMapping());
+                    // avoid overriding places in buffer
+                    // by adding the result at the end
+                    if (index < buffer.size()) {
+                        buffer.add((MemoryMapping) m);
+                    } else {
+                        // add placeholders to ensure that the mapping can be placed
+                        // where the user wanted to have it
+                        // new mappings are added at the end
+                        while ((index + 1) > buffer.size()) {
+                            buffer.add(MappingFactory.createDefaultMapping());
+                        }
+                        buffer.set(index, (MemoryMapping) m);
                     }
-                    buffer.set(index, (MemoryMapping) m);
+
+                }
+                liveLinks += m.size();
+                for (int slot : releases.get(i)) {
+                    release(slot);
                 }
+                spill();
+            }
 
+            // just in case the return operator was forgotten.
+            // then we return the last mapping computed
+            if (buffer.isEmpty()) {
+                return MappingFactory.createDefaultMapping();
+            } else {
+                return getBuffered(buffer.size() - 1);
+            }
+        } finally {
+            for (File file : spilled.values()) {
+                file.delete();
             }
+            spilled.clear();
         }
+    }
 
-        // just in case the return operator was forgotten.
-        // then we return the last mapping computed
-        if (buffer.isEmpty()) {
-            return MappingFactory.createDefaultMapping();
+    /**
+     * Computes the buffer slots that are not read anymore after each
+     * instruction of a plan. The slots are assigned in the same way as in
+     * {@link #executeInstructions(Plan)}. The slot of the result of the plan
+     * is never released.
+     *
+     * @param instructions
+     *            Instructions of a plan
+     * @return for each instruction, the slots that can be released after it
+     */
+    static List<List<Integer>> getReleases(List<Instruction> instructions) {
+        Map<Integer, Integer> lastUse = new HashMap<>();
+        int size = 0;
+        int result = -1;
+        boolean returned = false;
+        for (int i = 0; i < instructions.size() && !returned; i++) {
+            Instruction inst = instructions.get(i);
+            Command command = inst.getCommand();
+            int index = inst.getResultIndex();
+            if (command.equals(Command.RETURN)) {
+                result = index < 0 ? size - 1 : index;
+                returned = true;
+                continue;
+            }
+            if (!command.equals(Command.RUN)) {
+                lastUse.put(inst.getSourceIndex(), i);
+                if (!command.equals(Command.FILTER) && !command.equals(Command.REVERSEFILTER)) {
+                    lastUse.put(inst.getTargetIndex(), i);
+                }
+            }
+            int slot = (index < 0 || index < size) ? size : index;
+            size = Math.max(size, slot + 1);
+            // a mapping that is never read is released right away
+            lastUse.put(slot, i);
+        }
+        if (!returned) {
+            result = size - 1;
+        }
+        List<List<Integer>> releases = new ArrayList<>();
+        for (int i = 0; i < instructions.size(); i++) {
+            releases.add(new ArrayList<>());
+        }
+        for (Entry<Integer, Integer> e : lastUse.entrySet()) {
+            int slot = e.getKey();
+            if (slot >= 0 && slot < size && slot != result) {
+                releases.get(e.getValue()).add(slot);
+            }
+        }
+        return releases;
+    }
+
+    /**
+     * Returns the number of links of the mappings read by an instruction.
+     */
+    private long getInputSize(Instruction inst) {
+        Command command = inst.getCommand();
+        if (command.equals(Command.RUN)) {
+            return 0;
+        }
+        long input = getBuffered(inst.getSourceIndex()).size();
+        if (!command.equals(Command.FILTER) && !command.equals(Command.REVERSEFILTER)) {
+            input += getBuffered(inst.getTargetIndex()).size();
+        }
+        return input;
+    }
+
+    /**
+     * Starts a profile node as child of the current node and makes it the
+     * current node.
+     *
+     * @return the previous current node
+     */
+    private ExecutionProfile enterProfile(ExecutionProfile node) {
+        ExecutionProfile parent = currentProfile;
+        if (parent == null) {
+            profile = node;
+        } else {
+            parent.addChild(node);
+        }
+        currentProfile = node;
+        node.start();
+        return parent;
+    }
+
+    private void exitProfile(ExecutionProfile node, ExecutionProfile parent, long input, AMapping output) {
+        node.stop(input, output.size(), getPairs());
+        currentProfile = parent;
+    }
+
+    /**
+     * @return the number of candidate pairs |S| * |T|
+     */
+    protected double getPairs() {
+        return (double) source.size() * target.size();
+    }
+
+    /**
+     * Returns a mapping of the buffer, reading it back from disk if it was
+     * spilled.
+     */
+    private AMapping getBuffered(int slot) {
+        File file = spilled.remove(slot);
+        if (file != null) {
+            try {
+                buffer.set(slot, BinaryMappingFile.read(file));
+            } catch (IOException e) {
+                throw new RuntimeException("Could not read intermediate mapping " + file, e);
+            } finally {
+                file.delete();
+            }
+            liveLinks += buffer.get(slot).size();
+        }
+        return buffer.get(slot);
+    }
+
+    private void release(int slot) {
+        File file = spilled.remove(slot);
+        if (file != null) {
+            file.delete();
         } else {
-            return buffer.get(buffer.size() - 1);
+            liveLinks -= buffer.get(slot).size();
+        }
+        buffer.set(slot, MappingFactory.createDefaultMapping());
+    }
+
+    /**
+     * Writes the largest mappings of the buffer to temporary files while the
+     * buffer exceeds the memory budget.
+     */
+    private void spill() {
+        while (liveLinks > memoryBudget) {
+            int largest = -1;
+            for (int slot = 0; slot < buffer.size(); slot++) {
+                if (buffer.get(slot).size() > 0
+                        && (largest < 0 || buffer.get(slot).size() > buffer.get(largest).size())) {
+                    largest = slot;
+                }
+            }
+            if (largest < 0) {
+                return;
+            }
+            AMapping m = buffer.get(largest);
+            try {
+                File file = File.createTempFile("limes-buffer", BinaryMappingFile.EXTENSION);
+                file.deleteOnExit();
+                BinaryMappingFile.write(m, file);
+                spilled.put(largest, file);
+            } catch (IOException e) {
+                logger.warn("Could not write intermediate mapping to disk: " + e.getMessage());
+                return;
+            }
+            liveLinks -= m.size();
+            buffer.set(largest, MappingFactory.createDefaultMapping());
         }
     }
 
@@ -163,13 +413,14 @@ public class SimpleExecutionEngine extends ExecutionEngine {
                 throw new InvalidThresholdException(threshold);
 
             } else {
-                IMapper mapper;
                 //try {
-                    MeasureType type = MeasureFactory.getMeasureType(inst.getMeasureExpression());
-                    mapper = MapperFactory.createMapper(type);
-
-                    return mapper.getMapping(source, target, sourceVariable, targetVariable,
-                            inst.getMeasureExpression(), threshold);
+                    // restricted mappings must not be cached as the mappings
+                    // of the whole caches
+                    if (mappingCache != null && sourceCandidates == null && targetCandidates == null) {
+                        return mappingCache.getMapping(source, target, sourceVariable, targetVariable,
+                                inst.getMeasureExpression(), threshold, t -> runMapper(inst, t));
+                    }
+                    return runMapper(inst, threshold);
                /* } catch (InvalidMeasureException e) {
                     e.printStackTrace();
                     logger.info("Returning an empty mapping");
@@ -182,6 +433,26 @@ public class SimpleExecutionEngine extends ExecutionEngine {
         
     }
 
+    private AMapping runMapper(Instruction inst, double threshold) {
+        MeasureType type = MeasureFactory.getMeasureType(inst.getMeasureExpression());
+        IMapper mapper = MapperFactory.createMapper(type);
+        if (sourceCandidates != null || targetCandidates != null) {
+            return mapper.getMapping(source, target, sourceVariable, targetVariable, inst.getMeasureExpression(),
+                    threshold, sourceCandidates, targetCandidates);
+        }
+        CostModel costModel = CostModel.getDefault();
+        if (!costModel.isRecording()) {
+            return mapper.getMapping(source, target, sourceVariable, targetVariable, inst.getMeasureExpression(),
+                    threshold);
+        }
+        long begin = System.nanoTime();
+        AMapping m = mapper.getMapping(source, target, sourceVariable, targetVariable, inst.getMeasureExpression(),
+                threshold);
+        costModel.record(type, language, source.size(), target.size(), threshold,
+                (System.nanoTime() - begin) / 1e6, m.size());
+        return m;
+    }
+
     /**
      * Runs the reverse filtering operator.
      *
@@ -212,12 +483,23 @@ public class SimpleExecutionEngine extends ExecutionEngine {
         if (inst.getMeasureExpression() == null)
             m = filter.filter(input, Double.parseDouble(inst.getThreshold()));
         else {
+            CostModel costModel = CostModel.getDefault();
+            List<String> measures = null;
+            if (costModel.isRecording()) {
+                measures = MeasureProcessor.getMeasures(inst.getMeasureExpression());
+            }
+            long begin = System.nanoTime();
             if (inst.getMainThreshold() != null)
                 m = filter.filter(input, inst.getMeasureExpression(), Double.parseDouble(inst.getThreshold()),
                         Double.parseDouble(inst.getMainThreshold()), source, target, sourceVariable, targetVariable);
             else// original filtering
                 m = filter.filter(input, inst.getMeasureExpression(), Double.parseDouble(inst.getThreshold()), source,
                         target, sourceVariable, targetVariable);
+            // only filters with a single measure can be attributed to it
+            if (measures != null && measures.size() == 1) {
+                costModel.recordFilter(MeasureFactory.getMeasureType(measures.get(0)), language, input.size(),
+                        (System.nanoTime() - begin) / 1e6);
+            }
         }
 
         return m;
@@ -262,6 +544,99 @@ public class SimpleExecutionEngine extends ExecutionEngine {
         return MappingOperations.union(m1, m2);
     }
 
+    /**
+     * Combines the mappings of two sub-plans of a complex nested plan using the
+     * operator of the plan. In case of an XOR operator, the union and the
+     * intersection of the two mappings are filtered using the threshold of the
+     * plan before their difference is computed.
+     *
+     * @param plan
+     *            The complex nested plan whose operator is applied
+     * @param m1
+     *            Mapping of the left sub-plan
+     * @param m2
+     *            Mapping of the right sub-plan
+     * @return The mapping obtained by applying the operator of the plan to m1
+     *         and m2
+     */
+    public AMapping executeOperator(NestedPlan plan, AMapping m1, AMapping m2) {
+        if (plan.getOperator().equals(Command.INTERSECTION) || plan.getOperator().equals(Command.SEMIJOIN)) {
+            return executeIntersection(m1, m2);
+        } // union
+        else if (plan.getOperator().equals(Command.UNION)) {
+            return executeUnion(m1, m2);
+        } // diff
+        else if (plan.getOperator().equals(Command.DIFF)) {
+            return executeDifference(m1, m2);
+            // exclusive or
+        } else if (plan.getOperator().equals(Command.XOR)) {
+            LinearFilter f = new LinearFilter();
+            AMapping mleft = executeUnion(m1, m2);
+            mleft = f.filter(mleft, Double.parseDouble(plan.getThreshold()));
+
+            AMapping mright = executeIntersection(m1, m2);
+            mright = f.filter(mright, Double.parseDouble(plan.getThreshold()));
+            return executeDifference(mleft, mright);
+        }
+        return m1;
+    }
+
+    /**
+     * Combines the mappings of two sub-plans like
+     * {@link #executeOperator(NestedPlan, AMapping, AMapping)} and adds the
+     * profile of the operator to a profile node.
+     *
+     * @param plan
+     *            The complex nested plan whose operator is applied
+     * @param m1
+     *            Mapping of the left sub-plan
+     * @param m2
+     *            Mapping of the right sub-plan
+     * @param parent
+     *            Profile node of the plan, null if it is not profiled
+     * @return The mapping obtained by applying the operator of the plan to m1
+     *         and m2
+     */
+    protected AMapping executeOperator(NestedPlan plan, AMapping m1, AMapping m2, ExecutionProfile parent) {
+        if (parent == null) {
+            return executeOperator(plan, m1, m2);
+        }
+        ExecutionProfile node = new ExecutionProfile(ExecutionProfile.OPERATOR, String.valueOf(plan.getOperator()));
+        parent.addChild(node);
+        node.start();
+        AMapping m = executeOperator(plan, m1, m2);
+        long input = (long) m1.size() + m2.size();
+        node.setComparisons(input);
+        node.stop(input, m.size(), getPairs());
+        return m;
+    }
+
+    /**
+     * Runs the filtering operator like
+     * {@link #executeFilter(Instruction, AMapping)} and adds the profile of
+     * the filter to a profile node.
+     *
+     * @param inst
+     *            Input instruction with FILTER command
+     * @param input
+     *            Mapping that is to be filtered
+     * @param parent
+     *            Profile node of the plan, null if it is not profiled
+     * @return filtered Mapping
+     */
+    protected AMapping executeFilter(Instruction inst, AMapping input, ExecutionProfile parent) {
+        if (parent == null) {
+            return executeFilter(inst, input);
+        }
+        ExecutionProfile node = ExecutionProfile.of(inst);
+        parent.addChild(node);
+        node.start();
+        AMapping m = executeFilter(inst, input);
+        node.setComparisons(input.size());
+        node.stop(input.size(), m.size(), getPairs());
+        return m;
+    }
+
     /**
      * Executes an immutable nested plan in lNr depth first oder. See
      * {@link #execute(LinkSpecification, IPlanner)}. If a plan is atomic, it is
@@ -276,6 +651,13 @@ public class SimpleExecutionEngine extends ExecutionEngine {
      * @return The mapping obtained from executing the plan
      */
     public AMapping executeStatic(NestedPlan plan) {
+        ExecutionProfile node = null;
+        ExecutionProfile parent = null;
+        long input = 0;
+        if (profiling) {
+            node = ExecutionProfile.of(plan);
+            parent = enterProfile(node);
+        }
         // empty nested plan contains nothing
         AMapping m = MappingFactory.createDefaultMapping();
         if (plan.isEmpty()) {
@@ -288,39 +670,197 @@ public class SimpleExecutionEngine extends ExecutionEngine {
         else {
             // run all the subplans
             m = executeStatic(plan.getSubPlans().get(0));
-            AMapping m2, result = m;
+            input = m.size();
+            AMapping m2;
             for (int i = 1; i < plan.getSubPlans().size(); i++) {
-                m2 = executeStatic(plan.getSubPlans().get(i));
-                if (plan.getOperator().equals(Command.INTERSECTION)) {
-                    result = executeIntersection(m, m2);
-                } // union
-                else if (plan.getOperator().equals(Command.UNION)) {
-                    result = executeUnion(m, m2);
-                } // diff
-                else if (plan.getOperator().equals(Command.DIFF)) {
-                    result = executeDifference(m, m2);
-                    // exclusive or
-                } else if (plan.getOperator().equals(Command.XOR)) {
-                    LinearFilter f = new LinearFilter();
-                    AMapping mleft = executeUnion(m, m2);
-                    mleft = f.filter(mleft, Double.parseDouble(plan.getThreshold()));
-
-                    AMapping mright = executeIntersection(m, m2);
-                    mright = f.filter(mright, Double.parseDouble(plan.getThreshold()));
-                    result = executeDifference(mleft, mright);
+                if (Command.SEMIJOIN.equals(plan.getOperator())) {
+                    m2 = executeSemiJoin(plan.getSubPlans().get(i), m);
+                } else {
+                    m2 = executeStatic(plan.getSubPlans().get(i));
                 }
-                m = result;
+                input += m2.size();
+                m = executeOperator(plan, m, m2, node);
             }
             // only run filtering if there is a filter indeed, else simply
             // return MemoryMapping
             if (plan.getFilteringInstruction() != null) {
-                m = executeFilter(plan.getFilteringInstruction(), m);
+                m = executeFilter(plan.getFilteringInstruction(), m, node);
             }
         }
-
+        if (node != null) {
+            exitProfile(node, parent, input, m);
+        }
         return m;
     }
 
+    /**
+     * Executes a nested plan only for the source and target instances that
+     * occur in a mapping. The result contains all links of the plan between
+     * these instances, hence its intersection with the mapping is the same
+     * as if the plan was executed for all instances.
+     *
+     * @param plan
+     *            A nested plan
+     * @param candidates
+     *            Mapping whose instances are the candidates
+     * @return The mapping obtained from executing the plan for the candidates
+     */
+    protected AMapping executeSemiJoin(NestedPlan plan, AMapping candidates) {
+        Set<String> previousSources = sourceCandidates;
+        Set<String> previousTargets = targetCandidates;
+        setCandidates(getSourceUris(candidates), getTargetUris(candidates));
+        try {
+            return executeStatic(plan);
+        } finally {
+            setCandidates(previousSources, previousTargets);
+        }
+    }
+
+    /**
+     * @return the URIs of the source instances of a mapping
+     */
+    protected static Set<String> getSourceUris(AMapping m) {
+        return new HashSet<>(m.getMap().keySet());
+    }
+
+    /**
+     * @return the URIs of the target instances of a mapping
+     */
+    protected static Set<String> getTargetUris(AMapping m) {
+        Set<String> uris = new HashSet<>();
+        for (HashMap<String, Double> targets : m.getMap().values()) {
+            uris.addAll(targets.keySet());
+        }
+        return uris;
+    }
+
+    /**
+     * Executes the sub-plans of a complex nested plan.
+     *
+     * @param plan
+     *            A complex nested plan
+     * @return The mappings of the sub-plans, in the order of the sub-plans
+     */
+    protected List<AMapping> executeSubPlans(NestedPlan plan) {
+        List<AMapping> mappings = new ArrayList<AMapping>();
+        for (NestedPlan subPlan : plan.getSubPlans()) {
+            mappings.add(executeStatic(subPlan));
+        }
+        return mappings;
+    }
+
+    /**
+     * Executes an immutable nested plan like
+     * {@link #executeStatic(NestedPlan)}, but passes the links of the last
+     * step of the plan to a sink instead of collecting them in a mapping. If
+     * the plan is complex, its operator is an intersection, union or
+     * difference and it has no filter or a filter without measure expression,
+     * the last operator and the filter are applied while the links are
+     * emitted, hence the result mapping of the plan is never created. In all
+     * other cases the result mapping is computed first.
+     * <br>
+     * Only the output of the root operator is streamed. The sub-plans are
+     * executed with {@link #executeSubPlans(NestedPlan)} and atomic plans
+     * with {@link #executeInstructions(Plan)}, so their mappings are
+     * held in memory, and the memory needed is bounded by the operand
+     * mappings of the root rather than by the size of the result.
+     *
+     * @param plan
+     *            A nested plan created by a static planner (Canonical or
+     *            Helios)
+     * @param sink
+     *            Sink that receives the links
+     */
+    public void executeStatic(NestedPlan plan, ILinkSink sink) {
+        if (plan.isEmpty()) {
+            return;
+        }
+        if (plan.isAtomic()) {
+            emit(executeInstructions(plan), sink);
+            return;
+        }
+        Instruction filter = plan.getFilteringInstruction();
+        Command operator = plan.getOperator();
+        boolean streamable = (filter == null || filter.getMeasureExpression() == null)
+                && (operator.equals(Command.INTERSECTION) || operator.equals(Command.UNION)
+                        || operator.equals(Command.DIFF));
+        if (!streamable) {
+            emit(executeStatic(plan), sink);
+            return;
+        }
+        double threshold = (filter == null) ? 0 : Double.parseDouble(filter.getThreshold());
+        List<AMapping> mappings = executeSubPlans(plan);
+        AMapping m = mappings.get(0);
+        for (int i = 1; i < mappings.size() - 1; i++) {
+            m = executeOperator(plan, m, mappings.get(i));
+        }
+        if (mappings.size() == 1) {
+            emitFiltered(m, threshold, sink);
+        } else {
+            emitOperator(operator, m, mappings.get(mappings.size() - 1), threshold, sink);
+        }
+    }
+
+    /**
+     * Passes the links of a mapping that pass a threshold filter to a sink.
+     * Same semantics as {@link LinearFilter#filter(AMapping, double)}.
+     */
+    private static void emitFiltered(AMapping m, double threshold, ILinkSink sink) {
+        for (Entry<String, HashMap<String, Double>> s : m.getMap().entrySet()) {
+            for (Entry<String, Double> t : s.getValue().entrySet()) {
+                if (threshold <= 0 || t.getValue() >= threshold) {
+                    sink.addLink(s.getKey(), t.getKey(), t.getValue());
+                }
+            }
+        }
+    }
+
+    /**
+     * Applies an operator to two mappings and passes the resulting links that
+     * pass a threshold filter to a sink. Same semantics as
+     * {@link MappingOperations}.
+     */
+    private static void emitOperator(Command operator, AMapping m1, AMapping m2, double threshold,
+            ILinkSink sink) {
+        HashMap<String, HashMap<String, Double>> map1 = m1.getMap();
+        HashMap<String, HashMap<String, Double>> map2 = m2.getMap();
+        for (Entry<String, HashMap<String, Double>> s : map1.entrySet()) {
+            HashMap<String, Double> targets2 = map2.get(s.getKey());
+            for (Entry<String, Double> t : s.getValue().entrySet()) {
+                Double sim2 = (targets2 == null) ? null : targets2.get(t.getKey());
+                double sim;
+                if (operator.equals(Command.INTERSECTION)) {
+                    if (sim2 == null) {
+                        continue;
+                    }
+                    sim = Math.min(t.getValue(), sim2);
+                } else if (operator.equals(Command.UNION)) {
+                    sim = (sim2 == null) ? t.getValue() : Math.max(t.getValue(), sim2);
+                } else {
+                    if (sim2 != null) {
+                        continue;
+                    }
+                    sim = t.getValue();
+                }
+                if (threshold <= 0 || sim >= threshold) {
+                    sink.addLink(s.getKey(), t.getKey(), sim);
+                }
+            }
+        }
+        if (operator.equals(Command.UNION)) {
+            // links that are only contained in m2
+            for (Entry<String, HashMap<String, Double>> s : map2.entrySet()) {
+                HashMap<String, Double> targets1 = map1.get(s.getKey());
+                for (Entry<String, Double> t : s.getValue().entrySet()) {
+                    if ((targets1 == null || !targets1.containsKey(t.getKey()))
+                            && (threshold <= 0 || t.getValue() >= threshold)) {
+                        sink.addLink(s.getKey(), t.getKey(), t.getValue());
+                    }
+                }
+            }
+        }
+    }
+
     /**
      * Executes an input link specification L in a dynamic fashion. See
      * {@link #execute(LinkSpecification, IPlanner)}. If L is already executed,
@@ -353,6 +893,16 @@ public class SimpleExecutionEngine extends ExecutionEngine {
     public AMapping executeDynamic(LinkSpecification spec, DynamicPlanner planner) {
         long begin = System.currentTimeMillis();
         long end = 0;
+        ExecutionProfile node = null;
+        ExecutionProfile parent = null;
+        if (profiling) {
+            node = new ExecutionProfile(ExecutionProfile.SPECIFICATION, spec.toString());
+            NestedPlan estimated = planner.getPlan(spec);
+            if (estimated != null) {
+                node.setEstimates(estimated);
+            }
+            parent = enterProfile(node);
+        }
         AMapping m = MappingFactory.createDefaultMapping();
         NestedPlan plan = new NestedPlan();
         // create function to check if linkspec has been seen before
@@ -459,7 +1009,9 @@ public class SimpleExecutionEngine extends ExecutionEngine {
                 throw new RuntimeException();
             }
         }
-
+        if (node != null) {
+            exitProfile(node, parent, 0, m);
+        }
         return m;
     }
 
@@ -485,14 +1037,56 @@ public class SimpleExecutionEngine extends ExecutionEngine {
         AMapping m = MappingFactory.createDefaultMapping();
 
         spec = planner.normalize(spec);
+        profile = null;
+        currentProfile = null;
         if (planner.isStatic() == false) {
             m = executeDynamic(spec, (DynamicPlanner) planner);
         } else {
             NestedPlan plan = planner.plan(spec);
+            ExecutionProfile node = null;
+            ExecutionProfile parent = null;
+            if (profiling) {
+                node = new ExecutionProfile(ExecutionProfile.SPECIFICATION, spec.toString());
+                node.setEstimates(plan);
+                parent = enterProfile(node);
+            }
             m = executeStatic(plan);
+            if (node != null) {
+                exitProfile(node, parent, 0, m);
+            }
         }
 
         return m;
     }
 
+    /**
+     * Executes a link specification like
+     * {@link #execute(LinkSpecification, IPlanner)} and passes the links of the
+     * result to a sink. For the Canonical and Helios planner, the links of the
+     * last step of the plan are passed to the sink while they are computed,
+     * see {@link #executeStatic(NestedPlan, ILinkSink)}, unless the execution
+     * is profiled. The sink is not closed.
+     *
+     * @param spec
+     *            The link specification, after it was re-written
+     * @param planner
+     *            The chosen planner
+     * @param sink
+     *            Sink that receives the links
+     */
+    @Override
+    public void execute(LinkSpecification spec, IPlanner planner, ILinkSink sink) {
+        if (profiling) {
+            // the profile needs the result mapping of each step
+            emit(execute(spec, planner), sink);
+            return;
+        }
+        spec = planner.normalize(spec);
+        if (planner.isStatic() == false) {
+            emit(executeDynamic(spec, (DynamicPlanner) planner), sink);
+        } else {
+            executeStatic(planner.plan(spec), sink);
+        }
+    }
+
 }
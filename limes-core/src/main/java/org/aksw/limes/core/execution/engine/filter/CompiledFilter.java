@@ -0,0 +1,152 @@
+package org.aksw.limes.core.execution.engine.filter;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.IntStream;
+
+import org.aksw.limes.core.io.cache.ACache;
+import org.aksw.limes.core.io.cache.Instance;
+import org.aksw.limes.core.io.mapping.AMapping;
+import org.aksw.limes.core.io.mapping.MappingFactory;
+import org.aksw.limes.core.measures.measure.CompiledLinkSpec;
+
+/**
+ * Filter condition that is compiled once into a {@link CompiledLinkSpec} and
+ * can then be applied to mappings of any size. Before a mapping is filtered,
+ * the property values of all its source and target instances are read from
+ * the caches into arrays. The links are then scored in batches, which run in
+ * parallel if the compiled condition is thread-safe.
+ */
+public class CompiledFilter {
+
+    /**
+     * Number of links that are scored by one task.
+     */
+    private static final int BATCH_SIZE = 4096;
+
+    private final CompiledLinkSpec condition;
+
+    /**
+     * Decides whether a link is kept by a filter.
+     */
+    public interface LinkRule {
+        /**
+         * @param similarity
+         *            Similarity of the link according to the condition
+         * @param confidence
+         *            Confidence of the link in the input mapping
+         * @return confidence of the link in the output mapping, or a negative
+         *         value if the link is dropped
+         */
+        double apply(double similarity, double confidence);
+    }
+
+    /**
+     * Constructor. Compiles the condition.
+     *
+     * @param condition
+     *            The condition for filtering
+     * @param threshold
+     *            Threshold of the condition
+     * @param sourceVar
+     *            Source variable
+     * @param targetVar
+     *            Target variable
+     */
+    public CompiledFilter(String condition, double threshold, String sourceVar, String targetVar) {
+        this.condition = new CompiledLinkSpec(condition, threshold, sourceVar, targetVar);
+    }
+
+    /**
+     * @return true if the links are scored in parallel
+     */
+    public boolean isParallel() {
+        return condition.isThreadSafe();
+    }
+
+    /**
+     * Applies the filter to a mapping.
+     *
+     * @param map
+     *            Mapping to filter
+     * @param source
+     *            Source cache
+     * @param target
+     *            Target cache
+     * @param rule
+     *            Decides which links are kept
+     * @return the links of map that are kept by the rule
+     */
+    public AMapping filter(AMapping map, ACache source, ACache target, LinkRule rule) {
+        // 1. read all property values of the instances of the mapping
+        Map<String, HashMap<String, Double>> links = map.getMap();
+        int size = 0;
+        for (HashMap<String, Double> targets : links.values()) {
+            size += targets.size();
+        }
+        final int pairCount = size;
+        String[] sourceUris = new String[links.size()];
+        String[][][] sourceValues = new String[links.size()][][];
+        Instance[] sourceInstances = new Instance[links.size()];
+        List<String> targetUris = new ArrayList<String>();
+        List<String[][]> targetValues = new ArrayList<String[][]>();
+        List<Instance> targetInstances = new ArrayList<Instance>();
+        Map<String, Integer> targetIndex = new HashMap<String, Integer>();
+        int[] pairSources = new int[pairCount];
+        int[] pairTargets = new int[pairCount];
+        double[] confidences = new double[pairCount];
+
+        int s = 0, pair = 0;
+        for (Map.Entry<String, HashMap<String, Double>> entry : links.entrySet()) {
+            Instance si = source.getInstance(entry.getKey());
+            sourceUris[s] = entry.getKey();
+            sourceValues[s] = condition.getSourceValues(si);
+            sourceInstances[s] = si;
+            for (Map.Entry<String, Double> link : entry.getValue().entrySet()) {
+                Integer t = targetIndex.get(link.getKey());
+                if (t == null) {
+                    Instance ti = target.getInstance(link.getKey());
+                    t = targetUris.size();
+                    targetIndex.put(link.getKey(), t);
+                    targetUris.add(link.getKey());
+                    targetValues.add(condition.getTargetValues(ti));
+                    targetInstances.add(ti);
+                }
+                pairSources[pair] = s;
+                pairTargets[pair] = t;
+                confidences[pair] = link.getValue();
+                pair++;
+            }
+            s++;
+        }
+
+        // 2. score all pairs
+        String[][][] tv = targetValues.toArray(new String[targetValues.size()][][]);
+        Instance[] ti = targetInstances.toArray(new Instance[targetInstances.size()]);
+        double[] scores = new double[pairCount];
+        int batches = (pairCount + BATCH_SIZE - 1) / BATCH_SIZE;
+        IntStream tasks = IntStream.range(0, batches);
+        if (condition.isThreadSafe() && batches > 1) {
+            tasks = tasks.parallel();
+        }
+        tasks.forEach(batch -> {
+            int to = Math.min(pairCount, (batch + 1) * BATCH_SIZE);
+            for (int i = batch * BATCH_SIZE; i < to; i++) {
+                int a = pairSources[i], b = pairTargets[i];
+                double sim = condition.getSimilarity(sourceValues[a], tv[b], sourceInstances[a], ti[b]);
+                scores[i] = rule.apply(sim, confidences[i]);
+            }
+        });
+
+        // 3. collect the links that passed
+        AMapping result = MappingFactory.createDefaultMapping();
+        for (int i = 0; i < pairCount; i++) {
+            if (scores[i] >= 0) {
+                result.add(sourceUris[pairSources[i]], targetUris.get(pairTargets[i]), scores[i]);
+            }
+        }
+        return result;
+    }
+}
@@ -1,11 +1,9 @@
 package org.aksw.limes.core.execution.engine.filter;
 
 import org.aksw.limes.core.io.cache.ACache;
-import org.aksw.limes.core.io.cache.Instance;
 import org.aksw.limes.core.io.mapping.AMapping;
 import org.aksw.limes.core.io.mapping.MappingFactory;
 import org.aksw.limes.core.measures.mapper.MappingOperations;
-import org.aksw.limes.core.measures.measure.MeasureProcessor;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -76,28 +74,12 @@ public class LinearFilter implements IFilter {
      */
     public AMapping filter(AMapping map, String condition, double threshold, ACache source, ACache target,
             String sourceVar, String targetVar) {
-        double sim = 0.0;
-        Instance s, t;
-
         if (condition == null) {
             logger.error("Null condition in filter function (LinearFilter). Exiting..");
             throw new RuntimeException();
         }
-
-        AMapping result = MappingFactory.createDefaultMapping();
-        // 2. run on all pairs and remove those
-        for (String key : map.getMap().keySet()) {
-            s = source.getInstance(key);
-            for (String value : map.getMap().get(key).keySet()) {
-                t = target.getInstance(value);
-                sim = MeasureProcessor.getSimilarity(s, t, condition, threshold, sourceVar, targetVar);
-                if (sim >= threshold) {
-                    result.add(s.getUri(), t.getUri(), sim);
-                }
-            }
-
-        }
-        return result;
+        CompiledFilter f = new CompiledFilter(condition, threshold, sourceVar, targetVar);
+        return f.filter(map, source, target, (sim, confidence) -> (sim >= threshold) ? sim : -1);
     }
 
     /**
@@ -131,34 +113,23 @@ public class LinearFilter implements IFilter {
      */
     public AMapping filter(AMapping map, String condition, double threshold, double mainThreshold, ACache source,
             ACache target, String sourceVar, String targetVar) {
-        double sim = 0.0;
-        Instance s, t;
-        AMapping result = MappingFactory.createDefaultMapping();
         if (condition == null) {
             logger.info("Null condition in extended filter function (LinearFilter). Exiting..");
             throw new RuntimeException();
         }
-
-        for (String key : map.getMap().keySet()) {
-            s = source.getInstance(key);
-            for (String value : map.getMap().get(key).keySet()) {
-                t = target.getInstance(value);
-                sim = MeasureProcessor.getSimilarity(s, t, condition, threshold, sourceVar, targetVar);
-                // result must pass the filter threshold first!
-                if (sim >= threshold) {
-                    double sim2 = map.getConfidence(key, value);
-                    double minSimilarity = Math.min(sim, sim2);
-                    // min similarity because of AND operator
-                    // check if min sim passes the bigger threshold
-                    if (minSimilarity >= mainThreshold) {
-                        result.add(key, value, minSimilarity);
-                    }
+        CompiledFilter f = new CompiledFilter(condition, threshold, sourceVar, targetVar);
+        return f.filter(map, source, target, (sim, confidence) -> {
+            // result must pass the filter threshold first!
+            if (sim >= threshold) {
+                // min similarity because of AND operator
+                // check if min sim passes the bigger threshold
+                double minSimilarity = Math.min(sim, confidence);
+                if (minSimilarity >= mainThreshold) {
+                    return minSimilarity;
                 }
-
             }
-        }
-        return result;
-
+            return -1;
+        });
     }
 
     /**
@@ -192,32 +163,14 @@ public class LinearFilter implements IFilter {
     public AMapping reversefilter(AMapping map, String condition, double threshold, double mainThreshold, ACache source,
             ACache target, String sourceVar, String targetVar) {
 
-        double sim = 0.0;
-        Instance s, t;
-        AMapping result = MappingFactory.createDefaultMapping();
         if (condition == null) {
             System.err.println("Null condition in extended reverse filter function (LinearFilter). Exiting..");
             throw new RuntimeException();
         }
-
-        // 2. run on all pairs and remove those
-        for (String key : map.getMap().keySet()) {
-            s = source.getInstance(key);
-            for (String value : map.getMap().get(key).keySet()) {
-                t = target.getInstance(value);
-                sim = MeasureProcessor.getSimilarity(s, t, condition, threshold, sourceVar, targetVar);
-
-                // similarity of s and t must be 0 to be accepted
-                if (sim == 0) {
-                    double sim2 = map.getConfidence(key, value);
-                    if (sim2 >= mainThreshold) {
-                        result.add(key, value, sim2);
-                    }
-                }
-            }
-        }
-        return result;
-
+        CompiledFilter f = new CompiledFilter(condition, threshold, sourceVar, targetVar);
+        // similarity of s and t must be 0 to be accepted
+        return f.filter(map, source, target,
+                (sim, confidence) -> (sim == 0 && confidence >= mainThreshold) ? confidence : -1);
     }
 
     /**
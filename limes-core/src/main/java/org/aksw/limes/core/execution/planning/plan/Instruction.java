@@ -17,7 +17,7 @@ public class Instruction {
      * Enum class of allowed command.
      */
     public enum Command {
-        RUN, INTERSECTION, UNION, DIFF, RETURN, FILTER, XOR, REVERSEFILTER;
+        RUN, INTERSECTION, UNION, DIFF, RETURN, FILTER, XOR, REVERSEFILTER, SEMIJOIN;
     }
 
     static Logger logger = LoggerFactory.getLogger(Instruction.class);
@@ -260,6 +260,8 @@ public class Instruction {
             s = "XOR\t";
         } else if (command.equals(Command.REVERSEFILTER)) {
             s = "REVERSEFILTER\t";
+        } else if (command.equals(Command.SEMIJOIN)) {
+            s = "SEMIJOIN\t";
         }
 
         s = s + measureExpression + "\t";
@@ -315,6 +317,8 @@ public class Instruction {
             s = "XOR\t";
         } else if (command.equals(Command.REVERSEFILTER)) {
             s = "REVERSEFILTER\t";
+        } else if (command.equals(Command.SEMIJOIN)) {
+            s = "SEMIJOIN\t";
         }
 
         s = s + measureExpression + "\t";
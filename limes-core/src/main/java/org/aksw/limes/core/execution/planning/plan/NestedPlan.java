@@ -21,7 +21,9 @@ public class NestedPlan extends Plan {
      */
     private List<NestedPlan> subPlans;
     /**
-     * Operator of the nested plan.
+     * Operator of the nested plan. A SEMIJOIN is an intersection whose later
+     * sub-plans are only executed for the instances that occur in the mapping
+     * of the first sub-plan.
      */
     private Command operator;
     /**
@@ -409,6 +411,8 @@ public class NestedPlan extends Plan {
                     op = "UNION";
                 } else if (this.operator.equals(Command.XOR)) {
                     op = "XOR";
+                } else if (this.operator.equals(Command.SEMIJOIN)) {
+                    op = "SEMIJOIN";
                 }
                 String filter = "FILTER:" + filteringInstruction.getThreshold();
                 if (subPlans.get(0).isAtomic() && subPlans.get(1).isAtomic()) {
@@ -0,0 +1,403 @@
+package org.aksw.limes.core.execution.planning.planner;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+
+import org.aksw.limes.core.io.ls.LinkSpecification;
+import org.aksw.limes.core.measures.mapper.IMapper.Language;
+import org.aksw.limes.core.measures.measure.MeasureFactory;
+import org.aksw.limes.core.measures.measure.MeasureType;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Calibrated cost model for the planners. It records the runtimes and mapping
+ * sizes of atomic link specifications and fits a linear model
+ * <code>c0 + c1 * s + c2 * t + c3 * theta + c4 * s * t</code> per measure
+ * type and language, where s and t are the sizes of the source and target
+ * cache in thousands of instances. It also records the runtimes of filtering
+ * mappings with a measure and fits <code>c0 + c1 * m</code>, where m is the
+ * size of the filtered mapping in thousands of links. Fitted models can be
+ * saved to and loaded from a properties file. The planners only use the model
+ * for a link specification if it covers all of its atomic measures, see
+ * {@link #covers(LinkSpecification, Language)}. Otherwise, all runs and
+ * filters are estimated by the mappers and measures, whose estimates are on
+ * another scale.
+ * <br>
+ * Observations without a known language are recorded as
+ * {@link Language#NULL}, whose models are used for all languages that have
+ * no model of their own.
+ */
+public class CostModel {
+
+    static Logger logger = LoggerFactory.getLogger(CostModel.class);
+    /**
+     * System property with the path of the calibration file of the default
+     * cost model.
+     */
+    public static final String FILE_PROPERTY = "limes.costmodel";
+    private static final String RUNTIME = "runtime";
+    private static final String SIZE = "size";
+    private static final String FILTER = "filter";
+    private static final int FEATURES = 5;
+    /**
+     * Maximal number of observations kept per measure type and language.
+     */
+    private static final int MAX_OBSERVATIONS = 1000;
+    private static final double RIDGE = 1e-6;
+
+    private static CostModel defaultModel = null;
+
+    private final Map<String, double[]> models = new HashMap<>();
+    private final Map<String, List<double[]>> observations = new HashMap<>();
+    private boolean recording = false;
+
+    /**
+     * @return the cost model used by the planners. It is read from the file
+     *         given by the system property {@value #FILE_PROPERTY} if it is
+     *         set, else it is empty.
+     */
+    public static synchronized CostModel getDefault() {
+        if (defaultModel == null) {
+            defaultModel = new CostModel();
+            String file = System.getProperty(FILE_PROPERTY);
+            if (file != null) {
+                try {
+                    defaultModel.load(new File(file));
+                } catch (IOException e) {
+                    logger.warn("Could not read cost model " + file + ": " + e.getMessage());
+                }
+            }
+        }
+        return defaultModel;
+    }
+
+    /**
+     * @param recording
+     *            true if the execution engines shall record the runtimes and
+     *            mapping sizes of atomic link specifications
+     */
+    public synchronized void setRecording(boolean recording) {
+        this.recording = recording;
+    }
+
+    /**
+     * @return true if observations are recorded
+     */
+    public synchronized boolean isRecording() {
+        return recording;
+    }
+
+    /**
+     * Records the runtime and mapping size of an atomic link specification.
+     *
+     * @param type
+     *            Measure type
+     * @param language
+     *            Language of the data, {@link Language#NULL} if unknown
+     * @param sourceSize
+     *            Size of the source cache
+     * @param targetSize
+     *            Size of the target cache
+     * @param theta
+     *            Threshold
+     * @param runtime
+     *            Runtime in ms
+     * @param mappingSize
+     *            Number of links computed
+     */
+    public synchronized void record(MeasureType type, Language language, int sourceSize, int targetSize,
+            double theta, double runtime, double mappingSize) {
+        List<double[]> list = observations.computeIfAbsent(getKey(type, language), k -> new ArrayList<>());
+        if (list.size() == MAX_OBSERVATIONS) {
+            list.remove(0);
+        }
+        double[] x = features(sourceSize, targetSize, theta);
+        double[] observation = new double[FEATURES + 2];
+        System.arraycopy(x, 0, observation, 0, FEATURES);
+        observation[FEATURES] = runtime;
+        observation[FEATURES + 1] = mappingSize;
+        list.add(observation);
+    }
+
+    /**
+     * Records the runtime of filtering a mapping with a measure.
+     *
+     * @param type
+     *            Measure type
+     * @param language
+     *            Language of the data, {@link Language#NULL} if unknown
+     * @param mappingSize
+     *            Size of the filtered mapping
+     * @param runtime
+     *            Runtime in ms
+     */
+    public synchronized void recordFilter(MeasureType type, Language language, int mappingSize, double runtime) {
+        List<double[]> list = observations.computeIfAbsent(getKey(type, language) + "." + FILTER,
+                k -> new ArrayList<>());
+        if (list.size() == MAX_OBSERVATIONS) {
+            list.remove(0);
+        }
+        double[] observation = new double[FEATURES + 1];
+        System.arraycopy(features(mappingSize, 0, 0), 0, observation, 0, FEATURES);
+        observation[FEATURES] = runtime;
+        list.add(observation);
+    }
+
+    /**
+     * Fits the models of all measure types and languages with at least as
+     * many observations as the models have coefficients.
+     */
+    public synchronized void fit() {
+        for (Map.Entry<String, List<double[]>> e : observations.entrySet()) {
+            List<double[]> list = e.getValue();
+            if (list.size() < FEATURES) {
+                continue;
+            }
+            if (e.getKey().endsWith("." + FILTER)) {
+                models.put(e.getKey(), solve(list, FEATURES));
+            } else {
+                models.put(e.getKey() + "." + RUNTIME, solve(list, FEATURES));
+                models.put(e.getKey() + "." + SIZE, solve(list, FEATURES + 1));
+            }
+        }
+    }
+
+    /**
+     * Estimates the runtime of an atomic link specification.
+     *
+     * @param type
+     *            Measure type
+     * @param language
+     *            Language of the data
+     * @param sourceSize
+     *            Size of the source cache
+     * @param targetSize
+     *            Size of the target cache
+     * @param theta
+     *            Threshold
+     * @return estimated runtime in ms, NaN if there is no model
+     */
+    public double getRuntime(MeasureType type, Language language, int sourceSize, int targetSize, double theta) {
+        return estimate(type, language, RUNTIME, sourceSize, targetSize, theta);
+    }
+
+    /**
+     * Estimates the mapping size of an atomic link specification.
+     *
+     * @param type
+     *            Measure type
+     * @param language
+     *            Language of the data
+     * @param sourceSize
+     *            Size of the source cache
+     * @param targetSize
+     *            Size of the target cache
+     * @param theta
+     *            Threshold
+     * @return estimated number of links, NaN if there is no model
+     */
+    public double getMappingSize(MeasureType type, Language language, int sourceSize, int targetSize,
+            double theta) {
+        double size = estimate(type, language, SIZE, sourceSize, targetSize, theta);
+        return Double.isNaN(size) ? size : Math.min(size, (double) sourceSize * targetSize);
+    }
+
+    /**
+     * Estimates the runtime of filtering a mapping with a measure.
+     *
+     * @param type
+     *            Measure type
+     * @param language
+     *            Language of the data
+     * @param mappingSize
+     *            Size of the filtered mapping
+     * @return estimated runtime in ms, NaN if there is no model
+     */
+    public double getFilterRuntime(MeasureType type, Language language, double mappingSize) {
+        return estimate(type, language, FILTER, mappingSize, 0, 0);
+    }
+
+    /**
+     * @param type
+     *            Measure type
+     * @param language
+     *            Language of the data
+     * @return true if the runtime and mapping size of the measure and the
+     *         runtime of filtering with it can be estimated
+     */
+    public synchronized boolean hasModel(MeasureType type, Language language) {
+        for (String kind : new String[] { RUNTIME, SIZE, FILTER }) {
+            if (!models.containsKey(getKey(type, language) + "." + kind)
+                    && !models.containsKey(getKey(type, Language.NULL) + "." + kind)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * @param spec
+     *            Link specification
+     * @param language
+     *            Language of the data
+     * @return true if all atomic measures of the specification have a model
+     */
+    public boolean covers(LinkSpecification spec, Language language) {
+        if (isEmpty()) {
+            return false;
+        }
+        for (LinkSpecification leaf : spec.getAllLeaves()) {
+            if (!hasModel(MeasureFactory.getMeasureType(leaf.getAtomicMeasure()), language)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * @return true if no model was fitted or loaded
+     */
+    public synchronized boolean isEmpty() {
+        return models.isEmpty();
+    }
+
+    /**
+     * Writes the fitted models to a properties file.
+     *
+     * @param file
+     *            Calibration file
+     * @throws IOException
+     *             if the file cannot be written
+     */
+    public synchronized void save(File file) throws IOException {
+        Properties properties = new Properties();
+        for (Map.Entry<String, double[]> e : models.entrySet()) {
+            StringBuilder value = new StringBuilder();
+            for (double c : e.getValue()) {
+                value.append(value.length() == 0 ? "" : " ").append(c);
+            }
+            properties.setProperty(e.getKey(), value.toString());
+        }
+        try (OutputStream out = new FileOutputStream(file)) {
+            properties.store(out, "LIMES cost model: c0 + c1 * s + c2 * t + c3 * theta + c4 * s * t, "
+                    + "s and t in thousands of instances, s in thousands of links for filters");
+        }
+    }
+
+    /**
+     * Reads models from a properties file. Models of the file replace the
+     * models of the same measure type and language.
+     *
+     * @param file
+     *            Calibration file
+     * @throws IOException
+     *             if the file cannot be read
+     */
+    public synchronized void load(File file) throws IOException {
+        Properties properties = new Properties();
+        try (InputStream in = new FileInputStream(file)) {
+            properties.load(in);
+        }
+        for (String key : properties.stringPropertyNames()) {
+            String[] split = properties.getProperty(key).trim().split("\\s+");
+            if (split.length != FEATURES) {
+                logger.warn("Ignoring cost model " + key + " with " + split.length + " coefficients.");
+                continue;
+            }
+            double[] coefficients = new double[FEATURES];
+            try {
+                for (int i = 0; i < FEATURES; i++) {
+                    coefficients[i] = Double.parseDouble(split[i]);
+                }
+            } catch (NumberFormatException e) {
+                logger.warn("Ignoring cost model " + key + ": " + e.getMessage());
+                continue;
+            }
+            models.put(key, coefficients);
+        }
+    }
+
+    private synchronized double estimate(MeasureType type, Language language, String kind, double sourceSize,
+            double targetSize, double theta) {
+        double[] coefficients = models.get(getKey(type, language) + "." + kind);
+        if (coefficients == null) {
+            coefficients = models.get(getKey(type, Language.NULL) + "." + kind);
+        }
+        if (coefficients == null) {
+            return Double.NaN;
+        }
+        double[] x = features(sourceSize, targetSize, theta);
+        double result = 0;
+        for (int i = 0; i < FEATURES; i++) {
+            result += coefficients[i] * x[i];
+        }
+        return Math.max(result, 0d);
+    }
+
+    private static String getKey(MeasureType type, Language language) {
+        return type.name() + "." + (language == null ? Language.NULL : language).name();
+    }
+
+    private static double[] features(double sourceSize, double targetSize, double theta) {
+        double s = sourceSize / 1000d;
+        double t = targetSize / 1000d;
+        return new double[] { 1d, s, t, theta, s * t };
+    }
+
+    /**
+     * Least squares fit of the column y of the observations, slightly
+     * regularized as the calibration often uses equal source and target
+     * sizes.
+     */
+    private static double[] solve(List<double[]> observations, int y) {
+        double[][] a = new double[FEATURES][FEATURES + 1];
+        for (double[] o : observations) {
+            for (int i = 0; i < FEATURES; i++) {
+                for (int j = 0; j < FEATURES; j++) {
+                    a[i][j] += o[i] * o[j];
+                }
+                a[i][FEATURES] += o[i] * o[y];
+            }
+        }
+        for (int i = 0; i < FEATURES; i++) {
+            a[i][i] += RIDGE * observations.size();
+        }
+        // Gaussian elimination with partial pivoting
+        for (int c = 0; c < FEATURES; c++) {
+            int pivot = c;
+            for (int r = c + 1; r < FEATURES; r++) {
+                if (Math.abs(a[r][c]) > Math.abs(a[pivot][c])) {
+                    pivot = r;
+                }
+            }
+            double[] tmp = a[c];
+            a[c] = a[pivot];
+            a[pivot] = tmp;
+            for (int r = c + 1; r < FEATURES; r++) {
+                double f = a[r][c] / a[c][c];
+                for (int k = c; k <= FEATURES; k++) {
+                    a[r][k] -= f * a[c][k];
+                }
+            }
+        }
+        double[] result = new double[FEATURES];
+        for (int r = FEATURES - 1; r >= 0; r--) {
+            double sum = a[r][FEATURES];
+            for (int k = r + 1; k < FEATURES; k++) {
+                sum -= a[r][k] * result[k];
+            }
+            result[r] = sum / a[r][r];
+        }
+        return result;
+    }
+}
@@ -0,0 +1,140 @@
+package org.aksw.limes.core.execution.planning.planner;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.List;
+
+import org.aksw.limes.core.execution.engine.filter.LinearFilter;
+import org.aksw.limes.core.io.cache.ACache;
+import org.aksw.limes.core.io.mapping.AMapping;
+import org.aksw.limes.core.io.mapping.MappingFactory;
+import org.aksw.limes.core.measures.mapper.IMapper.Language;
+import org.aksw.limes.core.measures.mapper.MapperFactory;
+import org.aksw.limes.core.measures.measure.MeasureFactory;
+import org.aksw.limes.core.measures.measure.MeasureType;
+import org.aksw.limes.core.util.DataGenerator;
+import org.aksw.limes.core.util.RandomPointGenerator;
+import org.aksw.limes.core.util.RandomStringGenerator;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Benchmark that calibrates a {@link CostModel} on the current machine. It
+ * runs the string measures and the euclidean measure on random data of
+ * different sizes with different thresholds, filters mappings of different
+ * sizes with them and fits the cost model to the observed runtimes and
+ * mapping sizes.
+ */
+public class CostModelCalibration {
+
+    static Logger logger = LoggerFactory.getLogger(CostModelCalibration.class);
+
+    public static final int[] DEFAULT_SIZES = { 500, 1000, 2000 };
+    public static final double[] DEFAULT_THRESHOLDS = { 0.5, 0.7, 0.9 };
+
+    private static final String[] STRING_MEASURES = { MeasureFactory.COSINE, MeasureFactory.EXACTMATCH,
+            MeasureFactory.JACCARD, MeasureFactory.JARO, MeasureFactory.JAROWINKLER, MeasureFactory.LEVENSHTEIN,
+            MeasureFactory.MONGEELKAN, MeasureFactory.OVERLAP, MeasureFactory.QGRAMS, MeasureFactory.RATCLIFF,
+            MeasureFactory.SOUNDEX, MeasureFactory.TRIGRAM };
+    private static final long SOURCE_SEED = 42;
+    private static final long TARGET_SEED = 4711;
+    /**
+     * Fraction of the pairs of source and target instances that is filtered.
+     */
+    private static final int FILTERED_PAIRS = 100;
+
+    private final int[] sizes;
+    private final double[] thresholds;
+
+    /**
+     * Constructor
+     *
+     * @param sizes
+     *            Sizes of the source and target caches
+     * @param thresholds
+     *            Thresholds of the atomic link specifications
+     */
+    public CostModelCalibration(int[] sizes, double[] thresholds) {
+        this.sizes = sizes;
+        this.thresholds = thresholds;
+    }
+
+    /**
+     * Runs all measures for all combinations of source size, target size and
+     * threshold and fits the cost model.
+     *
+     * @return the calibrated cost model
+     */
+    public CostModel calibrate() {
+        CostModel model = new CostModel();
+        for (String measure : STRING_MEASURES) {
+            calibrate(model, measure + "(x." + DataGenerator.LABEL + ",y." + DataGenerator.LABEL + ")",
+                    seed -> new RandomStringGenerator(5, 20, seed));
+        }
+        calibrate(model,
+                MeasureFactory.EUCLIDEAN + "(x." + RandomPointGenerator.LATITUDE + "|"
+                        + RandomPointGenerator.LONGITUDE + ",y." + RandomPointGenerator.LATITUDE + "|"
+                        + RandomPointGenerator.LONGITUDE + ")",
+                seed -> new RandomPointGenerator(-90, 90, seed));
+        model.fit();
+        return model;
+    }
+
+    /**
+     * Runs the calibration and writes the cost model to a file.
+     *
+     * @param file
+     *            Calibration file
+     * @throws IOException
+     *             if the file cannot be written
+     */
+    public void calibrate(File file) throws IOException {
+        calibrate().save(file);
+        logger.info("Cost model written to " + file.getAbsolutePath());
+    }
+
+    private interface GeneratorFactory {
+        DataGenerator create(long seed);
+    }
+
+    private void calibrate(CostModel model, String expression, GeneratorFactory generators) {
+        MeasureType type = MeasureFactory.getMeasureType(expression);
+        logger.info("Calibrating " + type);
+        for (int sourceSize : sizes) {
+            ACache source = generators.create(SOURCE_SEED).generateData(sourceSize);
+            for (int targetSize : sizes) {
+                ACache target = generators.create(TARGET_SEED).generateData(targetSize);
+                for (double threshold : thresholds) {
+                    // warm up
+                    MapperFactory.createMapper(type).getMapping(source, target, "?x", "?y", expression, threshold);
+                    long begin = System.nanoTime();
+                    int mappingSize = MapperFactory.createMapper(type)
+                            .getMapping(source, target, "?x", "?y", expression, threshold).size();
+                    double runtime = (System.nanoTime() - begin) / 1e6;
+                    model.record(type, Language.NULL, source.size(), target.size(), threshold, runtime,
+                            mappingSize);
+                }
+                AMapping pairs = getPairs(source, target, source.size() * target.size() / FILTERED_PAIRS);
+                // warm up
+                new LinearFilter().filter(pairs, expression, thresholds[0], source, target, "?x", "?y");
+                long begin = System.nanoTime();
+                new LinearFilter().filter(pairs, expression, thresholds[0], source, target, "?x", "?y");
+                model.recordFilter(type, Language.NULL, pairs.size(), (System.nanoTime() - begin) / 1e6);
+            }
+        }
+    }
+
+    /**
+     * @return a mapping of the first count pairs of source and target
+     *         instances
+     */
+    private static AMapping getPairs(ACache source, ACache target, int count) {
+        AMapping pairs = MappingFactory.createDefaultMapping();
+        List<String> sourceUris = source.getAllUris();
+        List<String> targetUris = target.getAllUris();
+        for (int i = 0; i < count; i++) {
+            pairs.add(sourceUris.get(i / targetUris.size()), targetUris.get(i % targetUris.size()), 1d);
+        }
+        return pairs;
+    }
+}
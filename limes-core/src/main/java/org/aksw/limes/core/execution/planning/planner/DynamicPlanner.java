@@ -45,6 +45,16 @@ public class DynamicPlanner extends Planner {
      * Language of the source/target data.
      */
     private Language lang;
+    /**
+     * Calibrated cost model, used instead of the estimates of the mappers
+     * if it covers all measures of the planned specification.
+     */
+    private CostModel costModel;
+    /**
+     * True if the costs of the current specification are estimated by the
+     * cost model.
+     */
+    private boolean calibrated = false;
     /**
      * Sub-link specifications (as string) and their corresponding plans.
      */
@@ -61,9 +71,24 @@ public class DynamicPlanner extends Planner {
     private Map<String, LinkSpecification> dependencies = new HashMap<String, LinkSpecification>();
 
     public DynamicPlanner(ACache s, ACache t) {
+        this(s, t, CostModel.getDefault());
+    }
+
+    /**
+     * Constructor of the Dynamic planner class with a given cost model.
+     *
+     * @param s
+     *            Source cache
+     * @param t
+     *            Target cache
+     * @param costModel
+     *            Calibrated cost model
+     */
+    public DynamicPlanner(ACache s, ACache t, CostModel costModel) {
         source = s;
         target = t;
         lang = Language.EN;
+        this.costModel = costModel;
     }
 
     public Map<String, NestedPlan> getPlans() {
@@ -156,6 +181,9 @@ public class DynamicPlanner extends Planner {
     public double getAtomicRuntimeCosts(String measure, double threshold) {
         AMapper mapper = null;
         MeasureType type = MeasureFactory.getMeasureType(measure);
+        if (calibrated) {
+            return costModel.getRuntime(type, lang, source.size(), target.size(), threshold);
+        }
         mapper = MapperFactory.createMapper(type);
         return mapper.getRuntimeApproximation(source.size(), target.size(), threshold, lang);
     }
@@ -175,6 +203,9 @@ public class DynamicPlanner extends Planner {
     public double getAtomicMappingSizes(String measure, double threshold) {
         AMapper mapper = null;
         MeasureType type = MeasureFactory.getMeasureType(measure);
+        if (calibrated) {
+            return costModel.getMappingSize(type, lang, source.size(), target.size(), threshold);
+        }
         mapper = MapperFactory.createMapper(type);
         return mapper.getMappingSizeApproximation(source.size(), target.size(), threshold, lang);
     }
@@ -205,15 +236,40 @@ public class DynamicPlanner extends Planner {
         double cost = 0;
         if (measures != null) {
             for (String measure : measures) {
-                double tempCost = 0;
-                MeasureType type = MeasureFactory.getMeasureType(measure);
-                tempCost = MeasureFactory.createMeasure(type).getRuntimeApproximation(mappingSize);
-                cost += tempCost;
+                cost += getMeasureFilterCosts(measure, mappingSize);
             }
         }
         return cost;
     }
 
+    /**
+     * Computes costs for filtering a mapping with a metric expression. The
+     * costs are on the same scale as the atomic runtime costs, i.e., they are
+     * estimated by the cost model if the planned specification is covered by
+     * it.
+     *
+     * @param expression
+     *            Metric expression used to filter
+     * @param mappingSize
+     *            Size of mapping
+     * @return estimated runtime cost of the filtering
+     */
+    public double getExpressionFilterCosts(String expression, double mappingSize) {
+        double cost = 0;
+        for (String measure : MeasureProcessor.getMeasures(expression)) {
+            cost += getMeasureFilterCosts(measure, mappingSize);
+        }
+        return cost;
+    }
+
+    private double getMeasureFilterCosts(String measure, double mappingSize) {
+        MeasureType type = MeasureFactory.getMeasureType(measure);
+        if (calibrated) {
+            return costModel.getFilterRuntime(type, lang, mappingSize);
+        }
+        return MeasureFactory.createMeasure(type).getRuntimeApproximation(mappingSize);
+    }
+
     /**
      * Returns the corresponding plan of a specification.
      *
@@ -354,7 +410,7 @@ public class DynamicPlanner extends Planner {
                 // size
                 if (plan.getFilteringInstruction().getMeasureExpression() != null) {
                     plan.setRuntimeCost(plan.getRuntimeCost()
-                            + MeasureProcessor.getCosts(plan.getFilteringInstruction().getMeasureExpression(),
+                            + getExpressionFilterCosts(plan.getFilteringInstruction().getMeasureExpression(),
                                     source.size() * target.size() * plan.getSelectivity()));
                 }
             } else if (spec.getOperator().equals(LogicOperator.XOR)) {
@@ -388,7 +444,7 @@ public class DynamicPlanner extends Planner {
                 // size
                 if (plan.getFilteringInstruction().getMeasureExpression() != null) {
                     plan.setRuntimeCost(plan.getRuntimeCost()
-                            + MeasureProcessor.getCosts(plan.getFilteringInstruction().getMeasureExpression(),
+                            + getExpressionFilterCosts(plan.getFilteringInstruction().getMeasureExpression(),
                                     source.size() * target.size() * plan.getSelectivity()));
                 }
 
@@ -520,7 +576,7 @@ public class DynamicPlanner extends Planner {
         result.setFilteringInstruction(new Instruction(Instruction.Command.FILTER, spec.getFilterExpression(),
                 spec.getThreshold() + "", -1, -1, 0));
         if (result.getFilteringInstruction().getMeasureExpression() != null) {
-            runtime1 = runtime1 + MeasureProcessor.getCosts(result.getFilteringInstruction().getMeasureExpression(),
+            runtime1 = runtime1 + getExpressionFilterCosts(result.getFilteringInstruction().getMeasureExpression(),
                     (int) Math.ceil(source.size() * target.size() * selectivity));
         }
         ////////////////////////////////////////////////////////////////////////
@@ -616,7 +672,7 @@ public class DynamicPlanner extends Planner {
             result.setFilteringInstruction(new Instruction(Instruction.Command.FILTER, spec.getFilterExpression(),
                     spec.getThreshold() + "", -1, -1, 0));
             if (result.getFilteringInstruction().getMeasureExpression() != null) {
-                runtime1 = runtime1 + MeasureProcessor.getCosts(result.getFilteringInstruction().getMeasureExpression(),
+                runtime1 = runtime1 + getExpressionFilterCosts(result.getFilteringInstruction().getMeasureExpression(),
                         (int) Math.ceil(source.size() * target.size() * selectivity));
             }
             // second instructionList: run left child and use right child as
@@ -657,7 +713,7 @@ public class DynamicPlanner extends Planner {
             result.setFilteringInstruction(new Instruction(Instruction.Command.FILTER, spec.getFilterExpression(),
                     spec.getThreshold() + "", -1, -1, 0));
             if (result.getFilteringInstruction().getMeasureExpression() != null) {
-                runtime1 = runtime1 + MeasureProcessor.getCosts(result.getFilteringInstruction().getMeasureExpression(),
+                runtime1 = runtime1 + getExpressionFilterCosts(result.getFilteringInstruction().getMeasureExpression(),
                         (int) Math.ceil(source.size() * target.size() * selectivity));
             }
             // third instructionList: run right child and use left child as
@@ -698,7 +754,7 @@ public class DynamicPlanner extends Planner {
             result.setFilteringInstruction(new Instruction(Instruction.Command.FILTER, spec.getFilterExpression(),
                     spec.getThreshold() + "", -1, -1, 0));
             if (result.getFilteringInstruction().getMeasureExpression() != null) {
-                runtime1 = runtime1 + MeasureProcessor.getCosts(result.getFilteringInstruction().getMeasureExpression(),
+                runtime1 = runtime1 + getExpressionFilterCosts(result.getFilteringInstruction().getMeasureExpression(),
                         (int) Math.ceil(source.size() * target.size() * selectivity));
             }
             // second instructionList: run left child and use right child as
@@ -780,6 +836,8 @@ public class DynamicPlanner extends Planner {
             return spec;
         }
         LinkSpecification ls = new ExtendedLinkSpecification(spec.getFullExpression(), spec.getThreshold());
+        // all sub-specifications are planned with the same kind of estimates
+        calibrated = costModel.covers(ls, lang);
         init(ls);
         return ls;
     }
@@ -43,6 +43,16 @@ public class HeliosPlanner extends Planner {
      * Language of the source/target data.
      */
     public Language lang;
+    /**
+     * Calibrated cost model, used instead of the estimates of the mappers
+     * if it covers all measures of the planned specification.
+     */
+    private CostModel costModel;
+    /**
+     * True if the costs of the current specification are estimated by the
+     * cost model.
+     */
+    private boolean calibrated = false;
 
     /**
      * Constructor of the Helios planner class.
@@ -53,9 +63,24 @@ public class HeliosPlanner extends Planner {
      *            Target get
      */
     public HeliosPlanner(ACache source, ACache target) {
+        this(source, target, CostModel.getDefault());
+    }
+
+    /**
+     * Constructor of the Helios planner class with a given cost model.
+     *
+     * @param source
+     *            Source cache
+     * @param target
+     *            Target cache
+     * @param costModel
+     *            Calibrated cost model
+     */
+    public HeliosPlanner(ACache source, ACache target, CostModel costModel) {
         this.source = source;
         this.target = target;
         this.lang = Language.EN;
+        this.costModel = costModel;
     }
 
     /**
@@ -70,12 +95,75 @@ public class HeliosPlanner extends Planner {
      * @return estimated runtime cost of the metric expression
      */
     public double getAtomicRuntimeCosts(String measure, double threshold) {
+        return getAtomicRuntimeCosts(measure, threshold, source.size(), target.size());
+    }
+
+    /**
+     * Computes atomic costs for a metric expression on caches of the given
+     * sizes.
+     *
+     * @param measure
+     *            Measure of metric expression
+     * @param threshold
+     *            Threshold of metric expression
+     * @param sourceSize
+     *            Number of source instances
+     * @param targetSize
+     *            Number of target instances
+     * @return estimated runtime cost of the metric expression
+     */
+    public double getAtomicRuntimeCosts(String measure, double threshold, int sourceSize, int targetSize) {
 
         AMapper mapper = null;
         MeasureType type = MeasureFactory.getMeasureType(measure);
+        if (calibrated) {
+            return costModel.getRuntime(type, lang, sourceSize, targetSize, threshold);
+        }
         mapper = MapperFactory.createMapper(type);
-        return mapper.getRuntimeApproximation(source.size(), target.size(), threshold, lang);
+        return mapper.getRuntimeApproximation(sourceSize, targetSize, threshold, lang);
+
+    }
 
+    /**
+     * Computes the costs of a plan that is only executed for the instances of
+     * the mapping of another plan, as done for the later sub-plans of a
+     * semi-join. The mapping of the other plan contains at most as many
+     * source and target instances as links. Atomic plans are estimated for
+     * the reduced cache sizes, the costs of complex plans are scaled linearly
+     * with the number of instances.
+     * <br>
+     * In addition, the mappers read the values of all candidates to build
+     * their reduced indexes, or copy the candidates into sub-caches, once
+     * for each measure of the plan. Reading one instance is priced like
+     * filtering one link with the measure, so these costs are on the same
+     * scale as the runtime costs.
+     *
+     * @param plan
+     *            Plan that is executed for the candidates
+     * @param candidateLinks
+     *            Estimated size of the mapping that provides the candidates
+     * @return estimated runtime cost of the plan
+     */
+    public double getSemiJoinCosts(NestedPlan plan, double candidateLinks) {
+        // the approximations of the mappers can be negative
+        candidateLinks = Math.max(0, candidateLinks);
+        int sourceSize = (int) Math.ceil(Math.min(source.size(), candidateLinks));
+        int targetSize = (int) Math.ceil(Math.min(target.size(), candidateLinks));
+        if (plan.isEmpty()) {
+            return 0;
+        }
+        double indexCosts = 0;
+        for (String measure : plan.getAllMeasures()) {
+            indexCosts += getMeasureFilterCosts(measure, sourceSize + targetSize);
+        }
+        if (plan.isAtomic()) {
+            Instruction run = plan.getInstructionList().get(0);
+            double threshold = Double.parseDouble(run.getThreshold());
+            Parser p = new Parser(run.getMeasureExpression(), threshold);
+            return getAtomicRuntimeCosts(p.getOperator(), threshold, sourceSize, targetSize) + indexCosts;
+        }
+        return plan.getRuntimeCost() * (sourceSize + targetSize) / (double) (source.size() + target.size())
+                + indexCosts;
     }
 
     /**
@@ -92,6 +180,9 @@ public class HeliosPlanner extends Planner {
     public double getAtomicMappingSizes(String measure, double threshold) {
         AMapper mapper = null;
         MeasureType type = MeasureFactory.getMeasureType(measure);
+        if (calibrated) {
+            return costModel.getMappingSize(type, lang, source.size(), target.size(), threshold);
+        }
         mapper = MapperFactory.createMapper(type);
         return mapper.getMappingSizeApproximation(source.size(), target.size(), threshold, lang);
     }
@@ -111,15 +202,40 @@ public class HeliosPlanner extends Planner {
         double cost = 0;
         if (measures != null) {
             for (String measure : measures) {
-                double tempCost = 0;
-                MeasureType type = MeasureFactory.getMeasureType(measure);
-                tempCost = MeasureFactory.createMeasure(type).getRuntimeApproximation(mappingSize);
-                cost += tempCost;
+                cost += getMeasureFilterCosts(measure, mappingSize);
             }
         }
         return cost;
     }
 
+    /**
+     * Computes costs for filtering a mapping with a metric expression. The
+     * costs are on the same scale as the atomic runtime costs, i.e., they are
+     * estimated by the cost model if the planned specification is covered by
+     * it.
+     *
+     * @param expression
+     *            Metric expression used to filter
+     * @param mappingSize
+     *            Size of mapping
+     * @return estimated runtime cost of the filtering
+     */
+    public double getExpressionFilterCosts(String expression, double mappingSize) {
+        double cost = 0;
+        for (String measure : MeasureProcessor.getMeasures(expression)) {
+            cost += getMeasureFilterCosts(measure, mappingSize);
+        }
+        return cost;
+    }
+
+    private double getMeasureFilterCosts(String measure, double mappingSize) {
+        MeasureType type = MeasureFactory.getMeasureType(measure);
+        if (calibrated) {
+            return costModel.getFilterRuntime(type, lang, mappingSize);
+        }
+        return MeasureFactory.createMeasure(type).getRuntimeApproximation(mappingSize);
+    }
+
     /**
      * Generates a NestedPlan for a link specification.
      *
@@ -129,6 +245,7 @@ public class HeliosPlanner extends Planner {
      */
     @Override
     public NestedPlan plan(LinkSpecification spec) {
+        calibrated = spec != null && !spec.isEmpty() && costModel.covers(spec, lang);
         return plan(spec, source, target, MappingFactory.createDefaultMapping(), MappingFactory.createDefaultMapping());
     }
 
@@ -216,7 +333,7 @@ public class HeliosPlanner extends Planner {
                 // size
                 if (plan.getFilteringInstruction().getMeasureExpression() != null) {
                     plan.setRuntimeCost(plan.getRuntimeCost()
-                            + MeasureProcessor.getCosts(plan.getFilteringInstruction().getMeasureExpression(),
+                            + getExpressionFilterCosts(plan.getFilteringInstruction().getMeasureExpression(),
                                     source.size() * target.size() * plan.getSelectivity()));
                 }
             } // here we can optimize.
@@ -225,7 +342,9 @@ public class HeliosPlanner extends Planner {
                 plan.setRuntimeCost(0);
                 double selectivity = 1d;
                 for (LinkSpecification child : spec.getChildren()) {
-                    NestedPlan childPlan = plan(child);
+                    // same as plan(child), without choosing the estimates again
+                    NestedPlan childPlan = plan(child, this.source, this.target,
+                            MappingFactory.createDefaultMapping(), MappingFactory.createDefaultMapping());
                     children.add(childPlan);
                     plan.setRuntimeCost(plan.getRuntimeCost() + childPlan.getRuntimeCost());
                     selectivity = selectivity * childPlan.getSelectivity();
@@ -307,9 +426,14 @@ public class HeliosPlanner extends Planner {
      * and then filter the resulting mapping using the threshold of the link
      * specification. (3) Execute the plan of the right child, use the left
      * child measure expression as a filer and then filter the resulting mapping
-     * using the threshold of the link specification. The selection of the best
-     * alternative is based upon runtime estimations obtained for each of the
-     * atomic measure expressions included in the children specifications.
+     * using the threshold of the link specification. (4) Execute the plan of
+     * the left child, execute the plan of the right child only for the
+     * instances of the resulting mapping (semi-join), perform intersection and
+     * filter the resulting mapping using the threshold of the link
+     * specification. (5) Same as (4) with the right child first. The selection
+     * of the best alternative is based upon runtime estimations obtained for
+     * each of the atomic measure expressions included in the children
+     * specifications.
      *
      * @param spec
      *            The link specification
@@ -324,15 +448,17 @@ public class HeliosPlanner extends Planner {
      */
     public NestedPlan getBestConjunctivePlan(LinkSpecification spec, NestedPlan left, NestedPlan right,
             double selectivity) {
-        double runtime1 = 0, runtime2, runtime3;
+        double runtime1 = 0, runtime2, runtime3, runtime4, runtime5;
+        double filterCosts = 0;
         NestedPlan result = new NestedPlan();
         // first instructionList: run both children and then merge
         runtime1 = left.getRuntimeCost() + right.getRuntimeCost();
         result.setFilteringInstruction(new Instruction(Instruction.Command.FILTER, spec.getFilterExpression(),
                 spec.getThreshold() + "", -1, -1, 0));
         if (result.getFilteringInstruction().getMeasureExpression() != null) {
-            runtime1 = runtime1 + MeasureProcessor.getCosts(result.getFilteringInstruction().getMeasureExpression(),
+            filterCosts = getExpressionFilterCosts(result.getFilteringInstruction().getMeasureExpression(),
                     (int) Math.ceil(source.size() * target.size() * selectivity));
+            runtime1 = runtime1 + filterCosts;
         }
         // second instructionList: run left child and use right child as filter
         runtime2 = left.getRuntimeCost();
@@ -343,7 +469,18 @@ public class HeliosPlanner extends Planner {
         runtime3 = runtime3 + getFilterCosts(left.getAllMeasures(),
                 (int) Math.ceil(source.size() * target.size() * left.getSelectivity()));
 
-        double min = Math.min(Math.min(runtime3, runtime2), runtime1);
+        // fourth instructionList: run left child, then right child for the
+        // instances of its mapping only
+        runtime4 = left.getRuntimeCost()
+                + getSemiJoinCosts(right, (double) source.size() * target.size() * left.getSelectivity())
+                + filterCosts;
+        // fifth instructionList: run right child, then left child for the
+        // instances of its mapping only
+        runtime5 = right.getRuntimeCost()
+                + getSemiJoinCosts(left, (double) source.size() * target.size() * right.getSelectivity())
+                + filterCosts;
+
+        double min = Math.min(Math.min(Math.min(runtime3, runtime2), runtime1), Math.min(runtime4, runtime5));
 
         if (min == runtime1) {
             result.setOperator(Instruction.Command.INTERSECTION);
@@ -360,8 +497,7 @@ public class HeliosPlanner extends Planner {
             List<NestedPlan> subplans = new ArrayList<NestedPlan>();
             subplans.add(left);
             result.setSubPlans(subplans);
-        } else // min == runtime3
-        {
+        } else if (min == runtime3) {
             String leftChild = spec.getChildren().get(0).getFullExpression();
             result.setFilteringInstruction(new Instruction(Instruction.Command.FILTER, leftChild,
                     spec.getChildren().get(0).getThreshold() + "", -1, -1, 0));
@@ -370,6 +506,19 @@ public class HeliosPlanner extends Planner {
             List<NestedPlan> subplans = new ArrayList<NestedPlan>();
             subplans.add(right);
             result.setSubPlans(subplans);
+        } else if (min == runtime4) {
+            result.setOperator(Instruction.Command.SEMIJOIN);
+            List<NestedPlan> subplans = new ArrayList<NestedPlan>();
+            subplans.add(left);
+            subplans.add(right);
+            result.setSubPlans(subplans);
+        } else // min == runtime5
+        {
+            result.setOperator(Instruction.Command.SEMIJOIN);
+            List<NestedPlan> subplans = new ArrayList<NestedPlan>();
+            subplans.add(right);
+            subplans.add(left);
+            result.setSubPlans(subplans);
         }
         result.setRuntimeCost(min);
         result.setSelectivity(selectivity);
@@ -0,0 +1,183 @@
+package org.aksw.limes.core.io.cache;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+
+import org.apache.jena.rdf.model.Model;
+
+/**
+ * @author Mohamed Sherif (sherif@informatik.uni-leipzig.de)
+ * @version Jul 8, 2015
+ */
+public abstract class ACache implements ICache {
+    // number of modifications made through the methods of the cache
+    private volatile long version = 0;
+
+    public abstract void addInstance(Instance i);
+
+    public abstract Instance getNextInstance();
+
+    public abstract ArrayList<Instance> getAllInstances();
+
+    public abstract ArrayList<String> getAllUris();
+
+    public abstract void addTriple(String s, String p, String o);
+
+    public abstract boolean containsInstance(Instance i);
+
+    public abstract boolean containsUri(String uri);
+
+    public abstract Instance getInstance(String uri);
+
+    public abstract void resetIterator();
+
+    public abstract int size();
+
+    public abstract ACache getSample(int size);
+
+    public abstract void replaceInstance(String uri, Instance a);
+
+    public abstract Set<String> getAllProperties();
+
+    /**
+     * Returns the number of modifications made to this cache by
+     * {@link #addInstance(Instance)}, {@link #addTriple(String, String, String)}
+     * and {@link #replaceInstance(String, Instance)}. Data derived from the
+     * cache, e.g. indexes of mappers, is up to date as long as the version is
+     * unchanged. Changes made to instances returned by lookups are not
+     * counted.
+     *
+     * @return Version of the content of the cache
+     */
+    public long getVersion() {
+        return version;
+    }
+
+    /**
+     * Increments the version of the cache, called by the methods of
+     * subclasses that modify the cache.
+     */
+    protected void modified() {
+        version++;
+    }
+
+    /**
+     * Returns a cache with the instances of the given URIs. URIs that are not
+     * contained in this cache are ignored. The instances are shared with this
+     * cache.
+     *
+     * @param uris
+     *         URIs of the instances
+     * @return Memory cache with the instances
+     */
+    public ACache getSubCache(Collection<String> uris) {
+        ACache result = new MemoryCache();
+        for (String uri : uris) {
+            if (containsUri(uri)) {
+                result.addInstance(getInstance(uri));
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Returns an iterator over the instances of this cache. Unlike
+     * {@link #getNextInstance()}, the iterator has its own position, so that
+     * several iterations can run one after the other or at the same time.
+     * Caches that do not store their data as {@link Instance}s should
+     * override this method and materialize the instances lazily.
+     *
+     * @return Iterator over all instances
+     */
+    public Iterator<Instance> iterateInstances() {
+        return getAllInstances().iterator();
+    }
+
+    /**
+     * Returns the values of a property of an instance. Caches that do not
+     * store their data as {@link Instance}s should override this method and
+     * read the values directly.
+     *
+     * @param uri
+     *         URI of the instance
+     * @param property
+     *         Property name
+     * @return Values of the property, empty if the instance or the property
+     *         is not in the cache
+     */
+    public TreeSet<String> getValues(String uri, String property) {
+        Instance instance = getInstance(uri);
+        return instance == null ? new TreeSet<String>() : instance.getProperty(property);
+    }
+
+    /**
+     * Returns a map from the values of a property to the URIs of the instances
+     * which have this value. Caches that do not store their data as
+     * {@link Instance}s should override this method and read the values
+     * directly.
+     *
+     * @param property
+     *         Property name
+     * @return Map from values to sets of URIs
+     */
+    public Map<String, Set<String>> getValueToUriMap(String property) {
+        Map<String, Set<String>> result = new HashMap<>();
+        List<String> uris = getAllUris();
+        for (String uri : uris) {
+            Set<String> values = getInstance(uri).getProperty(property);
+            for (String value : values) {
+                if (!result.containsKey(value)) {
+                    result.put(value, new HashSet<>());
+                }
+                result.get(value).add(uri);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Method to processData according to specific preprocessing steps.
+     *
+     * @param propertyProcess
+     *         Map maps propertyNames to preprocessing functions.
+     * @return cacheof processed data
+     */
+    public abstract ACache processData(Map<String, String> propertyProcess);
+
+    /**
+     * Method to process data of a property into a new property with specific preprocessing.
+     *
+     * @param sourcePropertyName
+     *         Name of the property to process.
+     * @param targetPropertyName
+     *         Name of the new property to process data into.
+     * @param processingChain
+     *         Preprocessing Expression.
+     * @return Cache after property add 
+     */
+    public abstract ACache addProperty(String sourcePropertyName, String targetPropertyName, String processingChain);
+
+
+    /**
+     * Basic method to create a JENA Model out of a cache.
+     * Restriction 1: Assumes all objects are literal values. Thus, resource URIs are represented as Strings.
+     * Restriction 2: Adds a rdf:Type statement for all instances.
+     *
+     * @param baseURI
+     *         Base URI of properties, could be empty.
+     * @param IDbaseURI
+     *         Base URI for id of resources: URI(instance) := IDbaseURI+instance.getID(). Could be empty.
+     * @param rdfType
+     *         rdf:Type of the instances.
+     * @return JENA RDF Model
+     */
+    public abstract Model parseCSVtoRDFModel(String baseURI, String IDbaseURI, String rdfType);
+
+}
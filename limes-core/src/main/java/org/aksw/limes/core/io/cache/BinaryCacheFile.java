@@ -0,0 +1,329 @@
+package org.aksw.limes.core.io.cache;
+
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Reads and writes caches in the binary cache file format. A cache file
+ * contains the dictionary-encoded columns of a {@link ColumnarCache}:
+ *
+ * <pre>
+ * header      magic number, schema version, #instances, #properties, #values
+ * dictionary  URIs:        size, pool length, offsets[size + 1], chars[pool length]
+ * dictionary  properties:  same layout
+ * dictionary  values:      same layout
+ * column      for each property: #offsets, #values, offsets[], valueIds[]
+ * </pre>
+ *
+ * All numbers are big-endian 32 bit integers and all characters are UTF-16
+ * code units. Files are read through {@link FileChannel#map}, so that loading
+ * a cache amounts to a few bulk copies into primitive arrays. No object is
+ * created per instance or triple; {@link Instance}s are only materialized by
+ * {@link ColumnarCache#getInstance(String)}.
+ */
+public class BinaryCacheFile {
+    static Logger logger = LoggerFactory.getLogger(BinaryCacheFile.class);
+
+    /**
+     * "LIMC" in ASCII.
+     */
+    public static final int MAGIC = 0x4C494D43;
+    /**
+     * Version of the layout written by this class. Files with another version
+     * are rejected and have to be recreated from the data source.
+     */
+    public static final int VERSION = 1;
+    public static final String EXTENSION = ".bin";
+
+    // upper bound of the size of a single mapped region
+    private static final int MAX_REGION = 1 << 30;
+
+    private BinaryCacheFile() {
+    }
+
+    /**
+     * Checks whether a file starts with the magic number of the binary format.
+     *
+     * @param file
+     *         File to check
+     * @return true if the file is a binary cache file
+     */
+    public static boolean isBinaryCacheFile(File file) {
+        if (!file.isFile() || file.length() < 4) {
+            return false;
+        }
+        try (RandomAccessFile in = new RandomAccessFile(file, "r")) {
+            return in.readInt() == MAGIC;
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Writes a cache to a file. Caches other than {@link ColumnarCache} are
+     * encoded first.
+     *
+     * @param cache
+     *         Cache to write
+     * @param file
+     *         Target file
+     * @throws IOException
+     *         if the file can not be written
+     */
+    public static void write(ACache cache, File file) throws IOException {
+        try (DataOutputStream out = new DataOutputStream(
+                new BufferedOutputStream(new FileOutputStream(file), 1 << 16))) {
+            write(cache, out);
+        }
+    }
+
+    /**
+     * Writes a cache to a stream, e.g. to send it to another process. Caches
+     * other than {@link ColumnarCache} are encoded first.
+     *
+     * @param cache
+     *         Cache to write
+     * @param out
+     *         Stream to write to, not closed
+     * @throws IOException
+     *         if writing fails
+     */
+    public static void write(ACache cache, DataOutputStream out) throws IOException {
+        ColumnarCache c;
+        if (cache instanceof ColumnarCache) {
+            c = (ColumnarCache) cache;
+        } else {
+            c = new ColumnarCache(cache.size());
+            for (String uri : cache.getAllUris()) {
+                c.addInstance(cache.getInstance(uri));
+            }
+        }
+        c.compact();
+        out.writeInt(MAGIC);
+        out.writeInt(VERSION);
+        out.writeInt(c.uris.size());
+        out.writeInt(c.properties.size());
+        out.writeInt(c.values.size());
+        writeDictionary(out, c.uris);
+        writeDictionary(out, c.properties);
+        writeDictionary(out, c.values);
+        for (PropertyColumn column : c.columns) {
+            int[] offsets = column.getOffsets();
+            int[] valueIds = column.getValueIds();
+            out.writeInt(offsets.length);
+            out.writeInt(valueIds.length);
+            writeInts(out, offsets, offsets.length);
+            writeInts(out, valueIds, valueIds.length);
+        }
+        out.flush();
+    }
+
+    /**
+     * Reads a cache from a file written by {@link #write(ACache, File)}.
+     *
+     * @param file
+     *         File to read
+     * @return The cache stored in the file
+     * @throws IOException
+     *         if the file can not be read, is not a binary cache file or has
+     *         an unsupported schema version
+     */
+    public static ColumnarCache read(File file) throws IOException {
+        try (RandomAccessFile raf = new RandomAccessFile(file, "r"); FileChannel channel = raf.getChannel()) {
+            return read(new MappedReader(channel), file.getAbsolutePath());
+        }
+    }
+
+    /**
+     * Reads a cache from a stream written by
+     * {@link #write(ACache, DataOutputStream)}.
+     *
+     * @param in
+     *         Stream to read from, not closed
+     * @return The cache read from the stream
+     * @throws IOException
+     *         if reading fails, the stream does not contain a binary cache or
+     *         has an unsupported schema version
+     */
+    public static ColumnarCache read(DataInputStream in) throws IOException {
+        return read(new StreamReader(in), "stream");
+    }
+
+    private static ColumnarCache read(Reader in, String name) throws IOException {
+        if (in.readInt() != MAGIC) {
+            throw new IOException(name + " is not a binary cache file");
+        }
+        int version = in.readInt();
+        if (version != VERSION) {
+            throw new IOException("Unsupported cache file version " + version + " in " + name + ", expected "
+                    + VERSION);
+        }
+        int instanceCount = in.readInt();
+        int propertyCount = in.readInt();
+        int valueCount = in.readInt();
+        StringDictionary uris = readDictionary(in, instanceCount);
+        StringDictionary properties = readDictionary(in, propertyCount);
+        StringDictionary values = readDictionary(in, valueCount);
+        List<PropertyColumn> columns = new ArrayList<PropertyColumn>(propertyCount);
+        for (int p = 0; p < propertyCount; p++) {
+            int offsetCount = in.readInt();
+            int idCount = in.readInt();
+            if (offsetCount != instanceCount + 1) {
+                throw new IOException("Corrupt column " + p + " in " + name);
+            }
+            int[] offsets = in.readInts(offsetCount);
+            int[] valueIds = in.readInts(idCount);
+            columns.add(PropertyColumn.fromArrays(offsets, valueIds));
+        }
+        logger.info("Read " + instanceCount + " instances with " + propertyCount + " properties from " + name);
+        return new ColumnarCache(uris, properties, values, columns);
+    }
+
+    private static void writeDictionary(DataOutputStream out, StringDictionary dictionary) throws IOException {
+        int size = dictionary.size();
+        int poolLength = dictionary.getPoolLength();
+        out.writeInt(size);
+        out.writeInt(poolLength);
+        writeInts(out, dictionary.getOffsets(), size + 1);
+        char[] pool = dictionary.getPool();
+        for (int i = 0; i < poolLength; i++) {
+            out.writeChar(pool[i]);
+        }
+    }
+
+    private static void writeInts(DataOutputStream out, int[] a, int length) throws IOException {
+        for (int i = 0; i < length; i++) {
+            out.writeInt(a[i]);
+        }
+    }
+
+    private static StringDictionary readDictionary(Reader in, int expectedSize) throws IOException {
+        int size = in.readInt();
+        int poolLength = in.readInt();
+        if (size != expectedSize) {
+            throw new IOException("Corrupt dictionary: expected " + expectedSize + " entries, found " + size);
+        }
+        int[] offsets = in.readInts(size + 1);
+        char[] pool = in.readChars(poolLength);
+        return StringDictionary.fromArrays(pool, offsets, size);
+    }
+
+    /**
+     * Sequential reader of the numbers of a binary cache.
+     */
+    private interface Reader {
+
+        int readInt() throws IOException;
+
+        int[] readInts(int n) throws IOException;
+
+        char[] readChars(int n) throws IOException;
+    }
+
+    /**
+     * Sequential reader over a file channel. The file is mapped in regions of
+     * at most {@link BinaryCacheFile#MAX_REGION} bytes, hence files larger
+     * than 2 GB can be read as well.
+     */
+    private static class MappedReader implements Reader {
+        private final FileChannel channel;
+        // single ints are read through this buffer instead of mapping them
+        private final ByteBuffer intBuffer = ByteBuffer.allocate(4);
+        private long position = 0;
+
+        MappedReader(FileChannel channel) {
+            this.channel = channel;
+        }
+
+        private MappedByteBuffer map(long bytes) throws IOException {
+            if (position + bytes > channel.size()) {
+                throw new IOException("Unexpected end of cache file");
+            }
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, position, bytes);
+            position += bytes;
+            return buffer;
+        }
+
+        @Override
+        public int readInt() throws IOException {
+            intBuffer.clear();
+            while (intBuffer.hasRemaining()) {
+                if (channel.read(intBuffer, position + intBuffer.position()) < 0) {
+                    throw new IOException("Unexpected end of cache file");
+                }
+            }
+            position += 4;
+            intBuffer.flip();
+            return intBuffer.getInt();
+        }
+
+        @Override
+        public int[] readInts(int n) throws IOException {
+            int[] result = new int[n];
+            int step = MAX_REGION / 4;
+            for (int done = 0; done < n; done += step) {
+                int len = Math.min(step, n - done);
+                map(4L * len).asIntBuffer().get(result, done, len);
+            }
+            return result;
+        }
+
+        @Override
+        public char[] readChars(int n) throws IOException {
+            char[] result = new char[n];
+            int step = MAX_REGION / 2;
+            for (int done = 0; done < n; done += step) {
+                int len = Math.min(step, n - done);
+                map(2L * len).asCharBuffer().get(result, done, len);
+            }
+            return result;
+        }
+    }
+
+    /**
+     * Sequential reader over a stream.
+     */
+    private static class StreamReader implements Reader {
+        private final DataInputStream in;
+
+        StreamReader(DataInputStream in) {
+            this.in = in;
+        }
+
+        @Override
+        public int readInt() throws IOException {
+            return in.readInt();
+        }
+
+        @Override
+        public int[] readInts(int n) throws IOException {
+            int[] result = new int[n];
+            for (int i = 0; i < n; i++) {
+                result[i] = in.readInt();
+            }
+            return result;
+        }
+
+        @Override
+        public char[] readChars(int n) throws IOException {
+            char[] result = new char[n];
+            for (int i = 0; i < n; i++) {
+                result[i] = in.readChar();
+            }
+            return result;
+        }
+    }
+}
@@ -0,0 +1,551 @@
+package org.aksw.limes.core.io.cache;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.stream.IntStream;
+
+import org.aksw.limes.core.io.preprocessing.PreprocessingChain;
+import org.aksw.limes.core.io.preprocessing.Preprocessor;
+import org.apache.jena.rdf.model.Model;
+import org.apache.jena.rdf.model.ModelFactory;
+import org.apache.jena.rdf.model.Property;
+import org.apache.jena.rdf.model.Resource;
+import org.apache.jena.vocabulary.RDF;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Implements a dictionary-encoded, column oriented cache that is exclusively
+ * in memory. URIs, property names and values are interned to integer ids by
+ * {@link StringDictionary}s, the values of all properties share one string
+ * pool. The values of each property are stored in a {@link PropertyColumn},
+ * i.e., as primitive arrays of value ids per instance. Hence, the cache needs
+ * a fraction of the heap of a {@link MemoryCache} and does not create any
+ * object per triple.
+ *
+ * {@link Instance} objects are materialized on demand by
+ * {@link #getInstance(String)}. Mappers that only need the values of a single
+ * property should use {@link #getValueToUriMap(String)} or
+ * {@link #getValues(String, String)}, which read the columns directly.
+ *
+ * Writing to the cache is not thread-safe. Once filled, the cache can be read
+ * by several threads concurrently.
+ */
+public class ColumnarCache extends ACache {
+    private static final Logger logger = LoggerFactory.getLogger(ColumnarCache.class);
+
+    protected StringDictionary uris;
+    protected StringDictionary properties;
+    protected StringDictionary values;
+    // columns.get(i) holds the values of the property with id i
+    protected List<PropertyColumn> columns;
+    // true if some column contains pending values
+    private volatile boolean dirty = false;
+
+    // position of the instance iterator
+    private int iteratorPosition = 0;
+
+    public ColumnarCache() {
+        this(1024);
+    }
+
+    /**
+     * @param expectedSize
+     *         Expected number of instances
+     */
+    public ColumnarCache(int expectedSize) {
+        uris = new StringDictionary(expectedSize);
+        properties = new StringDictionary(16);
+        values = new StringDictionary(expectedSize);
+        columns = new ArrayList<PropertyColumn>();
+    }
+
+    /**
+     * Creates a cache from already encoded data.
+     *
+     * @param uris
+     *         Dictionary of the instance URIs
+     * @param properties
+     *         Dictionary of the property names
+     * @param values
+     *         Dictionary of the values
+     * @param columns
+     *         Column of the i-th property, in the order of the property ids
+     */
+    public ColumnarCache(StringDictionary uris, StringDictionary properties, StringDictionary values,
+            List<PropertyColumn> columns) {
+        this.uris = uris;
+        this.properties = properties;
+        this.values = values;
+        this.columns = columns;
+        this.dirty = true;
+    }
+
+    /**
+     * Merges all pending values into the columns. Called before each read
+     * access.
+     */
+    protected void compact() {
+        if (dirty) {
+            synchronized (this) {
+                if (dirty) {
+                    for (PropertyColumn column : columns) {
+                        column.compact(uris.size());
+                    }
+                    dirty = false;
+                }
+            }
+        }
+    }
+
+    private void add(int uriId, String p, String o) {
+        int propertyId = properties.intern(p);
+        if (propertyId == columns.size()) {
+            columns.add(new PropertyColumn());
+        }
+        columns.get(propertyId).add(uriId, values.intern(o));
+        dirty = true;
+        modified();
+    }
+
+    /**
+     * Adds a new spo statement to the cache
+     *
+     * @param s
+     *         The URI of the instance linked to o via p
+     * @param p
+     *         The property which links s and o
+     * @param o
+     *         The value of the property of p for the entity s
+     */
+    @Override
+    public void addTriple(String s, String p, String o) {
+        add(uris.intern(s), p, o);
+    }
+
+    @Override
+    public void addInstance(Instance i) {
+        if (uris.contains(i.getUri())) {
+            return;
+        }
+        int uriId = uris.intern(i.getUri());
+        for (String p : i.getAllProperties()) {
+            for (String value : i.getProperty(p)) {
+                add(uriId, p, value);
+            }
+        }
+        dirty = true;
+    }
+
+    /**
+     * Replaces all values of the instance with the URI uri by the values of a.
+     * Removing values requires rewriting the columns, thus this method should
+     * not be called in a loop over the whole cache.
+     *
+     * @param uri
+     *         URI of the instance to replace
+     * @param a
+     *         Instance containing the new values
+     */
+    @Override
+    public void replaceInstance(String uri, Instance a) {
+        int uriId = uris.getId(uri);
+        if (uriId < 0) {
+            uriId = uris.intern(uri);
+        } else {
+            compact();
+            for (PropertyColumn column : columns) {
+                column.clear(uriId);
+            }
+            modified();
+        }
+        for (String p : a.getAllProperties()) {
+            for (String value : a.getProperty(p)) {
+                add(uriId, p, value);
+            }
+        }
+        dirty = true;
+    }
+
+    /**
+     * @param uri
+     *         URI to look for
+     * @return The instance with the URI uri if it is in the cache, else null
+     */
+    @Override
+    public Instance getInstance(String uri) {
+        int uriId = uris.getId(uri);
+        if (uriId < 0) {
+            return null;
+        }
+        return materialize(uriId);
+    }
+
+    private Instance materialize(int uriId) {
+        compact();
+        Instance instance = new Instance(uris.get(uriId));
+        for (int p = 0; p < columns.size(); p++) {
+            PropertyColumn column = columns.get(p);
+            int count = column.count(uriId);
+            if (count > 0) {
+                instance.addProperty(properties.get(p), toValueSet(column, uriId));
+            }
+        }
+        return instance;
+    }
+
+    private TreeSet<String> toValueSet(PropertyColumn column, int uriId) {
+        TreeSet<String> result = new TreeSet<String>();
+        int[] ids = column.getValueIds();
+        int start = column.start(uriId);
+        int end = start + column.count(uriId);
+        for (int i = start; i < end; i++) {
+            result.add(values.get(ids[i]));
+        }
+        return result;
+    }
+
+    /**
+     * Returns the values of a property of an instance without materializing
+     * the instance.
+     *
+     * @param uri
+     *         URI of the instance
+     * @param property
+     *         Property name
+     * @return Values of the property, empty if the instance or the property
+     *         is not in the cache
+     */
+    @Override
+    public TreeSet<String> getValues(String uri, String property) {
+        int uriId = uris.getId(uri);
+        int propertyId = properties.getId(property);
+        if (uriId < 0 || propertyId < 0) {
+            return new TreeSet<String>();
+        }
+        compact();
+        return toValueSet(columns.get(propertyId), uriId);
+    }
+
+    /**
+     * Returns a map from the values of a property to the URIs of the instances
+     * which have this value. The map is computed directly from the column of
+     * the property, hence neither instances nor duplicate value strings are
+     * created.
+     *
+     * @param property
+     *         Property name
+     * @return Map from values to sets of URIs
+     */
+    @Override
+    public Map<String, Set<String>> getValueToUriMap(String property) {
+        Map<String, Set<String>> result = new HashMap<>();
+        int propertyId = properties.getId(property);
+        if (propertyId < 0) {
+            return result;
+        }
+        compact();
+        PropertyColumn column = columns.get(propertyId);
+        int[] ids = column.getValueIds();
+        // distinct value ids of the column, sorted
+        int[] distinct = ids.clone();
+        Arrays.sort(distinct);
+        int k = 0;
+        for (int i = 0; i < distinct.length; i++) {
+            if (i == 0 || distinct[i] != distinct[i - 1]) {
+                distinct[k++] = distinct[i];
+            }
+        }
+        @SuppressWarnings("unchecked")
+        Set<String>[] uriSets = new Set[k];
+        for (int i = 0; i < k; i++) {
+            uriSets[i] = new HashSet<String>();
+            result.put(values.get(distinct[i]), uriSets[i]);
+        }
+        int[] offsets = column.getOffsets();
+        for (int u = 0; u < column.getInstances(); u++) {
+            if (offsets[u] == offsets[u + 1]) {
+                continue;
+            }
+            String uri = uris.get(u);
+            for (int i = offsets[u]; i < offsets[u + 1]; i++) {
+                uriSets[Arrays.binarySearch(distinct, 0, k, ids[i])].add(uri);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * @return The size of the cache
+     */
+    @Override
+    public int size() {
+        return uris.size();
+    }
+
+    /**
+     * Returns the next instance in the list of instances
+     *
+     * @return null if no next instance, else the next instance
+     */
+    @Override
+    public Instance getNextInstance() {
+        if (iteratorPosition < uris.size()) {
+            return materialize(iteratorPosition++);
+        } else {
+            return null;
+        }
+    }
+
+    @Override
+    public void resetIterator() {
+        iteratorPosition = 0;
+    }
+
+    /**
+     * Returns an iterator that materializes one instance at a time, so that
+     * only the instances referenced by the caller are kept in memory.
+     *
+     * @return Iterator over all instances
+     */
+    @Override
+    public Iterator<Instance> iterateInstances() {
+        return new Iterator<Instance>() {
+            private int position = 0;
+
+            @Override
+            public boolean hasNext() {
+                return position < uris.size();
+            }
+
+            @Override
+            public Instance next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                return materialize(position++);
+            }
+        };
+    }
+
+    /**
+     * Returns all the instance contained in the cache. Each instance is
+     * materialized, hence this method is expensive for large caches.
+     *
+     * @return ArrayList containing all instances
+     */
+    @Override
+    public ArrayList<Instance> getAllInstances() {
+        ArrayList<Instance> result = new ArrayList<Instance>(uris.size());
+        for (int u = 0; u < uris.size(); u++) {
+            result.add(materialize(u));
+        }
+        return result;
+    }
+
+    @Override
+    public ArrayList<String> getAllUris() {
+        ArrayList<String> result = new ArrayList<String>(uris.size());
+        for (int u = 0; u < uris.size(); u++) {
+            result.add(uris.get(u));
+        }
+        return result;
+    }
+
+    /**
+     * @param i
+     *         The instance to look for
+     * @return true if the URI of the instance is found in the cache
+     */
+    @Override
+    public boolean containsInstance(Instance i) {
+        return uris.contains(i.getUri());
+    }
+
+    /**
+     * @param uri
+     *         The URI to looks for
+     * @return True if an instance with the URI uri is found in the cache, else
+     *         false
+     */
+    @Override
+    public boolean containsUri(String uri) {
+        return uris.contains(uri);
+    }
+
+    @Override
+    public ACache getSample(int size) {
+        ColumnarCache c = new ColumnarCache(size);
+        size = Math.min(size, size());
+        while (c.size() < size) {
+            int index = (int) Math.floor(Math.random() * size());
+            c.addInstance(materialize(index));
+        }
+        return c;
+    }
+
+    /**
+     * Returns the set of properties that have at least one value in the cache.
+     *
+     * @return set of all properties
+     */
+    @Override
+    public Set<String> getAllProperties() {
+        HashSet<String> props = new HashSet<String>();
+        for (int p = 0; p < properties.size(); p++) {
+            props.add(properties.get(p));
+        }
+        return props;
+    }
+
+    /**
+     * Copies the URIs of this cache into a new cache, so that each instance
+     * keeps its id.
+     */
+    private ColumnarCache copyUris() {
+        ColumnarCache c = new ColumnarCache(uris.size());
+        for (int u = 0; u < uris.size(); u++) {
+            c.uris.intern(uris.get(u));
+        }
+        return c;
+    }
+
+    /**
+     * Copies the values of the property with id p into the cache c under the
+     * property name targetProperty, optionally applying a preprocessing
+     * function chain. Each distinct value is processed only once, the
+     * distinct values are processed in parallel.
+     */
+    private void copyColumn(ColumnarCache c, int p, String targetProperty, String processingChain) {
+        PropertyColumn column = columns.get(p);
+        int[] ids = column.getValueIds();
+        int[] offsets = column.getOffsets();
+        int length = offsets[column.getInstances()];
+        String[] processed = null;
+        if (processingChain != null) {
+            // process the distinct values of the column in parallel
+            PreprocessingChain chain = Preprocessor.compile(processingChain);
+            boolean[] seen = new boolean[values.size()];
+            int[] distinct = new int[length];
+            int count = 0;
+            for (int i = 0; i < length; i++) {
+                if (!seen[ids[i]]) {
+                    seen[ids[i]] = true;
+                    distinct[count++] = ids[i];
+                }
+            }
+            String[] result = new String[values.size()];
+            IntStream.range(0, count).parallel()
+                    .forEach(i -> result[distinct[i]] = chain.process(values.get(distinct[i])));
+            processed = result;
+        }
+        for (int u = 0; u < column.getInstances(); u++) {
+            for (int i = offsets[u]; i < offsets[u + 1]; i++) {
+                c.add(u, targetProperty, processed == null ? values.get(ids[i]) : processed[ids[i]]);
+            }
+        }
+    }
+
+    @Override
+    public ACache processData(Map<String, String> propertyMap) {
+        compact();
+        ColumnarCache c = copyUris();
+        for (int p = 0; p < properties.size(); p++) {
+            String property = properties.get(p);
+            copyColumn(c, p, property, propertyMap.get(property));
+        }
+        return c;
+    }
+
+    @Override
+    public ACache addProperty(String sourcePropertyName, String targetPropertyName, String processingChain) {
+        compact();
+        ColumnarCache c = copyUris();
+        for (int p = 0; p < properties.size(); p++) {
+            String property = properties.get(p);
+            if (property.equals(sourcePropertyName)) {
+                copyColumn(c, p, targetPropertyName, processingChain);
+            }
+            copyColumn(c, p, property, null);
+        }
+        logger.debug("Cache is ready");
+        return c;
+    }
+
+    @Override
+    public Model parseCSVtoRDFModel(String baseURI, String IDbaseURI, String rdfType) {
+        if (baseURI.length() > 0 && !(baseURI.endsWith("#") || baseURI.endsWith("/"))) {
+            baseURI += "#";
+        }
+        compact();
+        Model model = ModelFactory.createDefaultModel();
+        Resource r_rdfType = model.createResource(baseURI + rdfType);
+        Property[] props = new Property[properties.size()];
+        for (int p = 0; p < properties.size(); p++) {
+            props[p] = model.createProperty(baseURI + properties.get(p));
+        }
+        for (int u = 0; u < uris.size(); u++) {
+            Resource r = model.createResource(IDbaseURI + uris.get(u));
+            model.add(r, RDF.type, r_rdfType);
+            for (int p = 0; p < columns.size(); p++) {
+                PropertyColumn column = columns.get(p);
+                int[] ids = column.getValueIds();
+                int start = column.start(u);
+                for (int i = start; i < start + column.count(u); i++) {
+                    model.add(r, props[p], model.createLiteral(values.get(ids[i])));
+                }
+            }
+        }
+        return model;
+    }
+
+    /**
+     * @return Dictionary of the instance URIs
+     */
+    public StringDictionary getUriDictionary() {
+        return uris;
+    }
+
+    /**
+     * @return Dictionary of the property names
+     */
+    public StringDictionary getPropertyDictionary() {
+        return properties;
+    }
+
+    /**
+     * @return Dictionary of the values of all properties
+     */
+    public StringDictionary getValueDictionary() {
+        return values;
+    }
+
+    /**
+     * @param property
+     *         Property name
+     * @return The compacted column of the property or null if the property
+     *         is not in the cache
+     */
+    public PropertyColumn getColumn(String property) {
+        int propertyId = properties.getId(property);
+        if (propertyId < 0) {
+            return null;
+        }
+        compact();
+        return columns.get(propertyId);
+    }
+
+    @Override
+    public String toString() {
+        return "ColumnarCache[" + uris.size() + " instances, " + properties.size() + " properties, "
+                + values.size() + " distinct values]";
+    }
+}
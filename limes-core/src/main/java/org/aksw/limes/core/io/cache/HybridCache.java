@@ -0,0 +1,565 @@
+package org.aksw.limes.core.io.cache;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.aksw.limes.core.io.config.KBInfo;
+import org.aksw.limes.core.io.query.IQueryModule;
+import org.aksw.limes.core.io.query.NoPrefixSparqlQueryModule;
+import org.aksw.limes.core.io.query.QueryModuleFactory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+
+/**
+ * This cache implements a hybrid between memory and file cache. It generates a
+ * hash for each data source associated with it and serializes the content of the
+ * corresponding data source into a file. If another mapping task is associated
+ * with the same data source, it retrieves the corresponding data from the file,
+ * which is obviously more efficient for online data sources (no HTTP latency,
+ * offline processing, etc.). Else, it retrieves the data, generates a hash and
+ * caches it on the hard drive.
+ * Enhancing it with folders: specify the folder, where the application has
+ * permissions to read and write files.
+ *
+ * Caches are stored in the format of {@link BinaryCacheFile}. A cache loaded
+ * from such a file keeps its data in a {@link ColumnarCache} and materializes
+ * instances lazily on {@link #getInstance(String)}. Lookups only read the
+ * columns and can be made by several threads at the same time; instances
+ * returned by them must not be modified, changes go through the methods of
+ * the cache. A looked up instance is returned to all readers as long as one
+ * of them references it, but is not retained by the cache, hence full scans
+ * with {@link #iterateInstances()} keep only the columns in memory. All
+ * instances are materialized the first time the cache is modified or iterated
+ * with {@link #getNextInstance()}. Files that were written with Java serialization by older
+ * versions are still read and converted to the binary format.
+ *
+ * @author Axel-C. Ngonga Ngomo (ngonga@informatik.uni-leipzig.de)
+ * @author Lyko
+ * @author Mohamed Sherif (sherif@informatik.uni-leipzig.de)
+ * @version Jul 8, 2016
+ */
+public class HybridCache extends MemoryCache implements Serializable {
+    private static final long serialVersionUID = -2268344215686055231L;
+    static Logger logger = LoggerFactory.getLogger(HybridCache.class.getName());
+    // maps uris to instance. A bit redundant as instance contain their URI
+    protected HashMap<String, Instance> instanceMap;
+    //Iterator for getting next instance
+    protected Iterator<Instance> instanceIterator;
+
+    // pointing to the parent folder of the "cache" folder
+    private File folder = new File("");
+
+    // data loaded from a binary cache file, null once all instances are in instanceMap
+    private transient ColumnarCache store = null;
+    // instances materialized by lookups while store is set, shared by all
+    // readers until they are no longer referenced
+    private transient ConcurrentHashMap<String, LoadedInstance> loaded;
+    private transient ReferenceQueue<Instance> collected;
+
+    public HybridCache() {
+        instanceMap = new HashMap<String, Instance>();
+        loaded = new ConcurrentHashMap<String, LoadedInstance>();
+        collected = new ReferenceQueue<Instance>();
+    }
+
+    /**
+     * Create cache specifying the parent folder. Make shure the Application has write permissions there.
+     *
+     * @param folder
+     *         File pointing to the the parent folder of the (to-be-created) "cache" folder.
+     */
+    public HybridCache(File folder) {
+        this();
+        setFolder(folder);
+    }
+
+    /**
+     * Tries to load the content of the cache from a file, either in binary
+     * cache format or serialized by older versions
+     *
+     * @param file
+     *         File from which the content is to be loaded
+     * @return A Hybrid cache
+     * @throws IOException if file not found
+     */
+    public static HybridCache loadFromFile(File file) throws IOException {
+        String path = file.getAbsolutePath();
+        String parentPath = path.substring(0, path.lastIndexOf("cache"));
+        File parent = new File(parentPath);
+
+        if (BinaryCacheFile.isBinaryCacheFile(file)) {
+            HybridCache cache = new HybridCache(parent);
+            cache.store = BinaryCacheFile.read(file);
+            return cache;
+        }
+        FileInputStream in = new FileInputStream(file);
+        ObjectInputStream deSerializer = new ObjectInputStream(in);
+        HybridCache cache;
+
+        try {
+            cache = (HybridCache) deSerializer.readObject();
+            cache.setFolder(parent);
+            return cache;
+        } catch (ClassNotFoundException e) {
+            throw new IOException(e);
+        } finally {
+            in.close();
+        }
+    }
+
+    public static HybridCache getData(KBInfo kb) {
+        return getData(new File(""), kb);
+    }
+
+    /**
+     * Method to get Data of the specified endpoint, and cache it to the "cache" folder in the folder specified.
+     *
+     * @param folder
+     *         Path to the parent folder of the "cache" folder.
+     * @param kb
+     *         Endpoint specification.
+     * @return HybridCache of the data
+     */
+    public static HybridCache getData(File folder, KBInfo kb) {
+
+        HybridCache cache = new HybridCache(folder);
+        //1. Try to get content from a serialization
+        String hash = kb.hashCode() + "";
+        File cacheFile = new File(folder + "cache/" + hash + BinaryCacheFile.EXTENSION);
+        logger.info("Checking for file " + cacheFile.getAbsolutePath());
+        try {
+            if (cacheFile.exists()) {
+                logger.info("Found cached data. Loading data from file " + cacheFile.getAbsolutePath());
+                cache = HybridCache.loadFromFile(cacheFile);
+            } else {
+                cache = loadLegacyFile(new File(folder + "cache/" + hash + ".ser"), cacheFile, cache);
+            }
+            if (cache.size() == 0) {
+                throw new Exception();
+            } else {
+                logger.info("Cached data loaded successfully from file " + cacheFile.getAbsolutePath());
+                logger.info("Size = " + cache.size());
+            }
+        } //2. If it does not work, then get it from data sourceInfo as specified
+        catch (Exception e) {
+            
+            // need to add a QueryModuleFactory
+            logger.info("No cached data found for " + kb.getId());
+            IQueryModule module = QueryModuleFactory.getStreamingQueryModule(kb.getType(), kb);
+            module.fillCache(cache);
+
+            if (!new File(folder.getAbsolutePath() + File.separatorChar + "cache").exists() || !new File(folder.getAbsolutePath() + File.separatorChar + "cache").isDirectory()) {
+                new File(folder.getAbsolutePath() + File.separatorChar + "cache").mkdir();
+            }
+            cache.saveToFile(new File(folder.getAbsolutePath() + File.separatorChar + "cache/" + hash + BinaryCacheFile.EXTENSION));
+        }
+
+        return cache;
+    }
+
+    /**
+     * Loads a cache serialized by older versions and converts it to the binary
+     * cache format, so that the next run reads the binary file.
+     *
+     * @param legacyFile
+     *         File written with Java serialization
+     * @param cacheFile
+     *         Binary cache file to create
+     * @param cache
+     *         Cache to return if there is no legacy file
+     * @return The loaded cache or cache
+     * @throws IOException if the legacy file can not be read
+     */
+    private static HybridCache loadLegacyFile(File legacyFile, File cacheFile, HybridCache cache) throws IOException {
+        if (!legacyFile.exists()) {
+            return cache;
+        }
+        logger.info("Found serialized data. Loading data from file " + legacyFile.getAbsolutePath());
+        HybridCache legacy = HybridCache.loadFromFile(legacyFile);
+        if (legacy.size() > 0) {
+            legacy.saveToFile(cacheFile);
+        }
+        return legacy;
+    }
+
+    /**
+     * This method is used by learners which do not have prefix information.
+     *
+     * @param kb
+     *         Info to the knowledge base to query
+     * @return A cache filled with the entities to link
+     */
+    public static HybridCache getNoPrefixData(KBInfo kb) {
+        return getNoPrefixData(new File(""), kb);
+    }
+
+    /**
+     * This method is used by learners which do not have prefix information and with a specified folder containing the cache folder.
+     *
+     * @param folder
+     *         Path to parent folder of the supposed cache folder.
+     * @param kb
+     *         Info to the knowledge base to query
+     * @return A cache filled with the entities to link
+     */
+    public static HybridCache getNoPrefixData(File folder, KBInfo kb) {
+        HybridCache cache = new HybridCache();
+        //1. Try to get content from a serialization
+        File cacheFile = new File(folder.getAbsolutePath() + File.separatorChar + "cache/" + kb.hashCode() + BinaryCacheFile.EXTENSION);
+        try {
+            if (cacheFile.exists()) {
+                logger.info("Found cached data. Loading data from file " + cacheFile.getAbsolutePath());
+                cache = HybridCache.loadFromFile(cacheFile);
+            } else {
+                cache = loadLegacyFile(new File(folder.getAbsolutePath() + File.separatorChar + "cache/" + kb.hashCode() + ".ser"), cacheFile, cache);
+            }
+            if (cache.size() == 0) {
+                throw new Exception();
+            } else {
+                logger.info("Cached data loaded successfully from file " + cacheFile.getAbsolutePath());
+                logger.info("Size = " + cache.size());
+            }
+        } //2. If it does not work, then get it from data sourceInfo as specified
+        catch (Exception e) {
+            // need to add a QueryModuleFactory
+            logger.info("No cached data found for " + kb.getId());
+            NoPrefixSparqlQueryModule module = new NoPrefixSparqlQueryModule(kb);
+            module.fillCache(cache);
+
+            if (!new File(folder.getAbsolutePath() + File.separatorChar + "cache").exists() || !new File(folder.getAbsolutePath() + File.separatorChar + "cache").isDirectory()) {
+                new File(folder.getAbsolutePath() + File.separatorChar + "cache").mkdir();
+            }
+            cache.saveToFile(cacheFile);
+        }
+
+        return cache;
+    }
+
+    /**
+     * Returns the next instance in the list of instances
+     *
+     * @return null if no next instance, else the next instance
+     */
+    public Instance getNextInstance() {
+        materializeAll();
+        if (instanceIterator == null) {
+            instanceIterator = instanceMap.values().iterator();
+        }
+
+        if (instanceIterator.hasNext()) {
+            return instanceIterator.next();
+        } else {
+            return null;
+        }
+    }
+
+    /**
+     * Returns an iterator over the instances. As long as the cache was not
+     * modified, the instances are materialized one at a time from the binary
+     * cache file.
+     *
+     * @return Iterator over all instances
+     */
+    @Override
+    public Iterator<Instance> iterateInstances() {
+        if (isUntouched()) {
+            return store.iterateInstances();
+        }
+        return super.iterateInstances();
+    }
+
+    /**
+     * Returns all the instance contained in the cache
+     *
+     * @return ArrayList containing all instances
+     */
+    public ArrayList<Instance> getAllInstances() {
+        if (store != null) {
+            ArrayList<Instance> instances = new ArrayList<Instance>(store.size());
+            for (String uri : store.getAllUris()) {
+                instances.add(getInstance(uri));
+            }
+            return instances;
+        }
+        return new ArrayList<Instance>(instanceMap.values());
+    }
+
+    public void addInstance(Instance i) {
+        materializeAll();
+        if (!instanceMap.containsKey(i.getUri())) {
+            instanceMap.put(i.getUri(), i);
+            modified();
+        }
+    }
+
+    /**
+     * @param uri
+     *         URI to look for
+     * @return The instance with the URI uri if it is in the cache, else null
+     */
+    public Instance getInstance(String uri) {
+        if (store != null) {
+            return getLoadedInstance(uri);
+        }
+        return instanceMap.get(uri);
+    }
+
+    /**
+     * @return The size of the cache
+     */
+    public int size() {
+        if (store != null) {
+            return store.size();
+        }
+        return instanceMap.size();
+    }
+
+    /**
+     * Adds a new spo statement to the cache
+     *
+     * @param s
+     *         The URI of the instance linked to o via p
+     * @param p
+     *         The property which links s and o
+     * @param o
+     *         The value of the property of p for the entity s
+     */
+    public void addTriple(String s, String p, String o) {
+        materializeAll();
+        if (instanceMap.containsKey(s)) {
+            Instance m = instanceMap.get(s);
+            m.addProperty(p, o);
+        } else {
+            Instance m = new Instance(s);
+            m.addProperty(p, o);
+            instanceMap.put(s, m);
+        }
+        modified();
+    }
+
+    /**
+     * @param uri
+     *         The URI to looks for
+     * @return True if an instance with the URI uri is found in the cache, else false
+     */
+    public boolean containsUri(String uri) {
+        if (store != null) {
+            return store.containsUri(uri);
+        }
+        return instanceMap.containsKey(uri);
+    }
+
+    public void resetIterator() {
+        materializeAll();
+        instanceIterator = instanceMap.values().iterator();
+    }
+
+    @Override
+    public String toString() {
+        if (store != null) {
+            Map<String, Instance> instances = new HashMap<String, Instance>();
+            for (Iterator<Instance> i = store.iterateInstances(); i.hasNext();) {
+                Instance instance = i.next();
+                instances.put(instance.getUri(), instance);
+            }
+            return instances.toString();
+        }
+        return instanceMap.toString();
+    }
+
+    public ArrayList<String> getAllUris() {
+        if (store != null) {
+            return store.getAllUris();
+        }
+        return new ArrayList<String>(instanceMap.keySet());
+    }
+
+    /**
+     * @param i
+     *         The instance to look for
+     * @return true if the URI of the instance is found in the cache
+     */
+    public boolean containsInstance(Instance i) {
+        return containsUri(i.getUri());
+    }
+
+    public void replaceInstance(String uri, Instance a) {
+        materializeAll();
+        instanceMap.put(uri, a);
+        modified();
+    }
+
+    /**
+     * Returns a set of properties (most likely) all instances have.
+     *
+     * @return set of all properties
+     */
+    public Set<String> getAllProperties() {
+        if (isUntouched()) {
+            return store.getAllProperties();
+        }
+        return super.getAllProperties();
+    }
+
+    @Override
+    public TreeSet<String> getValues(String uri, String property) {
+        if (isUntouched()) {
+            return store.getValues(uri, property);
+        }
+        return super.getValues(uri, property);
+    }
+
+    public Map<String, Set<String>> getValueToUriMap(String property) {
+        if (isUntouched()) {
+            return store.getValueToUriMap(property);
+        }
+        return super.getValueToUriMap(property);
+    }
+
+    public ACache processData(Map<String, String> propertyMap) {
+        if (isUntouched()) {
+            return store.processData(propertyMap);
+        }
+        return super.processData(propertyMap);
+    }
+
+    public ACache addProperty(String sourcePropertyName, String targetPropertyName, String processingChain) {
+        if (isUntouched()) {
+            return store.addProperty(sourcePropertyName, targetPropertyName, processingChain);
+        }
+        return super.addProperty(sourcePropertyName, targetPropertyName, processingChain);
+    }
+
+    /**
+     * @return true if the cache is backed by a binary cache file and has not
+     *         been modified, hence the columns are up to date. Lookups do not
+     *         modify the cache.
+     */
+    private boolean isUntouched() {
+        return store != null;
+    }
+
+    /**
+     * Returns the instance with the URI uri from the binary cache file. The
+     * same instance is returned to all readers of the uri as long as it is
+     * referenced by one of them.
+     */
+    private Instance getLoadedInstance(String uri) {
+        for (LoadedInstance ref; (ref = (LoadedInstance) collected.poll()) != null;) {
+            loaded.remove(ref.uri, ref);
+        }
+        while (true) {
+            LoadedInstance ref = loaded.get(uri);
+            Instance instance = ref == null ? null : ref.get();
+            if (instance != null) {
+                return instance;
+            }
+            instance = store.getInstance(uri);
+            if (instance == null) {
+                return null;
+            }
+            LoadedInstance created = new LoadedInstance(instance, collected);
+            if (ref == null ? loaded.putIfAbsent(uri, created) == null : loaded.replace(uri, ref, created)) {
+                return instance;
+            }
+        }
+    }
+
+    /**
+     * Moves all instances of the binary cache file into the instance map.
+     * Instances that are still referenced by readers of lookups are kept.
+     */
+    private void materializeAll() {
+        if (store == null) {
+            return;
+        }
+        for (LoadedInstance ref : loaded.values()) {
+            Instance i = ref.get();
+            if (i != null) {
+                instanceMap.put(ref.uri, i);
+            }
+        }
+        store.resetIterator();
+        for (Instance i = store.getNextInstance(); i != null; i = store.getNextInstance()) {
+            if (!instanceMap.containsKey(i.getUri())) {
+                instanceMap.put(i.getUri(), i);
+            }
+        }
+        loaded.clear();
+        store = null;
+    }
+
+    private void writeObject(ObjectOutputStream out) throws IOException {
+        materializeAll();
+        out.defaultWriteObject();
+    }
+
+    /**
+     * Tries to write the content of the cache to a file in binary cache
+     * format. If it fails, no file is written to avoid the corruption of
+     * future data sources.
+     *
+     * @param file
+     *         File wherein the content of the cache is to be written
+     */
+    public void saveToFile(File file) {
+        logger.info("Writing " + size() + " objects to " + file.getAbsolutePath());
+
+        try {
+            if (isUntouched()) {
+                BinaryCacheFile.write(store, file);
+            } else {
+                materializeAll();
+                BinaryCacheFile.write(this, file);
+            }
+        } catch (Exception e) {
+            e.printStackTrace();
+            file.delete();
+        }
+    }
+
+    /**
+     * Weak reference to an instance returned by a lookup.
+     */
+    private static class LoadedInstance extends WeakReference<Instance> {
+        final String uri;
+
+        LoadedInstance(Instance instance, ReferenceQueue<Instance> queue) {
+            super(instance, queue);
+            this.uri = instance.getUri();
+        }
+    }
+
+    /**
+     * Returns the file  pointing to the parent folder of cache.
+     *
+     * @return File folder
+     */
+    public File getFolder() {
+        return folder;
+    }
+
+    /**
+     * Set the parent folder of the cache sub folder.
+     *
+     * @param folder
+     *         Pointing to the parent folder holding the cache.
+     */
+    public void setFolder(File folder) {
+        this.folder = folder;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,207 @@
+package org.aksw.limes.core.io.cache;
+
+import java.io.Serializable;
+import java.util.Arrays;
+
+/**
+ * Values of a single property for all instances of a {@link ColumnarCache}.
+ * The values are stored as ids of a string dictionary in compressed sparse
+ * row layout: the values of the instance with id u are
+ * valueIds[offsets[u]] ... valueIds[offsets[u + 1] - 1], sorted by id and
+ * without duplicates. New values are appended to a pending buffer and merged
+ * into the columns by {@link #compact(int)}.
+ */
+public class PropertyColumn implements Serializable {
+
+    private static final long serialVersionUID = -1739530233618373291L;
+    private static final int[] NONE = new int[0];
+
+    private int[] offsets;
+    private int[] valueIds;
+    // number of instances covered by offsets
+    private int instances;
+
+    private int[] pendingUris;
+    private int[] pendingValues;
+    private int pendingSize;
+
+    public PropertyColumn() {
+        offsets = new int[] { 0 };
+        valueIds = NONE;
+        instances = 0;
+        pendingUris = new int[16];
+        pendingValues = new int[16];
+        pendingSize = 0;
+    }
+
+    /**
+     * Creates a compacted column from its raw arrays.
+     *
+     * @param offsets
+     *         Start of the values of each instance, the last entry being the
+     *         number of values
+     * @param valueIds
+     *         Ids of the values
+     * @return the column
+     */
+    public static PropertyColumn fromArrays(int[] offsets, int[] valueIds) {
+        PropertyColumn c = new PropertyColumn();
+        c.offsets = offsets;
+        c.valueIds = valueIds;
+        c.instances = offsets.length - 1;
+        return c;
+    }
+
+    /**
+     * Appends a value to the pending buffer of the column.
+     *
+     * @param uriId
+     *         Id of the instance
+     * @param valueId
+     *         Id of the value
+     */
+    public void add(int uriId, int valueId) {
+        if (pendingSize == pendingUris.length) {
+            pendingUris = Arrays.copyOf(pendingUris, pendingSize * 2);
+            pendingValues = Arrays.copyOf(pendingValues, pendingSize * 2);
+        }
+        pendingUris[pendingSize] = uriId;
+        pendingValues[pendingSize] = valueId;
+        pendingSize++;
+    }
+
+    /**
+     * @return true if values have been added since the last compaction
+     */
+    public boolean hasPending() {
+        return pendingSize > 0;
+    }
+
+    /**
+     * Merges the pending values into the column.
+     *
+     * @param instanceCount
+     *         Number of instances of the cache
+     */
+    public void compact(int instanceCount) {
+        if (pendingSize == 0 && instanceCount == instances) {
+            return;
+        }
+        int[] newOffsets = new int[instanceCount + 1];
+        for (int u = 0; u < instances; u++) {
+            newOffsets[u + 1] = offsets[u + 1] - offsets[u];
+        }
+        for (int i = 0; i < pendingSize; i++) {
+            newOffsets[pendingUris[i] + 1]++;
+        }
+        for (int u = 0; u < instanceCount; u++) {
+            newOffsets[u + 1] += newOffsets[u];
+        }
+        int[] newValues = new int[newOffsets[instanceCount]];
+        int[] fill = Arrays.copyOf(newOffsets, instanceCount);
+        for (int u = 0; u < instances; u++) {
+            for (int i = offsets[u]; i < offsets[u + 1]; i++) {
+                newValues[fill[u]++] = valueIds[i];
+            }
+        }
+        for (int i = 0; i < pendingSize; i++) {
+            newValues[fill[pendingUris[i]]++] = pendingValues[i];
+        }
+        // sort the values of each instance and remove duplicates
+        int write = 0;
+        int start = 0;
+        for (int u = 0; u < instanceCount; u++) {
+            int end = newOffsets[u + 1];
+            Arrays.sort(newValues, start, end);
+            newOffsets[u] = write;
+            for (int i = start; i < end; i++) {
+                if (i == start || newValues[i] != newValues[i - 1]) {
+                    newValues[write++] = newValues[i];
+                }
+            }
+            start = end;
+        }
+        newOffsets[instanceCount] = write;
+        offsets = newOffsets;
+        valueIds = write == newValues.length ? newValues : Arrays.copyOf(newValues, write);
+        instances = instanceCount;
+        pendingUris = new int[16];
+        pendingValues = new int[16];
+        pendingSize = 0;
+    }
+
+    /**
+     * Removes all values of an instance. The column must be compacted.
+     *
+     * @param uriId
+     *         Id of the instance
+     */
+    public void clear(int uriId) {
+        if (uriId >= instances) {
+            return;
+        }
+        int start = offsets[uriId];
+        int removed = offsets[uriId + 1] - start;
+        if (removed == 0) {
+            return;
+        }
+        System.arraycopy(valueIds, start + removed, valueIds, start, valueIds.length - start - removed);
+        valueIds = Arrays.copyOf(valueIds, valueIds.length - removed);
+        for (int u = uriId + 1; u <= instances; u++) {
+            offsets[u] -= removed;
+        }
+    }
+
+    /**
+     * @param uriId
+     *         Id of the instance
+     * @return Number of values of the instance. The column must be compacted.
+     */
+    public int count(int uriId) {
+        if (uriId >= instances) {
+            return 0;
+        }
+        return offsets[uriId + 1] - offsets[uriId];
+    }
+
+    /**
+     * @param uriId
+     *         Id of the instance
+     * @return Index of the first value of the instance in
+     *         {@link #getValueIds()}. The column must be compacted.
+     */
+    public int start(int uriId) {
+        if (uriId >= instances) {
+            return valueIds.length;
+        }
+        return offsets[uriId];
+    }
+
+    /**
+     * @return Number of values in the column, without pending values
+     */
+    public int size() {
+        return valueIds.length;
+    }
+
+    /**
+     * @return Number of instances covered by the column
+     */
+    public int getInstances() {
+        return instances;
+    }
+
+    /**
+     * @return The offset array of the column
+     */
+    public int[] getOffsets() {
+        return offsets;
+    }
+
+    /**
+     * @return The value ids of the column
+     */
+    public int[] getValueIds() {
+        return valueIds;
+    }
+}
@@ -0,0 +1,270 @@
+package org.aksw.limes.core.io.cache;
+
+import java.io.Serializable;
+import java.util.Arrays;
+
+/**
+ * Dictionary that interns strings to dense integer ids. The characters of all
+ * strings are stored in one shared character pool and located through an
+ * offset array, hence a dictionary of n strings consists of a few primitive
+ * arrays instead of n string objects. Ids are assigned in insertion order,
+ * starting from 0, and never change.
+ *
+ * Lookups are not synchronized. A dictionary can be read by several threads
+ * as long as no thread writes to it at the same time.
+ */
+public class StringDictionary implements Serializable {
+
+    private static final long serialVersionUID = 5086237016453316347L;
+    private static final int EMPTY = -1;
+    // largest array length that JVMs reliably allocate
+    private static final int MAX_ARRAY_SIZE = Integer.MAX_VALUE - 8;
+
+    // characters of all strings, one after the other
+    private char[] pool;
+    // start of the i-th string in the pool, offsets[size] is the end of the pool
+    private int[] offsets;
+    // hash code of the i-th string, equal to String.hashCode()
+    private int[] hashes;
+    // open addressing hash table from string hashes to ids
+    private int[] table;
+    private int size;
+
+    public StringDictionary() {
+        this(1024);
+    }
+
+    /**
+     * @param expectedSize
+     *         Expected number of strings, used for sizing the initial arrays
+     */
+    public StringDictionary(int expectedSize) {
+        this(new char[(int) Math.min(MAX_ARRAY_SIZE, Math.max(16, expectedSize) * 8L)],
+                new int[Math.max(16, expectedSize) + 1]);
+    }
+
+    private StringDictionary(char[] pool, int[] offsets) {
+        this.pool = pool;
+        this.offsets = offsets;
+        hashes = new int[offsets.length];
+        table = new int[tableSize(offsets.length - 1)];
+        Arrays.fill(table, EMPTY);
+        size = 0;
+    }
+
+    /**
+     * Creates a dictionary from its raw arrays, e.g., after reading them from
+     * a file. The arrays are used as they are and must not be modified
+     * afterwards.
+     *
+     * @param pool
+     *         Characters of all strings
+     * @param offsets
+     *         Start of the i-th string in the pool, the last entry being the
+     *         end of the pool
+     * @param size
+     *         Number of strings
+     * @return the dictionary
+     */
+    public static StringDictionary fromArrays(char[] pool, int[] offsets, int size) {
+        StringDictionary d = new StringDictionary(pool,
+                offsets.length > size ? offsets : Arrays.copyOf(offsets, size + 1));
+        d.size = size;
+        for (int id = 0; id < size; id++) {
+            int h = 0;
+            for (int i = offsets[id]; i < offsets[id + 1]; i++) {
+                h = 31 * h + pool[i];
+            }
+            d.hashes[id] = h;
+            d.insert(id, h);
+        }
+        return d;
+    }
+
+    /**
+     * @return Number of strings in the dictionary
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * @param s
+     *         String to look for
+     * @return The id of s or -1 if s is not in the dictionary
+     */
+    public int getId(String s) {
+        int h = s.hashCode();
+        int mask = table.length - 1;
+        for (int slot = spread(h) & mask;; slot = (slot + 1) & mask) {
+            int id = table[slot];
+            if (id == EMPTY) {
+                return EMPTY;
+            }
+            if (hashes[id] == h && equalsAt(id, s)) {
+                return id;
+            }
+        }
+    }
+
+    /**
+     * @param s
+     *         String to look for
+     * @return true if s is in the dictionary
+     */
+    public boolean contains(String s) {
+        return getId(s) != EMPTY;
+    }
+
+    /**
+     * Returns the id of a string and adds the string to the dictionary if it
+     * is not yet contained.
+     *
+     * @param s
+     *         String to intern
+     * @return The id of s
+     */
+    public int intern(String s) {
+        int id = getId(s);
+        if (id != EMPTY) {
+            return id;
+        }
+        id = size;
+        int length = s.length();
+        if (size + 1 >= offsets.length) {
+            offsets = Arrays.copyOf(offsets, grow(offsets.length, size + 2L));
+            hashes = Arrays.copyOf(hashes, offsets.length);
+        }
+        int start = offsets[id];
+        if ((long) start + length > pool.length) {
+            pool = Arrays.copyOf(pool, grow(pool.length, (long) start + length));
+        }
+        s.getChars(0, length, pool, start);
+        offsets[id + 1] = start + length;
+        hashes[id] = s.hashCode();
+        size++;
+        if (size * 2 > table.length) {
+            rehash(table.length * 2);
+        } else {
+            insert(id, hashes[id]);
+        }
+        return id;
+    }
+
+    /**
+     * @param id
+     *         Id of a string
+     * @return The string with the given id
+     */
+    public String get(int id) {
+        return new String(pool, offsets[id], offsets[id + 1] - offsets[id]);
+    }
+
+    /**
+     * @param id
+     *         Id of a string
+     * @return Length of the string with the given id
+     */
+    public int length(int id) {
+        return offsets[id + 1] - offsets[id];
+    }
+
+    /**
+     * Compares two strings of the dictionary lexicographically, in the same
+     * way as {@link String#compareTo(String)} would.
+     *
+     * @param id1
+     *         Id of the first string
+     * @param id2
+     *         Id of the second string
+     * @return a negative number, zero, or a positive number as the first
+     *         string is less than, equal to, or greater than the second one
+     */
+    public int compare(int id1, int id2) {
+        int s1 = offsets[id1], l1 = offsets[id1 + 1] - s1;
+        int s2 = offsets[id2], l2 = offsets[id2 + 1] - s2;
+        int n = Math.min(l1, l2);
+        for (int i = 0; i < n; i++) {
+            char c1 = pool[s1 + i];
+            char c2 = pool[s2 + i];
+            if (c1 != c2) {
+                return c1 - c2;
+            }
+        }
+        return l1 - l2;
+    }
+
+    /**
+     * @return The character pool. Only the first {@link #getPoolLength()}
+     *         characters are in use.
+     */
+    public char[] getPool() {
+        return pool;
+    }
+
+    /**
+     * @return Number of characters in use in the pool
+     */
+    public int getPoolLength() {
+        return offsets[size];
+    }
+
+    /**
+     * @return The offsets of the strings in the pool. Only the first
+     *         {@link #size()} + 1 entries are in use.
+     */
+    public int[] getOffsets() {
+        return offsets;
+    }
+
+    private boolean equalsAt(int id, String s) {
+        int start = offsets[id];
+        int length = offsets[id + 1] - start;
+        if (length != s.length()) {
+            return false;
+        }
+        for (int i = 0; i < length; i++) {
+            if (pool[start + i] != s.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private void insert(int id, int h) {
+        int mask = table.length - 1;
+        int slot = spread(h) & mask;
+        while (table[slot] != EMPTY) {
+            slot = (slot + 1) & mask;
+        }
+        table[slot] = id;
+    }
+
+    private void rehash(int newLength) {
+        table = new int[newLength];
+        Arrays.fill(table, EMPTY);
+        for (int id = 0; id < size; id++) {
+            insert(id, hashes[id]);
+        }
+    }
+
+    /**
+     * Returns the new length of an array that has to hold at least required
+     * elements. The length is doubled, but not beyond the maximal array size.
+     */
+    private static int grow(int length, long required) {
+        if (required > MAX_ARRAY_SIZE) {
+            throw new OutOfMemoryError("Dictionary exceeds the maximal array size: " + required);
+        }
+        return (int) Math.min(MAX_ARRAY_SIZE, Math.max(length * 2L, required));
+    }
+
+    private static int spread(int h) {
+        return h ^ (h >>> 16);
+    }
+
+    private static int tableSize(int capacity) {
+        int n = Integer.highestOneBit(capacity * 2 - 1) << 1;
+        return Math.max(n, 32);
+    }
+}
@@ -0,0 +1,108 @@
+package org.aksw.limes.core.io.mapping;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map.Entry;
+
+/**
+ * Reads and writes mappings in a compact binary format, used for mappings
+ * that are only stored temporarily by LIMES itself:
+ *
+ * <pre>
+ * #sources
+ * for each source: source URI, #targets, for each target: target URI, similarity
+ * </pre>
+ *
+ * URIs are written as modified UTF-8 and similarities as doubles, so that a
+ * mapping is read back unchanged.
+ */
+public class BinaryMappingFile {
+
+    public static final String EXTENSION = ".map";
+
+    private BinaryMappingFile() {
+    }
+
+    /**
+     * Writes a mapping to a stream.
+     *
+     * @param mapping
+     *         Mapping to write
+     * @param out
+     *         Stream to write to, not closed
+     * @throws IOException
+     *         if writing fails
+     */
+    public static void write(AMapping mapping, DataOutputStream out) throws IOException {
+        HashMap<String, HashMap<String, Double>> map = mapping.getMap();
+        out.writeInt(map.size());
+        for (Entry<String, HashMap<String, Double>> s : map.entrySet()) {
+            out.writeUTF(s.getKey());
+            out.writeInt(s.getValue().size());
+            for (Entry<String, Double> t : s.getValue().entrySet()) {
+                out.writeUTF(t.getKey());
+                out.writeDouble(t.getValue());
+            }
+        }
+    }
+
+    /**
+     * Reads a mapping from a stream.
+     *
+     * @param in
+     *         Stream to read from, not closed
+     * @return the mapping
+     * @throws IOException
+     *         if reading fails
+     */
+    public static AMapping read(DataInputStream in) throws IOException {
+        AMapping mapping = MappingFactory.createDefaultMapping();
+        int sources = in.readInt();
+        for (int i = 0; i < sources; i++) {
+            String s = in.readUTF();
+            int targets = in.readInt();
+            for (int j = 0; j < targets; j++) {
+                mapping.add(s, in.readUTF(), in.readDouble());
+            }
+        }
+        return mapping;
+    }
+
+    /**
+     * Writes a mapping to a file.
+     *
+     * @param mapping
+     *         Mapping to write
+     * @param file
+     *         File to write to
+     * @throws IOException
+     *         if writing fails
+     */
+    public static void write(AMapping mapping, File file) throws IOException {
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(file)))) {
+            write(mapping, out);
+        }
+    }
+
+    /**
+     * Reads a mapping from a file.
+     *
+     * @param file
+     *         File to read from
+     * @return the mapping
+     * @throws IOException
+     *         if reading fails
+     */
+    public static AMapping read(File file) throws IOException {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(file)))) {
+            return read(in);
+        }
+    }
+}
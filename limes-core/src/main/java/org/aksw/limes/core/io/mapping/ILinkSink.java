@@ -0,0 +1,29 @@
+package org.aksw.limes.core.io.mapping;
+
+/**
+ * Consumer of links. Execution engines push the links of the final step of a
+ * plan into a sink as soon as they are computed, so that the result mapping
+ * of a linking task and the copies made for writing it are not built. The
+ * mappings of the atomic measures and the operands of the final step are
+ * still computed in memory, hence they bound the memory that is needed.
+ */
+public interface ILinkSink {
+
+    /**
+     * Receives a link. Each (source, target) pair is passed at most once.
+     *
+     * @param source
+     *            URI of the source resource
+     * @param target
+     *            URI of the target resource
+     * @param confidence
+     *            Similarity of source and target
+     */
+    public void addLink(String source, String target, double confidence);
+
+    /**
+     * Signals that no more links will be added and releases the resources
+     * of the sink.
+     */
+    public void close();
+}
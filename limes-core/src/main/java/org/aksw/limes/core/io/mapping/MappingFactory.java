@@ -33,6 +33,8 @@ public class MappingFactory {
             return new HybridMapping();
         if (type == MappingType.FILE_MAPPING)
             return new FileMapping();
+        if (type == MappingType.SHARDED_MAPPING)
+            return new ShardedMapping();
         logger.warn("Sorry, " + type + " is not yet implemented. Generating " + MappingType.DEFAULT + " map ...");
         return createDefaultMapping();
     }
@@ -41,7 +43,8 @@ public class MappingFactory {
         DEFAULT, // currently memory mapping
         MEMORY_MAPPING,
         HYBIRD_MAPPING,
-        FILE_MAPPING
+        FILE_MAPPING,
+        SHARDED_MAPPING // int-keyed, for very large link sets
     }
 
 
@@ -0,0 +1,37 @@
+package org.aksw.limes.core.io.mapping;
+
+/**
+ * Link sink that collects all links in a mapping.
+ */
+public class MappingLinkSink implements ILinkSink {
+
+    private AMapping mapping;
+
+    public MappingLinkSink() {
+        this(MappingFactory.createDefaultMapping());
+    }
+
+    /**
+     * @param mapping
+     *            Mapping to which the links are added
+     */
+    public MappingLinkSink(AMapping mapping) {
+        this.mapping = mapping;
+    }
+
+    @Override
+    public void addLink(String source, String target, double confidence) {
+        mapping.add(source, target, confidence);
+    }
+
+    @Override
+    public void close() {
+    }
+
+    /**
+     * @return The mapping containing all links added so far
+     */
+    public AMapping getMapping() {
+        return mapping;
+    }
+}
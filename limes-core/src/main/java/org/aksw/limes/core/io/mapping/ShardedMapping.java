@@ -0,0 +1,608 @@
+package org.aksw.limes.core.io.mapping;
+
+import java.io.Serializable;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.TreeSet;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.aksw.limes.core.io.cache.StringDictionary;
+
+/**
+ * Mapping for very large link sets. The links are distributed over a fixed
+ * number of shards by the hash of their source URI. Each shard interns its
+ * source URIs to int ids, target URIs are interned once in a dictionary that
+ * is shared by all shards. A shard stores its links in a primitive open
+ * addressing hash table from (source id, target id), packed into a long, to
+ * the confidence of the link. Hence, a link costs a few bytes instead of a
+ * hash map entry and a boxed double.
+ *
+ * As for {@link MemoryMapping}, adding (s, t, sim2) to a mapping which already
+ * contains (s, t, sim1) results in (s, t, max(sim1, sim2)). Links can be
+ * added by several threads concurrently, as each shard is guarded by its own
+ * lock. {@link #getSubMap(double)} uses a per shard index of the links sorted
+ * by descending confidence, which is only rebuilt after the shard changed.
+ *
+ * {@link #getMap()} and {@link #getReversedMap()} exist for compatibility with
+ * code written against {@link MemoryMapping}. They return snapshots that are
+ * built on demand and cached until the next change, which is detected with a
+ * version stamp that every change increments; modifying them does not
+ * modify the mapping. Use {@link #forEachLink(LinkVisitor)} to iterate over
+ * the links without building a snapshot.
+ */
+public class ShardedMapping extends AMapping {
+
+    private static final long serialVersionUID = -6102738456513627716L;
+
+    private final Shard[] shards;
+    // target URIs of all shards, guarded by its own lock
+    private final StringDictionary targets = new StringDictionary(16);
+    // incremented by every change while holding the lock of the changed shard
+    private final AtomicLong version = new AtomicLong();
+    private transient volatile Snapshot snapshot = null;
+
+    /**
+     * Result of {@link ShardedMapping#getMap()} for a version of the mapping.
+     */
+    private static class Snapshot {
+        final long version;
+        final HashMap<String, HashMap<String, Double>> map;
+
+        Snapshot(long version, HashMap<String, HashMap<String, Double>> map) {
+            this.version = version;
+            this.map = map;
+        }
+    }
+
+    /**
+     * Callback for {@link ShardedMapping#forEachLink(LinkVisitor)}.
+     */
+    public interface LinkVisitor {
+        void visit(String source, String target, double confidence);
+    }
+
+    protected ShardedMapping() {
+        this(defaultShardCount());
+    }
+
+    /**
+     * @param shardCount
+     *         Number of shards, rounded up to the next power of two
+     */
+    protected ShardedMapping(int shardCount) {
+        super();
+        int n = Integer.highestOneBit(Math.max(1, shardCount) * 2 - 1);
+        shards = new Shard[n];
+        for (int i = 0; i < n; i++) {
+            shards[i] = new Shard();
+        }
+    }
+
+    private static int defaultShardCount() {
+        return 4 * Runtime.getRuntime().availableProcessors();
+    }
+
+    private Shard shardOf(String source) {
+        int h = source.hashCode();
+        return shards[(h ^ (h >>> 16)) & (shards.length - 1)];
+    }
+
+    private int internTarget(String target) {
+        synchronized (targets) {
+            return targets.intern(target);
+        }
+    }
+
+    private int targetId(String target) {
+        synchronized (targets) {
+            return targets.getId(target);
+        }
+    }
+
+    private String target(int id) {
+        synchronized (targets) {
+            return targets.get(id);
+        }
+    }
+
+    /**
+     * @return Number of shards of the mapping
+     */
+    public int getShardCount() {
+        return shards.length;
+    }
+
+    /**
+     * Add one entry to the mapping. Can be called by several threads
+     * concurrently.
+     *
+     * @param source
+     *         Uri in the source knowledge bases
+     * @param target
+     *         Mapping uri in the target knowledge base
+     * @param confidence
+     *         Similarity of uri and mappingUri
+     */
+    @Override
+    public void add(String source, String target, double confidence) {
+        int t = internTarget(target);
+        Shard shard = shardOf(source);
+        synchronized (shard) {
+            shard.add(source, t, confidence);
+            version.incrementAndGet();
+        }
+    }
+
+    /**
+     * Add a batch of similarities to the mapping
+     *
+     * @param source
+     *         A resource from the source knowledge base
+     * @param targets
+     *         Map containing uris from the target knowledge base and their
+     *         similarity to source
+     */
+    @Override
+    public void add(String source, HashMap<String, Double> targets) {
+        int[] ids = new int[targets.size()];
+        double[] confidences = new double[ids.length];
+        int n = 0;
+        for (Map.Entry<String, Double> e : targets.entrySet()) {
+            ids[n] = internTarget(e.getKey());
+            confidences[n++] = e.getValue();
+        }
+        Shard shard = shardOf(source);
+        synchronized (shard) {
+            for (int i = 0; i < n; i++) {
+                shard.add(source, ids[i], confidences[i]);
+            }
+            version.incrementAndGet();
+        }
+    }
+
+    @Override
+    public double getConfidence(String source, String target) {
+        int t = targetId(target);
+        if (t < 0) {
+            return 0;
+        }
+        Shard shard = shardOf(source);
+        synchronized (shard) {
+            int slot = shard.find(source, t);
+            return slot < 0 ? 0 : shard.values[slot];
+        }
+    }
+
+    @Override
+    public boolean contains(String source, String target) {
+        int t = targetId(target);
+        if (t < 0) {
+            return false;
+        }
+        Shard shard = shardOf(source);
+        synchronized (shard) {
+            return shard.find(source, t) >= 0;
+        }
+    }
+
+    @Override
+    public int size() {
+        int size = 0;
+        for (Shard shard : shards) {
+            synchronized (shard) {
+                size += shard.count;
+            }
+        }
+        return size;
+    }
+
+    @Override
+    public int getSize() {
+        return size();
+    }
+
+    @Override
+    public int getNumberofMappings() {
+        return size();
+    }
+
+    /**
+     * Calls the visitor for each link of the mapping. The mapping must not be
+     * modified during the iteration.
+     *
+     * @param visitor
+     *         Callback for the links
+     */
+    public void forEachLink(LinkVisitor visitor) {
+        for (Shard shard : shards) {
+            long[] keys = shard.keys;
+            for (int slot = 0; slot < keys.length; slot++) {
+                if (keys[slot] != Shard.EMPTY) {
+                    visitor.visit(shard.sources.get(Shard.source(keys[slot])), target(Shard.target(keys[slot])),
+                            shard.values[slot]);
+                }
+            }
+        }
+    }
+
+    /**
+     * Returns a mapping that contains all links of the current mapping with a
+     * confidence of at least threshold. Each shard reads the links from its
+     * sorted confidence index, so the cost depends on the size of the result
+     * rather than on the size of the mapping.
+     *
+     * @param threshold
+     *         Similarity threshold for filtering
+     * @return Mapping that contains all elements (s,t) with sim(s,t) {@literal >}= threshold
+     */
+    @Override
+    public AMapping getSubMap(double threshold) {
+        ShardedMapping m = new ShardedMapping(shards.length);
+        for (int i = 0; i < shards.length; i++) {
+            Shard shard = shards[i];
+            synchronized (shard) {
+                shard.buildIndex();
+                int end = shard.countAbove(threshold);
+                for (int k = 0; k < end; k++) {
+                    long key = shard.indexKeys[k];
+                    m.add(shard.sources.get(Shard.source(key)), target(Shard.target(key)), shard.indexValues[k]);
+                }
+            }
+        }
+        return m;
+    }
+
+    /**
+     * Computes the best one to n mapping for the current mapping, i.e., for
+     * each element of the source, it gets the best t from target. This does not
+     * mean an 1 to 1 mapping, as a t can be mapped to several s.
+     *
+     * @return Best one to n mapping
+     */
+    @Override
+    public AMapping getBestOneToNMapping() {
+        ShardedMapping m = new ShardedMapping(shards.length);
+        for (int i = 0; i < shards.length; i++) {
+            Shard shard = shards[i];
+            synchronized (shard) {
+                double[] best = new double[shard.sources.size()];
+                long[] keys = shard.keys;
+                for (int slot = 0; slot < keys.length; slot++) {
+                    if (keys[slot] != Shard.EMPTY) {
+                        int s = Shard.source(keys[slot]);
+                        best[s] = Math.max(best[s], shard.values[slot]);
+                    }
+                }
+                for (int slot = 0; slot < keys.length; slot++) {
+                    if (keys[slot] != Shard.EMPTY && shard.values[slot] == best[Shard.source(keys[slot])]) {
+                        m.add(shard.sources.get(Shard.source(keys[slot])), target(Shard.target(keys[slot])),
+                                shard.values[slot]);
+                    }
+                }
+            }
+        }
+        return m;
+    }
+
+    /**
+     * Reverses source and target
+     *
+     * @return Reversed map
+     */
+    @Override
+    public AMapping reverseSourceTarget() {
+        final ShardedMapping m = new ShardedMapping(shards.length);
+        forEachLink(new LinkVisitor() {
+            @Override
+            public void visit(String source, String target, double confidence) {
+                m.add(target, source, confidence);
+            }
+        });
+        return m;
+    }
+
+    /**
+     * @return A snapshot of the links as nested hash maps, cached until the
+     *         mapping changes
+     */
+    @Override
+    public HashMap<String, HashMap<String, Double>> getMap() {
+        Snapshot cached = snapshot;
+        // changes made after this read give the snapshot an outdated version
+        long current = version.get();
+        if (cached != null && cached.version == current) {
+            return cached.map;
+        }
+        HashMap<String, HashMap<String, Double>> map = new HashMap<>();
+        for (Shard shard : shards) {
+            synchronized (shard) {
+                long[] keys = shard.keys;
+                for (int slot = 0; slot < keys.length; slot++) {
+                    if (keys[slot] != Shard.EMPTY) {
+                        String source = shard.sources.get(Shard.source(keys[slot]));
+                        HashMap<String, Double> t = map.get(source);
+                        if (t == null) {
+                            t = new HashMap<String, Double>();
+                            map.put(source, t);
+                        }
+                        t.put(target(Shard.target(keys[slot])), shard.values[slot]);
+                    }
+                }
+            }
+        }
+        snapshot = new Snapshot(current, map);
+        return map;
+    }
+
+    /**
+     * @return A snapshot of the links grouped by confidence
+     */
+    @Override
+    public HashMap<Double, HashMap<String, TreeSet<String>>> getReversedMap() {
+        final HashMap<Double, HashMap<String, TreeSet<String>>> result = new HashMap<>();
+        forEachLink(new LinkVisitor() {
+            @Override
+            public void visit(String source, String target, double confidence) {
+                HashMap<String, TreeSet<String>> pairs = result.get(confidence);
+                if (pairs == null) {
+                    pairs = new HashMap<String, TreeSet<String>>();
+                    result.put(confidence, pairs);
+                }
+                TreeSet<String> targets = pairs.get(source);
+                if (targets == null) {
+                    targets = new TreeSet<String>();
+                    pairs.put(source, targets);
+                }
+                targets.add(target);
+            }
+        });
+        return result;
+    }
+
+    /**
+     * Replaces the content of the mapping by the links of map.
+     *
+     * @param map
+     *         Links as nested hash maps
+     */
+    @Override
+    public void setMap(HashMap<String, HashMap<String, Double>> map) {
+        for (int i = 0; i < shards.length; i++) {
+            synchronized (shards[i]) {
+                shards[i].clear();
+                version.incrementAndGet();
+            }
+        }
+        if (map != null) {
+            for (Map.Entry<String, HashMap<String, Double>> e : map.entrySet()) {
+                add(e.getKey(), e.getValue());
+            }
+        }
+    }
+
+    @Override
+    public int hashCode() {
+        final int prime = 31;
+        int result = getMap().hashCode();
+        result = prime * result + ((predicate == null) ? 0 : predicate.hashCode());
+        return result;
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (this == obj)
+            return true;
+        if (obj == null)
+            return false;
+        if (getClass() != obj.getClass())
+            return false;
+        ShardedMapping other = (ShardedMapping) obj;
+        if (predicate == null) {
+            if (other.predicate != null)
+                return false;
+        } else if (!predicate.equals(other.predicate))
+            return false;
+        return getMap().equals(other.getMap());
+    }
+
+    @Override
+    public String toString() {
+        final StringBuilder s = new StringBuilder();
+        forEachLink(new LinkVisitor() {
+            @Override
+            public void visit(String source, String target, double confidence) {
+                s.append("[").append(source).append(" -> (").append(target).append("|").append(confidence)
+                        .append(")]\n");
+            }
+        });
+        return s.toString();
+    }
+
+    /**
+     * Links of the source URIs of one shard, with the ids of the target URIs
+     * in the dictionary of the mapping. All methods must be called while
+     * holding the lock of the shard.
+     */
+    private static class Shard implements Serializable {
+
+        private static final long serialVersionUID = 4658117328851416370L;
+        static final long EMPTY = -1L;
+
+        StringDictionary sources;
+        // (source id << 32 | target id) of the links, EMPTY for free slots
+        long[] keys;
+        double[] values;
+        int count;
+
+        // links sorted by descending confidence, null if outdated
+        long[] indexKeys;
+        double[] indexValues;
+
+        Shard() {
+            clear();
+        }
+
+        void clear() {
+            sources = new StringDictionary(16);
+            keys = new long[16];
+            Arrays.fill(keys, EMPTY);
+            values = new double[16];
+            count = 0;
+            indexKeys = null;
+            indexValues = null;
+        }
+
+        static int source(long key) {
+            return (int) (key >>> 32);
+        }
+
+        static int target(long key) {
+            return (int) key;
+        }
+
+        private static int slot(long key, int mask) {
+            return (int) ((key * 0x9E3779B97F4A7C15L) >>> 32) & mask;
+        }
+
+        int find(String source, int t) {
+            int s = sources.getId(source);
+            if (s < 0) {
+                return -1;
+            }
+            long key = ((long) s << 32) | t;
+            int mask = keys.length - 1;
+            for (int slot = slot(key, mask);; slot = (slot + 1) & mask) {
+                if (keys[slot] == key) {
+                    return slot;
+                }
+                if (keys[slot] == EMPTY) {
+                    return -1;
+                }
+            }
+        }
+
+        void add(String source, int t, double confidence) {
+            long key = ((long) sources.intern(source) << 32) | t;
+            int mask = keys.length - 1;
+            int slot = slot(key, mask);
+            while (keys[slot] != EMPTY) {
+                if (keys[slot] == key) {
+                    if (confidence > values[slot]) {
+                        values[slot] = confidence;
+                        indexKeys = null;
+                    }
+                    return;
+                }
+                slot = (slot + 1) & mask;
+            }
+            keys[slot] = key;
+            values[slot] = confidence;
+            count++;
+            indexKeys = null;
+            if (count * 2 > keys.length) {
+                resize(keys.length * 2);
+            }
+        }
+
+        private void resize(int length) {
+            long[] oldKeys = keys;
+            double[] oldValues = values;
+            keys = new long[length];
+            Arrays.fill(keys, EMPTY);
+            values = new double[length];
+            int mask = length - 1;
+            for (int i = 0; i < oldKeys.length; i++) {
+                if (oldKeys[i] != EMPTY) {
+                    int slot = slot(oldKeys[i], mask);
+                    while (keys[slot] != EMPTY) {
+                        slot = (slot + 1) & mask;
+                    }
+                    keys[slot] = oldKeys[i];
+                    values[slot] = oldValues[i];
+                }
+            }
+        }
+
+        void buildIndex() {
+            if (indexKeys != null) {
+                return;
+            }
+            long[] k = new long[count];
+            double[] v = new double[count];
+            int n = 0;
+            for (int slot = 0; slot < keys.length; slot++) {
+                if (keys[slot] != EMPTY) {
+                    k[n] = keys[slot];
+                    v[n] = values[slot];
+                    n++;
+                }
+            }
+            sortDescending(k, v, 0, n - 1);
+            indexKeys = k;
+            indexValues = v;
+        }
+
+        /**
+         * @return Number of links with a confidence of at least threshold,
+         *         requires an up-to-date index
+         */
+        int countAbove(double threshold) {
+            int low = 0, high = indexValues.length;
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+                if (indexValues[mid] >= threshold) {
+                    low = mid + 1;
+                } else {
+                    high = mid;
+                }
+            }
+            return low;
+        }
+
+        /**
+         * Three-way quicksort of the parallel arrays k and v by descending v.
+         * Recurses into the smaller part only, so the stack depth stays
+         * logarithmic also for many equal confidences.
+         */
+        private static void sortDescending(long[] k, double[] v, int low, int high) {
+            while (low < high) {
+                if (high - low < 16) {
+                    for (int i = low + 1; i <= high; i++) {
+                        for (int j = i; j > low && v[j - 1] < v[j]; j--) {
+                            swap(k, v, j, j - 1);
+                        }
+                    }
+                    return;
+                }
+                double pivot = v[(low + high) >>> 1];
+                int lt = low, gt = high, i = low;
+                while (i <= gt) {
+                    if (v[i] > pivot) {
+                        swap(k, v, lt++, i++);
+                    } else if (v[i] < pivot) {
+                        swap(k, v, i, gt--);
+                    } else {
+                        i++;
+                    }
+                }
+                if (lt - low < high - gt) {
+                    sortDescending(k, v, low, lt - 1);
+                    low = gt + 1;
+                } else {
+                    sortDescending(k, v, gt + 1, high);
+                    high = lt - 1;
+                }
+            }
+        }
+
+        private static void swap(long[] k, double[] v, int i, int j) {
+            long tk = k[i];
+            k[i] = k[j];
+            k[j] = tk;
+            double tv = v[i];
+            v[i] = v[j];
+            v[j] = tv;
+        }
+    }
+}
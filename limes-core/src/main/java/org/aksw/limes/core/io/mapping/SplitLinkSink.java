@@ -0,0 +1,65 @@
+package org.aksw.limes.core.io.mapping;
+
+/**
+ * Link sink that forwards links with a confidence of at least a threshold to
+ * one sink and all other links to another one, e.g., the accepted links and
+ * the links that need verification. Counts the links of both parts.
+ */
+public class SplitLinkSink implements ILinkSink {
+
+    private final double threshold;
+    private final ILinkSink above;
+    private final ILinkSink below;
+    private long aboveCount = 0;
+    private long belowCount = 0;
+
+    /**
+     * @param threshold
+     *            Minimal confidence of the links forwarded to above
+     * @param above
+     *            Sink for links with a confidence of at least threshold
+     * @param below
+     *            Sink for all other links
+     */
+    public SplitLinkSink(double threshold, ILinkSink above, ILinkSink below) {
+        this.threshold = threshold;
+        this.above = above;
+        this.below = below;
+    }
+
+    @Override
+    public void addLink(String source, String target, double confidence) {
+        if (confidence >= threshold) {
+            above.addLink(source, target, confidence);
+            aboveCount++;
+        } else {
+            below.addLink(source, target, confidence);
+            belowCount++;
+        }
+    }
+
+    /**
+     * Closes both sinks.
+     */
+    @Override
+    public void close() {
+        above.close();
+        below.close();
+    }
+
+    /**
+     * @return Number of links forwarded to the sink for links above the
+     *         threshold
+     */
+    public long getAboveCount() {
+        return aboveCount;
+    }
+
+    /**
+     * @return Number of links forwarded to the sink for links below the
+     *         threshold
+     */
+    public long getBelowCount() {
+        return belowCount;
+    }
+}
@@ -0,0 +1,199 @@
+package org.aksw.limes.core.io.preprocessing;
+
+import java.util.regex.Pattern;
+import java.util.regex.PatternSyntaxException;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * A preprocessing function chain like <code>nolang-&gt;lowercase</code> that
+ * has been parsed once. The chain is split into its functions, the arguments
+ * of replace and regexreplace are extracted and their patterns are compiled,
+ * so that processing a value only runs the functions. The results are the
+ * same as those of {@link Preprocessor#process(String, String)}. A chain
+ * does not change after it was compiled and can be used by several threads
+ * at the same time.
+ */
+public class PreprocessingChain {
+    static Logger logger = LoggerFactory.getLogger(PreprocessingChain.class.getName());
+
+    /**
+     * A single preprocessing function
+     */
+    private interface Step {
+        String apply(String entry);
+    }
+
+    private static final Step IDENTITY = entry -> entry;
+
+    private final String functionChain;
+    private final Step[] steps;
+
+    /**
+     * Constructor
+     *
+     * @param functionChain
+     *         Functions separated by -&gt;, may be null or empty
+     */
+    public PreprocessingChain(String functionChain) {
+        this.functionChain = functionChain;
+        if (functionChain == null || functionChain.equals("")) {
+            steps = new Step[0];
+        } else {
+            String split[] = functionChain.split("->");
+            steps = new Step[split.length];
+            for (int i = 0; i < split.length; i++) {
+                steps[i] = compile(split[i]);
+            }
+        }
+    }
+
+    /**
+     * Removes the datatype of a value and applies all functions of the chain
+     *
+     * @param entry
+     *         Raw value
+     * @return the processed value
+     */
+    public String process(String entry) {
+        int hat = entry.indexOf('^');
+        String result = hat < 0 ? entry : entry.substring(0, hat);
+        for (Step step : steps) {
+            result = step.apply(result);
+        }
+        return result;
+    }
+
+    /**
+     * @return true if the chain does not change values apart from removing
+     *         their datatype
+     */
+    public boolean isEmpty() {
+        return steps.length == 0;
+    }
+
+    @Override
+    public String toString() {
+        return functionChain;
+    }
+
+    private static Step compile(String function) {
+        if (function.length() < 2) {
+            return IDENTITY;
+        }
+        if (function.startsWith(Preprocessor.LOWER_CASE)) {
+            return entry -> entry.toLowerCase();
+        }
+        if (function.startsWith(Preprocessor.UPPER_CASE)) {
+            return entry -> entry.toUpperCase();
+        }
+        if (function.startsWith(Preprocessor.REPLACE)) {
+            try {
+                String replaced = function.substring(8, function.indexOf(","));
+                String replacee = function.substring(function.indexOf(",") + 1, function.indexOf(")"));
+                Pattern pattern = Pattern.compile(Pattern.quote(replaced));
+                return entry -> pattern.matcher(entry).replaceAll(replacee);
+            } catch (IndexOutOfBoundsException e) {
+                // malformed, fail like Preprocessor.atomicProcess
+                return entry -> Preprocessor.atomicProcess(entry, function);
+            }
+        }
+        if (function.startsWith(Preprocessor.REG_EX_REPLACE)) {
+            try {
+                String replaced = function.substring(13, function.lastIndexOf(","));
+                String replacee = function.substring(function.lastIndexOf(",") + 1,
+                        function.indexOf(")", function.lastIndexOf(",")));
+                Pattern pattern = Pattern.compile(replaced);
+                return entry -> {
+                    try {
+                        return pattern.matcher(entry).replaceAll(replacee).trim();
+                    } catch (IndexOutOfBoundsException e) {
+                        return entry;
+                    }
+                };
+            } catch (IndexOutOfBoundsException e1) {
+                logger.warn("Preprocessing function " + function + " could not be read.");
+            } catch (PatternSyntaxException e2) {
+                logger.warn("Preprocessing function " + function + " could not be read. Error in Regular Expression.");
+            }
+            return IDENTITY;
+        }
+        if (function.startsWith(Preprocessor.NO_LANG)) {
+            return entry -> entry.contains(Preprocessor.AT) ? entry.substring(0, entry.lastIndexOf(Preprocessor.AT))
+                    : entry;
+        }
+        if (function.startsWith(Preprocessor.CLEAN_IRI)) {
+            return entry -> entry.contains("/") ? entry.substring(entry.lastIndexOf("/") + 1) : entry;
+        }
+        if (function.startsWith(Preprocessor.NUMBER)) {
+            return PreprocessingChain::number;
+        }
+        if (function.startsWith(Preprocessor.CELSIUS)) {
+            return entry -> (32 + Double.parseDouble(number(entry)) * 9 / 5) + "";
+        }
+        if (function.startsWith(Preprocessor.FAHRENHEIT)) {
+            return entry -> ((Double.parseDouble(number(entry)) - 32) * 5 / 9) + "";
+        }
+        if (function.startsWith(Preprocessor.DATE)) {
+            return PreprocessingChain::numberCharacters;
+        }
+        if (function.startsWith(Preprocessor.REMOVE_BRACES)) {
+            // no parsing needed
+            return entry -> Preprocessor.atomicProcess(entry, Preprocessor.REMOVE_BRACES);
+        }
+        if (function.startsWith(Preprocessor.REGULAR_ALPHABET)) {
+            return PreprocessingChain::regularAlphabet;
+        }
+        if (function.startsWith(Preprocessor.URI_AS_STRING)) {
+            return entry -> Preprocessor.atomicProcess(entry, Preprocessor.URI_AS_STRING);
+        }
+        logger.warn("Unknown preprocessing function " + function);
+        return IDENTITY;
+    }
+
+    /**
+     * Same as entry.replaceAll("[^0-9,.-]", "")
+     */
+    private static String numberCharacters(String entry) {
+        StringBuilder result = null;
+        for (int i = 0; i < entry.length(); i++) {
+            char c = entry.charAt(i);
+            boolean keep = (c >= '0' && c <= '9') || c == ',' || c == '.' || c == '-';
+            if (!keep && result == null) {
+                result = new StringBuilder(entry.length());
+                result.append(entry, 0, i);
+            } else if (keep && result != null) {
+                result.append(c);
+            }
+        }
+        return result == null ? entry : result.toString();
+    }
+
+    private static String number(String entry) {
+        String value = numberCharacters(entry);
+        if (value.length() == 0) {
+            return 0 + "";
+        }
+        try {
+            Double.parseDouble(value);
+        } catch (Exception e) {
+            return 0 + "";
+        }
+        return value;
+    }
+
+    /**
+     * Same as entry.replaceAll("[^A-Za-z0-9 ]", "").trim()
+     */
+    private static String regularAlphabet(String entry) {
+        StringBuilder result = new StringBuilder(entry.length());
+        for (int i = 0; i < entry.length(); i++) {
+            char c = entry.charAt(i);
+            if ((c >= 'A' && c <= 'Z') || (c >= 'a' && c <= 'z') || (c >= '0' && c <= '9') || c == ' ') {
+                result.append(c);
+            }
+        }
+        return result.toString().trim();
+    }
+}
@@ -2,6 +2,8 @@ package org.aksw.limes.core.io.preprocessing;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.regex.Pattern;
 import java.util.regex.PatternSyntaxException;
 
@@ -30,22 +32,27 @@ public class Preprocessor {
     public static final String NUMBER 		    = "number";
     static Logger logger = LoggerFactory.getLogger(Preprocessor.class.getName());
 
+    private static final Map<String, PreprocessingChain> chains = new ConcurrentHashMap<>();
+    private static final PreprocessingChain EMPTY_CHAIN = new PreprocessingChain(null);
+
     public static String process(String entry, String functionChain) {
-        String result = entry.split("\\^")[0];
-        logger.debug("Function chain = " + functionChain);
-        if (functionChain != null) {
-            if (!functionChain.equals("")) {
-                {
-                    String split[] = functionChain.split("->");
-                    for (int i = 0; i < split.length; i++) {
-                        result = atomicProcess(result, split[i]);
-                        logger.debug(result);
-                    }
-                }
-            }
+        return compile(functionChain).process(entry);
+    }
+
+    /**
+     * Parses a function chain once so that it can be applied to many values.
+     * Compiled chains are cached, hence compiling the same chain again is
+     * cheap.
+     *
+     * @param functionChain
+     *         Functions separated by -&gt;, may be null or empty
+     * @return the compiled chain
+     */
+    public static PreprocessingChain compile(String functionChain) {
+        if (functionChain == null || functionChain.equals("")) {
+            return EMPTY_CHAIN;
         }
-        logger.debug("<"+entry+">" + " -> <" + result+">");
-        return result;
+        return chains.computeIfAbsent(functionChain, PreprocessingChain::new);
     }
 
     public static String atomicProcess(String entry, String function) {
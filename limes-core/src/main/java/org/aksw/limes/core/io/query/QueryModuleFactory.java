@@ -19,31 +19,62 @@ public class QueryModuleFactory {
         if (name.toLowerCase().startsWith("csv")) {
             return new CsvQueryModule(kbinfo);
         }
-        //processes N3 files
-        else if (name.toLowerCase().startsWith("n3") || name.toLowerCase().startsWith("nt")) {
-            kbinfo.setType("N3");
+        String fileType = getFileType(name);
+        if (fileType != null) {
+            kbinfo.setType(fileType);
             return new FileQueryModule(kbinfo);
+        } else if (name.toLowerCase().startsWith("sparql")) {
+            return new SparqlQueryModule(kbinfo);
+        } else if (name.toLowerCase().startsWith("vector")) {
+            return new VectorQueryModule(kbinfo);
+        }
+        //default
+        return new ResilientSparqlQueryModule(kbinfo);
+    }
+
+    /**
+     * Returns a query module that only fills caches. Unlike
+     * {@link #getQueryModule(String, KBInfo)}, RDF files are streamed into the
+     * cache by a {@link StreamingFileQueryModule} and no model is registered
+     * in the {@link ModelRegistry}.
+     *
+     * @param name
+     *         Type of the knowledge base
+     * @param kbinfo
+     *         Knowledge base to read
+     * @return a query module for the knowledge base
+     */
+    public static IQueryModule getStreamingQueryModule(String name, KBInfo kbinfo) {
+        String fileType = getFileType(name);
+        if (fileType != null) {
+            logger.info("Generating streaming <" + name + "> reader");
+            kbinfo.setType(fileType);
+            return new StreamingFileQueryModule(kbinfo);
+        }
+        return getQueryModule(name, kbinfo);
+    }
+
+    /**
+     * @return the Jena name of the RDF file format, null if name is not an
+     *         RDF file format
+     */
+    private static String getFileType(String name) {
+        //processes N3 files
+        if (name.toLowerCase().startsWith("n3") || name.toLowerCase().startsWith("nt")) {
+            return "N3";
         }
         //processes N-TRIPLE files
         else if (name.toLowerCase().startsWith("n-triple")) {
-            kbinfo.setType("N-TRIPLE");
-            return new FileQueryModule(kbinfo);
+            return "N-TRIPLE";
         }
         //process turtle files
         else if (name.toLowerCase().startsWith("turtle") || name.toLowerCase().startsWith("ttl")) {
-            kbinfo.setType("TURTLE");
-            return new FileQueryModule(kbinfo);
+            return "TURTLE";
         }
-        //process rdf/xml files        
+        //process rdf/xml files
         else if (name.toLowerCase().startsWith("rdf") || name.toLowerCase().startsWith("xml")) {
-            kbinfo.setType("RDF/XML");
-            return new FileQueryModule(kbinfo);
-        } else if (name.toLowerCase().startsWith("sparql")) {
-            return new SparqlQueryModule(kbinfo);
-        } else if (name.toLowerCase().startsWith("vector")) {
-            return new VectorQueryModule(kbinfo);
+            return "RDF/XML";
         }
-        //default
-        return new ResilientSparqlQueryModule(kbinfo);
+        return null;
     }
 }
@@ -1,6 +1,14 @@
 package org.aksw.limes.core.io.query;
 
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
 import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 import org.aksw.limes.core.io.cache.ACache;
 import org.aksw.limes.core.io.config.KBInfo;
@@ -25,10 +33,37 @@ public class SparqlQueryModule implements IQueryModule {
     protected KBInfo kb;
     private Logger logger = LoggerFactory.getLogger(SparqlQueryModule.class.getName());
 
+    /**
+     * Default number of pages that are requested at the same time.
+     */
+    public static final int DEFAULT_MAX_CONCURRENT_PAGES = 4;
+
+    private int maxConcurrentPages = DEFAULT_MAX_CONCURRENT_PAGES;
+
     public SparqlQueryModule(KBInfo kbinfo) {
         kb = kbinfo;
     }
 
+    /**
+     * @return the maximal number of pages that are requested at the same
+     *         time
+     */
+    public int getMaxConcurrentPages() {
+        return maxConcurrentPages;
+    }
+
+    /**
+     * @param maxConcurrentPages
+     *         Maximal number of pages that are requested at the same time. 1
+     *         requests the pages one after the other.
+     */
+    public void setMaxConcurrentPages(int maxConcurrentPages) {
+        if (maxConcurrentPages < 1) {
+            throw new IllegalArgumentException("At least one page must be requested at a time");
+        }
+        this.maxConcurrentPages = maxConcurrentPages;
+    }
+
     /**
      * Reads from a SPARQL endpoint and writes the results in a cache
      *
@@ -41,7 +76,13 @@ public class SparqlQueryModule implements IQueryModule {
     }
 
     /**
-     * Reads from a SPARQL endpoint or a file and writes the results in a cache
+     * Reads from a SPARQL endpoint or a file and writes the results in a
+     * cache. If the knowledge base has a page size, up to
+     * {@link #getMaxConcurrentPages()} pages are requested at the same time.
+     * Each request collects the triples of its page on its own; the pages are
+     * then written to the cache by the calling thread in the order of their
+     * offsets, hence the cache does not need to be thread-safe. Paging stops
+     * at the first empty page.
      *
      * @param cache
      *         The cache in which the content on the SPARQL endpoint is to be
@@ -56,88 +97,157 @@ public class SparqlQueryModule implements IQueryModule {
 
         // run query
         logger.info("Querying the endpoint.");
-        int offset = 0;
-        boolean moreResults = false;
         int counter = 0;
-        String basicQuery = query;
-        do {
-            logger.info("Getting statements " + offset + " to " + (offset + kb.getPageSize()));
-            if (kb.getPageSize() > 0) {
-                query = basicQuery + " LIMIT " + kb.getPageSize() + " OFFSET " + offset;
-            } else {
-                query = basicQuery;
-            }
-            Query sparqlQuery = QueryFactory.create(query, Syntax.syntaxARQ);
-            QueryExecution qexec;
-
-            // take care of graph issues. Only takes one graph. Seems like some
-            // sparql endpoint do
-            // not like the FROM option.
-            if (!isSparql) {
-                Model model = ModelRegistry.getInstance().getMap().get(kb.getEndpoint());
-                if (model == null) {
-                    throw new RuntimeException("No model with id '" + kb.getEndpoint() + "' registered");
+        if (kb.getPageSize() <= 0) {
+            counter = fetchPage(query, isSparql).addTo(cache);
+        } else {
+            ExecutorService executor = Executors.newFixedThreadPool(maxConcurrentPages);
+            try {
+                Deque<Future<Page>> inFlight = new ArrayDeque<Future<Page>>();
+                int offset = 0;
+                for (int i = 0; i < maxConcurrentPages; i++) {
+                    inFlight.add(submitPage(executor, query, offset, isSparql));
+                    offset = offset + kb.getPageSize();
                 }
-                qexec = QueryExecutionFactory.create(sparqlQuery, model);
-            } else {
-                if (kb.getGraph() != null) {
-                    qexec = QueryExecutionFactory.sparqlService(kb.getEndpoint(), sparqlQuery, kb.getGraph());
-                } //
-                else {
-                    qexec = QueryExecutionFactory.sparqlService(kb.getEndpoint(), sparqlQuery);
+                while (!inFlight.isEmpty()) {
+                    Page page = getPage(inFlight.poll());
+                    if (!page.hasResults()) {
+                        break;
+                    }
+                    counter = counter + page.addTo(cache);
+                    inFlight.add(submitPage(executor, query, offset, isSparql));
+                    offset = offset + kb.getPageSize();
                 }
+            } finally {
+                // pages behind the first empty page are not needed
+                executor.shutdownNow();
             }
-            ResultSet results = qexec.execSelect();
+        }
+        logger.info("Retrieved " + counter + " triples and " + cache.size() + " entities.");
+        logger.info("Retrieving statements took " + (System.currentTimeMillis() - startTime) / 1000.0 + " seconds.");
+    }
 
-            // write
-            String uri, propertyLabel, rawValue, value;
-            try {
-                if (results.hasNext()) {
-                    moreResults = true;
-                } else {
-                    moreResults = false;
-                    break;
-                }
+    private Future<Page> submitPage(ExecutorService executor, String basicQuery, int offset, boolean isSparql) {
+        return executor.submit(() -> {
+            logger.info("Getting statements " + offset + " to " + (offset + kb.getPageSize()));
+            return fetchPage(basicQuery + " LIMIT " + kb.getPageSize() + " OFFSET " + offset, isSparql);
+        });
+    }
 
-                while (results.hasNext()) {
-                    QuerySolution soln = results.nextSolution();
-                    {
-                        try {
-                            uri = soln.get(kb.getVar().substring(1)).toString();
-                            for (int i = 0; i < kb.getProperties().size(); i++) {
-                                propertyLabel = kb.getProperties().get(i);
-                                if (soln.contains("v" + i)) {
-                                    rawValue = soln.get("v" + i).toString();
-                                    // remove localization information, e.g. @en
-                                    for (String propertyDub : kb.getFunctions().get(propertyLabel).keySet()) {
-                                        value = Preprocessor.process(rawValue,
-                                                kb.getFunctions().get(propertyLabel).get(propertyDub));
-                                        cache.addTriple(uri, propertyDub, value);
-                                    }
+    private static Page getPage(Future<Page> future) {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException(e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw new RuntimeException(e.getCause());
+        }
+    }
+
+    /**
+     * Runs a query and collects the resulting triples.
+     *
+     * @param query
+     *         The query, including LIMIT and OFFSET if any
+     * @param isSparql
+     *         True if the endpoint is a remote SPARQL endpoint, else assume
+     *         that is is a Jena model
+     * @return the triples of the query
+     */
+    protected Page fetchPage(String query, boolean isSparql) {
+        Query sparqlQuery = QueryFactory.create(query, Syntax.syntaxARQ);
+        QueryExecution qexec;
+
+        // take care of graph issues. Only takes one graph. Seems like some
+        // sparql endpoint do
+        // not like the FROM option.
+        if (!isSparql) {
+            Model model = ModelRegistry.getInstance().getMap().get(kb.getEndpoint());
+            if (model == null) {
+                throw new RuntimeException("No model with id '" + kb.getEndpoint() + "' registered");
+            }
+            qexec = QueryExecutionFactory.create(sparqlQuery, model);
+        } else {
+            if (kb.getGraph() != null) {
+                qexec = QueryExecutionFactory.sparqlService(kb.getEndpoint(), sparqlQuery, kb.getGraph());
+            } //
+            else {
+                qexec = QueryExecutionFactory.sparqlService(kb.getEndpoint(), sparqlQuery);
+            }
+        }
+        Page page = new Page();
+        ResultSet results = qexec.execSelect();
+
+        // write
+        String uri, propertyLabel, rawValue, value;
+        try {
+            while (results.hasNext()) {
+                QuerySolution soln = results.nextSolution();
+                page.solutions++;
+                {
+                    try {
+                        uri = soln.get(kb.getVar().substring(1)).toString();
+                        for (int i = 0; i < kb.getProperties().size(); i++) {
+                            propertyLabel = kb.getProperties().get(i);
+                            if (soln.contains("v" + i)) {
+                                rawValue = soln.get("v" + i).toString();
+                                // remove localization information, e.g. @en
+                                for (String propertyDub : kb.getFunctions().get(propertyLabel).keySet()) {
+                                    value = Preprocessor.process(rawValue,
+                                            kb.getFunctions().get(propertyLabel).get(propertyDub));
+                                    page.add(uri, propertyDub, value);
                                 }
                             }
-                        } catch (Exception e) {
-                            logger.warn("Error while processing: " + soln.toString());
-                            logger.warn("Following exception occured: " + e.getMessage());
-                            e.printStackTrace();
-                            throw new RuntimeException();
-
                         }
+                    } catch (Exception e) {
+                        logger.warn("Error while processing: " + soln.toString());
+                        logger.warn("Following exception occured: " + e.getMessage());
+                        e.printStackTrace();
+                        throw new RuntimeException();
+
                     }
-                    counter++;
                 }
-            } catch (Exception e) {
-                logger.warn("Exception while handling query");
-                logger.warn(e.toString());
-                logger.warn("XML = \n" + ResultSetFormatter.asXMLString(results));
-            } finally {
-                qexec.close();
             }
-            offset = offset + kb.getPageSize();
+        } catch (Exception e) {
+            logger.warn("Exception while handling query");
+            logger.warn(e.toString());
+            logger.warn("XML = \n" + ResultSetFormatter.asXMLString(results));
+        } finally {
+            qexec.close();
+        }
+        return page;
+    }
 
-        } while (moreResults && kb.getPageSize() > 0);
-        logger.info("Retrieved " + counter + " triples and " + cache.size() + " entities.");
-        logger.info("Retrieving statements took " + (System.currentTimeMillis() - startTime) / 1000.0 + " seconds.");
+    /**
+     * Triples returned by one query.
+     */
+    protected static class Page {
+        private final List<String> triples = new ArrayList<String>();
+        private int solutions = 0;
+
+        void add(String uri, String property, String value) {
+            triples.add(uri);
+            triples.add(property);
+            triples.add(value);
+        }
+
+        boolean hasResults() {
+            return solutions > 0;
+        }
+
+        /**
+         * @return the number of solutions of the query
+         */
+        int addTo(ACache cache) {
+            for (int i = 0; i < triples.size(); i += 3) {
+                cache.addTriple(triples.get(i), triples.get(i + 1), triples.get(i + 2));
+            }
+            return solutions;
+        }
     }
 
     protected String generateQuery() {
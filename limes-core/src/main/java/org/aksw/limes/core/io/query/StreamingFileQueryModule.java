@@ -0,0 +1,498 @@
+package org.aksw.limes.core.io.query;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.RandomAccessFile;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.IntStream;
+
+import org.aksw.limes.core.io.cache.ACache;
+import org.aksw.limes.core.io.config.KBInfo;
+import org.aksw.limes.core.io.preprocessing.Preprocessor;
+import org.apache.jena.graph.Node;
+import org.apache.jena.graph.Triple;
+import org.apache.jena.rdf.model.Model;
+import org.apache.jena.rdf.model.ModelFactory;
+import org.apache.jena.riot.Lang;
+import org.apache.jena.riot.RDFDataMgr;
+import org.apache.jena.riot.RDFLanguages;
+import org.apache.jena.riot.system.StreamRDFBase;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.slf4j.MarkerFactory;
+
+/**
+ * Reads an RDF file into a cache without building a Jena model. The file is
+ * parsed with a RIOT stream and only the triples that match the restrictions
+ * or the properties of the {@link KBInfo} are kept. N-Triples files are split
+ * at line ends and the chunks are parsed in parallel.
+ * <p>
+ * A resource is written to the cache as soon as it fulfills all restrictions
+ * and has a value for every property. Only the triples of resources that do
+ * not match yet are buffered.
+ * <p>
+ * Streaming is possible if each restriction has the form
+ * <code>?var predicate object</code> with an IRI as object and each property
+ * is a single predicate. Other knowledge bases, e.g. with property paths or
+ * optional properties, are loaded into a model and queried by the
+ * {@link FileQueryModule}.
+ */
+public class StreamingFileQueryModule implements IQueryModule {
+
+    /**
+     * Default size in bytes of the chunks of an N-Triples file that are
+     * parsed in parallel.
+     */
+    public static final long DEFAULT_CHUNK_SIZE = 64L * 1024 * 1024;
+
+    private static final String RDF_TYPE = "http://www.w3.org/1999/02/22-rdf-syntax-ns#type";
+
+    private KBInfo kb;
+    private long chunkSize = DEFAULT_CHUNK_SIZE;
+    private Logger logger = LoggerFactory.getLogger(StreamingFileQueryModule.class.getName());
+
+    // compiled restrictions and properties, null if the knowledge base can
+    // not be streamed
+    private String[] restrictionPredicates;
+    private String[] restrictionObjects;
+    private String[] propertyPredicates;
+
+    /**
+     * Constructor
+     *
+     * @param kbinfo
+     *         Knowledge base whose endpoint is a file or a resource
+     */
+    public StreamingFileQueryModule(KBInfo kbinfo) {
+        kb = kbinfo;
+        compile();
+    }
+
+    /**
+     * @return the size in bytes of the chunks of an N-Triples file that are
+     *         parsed in parallel
+     */
+    public long getChunkSize() {
+        return chunkSize;
+    }
+
+    /**
+     * @param chunkSize
+     *         Size in bytes of the chunks of an N-Triples file that are
+     *         parsed in parallel
+     */
+    public void setChunkSize(long chunkSize) {
+        if (chunkSize < 1 || chunkSize > Integer.MAX_VALUE / 2) {
+            throw new IllegalArgumentException("Chunk size must be positive and below 1 GB");
+        }
+        this.chunkSize = chunkSize;
+    }
+
+    /**
+     * @return true if the file is streamed into the cache, false if it is
+     *         loaded into a model first
+     */
+    public boolean isStreamable() {
+        return propertyPredicates != null && getLang() != null;
+    }
+
+    /**
+     * Reads the file and writes the instances that fulfill all restrictions
+     * and have a value for every property to the cache
+     *
+     * @param cache
+     *         Cache to be filled
+     */
+    public void fillCache(ACache cache) {
+        if (!isStreamable()) {
+            logger.info("Restrictions or properties of " + kb.getId() + " require a model, loading "
+                    + kb.getEndpoint());
+            new FileQueryModule(kb).fillCache(cache);
+            return;
+        }
+        long startTime = System.currentTimeMillis();
+        CacheWriter writer = new CacheWriter(cache);
+        try {
+            File file = new File(kb.getEndpoint());
+            if (file.isFile()) {
+                parse(file, writer);
+            } else {
+                InputStream in = getClass().getClassLoader().getResourceAsStream(kb.getEndpoint());
+                if (in == null) {
+                    logger.error(MarkerFactory.getMarker("FATAL"), "endpoint could not be loaded as a file or resource");
+                    return;
+                }
+                try {
+                    parse(in, getLang(), new Collector(writer, true, true));
+                } finally {
+                    in.close();
+                }
+            }
+        } catch (Exception e) {
+            logger.error(MarkerFactory.getMarker("FATAL"), "Error loading endpoint", e);
+            return;
+        }
+        logger.info("Retrieved " + writer.counter + " triples and " + cache.size() + " entities.");
+        logger.info("Retrieving statements took " + (System.currentTimeMillis() - startTime) / 1000.0 + " seconds.");
+    }
+
+    private Lang getLang() {
+        return RDFLanguages.nameToLang(kb.getType());
+    }
+
+    private boolean isNTriples(File file) {
+        Lang lang = getLang();
+        return lang.equals(Lang.NTRIPLES) || (lang.equals(Lang.N3) && file.getName().endsWith(".nt"));
+    }
+
+    private void parse(InputStream in, Lang lang, Collector collector) {
+        RDFDataMgr.parse(collector, in, lang);
+        collector.writer.finish(collector);
+    }
+
+    private void parse(File file, CacheWriter writer) throws IOException {
+        if (!isNTriples(file) || file.length() <= chunkSize) {
+            try (InputStream in = new FileInputStream(file)) {
+                parse(in, getLang(), new Collector(writer, true, true));
+            }
+            return;
+        }
+        long[] bounds = getChunkBounds(file);
+        logger.info("Parsing " + file + " in " + (bounds.length - 1) + " chunks");
+        // blank node labels are only unique within one parser run, hence
+        // blank subjects are skipped here
+        boolean[] hasBlankSubjects = new boolean[bounds.length - 1];
+        IntStream.range(0, bounds.length - 1).parallel().forEach(chunk -> {
+            byte[] bytes = new byte[(int) (bounds[chunk + 1] - bounds[chunk])];
+            try (RandomAccessFile raf = new RandomAccessFile(file, "r")) {
+                raf.seek(bounds[chunk]);
+                raf.readFully(bytes);
+            } catch (IOException e) {
+                throw new RuntimeException(e);
+            }
+            Collector collector = new Collector(writer, true, false);
+            parse(new ByteArrayInputStream(bytes), Lang.NTRIPLES, collector);
+            hasBlankSubjects[chunk] = collector.hasBlankSubjects;
+        });
+        for (boolean blank : hasBlankSubjects) {
+            if (blank) {
+                logger.info("Blank nodes found, parsing " + file + " again in one piece for blank subjects");
+                try (InputStream in = new FileInputStream(file)) {
+                    parse(in, Lang.NTRIPLES, new Collector(writer, false, true));
+                }
+                return;
+            }
+        }
+    }
+
+    /**
+     * Splits a file into chunks of about chunkSize bytes that end with a line
+     * break or the end of the file.
+     */
+    private long[] getChunkBounds(File file) throws IOException {
+        List<Long> bounds = new ArrayList<Long>();
+        bounds.add(0L);
+        long length = file.length();
+        try (RandomAccessFile raf = new RandomAccessFile(file, "r")) {
+            long position = chunkSize;
+            while (position < length) {
+                raf.seek(position);
+                int b;
+                while ((b = raf.read()) != -1 && b != '\n') {
+                    position++;
+                }
+                position++;
+                if (position >= length) {
+                    break;
+                }
+                bounds.add(position);
+                position = position + chunkSize;
+            }
+        }
+        bounds.add(length);
+        long[] result = new long[bounds.size()];
+        for (int i = 0; i < result.length; i++) {
+            result[i] = bounds.get(i);
+        }
+        return result;
+    }
+
+    /**
+     * Translates the restrictions and properties into IRIs. Leaves
+     * propertyPredicates null if one of them is not a simple triple pattern.
+     */
+    private void compile() {
+        if (kb.getGraph() != null && kb.getGraph().trim().length() > 3) {
+            return;
+        }
+        if (kb.getOptionalProperties() != null && kb.getOptionalProperties().size() > 0) {
+            return;
+        }
+        if (kb.getProperties() == null || kb.getProperties().isEmpty()) {
+            return;
+        }
+        List<String> predicates = new ArrayList<String>();
+        List<String> objects = new ArrayList<String>();
+        for (String restriction : kb.getRestrictions()) {
+            restriction = restriction.trim();
+            // same as SparqlQueryModule.generateQuery
+            if (restriction.length() <= 3) {
+                continue;
+            }
+            String[] parts = restriction.split("\\s+");
+            if (parts.length != 3 || !parts[0].equals(kb.getVar())) {
+                return;
+            }
+            String predicate = parts[1].equals("a") ? RDF_TYPE : expand(parts[1]);
+            String object = expand(parts[2]);
+            if (predicate == null || object == null) {
+                return;
+            }
+            predicates.add(predicate);
+            objects.add(object);
+        }
+        String[] properties = new String[kb.getProperties().size()];
+        for (int i = 0; i < properties.length; i++) {
+            String property = kb.getProperties().get(i).trim();
+            if (kb.getFunctions().get(kb.getProperties().get(i)) == null) {
+                return;
+            }
+            properties[i] = expand(property);
+            if (properties[i] == null) {
+                return;
+            }
+        }
+        restrictionPredicates = predicates.toArray(new String[predicates.size()]);
+        restrictionObjects = objects.toArray(new String[objects.size()]);
+        propertyPredicates = properties;
+    }
+
+    /**
+     * @return the IRI of a prefixed name or an IRI in angle brackets, null for
+     *         anything else
+     */
+    private String expand(String term) {
+        if (term.startsWith("<") && term.endsWith(">")) {
+            return term.substring(1, term.length() - 1);
+        }
+        if (term.contains("/") || term.contains("^") || term.startsWith("?") || term.startsWith("\"")) {
+            return null;
+        }
+        int colon = term.indexOf(':');
+        if (colon < 0 || kb.getPrefixes() == null) {
+            return null;
+        }
+        String namespace = kb.getPrefixes().get(term.substring(0, colon));
+        if (namespace == null) {
+            return null;
+        }
+        return namespace + term.substring(colon + 1);
+    }
+
+    /**
+     * Restrictions and property values of one resource
+     */
+    private class Entry {
+        final boolean[] restrictions = new boolean[restrictionPredicates.length];
+        final List<List<String>> values = new ArrayList<List<String>>();
+
+        Entry() {
+            for (int i = 0; i < propertyPredicates.length; i++) {
+                values.add(new ArrayList<String>());
+            }
+        }
+
+        void merge(Entry other) {
+            for (int i = 0; i < restrictions.length; i++) {
+                restrictions[i] = restrictions[i] || other.restrictions[i];
+            }
+            for (int i = 0; i < propertyPredicates.length; i++) {
+                values.get(i).addAll(other.values.get(i));
+            }
+        }
+
+        boolean matches() {
+            for (boolean restriction : restrictions) {
+                if (!restriction) {
+                    return false;
+                }
+            }
+            for (List<String> v : values) {
+                if (v.isEmpty()) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+
+    /**
+     * Writes resources to the cache. Shared by the collectors of all chunks.
+     */
+    private class CacheWriter {
+        private final ACache cache;
+        // resources whose restrictions are fulfilled and whose values are
+        // written to the cache as soon as they are parsed
+        private final Set<String> written = ConcurrentHashMap.newKeySet();
+        // resources that do not match in any of the finished collectors yet
+        private final Map<String, Entry> pending = new HashMap<String, Entry>();
+        private int counter = 0;
+
+        CacheWriter(ACache cache) {
+            this.cache = cache;
+        }
+
+        boolean isWritten(String uri) {
+            return written.contains(uri);
+        }
+
+        synchronized void write(String uri, Entry entry) {
+            written.add(uri);
+            for (int i = 0; i < propertyPredicates.length; i++) {
+                for (String rawValue : entry.values.get(i)) {
+                    addValue(uri, i, rawValue);
+                }
+            }
+        }
+
+        synchronized void addValue(String uri, int property, String rawValue) {
+            Map<String, String> functions = kb.getFunctions().get(kb.getProperties().get(property));
+            for (String propertyDub : functions.keySet()) {
+                cache.addTriple(uri, propertyDub, Preprocessor.process(rawValue, functions.get(propertyDub)));
+                counter++;
+            }
+        }
+
+        /**
+         * Merges the entries that did not match within a collector with the
+         * entries of the collectors finished before.
+         */
+        synchronized void finish(Collector collector) {
+            for (Map.Entry<String, Entry> e : collector.entries.entrySet()) {
+                String uri = e.getKey();
+                if (written.contains(uri)) {
+                    write(uri, e.getValue());
+                    continue;
+                }
+                Entry entry = pending.get(uri);
+                if (entry == null) {
+                    entry = e.getValue();
+                } else {
+                    entry.merge(e.getValue());
+                }
+                if (entry.matches()) {
+                    pending.remove(uri);
+                    write(uri, entry);
+                } else {
+                    pending.put(uri, entry);
+                }
+            }
+            collector.entries.clear();
+        }
+    }
+
+    /**
+     * Keeps the triples of a stream that match a restriction or a property.
+     * Values of resources that are already written go to the cache directly.
+     */
+    private class Collector extends StreamRDFBase {
+        // converts nodes to the strings returned by SPARQL query solutions
+        private final Model model = ModelFactory.createDefaultModel();
+        private final Map<String, Entry> entries = new HashMap<String, Entry>();
+        private final CacheWriter writer;
+        private final boolean keepUris;
+        private final boolean keepBlankNodes;
+        boolean hasBlankSubjects = false;
+
+        /**
+         * @param writer
+         *         Writer of the cache
+         * @param keepUris
+         *         Whether to keep resources with an IRI as subject
+         * @param keepBlankNodes
+         *         Whether to keep resources with a blank node as subject
+         */
+        Collector(CacheWriter writer, boolean keepUris, boolean keepBlankNodes) {
+            this.writer = writer;
+            this.keepUris = keepUris;
+            this.keepBlankNodes = keepBlankNodes;
+        }
+
+        @Override
+        public void triple(Triple triple) {
+            Node predicate = triple.getPredicate();
+            if (!predicate.isURI()) {
+                return;
+            }
+            Node subject = triple.getSubject();
+            if (subject.isBlank()) {
+                hasBlankSubjects = true;
+                if (!keepBlankNodes) {
+                    return;
+                }
+            } else if (!keepUris) {
+                return;
+            }
+            String p = predicate.getURI();
+            String uri = null;
+            Entry entry = null;
+            for (int i = 0; i < restrictionPredicates.length; i++) {
+                if (restrictionPredicates[i].equals(p) && triple.getObject().isURI()
+                        && restrictionObjects[i].equals(triple.getObject().getURI())) {
+                    if (uri == null) {
+                        uri = model.asRDFNode(subject).toString();
+                    }
+                    entry = getEntry(uri, entry);
+                    if (entry != null) {
+                        entry.restrictions[i] = true;
+                    }
+                }
+            }
+            for (int i = 0; i < propertyPredicates.length; i++) {
+                if (propertyPredicates[i].equals(p)) {
+                    if (uri == null) {
+                        uri = model.asRDFNode(subject).toString();
+                    }
+                    entry = getEntry(uri, entry);
+                    String value = model.asRDFNode(triple.getObject()).toString();
+                    if (entry == null) {
+                        writer.addValue(uri, i, value);
+                    } else {
+                        entry.values.get(i).add(value);
+                    }
+                }
+            }
+            if (entry != null && entry.matches()) {
+                entries.remove(uri);
+                writer.write(uri, entry);
+            }
+        }
+
+        /**
+         * @return the entry of a resource, null if the resource is already
+         *         written
+         */
+        private Entry getEntry(String uri, Entry entry) {
+            if (entry != null) {
+                return entry;
+            }
+            if (writer.isWritten(uri)) {
+                return null;
+            }
+            entry = entries.get(uri);
+            if (entry == null) {
+                entry = new Entry();
+                entries.put(uri, entry);
+            }
+            return entry;
+        }
+    }
+}
@@ -24,6 +24,30 @@ public interface ISerializer {
      */
     public void writeToFile(AMapping m, String predicate, String file);
 
+    /**
+     * Opens the output file for writing a mapping link by link and writes
+     * everything that precedes the links, e.g., the prefixes. Writing the
+     * links of a mapping with {@link #writeLink(String, String, String, double)}
+     * and calling {@link #close()} results in the same file as
+     * {@link #writeToFile(AMapping, String, String)}.
+     *
+     * @param file Output file, where the results are to be written
+     * @return true if opening was carried out successfully, else false.
+     */
+    public boolean startMapping(String file);
+
+    /**
+     * Writes one link of a mapping in the format of
+     * {@link #writeToFile(AMapping, String, String)}. Requires the method
+     * startMapping to have been carried out
+     *
+     * @param source Source resource of the link
+     * @param predicate of the mapping
+     * @param target Target resource of the link
+     * @param confidence value
+     */
+    public void writeLink(String source, String predicate, String target, double confidence);
+
     /**
      * Sets the prefixes to be used in the file.
      *
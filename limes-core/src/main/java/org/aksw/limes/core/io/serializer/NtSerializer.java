@@ -28,6 +28,9 @@ public class NtSerializer implements ISerializer {
     protected Set<String> statements;
     protected Map<String, String> prefixMap;
     protected File folder = new File("");
+    // expansion of the predicate of the last written link
+    private String lastPredicate = null;
+    private String lastExpandedPredicate = null;
 
     public NtSerializer() {
         prefixMap = new HashMap<String, String>();
@@ -80,21 +83,32 @@ public class NtSerializer implements ISerializer {
      * @param file File in which the mapping is to be serialized
      */
     public void writeToFile(AMapping mapping, String predicate, String file) {
-        open(file);
-        String predicatePrefix = getPrefix(predicate);
+        startMapping(file);
 
         if (mapping.size() > 0) {
             for (String s : mapping.getMap().keySet()) {
-                for (String t : mapping.getMap().get(s).keySet()) {
-                    writer.println("<" + s + "> "
-                            + "<" + expand(predicate, predicatePrefix) + "> "
-                            + "<" + t + "> .");
+                for (Entry<String, Double> t : mapping.getMap().get(s).entrySet()) {
+                    writeLink(s, predicate, t.getKey(), t.getValue());
                 }
             }
         }
         close();
     }
 
+    public boolean startMapping(String file) {
+        return open(file);
+    }
+
+    public void writeLink(String source, String predicate, String target, double confidence) {
+        if (!predicate.equals(lastPredicate)) {
+            lastPredicate = predicate;
+            lastExpandedPredicate = expand(predicate, getPrefix(predicate));
+        }
+        writer.println("<" + source + "> "
+                + "<" + lastExpandedPredicate + "> "
+                + "<" + target + "> .");
+    }
+
     /**
      * Writes in the file statement by statement. Rather slow, not to be used
      *
@@ -0,0 +1,43 @@
+package org.aksw.limes.core.io.serializer;
+
+import org.aksw.limes.core.io.mapping.ILinkSink;
+
+/**
+ * Link sink that writes each link to a file as soon as it is added, using the
+ * format of a serializer. The file is the same as the one written by
+ * {@link ISerializer#writeToFile(org.aksw.limes.core.io.mapping.AMapping, String, String)}
+ * for a mapping containing all added links, but the sink does not keep the
+ * links in memory. A serializer writes to one file at a time, hence each sink needs
+ * its own serializer.
+ */
+public class SerializerLinkSink implements ILinkSink {
+
+    private ISerializer serializer;
+    private String predicate;
+
+    /**
+     * Opens the output file.
+     *
+     * @param serializer
+     *         Serializer used for writing the links
+     * @param predicate
+     *         Predicate of the links
+     * @param file
+     *         Output file
+     */
+    public SerializerLinkSink(ISerializer serializer, String predicate, String file) {
+        this.serializer = serializer;
+        this.predicate = predicate;
+        serializer.startMapping(file);
+    }
+
+    @Override
+    public void addLink(String source, String target, double confidence) {
+        serializer.writeLink(source, predicate, target, confidence);
+    }
+
+    @Override
+    public void close() {
+        serializer.close();
+    }
+}
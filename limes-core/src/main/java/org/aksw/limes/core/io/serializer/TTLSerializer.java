@@ -11,6 +11,7 @@ import java.io.PrintWriter;
 import java.util.HashMap;
 import java.util.Iterator;
 import java.util.Map;
+import java.util.Map.Entry;
 import java.util.TreeSet;
 
 import org.aksw.limes.core.io.mapping.AMapping;
@@ -74,17 +75,28 @@ public class TTLSerializer implements ISerializer {
      * @param file Output file
      */
     public void writeToFile(AMapping mapping, String predicate, String file) {
-        open(file);
-        printPrefixes();
-        statements = new TreeSet<String>();
+        startMapping(file);
         for (String s : mapping.getMap().keySet()) {
-            for (String t : mapping.getMap().get(s).keySet()) {
-                writer.println("<" + s + "> <" + predicate + "> <" + t + "> .");
+            for (Entry<String, Double> t : mapping.getMap().get(s).entrySet()) {
+                writeLink(s, predicate, t.getKey(), t.getValue());
             }
         }
         close();
     }
 
+    public boolean startMapping(String file) {
+        if (!open(file)) {
+            return false;
+        }
+        printPrefixes();
+        statements = new TreeSet<String>();
+        return true;
+    }
+
+    public void writeLink(String source, String predicate, String target, double confidence) {
+        writer.println("<" + source + "> <" + predicate + "> <" + target + "> .");
+    }
+
     /**
      * Print prefixes
      */
@@ -1,5 +1,7 @@
 package org.aksw.limes.core.io.serializer;
 
+import java.util.Map.Entry;
+
 import org.aksw.limes.core.io.mapping.AMapping;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -53,18 +55,26 @@ public class TabSeparatedSerializer extends NtSerializer {
      * @param file File in which the mapping is to be serialized
      */
     public void writeToFile(AMapping mapping, String predicate, String file) {
-        open(file);
+        startMapping(file);
 
         if (mapping.size() > 0) {
             for (String s : mapping.getMap().keySet()) {
-                for (String t : mapping.getMap().get(s).keySet()) {
-                    writer.println("<" + s + ">\t<" + t + ">\t" + mapping.getConfidence(s, t));
+                for (Entry<String, Double> t : mapping.getMap().get(s).entrySet()) {
+                    writeLink(s, predicate, t.getKey(), t.getValue());
                 }
             }
         }
         close();
     }
 
+    /* (non-Javadoc)
+     * @see org.aksw.limes.core.io.serializer.NtSerializer#writeLink(java.lang.String, java.lang.String, java.lang.String, double)
+     */
+    @Override
+    public void writeLink(String source, String predicate, String target, double confidence) {
+        writer.println("<" + source + ">\t<" + target + ">\t" + confidence);
+    }
+
     /* (non-Javadoc)
      * @see org.aksw.limes.core.io.serializer.NtSerializer#getFileExtension()
      */
@@ -1,10 +1,12 @@
 package org.aksw.limes.core.measures.mapper;
 
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
-import java.util.List;
+import java.util.IdentityHashMap;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 
 import org.aksw.limes.core.io.cache.ACache;
 import org.aksw.limes.core.io.mapping.AMapping;
@@ -20,7 +22,58 @@ import org.aksw.limes.core.io.mapping.MappingFactory;
 public abstract class AMapper implements IMapper {
 
     /**
-     * Helper method, re-factored from common setup code of Mappers.
+     * Value indexes of the caches whose indexes are retained, guarded by
+     * itself.
+     */
+    private static final Map<ACache, RetainedIndexes> retainedIndexes = new IdentityHashMap<>();
+
+    /**
+     * Value indexes of a cache by property and the number of callers that
+     * retain them.
+     */
+    private static class RetainedIndexes {
+        final Map<String, Map<String, Set<String>>> byProperty = new ConcurrentHashMap<>();
+        int references = 0;
+    }
+
+    /**
+     * Keeps the value indexes that mappers build for a cache until
+     * {@link #releaseIndexes(ACache)} is called, so that mappers that run
+     * against the same cache several times, e.g. against the target cache for
+     * every chunk of the source cache, build each index only once. The cache
+     * must not be modified while its indexes are retained. Calls are counted,
+     * the indexes are dropped when every call is matched by a release.
+     *
+     * @param cache
+     *            Cache whose indexes are retained
+     */
+    public static void retainIndexes(ACache cache) {
+        synchronized (retainedIndexes) {
+            retainedIndexes.computeIfAbsent(cache, c -> new RetainedIndexes()).references++;
+        }
+    }
+
+    /**
+     * Releases the value indexes of a cache retained by
+     * {@link #retainIndexes(ACache)}. They are dropped once all callers have
+     * released them.
+     *
+     * @param cache
+     *            Cache whose indexes were retained
+     */
+    public static void releaseIndexes(ACache cache) {
+        synchronized (retainedIndexes) {
+            RetainedIndexes indexes = retainedIndexes.get(cache);
+            if (indexes != null && --indexes.references == 0) {
+                retainedIndexes.remove(cache);
+            }
+        }
+    }
+
+    /**
+     * Helper method, re-factored from common setup code of Mappers. If the
+     * indexes of the cache are retained, the map is built only once per
+     * property and neither the map nor its sets can be modified.
      *
      * @param cache,
      *            Input cache
@@ -30,15 +83,46 @@ public abstract class AMapper implements IMapper {
      *         property
      */
     protected Map<String, Set<String>> getValueToUriMap(ACache cache, String property) {
+        RetainedIndexes indexes;
+        synchronized (retainedIndexes) {
+            indexes = retainedIndexes.get(cache);
+        }
+        if (indexes == null) {
+            return cache.getValueToUriMap(property);
+        }
+        return indexes.byProperty.computeIfAbsent(property, p -> {
+            Map<String, Set<String>> index = cache.getValueToUriMap(p);
+            Map<String, Set<String>> frozen = new HashMap<>(index.size() * 4 / 3 + 1);
+            for (Map.Entry<String, Set<String>> e : index.entrySet()) {
+                frozen.put(e.getKey(), Collections.unmodifiableSet(e.getValue()));
+            }
+            return Collections.unmodifiableMap(frozen);
+        });
+    }
+
+    /**
+     * Returns the map from the values of a property to the URIs of the
+     * instances like {@link #getValueToUriMap(ACache, String)}, but only for
+     * the given instances. Only the values of these instances are read, hence
+     * the costs are linear in their number instead of the size of the cache.
+     *
+     * @param cache,
+     *            Input cache
+     * @param property,
+     *            Input linking property
+     * @param uris
+     *            URIs of the instances, null for all instances
+     * @return reversed Map from literal values to resource uris for a specified
+     *         property
+     */
+    protected Map<String, Set<String>> getValueToUriMap(ACache cache, String property, Set<String> uris) {
+        if (uris == null) {
+            return getValueToUriMap(cache, property);
+        }
         Map<String, Set<String>> result = new HashMap<>();
-        List<String> uris = cache.getAllUris();
         for (String uri : uris) {
-            Set<String> values = cache.getInstance(uri).getProperty(property);
-            for (String value : values) {
-                if (!result.containsKey(value)) {
-                    result.put(value, new HashSet<>());
-                }
-                result.get(value).add(uri);
+            for (String value : cache.getValues(uri, property)) {
+                result.computeIfAbsent(value, v -> new HashSet<>()).add(uri);
             }
         }
         return result;
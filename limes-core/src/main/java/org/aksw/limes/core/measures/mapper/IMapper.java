@@ -1,5 +1,7 @@
 package org.aksw.limes.core.measures.mapper;
 
+import java.util.Set;
+
 import org.aksw.limes.core.io.cache.ACache;
 import org.aksw.limes.core.io.mapping.AMapping;
 
@@ -32,6 +34,43 @@ public interface IMapper {
     AMapping getMapping(ACache source, ACache target, String sourceVar, String targetVar, String expression,
             double threshold);
 
+    /**
+     * Returns a mapping like
+     * {@link #getMapping(ACache, ACache, String, String, String, double)},
+     * but only for the given candidate source and target instances. This is
+     * used for semi-joins: the second child of a conjunction only indexes and
+     * probes the instances that occur in the mapping of the first child. By
+     * default, the candidates are copied into memory caches via
+     * {@link ACache#getSubCache(java.util.Collection)} and the mapping is
+     * computed on these. Mappers that can read the values of the candidates
+     * directly should override this method, as e.g. ExactMatchMapper and
+     * PPJoinPlusPlus do.
+     *
+     * @param source
+     *            source cache
+     * @param target
+     *            target cache
+     * @param sourceVar
+     *            source property variable
+     * @param targetVar
+     *            size property variable
+     * @param expression
+     *            metric expression of link specification
+     * @param threshold
+     *            threshold of link specification
+     * @param sourceCandidates
+     *            URIs of the candidate source instances, null for all
+     * @param targetCandidates
+     *            URIs of the candidate target instances, null for all
+     * @return a mapping, the resulting mapping
+     */
+    default AMapping getMapping(ACache source, ACache target, String sourceVar, String targetVar,
+            String expression, double threshold, Set<String> sourceCandidates, Set<String> targetCandidates) {
+        return getMapping(sourceCandidates == null ? source : source.getSubCache(sourceCandidates),
+                targetCandidates == null ? target : target.getSubCache(targetCandidates), sourceVar, targetVar,
+                expression, threshold);
+    }
+
     ;
 
     /**
@@ -0,0 +1,303 @@
+package org.aksw.limes.core.measures.mapper;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.IntConsumer;
+import java.util.function.IntFunction;
+import java.util.function.ToLongFunction;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Scheduler for the parallel parts of the mappers. All mappers share one
+ * fork/join pool, whose parallelism is read from the system property
+ * {@value #PARALLELISM_PROPERTY} and defaults to the number of available
+ * processors.
+ * <br>
+ * Work is given as partitions with a size, e.g. the number of comparisons of
+ * a pair of length partitions. Partitions that are larger than their share of
+ * the total size are split recursively, so that skewed partitions do not leave
+ * threads idle, and idle threads steal the remaining partitions of busy ones.
+ * The calling thread blocks until all partitions are processed. If a partition
+ * fails, the partitions that have not been started yet are skipped and the
+ * exception is thrown to the caller; if the caller is interrupted while
+ * waiting, the remaining partitions are skipped as well.
+ */
+public class LinkingScheduler {
+
+    static Logger logger = LoggerFactory.getLogger(LinkingScheduler.class);
+    /**
+     * System property with the number of threads of the linking pool.
+     */
+    public static final String PARALLELISM_PROPERTY = "limes.parallelism";
+    /**
+     * Number of tasks per thread that the total work is split into.
+     */
+    private static final int TASKS_PER_THREAD = 4;
+    /**
+     * Creates the named daemon threads of the linking pools.
+     */
+    private static final ForkJoinPool.ForkJoinWorkerThreadFactory FACTORY = p -> {
+        ForkJoinWorkerThread thread = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(p);
+        thread.setName("limes-linking-" + thread.getPoolIndex());
+        thread.setDaemon(true);
+        return thread;
+    };
+
+    private static int parallelism = defaultParallelism();
+    private static ForkJoinPool pool = null;
+
+    private LinkingScheduler() {
+    }
+
+    private static int defaultParallelism() {
+        String value = System.getProperty(PARALLELISM_PROPERTY);
+        if (value != null) {
+            try {
+                int p = Integer.parseInt(value.trim());
+                if (p > 0) {
+                    return p;
+                }
+            } catch (NumberFormatException e) {
+                // fall through to the default
+            }
+            logger.warn("Ignoring invalid " + PARALLELISM_PROPERTY + " = " + value);
+        }
+        return Runtime.getRuntime().availableProcessors();
+    }
+
+    /**
+     * @return the number of threads that execute partitions
+     */
+    public static synchronized int getParallelism() {
+        return parallelism;
+    }
+
+    /**
+     * Sets the number of threads that execute partitions. The previous pool
+     * accepts no new calls but drains the partitions it was given; calls that
+     * obtained it before the change are submitted to the new pool instead.
+     *
+     * @param parallelism
+     *            Number of threads, 1 for sequential execution in the calling
+     *            thread
+     */
+    public static synchronized void setParallelism(int parallelism) {
+        if (parallelism < 1) {
+            throw new IllegalArgumentException("Parallelism must be positive: " + parallelism);
+        }
+        if (parallelism != LinkingScheduler.parallelism) {
+            LinkingScheduler.parallelism = parallelism;
+            if (pool != null) {
+                pool.shutdown();
+                pool = null;
+            }
+        }
+    }
+
+    /**
+     * @return the pool shared by all mappers
+     */
+    public static synchronized ForkJoinPool getPool() {
+        if (pool == null) {
+            pool = new ForkJoinPool(parallelism, FACTORY, null, false);
+        }
+        return pool;
+    }
+
+    /**
+     * Processes partitions in parallel and returns when all of them are
+     * processed.
+     *
+     * @param partitions
+     *            Partitions of the work
+     * @param size
+     *            Size of a partition, e.g. its number of comparisons
+     * @param split
+     *            Splits a partition into smaller ones, returns null or a
+     *            single partition if it can not be split
+     * @param worker
+     *            Processes a partition, called concurrently for different
+     *            partitions
+     * @param <P>
+     *            Type of the partitions
+     * @throws CancellationException
+     *             if the calling thread is interrupted
+     */
+    public static <P> void execute(Collection<P> partitions, ToLongFunction<P> size, Function<P, List<P>> split,
+            Consumer<P> worker) {
+        if (partitions.isEmpty()) {
+            return;
+        }
+        int threads = getParallelism();
+        if (threads == 1) {
+            for (P partition : partitions) {
+                worker.accept(partition);
+            }
+            return;
+        }
+        long total = 0;
+        for (P partition : partitions) {
+            total += size.applyAsLong(partition);
+        }
+        Job<P> job = new Job<>(size, split, worker, Math.max(1, total / (threads * TASKS_PER_THREAD)));
+        PartitionTask<P> task = new PartitionTask<>(job, new ArrayList<>(partitions));
+        ForkJoinPool current = ForkJoinTask.getPool();
+        if (current != null && current.getFactory() == FACTORY) {
+            // nested call from a partition, the current worker joins, also
+            // if its pool has been replaced in the meantime
+            task.invoke();
+            return;
+        }
+        ForkJoinTask<Void> future = submit(task);
+        try {
+            future.get();
+        } catch (InterruptedException e) {
+            job.cancelled = true;
+            future.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new CancellationException("Interrupted while linking");
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw new RuntimeException(cause);
+        }
+    }
+
+    /**
+     * Submits a task to the current pool. If the pool is replaced by
+     * {@link #setParallelism(int)} between obtaining and submitting to it,
+     * the task is submitted to its successor.
+     */
+    private static ForkJoinTask<Void> submit(ForkJoinTask<Void> task) {
+        ForkJoinPool executor = getPool();
+        while (true) {
+            try {
+                return executor.submit(task);
+            } catch (RejectedExecutionException e) {
+                ForkJoinPool next = getPool();
+                if (next == executor) {
+                    throw e;
+                }
+                executor = next;
+            }
+        }
+    }
+
+    /**
+     * Calls a worker for the indexes 0 to count - 1 in parallel and returns
+     * when all calls are done.
+     *
+     * @param count
+     *            Number of indexes
+     * @param worker
+     *            Processes an index, called concurrently for different indexes
+     */
+    public static void forEach(int count, IntConsumer worker) {
+        execute(Arrays.asList(new int[] { 0, count }), range -> range[1] - range[0], range -> {
+            int mid = (range[0] + range[1]) >>> 1;
+            return range[1] - range[0] < 2 ? null
+                    : Arrays.asList(new int[] { range[0], mid }, new int[] { mid, range[1] });
+        }, range -> {
+            for (int i = range[0]; i < range[1]; i++) {
+                worker.accept(i);
+            }
+        });
+    }
+
+    /**
+     * Computes results for the indexes 0 to count - 1 in parallel.
+     *
+     * @param count
+     *            Number of indexes
+     * @param worker
+     *            Computes the result of an index, called concurrently for
+     *            different indexes
+     * @param <R>
+     *            Type of the results
+     * @return the results in the order of the indexes
+     */
+    public static <R> List<R> map(int count, IntFunction<R> worker) {
+        @SuppressWarnings("unchecked")
+        R[] results = (R[]) new Object[count];
+        forEach(count, i -> results[i] = worker.apply(i));
+        return Arrays.asList(results);
+    }
+
+    /**
+     * Functions and state shared by the tasks of one call of
+     * {@link LinkingScheduler#execute}.
+     */
+    private static class Job<P> {
+        final ToLongFunction<P> size;
+        final Function<P, List<P>> split;
+        final Consumer<P> worker;
+        /**
+         * Partitions of at most this size are not split.
+         */
+        final long grain;
+        volatile boolean cancelled = false;
+
+        Job(ToLongFunction<P> size, Function<P, List<P>> split, Consumer<P> worker, long grain) {
+            this.size = size;
+            this.split = split;
+            this.worker = worker;
+            this.grain = grain;
+        }
+    }
+
+    private static class PartitionTask<P> extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+        private final transient Job<P> job;
+        private final transient List<P> partitions;
+
+        PartitionTask(Job<P> job, List<P> partitions) {
+            this.job = job;
+            this.partitions = partitions;
+        }
+
+        @Override
+        protected void compute() {
+            if (job.cancelled) {
+                return;
+            }
+            if (partitions.size() > 1) {
+                int mid = partitions.size() / 2;
+                invokeAll(new PartitionTask<>(job, partitions.subList(0, mid)),
+                        new PartitionTask<>(job, partitions.subList(mid, partitions.size())));
+                return;
+            }
+            P partition = partitions.get(0);
+            if (job.size.applyAsLong(partition) > job.grain) {
+                List<P> parts = job.split.apply(partition);
+                if (parts != null && parts.size() > 1) {
+                    new PartitionTask<>(job, parts).compute();
+                    return;
+                }
+            }
+            try {
+                job.worker.accept(partition);
+            } catch (RuntimeException | Error e) {
+                job.cancelled = true;
+                throw e;
+            }
+        }
+    }
+}
@@ -13,7 +13,9 @@ import org.aksw.limes.core.io.mapping.AMapping;
 import org.aksw.limes.core.io.mapping.MappingFactory;
 import org.aksw.limes.core.io.parser.Parser;
 import org.aksw.limes.core.measures.mapper.AMapper;
+import org.aksw.limes.core.measures.mapper.LinkingScheduler;
 import org.aksw.limes.core.measures.mapper.pointsets.PropertyFetcher;
+import org.aksw.limes.core.measures.measure.string.EditDistance;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.slf4j.MarkerFactory;
@@ -30,10 +32,15 @@ import algorithms.edjoin.Record;
 public class EDJoinMapper extends AMapper {
 
     static Logger logger = LoggerFactory.getLogger(EDJoinMapper.class);
-    private static int Q = -1;
-    private static AMapping mapping = null;
-    private static HashMap<Integer, String> sourceMap;
-    private static HashMap<Integer, String> targetMap;
+    private static final int Q = 3;
+    /**
+     * Number of candidate pairs that are collected before they are verified
+     * in parallel.
+     */
+    private static final int VERIFICATION_BATCH_SIZE = 1 << 14;
+    private AMapping mapping = null;
+    private HashMap<Integer, String> sourceMap;
+    private HashMap<Integer, String> targetMap;
     @SuppressWarnings("unused")
     private int comparisons = 0;
 
@@ -71,13 +78,19 @@ public class EDJoinMapper extends AMapper {
         return records;
     }
 
-    private static int verification(Record currentRec, HashMap<Integer, Record> candidates, ArrayList<String> objects,
-            int q, int threshold) {
-        int count = 0;
-        String id1, id2;
-        Iterator<Record> iter = candidates.values().iterator();
-        while (iter.hasNext()) {
-            Record y = iter.next();
+    /**
+     * Verifies the candidates of a record with the count, location-based
+     * mismatch and content filters, followed by the edit distance bounded by
+     * the threshold. Does not modify any state, so that several records can
+     * be verified in parallel.
+     *
+     * @return the ids of the records of each verified pair, followed by their
+     *         edit distance
+     */
+    private static List<int[]> verification(Record currentRec, Record[] candidates, List<String> objects, int q,
+            int threshold) {
+        List<int[]> verified = new ArrayList<int[]>();
+        for (Record y : candidates) {
             compareQGramsResult compResult = compareQGrams(currentRec, y, threshold);
 
             /*
@@ -91,31 +104,59 @@ public class EDJoinMapper extends AMapper {
                 if (e2 <= threshold) {
                     int e3 = contentFilter(objects.get(currentRec.id), objects.get(y.id), compResult.Q, threshold, q);
                     if (e3 <= 2 * threshold) {
-                        int ed = editDistance(objects.get(currentRec.id), objects.get(y.id));
+                        int ed = EditDistance.distance(objects.get(currentRec.id), objects.get(y.id), threshold);
                         if (ed <= threshold) {
-                            if ((sourceMap.containsKey(currentRec.id) && targetMap.containsKey(y.id))) {
-                                id1 = sourceMap.get(currentRec.id);
-                                id2 = targetMap.get(y.id);
-                                // CORRECT
-                                mapping.add(id1, id2, 1.0 / (1 + (double) ed));
-                            } else if (targetMap.containsKey(currentRec.id) && sourceMap.containsKey(y.id)) {
-                                // get uris for ids
-                                {
-                                    id1 = sourceMap.get(y.id);
-                                    id2 = targetMap.get(currentRec.id);
-                                    // CORRECT
-                                    mapping.add(id1, id2, 1.0 / (1 + (double) ed));
-                                }
-                                count++;
-                            }
+                            verified.add(new int[] { currentRec.id, y.id, ed });
                         }
                     }
                 }
             }
         }
+        return verified;
+    }
+
+    /**
+     * Verifies the pending candidates in parallel and adds the links between
+     * source and target records to the mapping.
+     *
+     * @return the number of links added
+     */
+    private int verify(List<Record> records, List<Record[]> candidates, List<String> objects, int threshold) {
+        List<List<int[]>> verified = LinkingScheduler.map(records.size(),
+                i -> verification(records.get(i), candidates.get(i), objects, Q, threshold));
+        records.clear();
+        candidates.clear();
+        int count = 0;
+        for (List<int[]> pairs : verified) {
+            for (int[] pair : pairs) {
+                if (link(pair[0], pair[1], pair[2])) {
+                    count++;
+                }
+            }
+        }
         return count;
     }
 
+    /**
+     * Adds the link between two records if one is from the source and the
+     * other from the target.
+     *
+     * @return true if a link was added
+     */
+    private boolean link(int x, int y, int ed) {
+        if (sourceMap.containsKey(x) && targetMap.containsKey(y)) {
+            // CORRECT
+            mapping.add(sourceMap.get(x), targetMap.get(y), 1.0 / (1 + (double) ed));
+            return true;
+        } else if (targetMap.containsKey(x) && sourceMap.containsKey(y)) {
+            // get uris for ids
+            // CORRECT
+            mapping.add(sourceMap.get(y), targetMap.get(x), 1.0 / (1 + (double) ed));
+            return true;
+        }
+        return false;
+    }
+
     private static int calcPrefixLen(Record x, int tau, int q) {
         if (x.qGrams.length <= tau + 1) {
             return x.qGrams.length;
@@ -294,53 +335,30 @@ public class EDJoinMapper extends AMapper {
      * @return Edit-Distanz
      */
     public static int editDistance(String x, String y) {
-        int d[][];
-        int n, m, i, j, cost;
-
-        n = x.length();
-        m = y.length();
-        if (n == 0) {
-            return m;
-        }
-
-        if (m == 0) {
-            return n;
-        }
-
-        d = new int[n + 1][m + 1];
-
-        for (i = 0; i <= n; i++) {
-            d[i][0] = i;
-        }
-
-        for (j = 0; j <= m; j++) {
-            d[0][j] = j;
-        }
-
-        for (i = 1; i <= n; i++) {
-            for (j = 1; j <= m; j++) {
-                if (x.charAt(i - 1) == y.charAt(j - 1)) {
-                    cost = 0;
-                } else {
-                    cost = 1;
-                }
-
-                d[i][j] = min(d[i - 1][j] + 1, d[i][j - 1] + 1, d[i - 1][j - 1] + cost);
-            }
-        }
-        return d[n][m];
+        return EditDistance.distance(x, y);
     }
 
-    private static int min(int a, int b, int c) {
-        int min;
-        min = a;
-        if (b < min) {
-            min = b;
-        }
-        if (c < min) {
-            min = c;
+    /**
+     * Computes the similarity of two values as the mapper does, i.e., 1 / (1
+     * + ed) if their edit distance ed is at most (1 - threshold) / threshold
+     * and 0 else. The edit distance is only computed up to this bound. Empty
+     * values are not linked by the mapper and have a similarity of 0.
+     *
+     * @param x
+     *            Source value
+     * @param y
+     *            Target value
+     * @param threshold
+     *            Similarity threshold
+     * @return the similarity of x and y
+     */
+    public static double getSimilarity(String x, String y, double threshold) {
+        double tau = (1 - threshold) / threshold;
+        if (tau < 0 || x.isEmpty() || y.isEmpty()) {
+            return 0;
         }
-        return min;
+        int ed = EditDistance.distance(x, y, (int) Math.min(Integer.MAX_VALUE, tau));
+        return (ed <= tau) ? 1.0 / (1 + (double) ed) : 0;
     }
 
     public String getName() {
@@ -369,9 +387,6 @@ public class EDJoinMapper extends AMapper {
     public AMapping getMapping(ACache source, ACache target, String sourceVar, String targetVar, String expression,
             double threshold) {
 
-        if (Q <= 1) {
-            Q = 3;
-        }
         // convert similarity in distance threshold
         threshold = (1 - threshold) / threshold;
 
@@ -443,6 +458,9 @@ public class EDJoinMapper extends AMapper {
         Record[] records = qTokenizer(entryArray, Q);
         HashMap<Integer, LinkedList<EdPosition>> index = new HashMap<Integer, LinkedList<EdPosition>>(); // I
         int count = 0;
+        List<Record> pendingRecords = new ArrayList<Record>();
+        List<Record[]> pendingCandidates = new ArrayList<Record[]>();
+        int pendingSize = 0;
         // run the core of EdJoin
         String id1, id2;
         for (int i = 0; i < records.length; i++) {
@@ -460,7 +478,7 @@ public class EDJoinMapper extends AMapper {
 
                         // length filtering
                         if (Math.abs(x.length() - y.length()) <= threshold) {
-                            int ed = editDistance(x, y);
+                            int ed = EditDistance.distance(x, y, (int) threshold);
                             if (ed <= threshold) {
                                 if ((sourceMap.containsKey(records[i].id) && targetMap.containsKey(records[j].id))) {
                                     id1 = sourceMap.get(records[i].id);
@@ -519,10 +537,19 @@ public class EDJoinMapper extends AMapper {
                     }
                 }
                 if (candidates.size() > 0) {
-                    count = count + verification(currentRec, candidates, entries, Q, (int) threshold);
+                    // candidates are verified in batches, as verification
+                    // does not depend on the index
+                    pendingRecords.add(currentRec);
+                    pendingCandidates.add(candidates.values().toArray(new Record[candidates.size()]));
+                    pendingSize += candidates.size();
+                    if (pendingSize >= VERIFICATION_BATCH_SIZE) {
+                        count = count + verify(pendingRecords, pendingCandidates, entries, (int) threshold);
+                        pendingSize = 0;
+                    }
                 }
             }
         }
+        count = count + verify(pendingRecords, pendingCandidates, entries, (int) threshold);
         /*
          * AMapping tempMapping = MappingFactory.createDefaultMapping(); for
          * (String key : mapping.getMap().keySet()) { for (String value :
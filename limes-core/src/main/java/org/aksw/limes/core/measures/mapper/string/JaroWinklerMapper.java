@@ -6,13 +6,12 @@ import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
 
 import org.aksw.limes.core.exceptions.InvalidThresholdException;
 import org.aksw.limes.core.io.cache.ACache;
 import org.aksw.limes.core.io.mapping.AMapping;
 import org.aksw.limes.core.measures.mapper.AMapper;
+import org.aksw.limes.core.measures.mapper.LinkingScheduler;
 import org.aksw.limes.core.measures.mapper.pointsets.PropertyFetcher;
 import org.aksw.limes.core.measures.mapper.string.triefilter.LengthQuicksort;
 import org.aksw.limes.core.measures.mapper.string.triefilter.TrieFilter;
@@ -113,21 +112,9 @@ public class JaroWinklerMapper extends AMapper {
         // setting up parallel execution of matching
 
         ConcurrentHashMap<String, Map<String, Double>> similarityBook = new ConcurrentHashMap<>(listA.size(), 1.0f);
-        ExecutorService executor = Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors());
-        // instantiate and queue up workers
-        for (Pair<List<String>, List<String>> tempPair : partitions) {
-            Runnable worker = new TrieFilter(tempPair, similarityBook, metric.clone(), threshold);
-            executor.execute(worker);
-        }
-        // wait for threads in pool
-        executor.shutdown();
-        while (!executor.isTerminated()) {
-            try {
-                Thread.sleep(500);
-            } catch (InterruptedException e) {
-                e.printStackTrace();
-            }
-        }
+        // the scheduler splits large partitions and signals completion
+        LinkingScheduler.execute(partitions, TrieFilter::size, TrieFilter::split,
+                pair -> new TrieFilter(pair, similarityBook, metric.clone(), threshold).run());
         // return result
 
         AMapping mapping = getUriToUriMapping(similarityBook, sourceMap, targetMap, swapped);
@@ -6,19 +6,17 @@ package org.aksw.limes.core.measures.mapper.string;
 
 import java.util.ArrayList;
 import java.util.Arrays;
-import java.util.HashMap;
-import java.util.Iterator;
-import java.util.LinkedList;
-import java.util.Map;
-import java.util.StringTokenizer;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
 
 import org.aksw.limes.core.exceptions.InvalidThresholdException;
 import org.aksw.limes.core.io.cache.ACache;
-import org.aksw.limes.core.io.cache.Instance;
 import org.aksw.limes.core.io.mapping.AMapping;
 import org.aksw.limes.core.io.mapping.MappingFactory;
 import org.aksw.limes.core.io.parser.Parser;
 import org.aksw.limes.core.measures.mapper.AMapper;
+import org.aksw.limes.core.measures.mapper.LinkingScheduler;
 import org.aksw.limes.core.measures.measure.MeasureFactory;
 import org.aksw.limes.core.measures.measure.MeasureType;
 import org.aksw.limes.core.measures.measure.string.IStringMeasure;
@@ -26,36 +24,10 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.slf4j.MarkerFactory;
 
-import algorithms.StoppUhr;
-import algorithms.Token;
-import algorithms.ppjoinplus.Record;
-
 /**
  * @author Axel-C. Ngonga Ngomo (ngonga@informatik.uni-leipzig.de)
  */
 
-class Position {
-
-    Record record = null;
-    int position = -1;
-
-    public Position(Record record, int position) {
-        this.record = record;
-        this.position = position;
-    }
-}
-
-class CandidateInfo {
-
-    int currentOverlap = -1;
-    int alpha = -1;
-
-    public CandidateInfo(int currentOverlap, int alpha) {
-        this.currentOverlap = currentOverlap;
-        this.alpha = alpha;
-    }
-}
-
 class PartitionResult {
 
     int l = -1;
@@ -100,6 +72,14 @@ class PartitionResult {
  * <a href="http://www.cse.unsw.edu.au/~weiw/files/WWW08-PPJoin-Final.pdf">
  * detaillierte Beschreibung von PPJoin+</a>.
  *
+ * <br>
+ * The join runs between the source and the target values. The prefixes of
+ * the source values are indexed with int-array posting lists, and the target
+ * values are probed in parallel chunks against the read-only index. Tokens are
+ * ordered by their frequency in both datasets; the tokenized values and the
+ * order are kept per cache and property by {@link TokenColumn}, so that they
+ * are reused by later joins on the same data.
+ *
  * @author Dawid Kotlarz
  * @version 1.0
  */
@@ -107,6 +87,10 @@ public class PPJoinPlusPlus extends AMapper {
 
     static Logger logger = LoggerFactory.getLogger(PPJoinPlusPlus.class);
     private static final int MAX_DEPTH = 2;
+    /**
+     * Number of target values that are probed by one task.
+     */
+    private static final int PROBE_CHUNK_SIZE = 256;
 
     /**
      * Berechnet die Überlappung zwischen zwei Datensätzen mithilfe ihrer Tokens
@@ -121,22 +105,25 @@ public class PPJoinPlusPlus extends AMapper {
      *            Position des Anfangstokens vom zweiten Datensatz
      * @return Überlappung von x und y
      */
-    public static int overlap(Record x, int beginnX, Record y, int beginnY) {
+    public static int overlap(int[] x, int beginnX, int[] y, int beginnY) {
         int overlap = 0;
-        for (int i = beginnX; i < x.tokens.length; i++) {
-
-            for (int j = beginnY; j < y.tokens.length; j++) {
-                if (x.tokens[i].id == y.tokens[j].id) {
-                    overlap++;
-                    beginnY = j + 1;
-                    break;
-                }
+        int i = beginnX;
+        int j = beginnY;
+        while (i < x.length && j < y.length) {
+            if (x[i] == y[j]) {
+                overlap++;
+                i++;
+                j++;
+            } else if (x[i] < y[j]) {
+                i++;
+            } else {
+                j++;
             }
         }
         return overlap;
     }
 
-    private static int suffixFilter(Record x, int xBeginn, int xEnd, Record y, int yBeginn, int yEnd, int H_max,
+    private static int suffixFilter(int[] x, int xBeginn, int xEnd, int[] y, int yBeginn, int yEnd, int H_max,
             int depth) {
         int xSize = xEnd - xBeginn + 1;
         int ySize = yEnd - yBeginn + 1;
@@ -148,25 +135,9 @@ public class PPJoinPlusPlus extends AMapper {
         }
         int mid = yBeginn + (int) Math.ceil(1.0 * ySize / 2) - 1; // index from
         // 0 -> -1
-        // int mid = (yBeginn + yEnd) / 2;
-        Token w = y.tokens[mid];
-
-        /*
-         * ---funktioniert nicht immer korrekt
-         * (java.lang.ArrayIndexOutOfBoundsException bei partition)---
-         *
-         * int o = (H_max - Math.abs( xSize - ySize)) / 2; //always divisible
-         * int ol, or; if( xSize < ySize){ ol = 1; or = 0; }else{ ol = 0; or =
-         * 1; } PartitionResult pr = partition( x, w, mid - o - Math.abs( xSize
-         * - ySize) * ol, mid + o + Math.abs( xSize - ySize) * or);
-         * /*-------------------------------
-         */
+        int w = y[mid];
         PartitionResult pr = partition(x, w, xBeginn, xEnd);
 
-        /*
-         * ---nicht nötig--- if( pr.f == 0){ return H_max + 1; }
-         * -------------------
-         */
         int xlSize = pr.l - xBeginn + 1;
         int xrSize = xEnd - pr.r + 1;
         int ylSize = mid - yBeginn;
@@ -187,24 +158,18 @@ public class PPJoinPlusPlus extends AMapper {
         }
     }
 
-    private static PartitionResult partition(Record s, Token w, int l, int r) {
-        /*
-         * ---funktioniert nicht immer korrekt--- if( s.tokens[l].compareTo(w) >
-         * 0 || s.tokens[r].compareTo(w) < 0){ return new PartitionResult( -1,
-         * -1, 0, 1); } /*------------------------------
-         */
-
-        if (s.tokens[l].compareTo(w) > 0) {
+    private static PartitionResult partition(int[] s, int w, int l, int r) {
+        if (s[l] > w) {
             return new PartitionResult(l - 1, l, 1, 1);
         }
 
-        if (s.tokens[r].compareTo(w) < 0) {
+        if (s[r] < w) {
             return new PartitionResult(r, r + 1, 1, 1);
         }
 
         int p = binarySearch(s, l, r, w);
 
-        if (s.tokens[p].compareTo(w) == 0) {
+        if (s[p] == w) {
             return new PartitionResult(p - 1, p + 1, 1, 0); // skip the token w
         } else {
             return new PartitionResult(p - 1, p, 1, 1);
@@ -213,7 +178,7 @@ public class PPJoinPlusPlus extends AMapper {
 
     /**
      * Binary search for the position of the first token in x that is no smaller
-     * than w in the global ordering within x.tokens[l..r].
+     * than w in the global ordering within x[l..r].
      *
      * @param x
      *            a record
@@ -225,93 +190,18 @@ public class PPJoinPlusPlus extends AMapper {
      *            a token
      * @return the position of the first token in x that is no smaller than w
      */
-    private static int binarySearch(Record x, int l, int r, Token w) {
-        int p = (l + r) / 2;
-        int c = x.tokens[p].compareTo(w);
-        if (c == 0) {
-            return (p);
-        }
-
-        if (l == r) {
-            if (c < 0) {
-                return (p + 1);
-            } else {
-                return p;
-            }
-        }
-        if (c < 0) {
-            if (p < r) {
-                return (binarySearch(x, p + 1, r, w));
-            } else {
-                return p + 1;
-            }
-        } else {
-            if (p > l) {
-                return (binarySearch(x, l, p - 1, w));
+    private static int binarySearch(int[] x, int l, int r, int w) {
+        int low = l;
+        int high = r + 1;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (x[mid] < w) {
+                low = mid + 1;
             } else {
-                return p;
+                high = mid;
             }
         }
-    }
-
-    private static Record[] tokenizer(String[] objects) {
-        StoppUhr s = new StoppUhr();
-        s.Starten();
-        HashMap<String, Token> allTokens = new HashMap<String, Token>();
-        Record[] records = new Record[objects.length];
-
-        for (int i = 0; i < objects.length; i++) {
-
-            StringTokenizer st = new StringTokenizer(objects[i], " .,?!\t");
-            int tokensNumber = st.countTokens();
-            Record record = new Record(i, tokensNumber);
-            // HasTable of tokens in the record <Sting> and their record
-            // frequency <Integer>
-            HashMap<String, Integer> recordTokens = new HashMap<String, Integer>();
-
-            for (int j = 0; j < tokensNumber; j++) {
-                String token = st.nextToken();
-                if (recordTokens.containsKey(token)) {
-                    Integer token_freq = recordTokens.get(token).intValue() + 1;
-                    recordTokens.put(token, token_freq);
-                    if (allTokens.containsKey(token + "." + token_freq)) { // character
-                        // '.'
-                        // is
-                        // not
-                        // allowed
-                        // in
-                        // tokens
-                        Token t = allTokens.get(token + "." + token_freq);
-                        t.df++;
-                        record.tokens[j] = t;
-                    } else {
-                        Token t = new Token(allTokens.size(), 1);
-                        allTokens.put(token + "." + token_freq, t);
-                        record.tokens[j] = t;
-                    }
-                } else {
-                    if (allTokens.containsKey(token)) {
-                        Token t = allTokens.get(token);
-                        t.df++;
-                        recordTokens.put(token, new Integer(1));
-                        record.tokens[j] = t;
-                    } else {
-                        Token t = new Token(allTokens.size(), 1);
-                        allTokens.put(token, t);
-                        recordTokens.put(token, new Integer(1));
-                        record.tokens[j] = t;
-                    }
-                }
-            }
-            records[i] = record;
-        }
-        for (int i = 0; i < records.length; i++) {
-            Arrays.sort(records[i].tokens);
-        }
-        Arrays.sort(records);
-        s.Stoppen();
-        // logger.info("Tokenizing carried out in " + s.Laufzeit() + "ms.");
-        return records;
+        return low;
     }
 
     public String getName() {
@@ -338,17 +228,39 @@ public class PPJoinPlusPlus extends AMapper {
      */
     public AMapping getMapping(ACache source, ACache target, String sourceVar, String targetVar, String expression,
             double threshold) {
+        return getMapping(source, target, sourceVar, targetVar, expression, threshold, null, null);
+    }
+
+    /**
+     * Computes a mapping between the candidate instances of a source and a
+     * target. Only the values of the candidates are tokenized and indexed.
+     *
+     * @param source
+     *            Source cache
+     * @param target
+     *            Target cache
+     * @param sourceVar
+     *            Variable for the source dataset
+     * @param targetVar
+     *            Variable for the target dataset
+     * @param expression
+     *            Expression to process.
+     * @param threshold
+     *            Similarity threshold
+     * @param sourceCandidates
+     *            URIs of the candidate source instances, null for all
+     * @param targetCandidates
+     *            URIs of the candidate target instances, null for all
+     * @return A mapping which contains links between the source instances and
+     *         the target instances
+     */
+    @Override
+    public AMapping getMapping(ACache source, ACache target, String sourceVar, String targetVar, String expression,
+            double threshold, Set<String> sourceCandidates, Set<String> targetCandidates) {
 
-        AMapping mapping;
-        HashMap<Integer, String> sourceMap;
-        HashMap<Integer, String> targetMap;
-        IStringMeasure measure = null;
         if (threshold <= 0) {
             throw new InvalidThresholdException(threshold);
         }
-        mapping = MappingFactory.createDefaultMapping();
-        // logger.info("Starting PPJoinPlus");
-
         String property1 = null, property2 = null;
         // get property labels
         Parser p = new Parser(expression, threshold);
@@ -412,216 +324,268 @@ public class PPJoinPlusPlus extends AMapper {
                     "Expression " + expression + " was given to a mapper to process");
         }
 
-        // 3.1 fill objects from source in entry
-        // logger.info("Filling objects from source knowledge base.");
-        sourceMap = new HashMap<>();
-        ArrayList<String> uris = source.getAllUris();
-        ArrayList<String> entries = new ArrayList<>();
-        Instance instance;
-        int counter = 0;
-        for (int i = 0; i < uris.size(); i++) {
-            instance = source.getInstance(uris.get(i));
-            for (String s : instance.getProperty(property1)) {
-                sourceMap.put(counter, uris.get(i));
-                entries.add(s);
-                counter++;
-            }
+        MeasureType type = MeasureFactory.getMeasureType(p.getOperator());
+        IStringMeasure measure = (IStringMeasure) MeasureFactory.createMeasure(type);
+        if (measure == null) {
+            logger.error(MarkerFactory.getMarker("FATAL"), "Metric is null. Exiting.");
+            throw new RuntimeException();
         }
 
-        // 3.2 fill objects from target in entries
-        // logger.info("Filling objects from target knowledge base.");
-        targetMap = new HashMap<Integer, String>();
-        uris = target.getAllUris();
-        for (int i = 0; i < uris.size(); i++) {
-            instance = target.getInstance(uris.get(i));
-            for (String s : instance.getProperty(property2)) {
-                targetMap.put(counter, uris.get(i));
-                entries.add(s);
-                counter++;
+        TokenColumn sourceColumn = sourceCandidates == null ? TokenColumn.get(source, property1)
+                : TokenColumn.get(source, property1, sourceCandidates);
+        TokenColumn targetColumn = targetCandidates == null ? TokenColumn.get(target, property2)
+                : TokenColumn.get(target, property2, targetCandidates);
+        TokenColumn.TokenOrder order = sourceColumn.getOrder(targetColumn);
+        SourceIndex index = new SourceIndex(order.getSourceRecords(), order.getTokenCount(), measure, threshold);
+        int[][] targetRecords = order.getTargetRecords();
+
+        // target values are probed in parallel, each chunk with its own
+        // counters
+        int chunks = (targetRecords.length + PROBE_CHUNK_SIZE - 1) / PROBE_CHUNK_SIZE;
+        List<List<Link>> links = LinkingScheduler.map(chunks, c -> index.probe(targetRecords, c * PROBE_CHUNK_SIZE,
+                Math.min(targetRecords.length, (c + 1) * PROBE_CHUNK_SIZE)));
+
+        AMapping mapping = MappingFactory.createDefaultMapping();
+        for (List<Link> chunk : links) {
+            for (Link link : chunk) {
+                mapping.add(sourceColumn.getUri(link.source), targetColumn.getUri(link.target), link.similarity);
             }
         }
+        return mapping;
+    }
 
-        String[] entryArray = new String[entries.size()];
-        for (int i = 0; i < entries.size(); i++) {
-            entryArray[i] = entries.get(i);
+    /**
+     * Link between a source value and a target value.
+     */
+    private static class Link {
+        final int source;
+        final int target;
+        final double similarity;
+
+        Link(int source, int target, double similarity) {
+            this.source = source;
+            this.target = target;
+            this.similarity = similarity;
         }
+    }
 
-        Record[] records = tokenizer(entryArray);
-        HashMap<Integer, LinkedList<Position>> index = new HashMap<Integer, LinkedList<Position>>(); // I
-
-        if (threshold == 0) {
-        } else {
+    /**
+     * Inverted index over the prefixes of the source values. The postings of a
+     * token are stored as consecutive entries of two int arrays, sorted by the
+     * size of the source values, so that size filtering is a range of the
+     * postings. The index is read-only after construction and is probed by
+     * several threads.
+     */
+    private static class SourceIndex {
+        final int[][] records;
+        final IStringMeasure measure;
+        final double threshold;
+        /**
+         * Source values sorted by size.
+         */
+        final int[] values;
+        final int[] sizes;
+        final int[] prefixLengths;
+        /**
+         * Postings of token w are the entries start[w] to start[w + 1] - 1 of
+         * postingValues (indexes into values) and postingPositions.
+         */
+        final int[] start;
+        final int[] postingValues;
+        final int[] postingPositions;
+
+        SourceIndex(int[][] records, int tokenCount, IStringMeasure measure, double threshold) {
+            this.records = records;
+            this.measure = measure;
+            this.threshold = threshold;
+            Integer[] bySize = new Integer[records.length];
+            for (int v = 0; v < records.length; v++) {
+                bySize[v] = v;
+            }
+            Arrays.sort(bySize, (a, b) -> Integer.compare(records[a].length, records[b].length));
+            values = new int[records.length];
+            sizes = new int[records.length];
+            prefixLengths = new int[records.length];
+            start = new int[tokenCount + 1];
+            for (int k = 0; k < values.length; k++) {
+                values[k] = bySize[k];
+                sizes[k] = records[values[k]].length;
+                prefixLengths[k] = prefixLength(measure, sizes[k], threshold);
+                for (int j = 0; j < prefixLengths[k]; j++) {
+                    start[records[values[k]][j] + 1]++;
+                }
+            }
+            for (int w = 0; w < tokenCount; w++) {
+                start[w + 1] += start[w];
+            }
+            postingValues = new int[start[tokenCount]];
+            postingPositions = new int[start[tokenCount]];
+            int[] next = Arrays.copyOf(start, tokenCount);
+            for (int k = 0; k < values.length; k++) {
+                for (int j = 0; j < prefixLengths[k]; j++) {
+                    int posting = next[records[values[k]][j]]++;
+                    postingValues[posting] = k;
+                    postingPositions[posting] = j;
+                }
+            }
         }
 
-        MeasureType type = MeasureFactory.getMeasureType(p.getOperator());
-        measure = (IStringMeasure) MeasureFactory.createMeasure(type);
-        // logger.info("Beginninng comparison per se");
-        if (measure != null) {
-            // logger.info("Using measure " + measure.getName());
-        } else {
-            logger.error(MarkerFactory.getMarker("FATAL"), "Metric is null. Exiting.");
-            throw new RuntimeException();
-        }
-        for (int i = 0; i < records.length; i++) {
-            HashMap<Record, CandidateInfo> candidates = new HashMap<Record, CandidateInfo>(); // A
-            Record currentRec = records[i]; // record x
-            int tokensNumber = currentRec.tokens.length; // |x|
-
-            currentRec.prefixLength = measure.getPrefixLength(tokensNumber, threshold);
-            currentRec.midPrefix = measure.getMidLength(tokensNumber, threshold);
-
-            for (int j = 0; j < currentRec.tokens.length && j < currentRec.prefixLength; j++) {
-                Integer tokenID = currentRec.tokens[j].id;
-                LinkedList<Position> l = index.get(tokenID);
-                if (l != null) {
-                    Iterator<Position> iter = l.iterator();
-                    while (iter.hasNext()) {
-                        Position pos = iter.next();
-                        double sizeFilteringThreshold = measure.getSizeFilteringThreshold(tokensNumber, threshold);
-
-                        int tokensNumber2 = pos.record.tokens.length; // |y|
-                        if (tokensNumber2 >= sizeFilteringThreshold) { // size
-                            // filtering
-                            // on |y|
-                            int alpha = measure.getAlpha(tokensNumber, tokensNumber2, threshold);
-                            int ubound = 1 + Math.min(tokensNumber - j - 1, tokensNumber2 - pos.position - 1);
-
-                            CandidateInfo cf = candidates.get(pos.record);
-                            if (cf == null) {
-                                if (ubound >= alpha) {
-                                    // differs from paper because count starts
-                                    // at 0 not 1
-                                    int H_max = tokensNumber + tokensNumber2 - 2 * alpha - j - pos.position;
-                                    int H = suffixFilter(currentRec, j + 1, currentRec.tokens.length - 1, pos.record,
-                                            pos.position + 1, pos.record.tokens.length - 1, H_max, 1);
-                                    if (H <= H_max) {
-                                        candidates.put(pos.record, new CandidateInfo(1, alpha));
-                                    } else {
-                                        candidates.put(pos.record, new CandidateInfo(Integer.MIN_VALUE, alpha));
-                                    }
-                                }
+        /**
+         * Finds the source values whose similarity to the target values from
+         * to to - 1 reaches the threshold, with prefix, positional and suffix
+         * filtering followed by the verification of the remaining candidates.
+         */
+        List<Link> probe(int[][] targets, int from, int to) {
+            List<Link> links = new ArrayList<Link>();
+            // overlap in the prefixes per candidate, -1 for pruned candidates
+            int[] overlaps = new int[values.length];
+            int[] candidates = new int[values.length];
+            for (int t = from; t < to; t++) {
+                int[] x = targets[t];
+                int tokensNumber = x.length; // |x|
+                int prefixLength = prefixLength(measure, tokensNumber, threshold);
+                double sizeFilteringThreshold = measure.getSizeFilteringThreshold(tokensNumber, threshold);
+                int candidateCount = 0;
+                for (int j = 0; j < prefixLength; j++) {
+                    int w = x[j];
+                    for (int posting = firstPosting(w, sizeFilteringThreshold); posting < start[w + 1]; posting++) {
+                        int k = postingValues[posting];
+                        int tokensNumber2 = sizes[k]; // |y|
+                        if (measure.getSizeFilteringThreshold(tokensNumber2, threshold) > tokensNumber) {
+                            // size filtering on |x|, the remaining postings
+                            // are larger
+                            break;
+                        }
+                        if (overlaps[k] < 0) {
+                            continue;
+                        }
+                        int i = postingPositions[posting];
+                        int alpha = measure.getAlpha(tokensNumber, tokensNumber2, threshold);
+                        int ubound = 1 + Math.min(tokensNumber - j - 1, tokensNumber2 - i - 1);
+                        if (overlaps[k] == 0) {
+                            candidates[candidateCount++] = k;
+                            // differs from paper because count starts at 0
+                            // not 1
+                            int H_max = tokensNumber + tokensNumber2 - 2 * alpha - j - i;
+                            if (ubound >= alpha && suffixFilter(x, j + 1, tokensNumber - 1, records[values[k]], i + 1,
+                                    tokensNumber2 - 1, H_max, 1) <= H_max) {
+                                overlaps[k] = 1;
                             } else {
-                                if (cf.currentOverlap + ubound >= alpha) {
-                                    if (cf.currentOverlap == 0) {
-                                        int H_max = tokensNumber + tokensNumber2 - 2 * alpha - j - pos.position;
-                                        int H = suffixFilter(currentRec, j + 1, currentRec.tokens.length - 1,
-                                                pos.record, pos.position + 1, pos.record.tokens.length - 1, H_max, 1);
-                                        if (H <= H_max) {
-                                            cf.currentOverlap++; // a++;
-                                        } else {
-                                            cf.currentOverlap = Integer.MIN_VALUE;
-                                        }
-                                    } else {
-                                        cf.currentOverlap++; // a++;
-                                    }
-                                } else {
-                                    cf.currentOverlap = 0; // prune candidate
-                                }
+                                overlaps[k] = -1;
                             }
+                        } else if (overlaps[k] + ubound >= alpha) {
+                            overlaps[k]++;
                         } else {
-                            iter.remove();
+                            overlaps[k] = -1; // prune candidate
                         }
                     }
-
-                    if (j < currentRec.midPrefix) {
-                        l.add(new Position(currentRec, j)); // index the current
-                        // prefix
-                    }
-                } else {
-                    if (j < currentRec.midPrefix) {
-                        LinkedList<Position> temp = new LinkedList<Position>();
-                        temp.add(new Position(currentRec, j));
-                        index.put(tokenID, temp);
+                }
+                for (int c = 0; c < candidateCount; c++) {
+                    int k = candidates[c];
+                    if (overlaps[k] > 0) {
+                        double similarity = verify(x, prefixLength, k, overlaps[k]);
+                        if (similarity >= threshold) {
+                            links.add(new Link(values[k], t, similarity));
+                        }
                     }
+                    overlaps[k] = 0;
                 }
             }
-            verification(currentRec, candidates, mapping, sourceMap, targetMap, measure);
+            return links;
         }
-        // logger.info("Mapping carried out using " + comparisons + "
-        // comparisons.");
-        AMapping tempMapping = MappingFactory.createDefaultMapping();
-        for (String key : mapping.getMap().keySet()) {
-            for (String value : mapping.getMap().get(key).keySet()) {
-                double confidence = mapping.getConfidence(key, value);
-                if (confidence >= threshold) {
-                    tempMapping.add(key, value, confidence);
+
+        /**
+         * @return the first posting of token w whose source value has at
+         *         least minSize tokens
+         */
+        private int firstPosting(int w, double minSize) {
+            int low = start[w];
+            int high = start[w + 1];
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+                if (sizes[postingValues[mid]] < minSize) {
+                    low = mid + 1;
+                } else {
+                    high = mid;
                 }
             }
+            return low;
         }
-        mapping = tempMapping;
-        return mapping;
-    }
 
-    private int verification(Record currentRec, HashMap<Record, CandidateInfo> candidates, AMapping mapping,
-            HashMap<Integer, String> sourceMap, HashMap<Integer, String> targetMap, IStringMeasure measure) {
-        int count = 0;
-        String id1, id2;
-
-        for (@SuppressWarnings("rawtypes")
-        Map.Entry e : candidates.entrySet()) {
-            CandidateInfo value = (CandidateInfo) e.getValue();
-            if (value.currentOverlap > 0) {
-                Record key = (Record) e.getKey();
-                int overlap = value.currentOverlap;
-                Token wx = currentRec.tokens[currentRec.prefixLength - 1];
-                // Token wy = key.tokens[key.prefixLength - 1];
-                Token wy = key.tokens[key.midPrefix - 1];
-                int compRes = wx.compareTo(wy);
-                if (compRes < 0) {
-                    int ubound = value.currentOverlap + currentRec.tokens.length - currentRec.prefixLength;
-                    if (ubound >= value.alpha) {
-                        overlap += overlap(currentRec, currentRec.prefixLength, key, value.currentOverlap);
-                    }
-                } else if (compRes > 0) {
-                    int ubound = value.currentOverlap + key.tokens.length
-                            - /*
-                               * key.prefixLength
-                               */ key.midPrefix;
-                    if (ubound >= value.alpha) {
-                        overlap += overlap(currentRec, value.currentOverlap, key,
-                                /*
-                                 * key.prefixLength
-                                 */ key.midPrefix);
-                    }
-                } else { // Fehler in Pseudocode; dieser Fall falsch behandelt
-                    // --> Duplikate fehlen!
-                    int ubound = value.currentOverlap + Math.min(currentRec.tokens.length - currentRec.prefixLength,
-                            key.tokens.length - /*
-                                                 * key.prefixLength
-                                                 */ key.midPrefix);
-                    if (ubound >= value.alpha) {
-                        overlap += overlap(currentRec, currentRec.prefixLength, key,
-                                /*
-                                 * key.prefixLength
-                                 */ key.midPrefix);
-                    }
+        /**
+         * Completes the overlap of a target value and a candidate source value
+         * behind their prefixes.
+         *
+         * @return the similarity of the values, or -1 if their overlap is too
+         *         small
+         */
+        private double verify(int[] x, int prefixLength, int k, int currentOverlap) {
+            int[] y = records[values[k]];
+            int alpha = measure.getAlpha(x.length, y.length, threshold);
+            int overlap = currentOverlap;
+            int wx = x[prefixLength - 1];
+            int wy = y[prefixLengths[k] - 1];
+            if (wx < wy) {
+                int ubound = currentOverlap + x.length - prefixLength;
+                if (ubound >= alpha) {
+                    overlap += overlap(x, prefixLength, y, currentOverlap);
                 }
-                if (overlap >= value.alpha) {
-                    double similarity = measure.getSimilarity(overlap, currentRec.tokens.length, key.tokens.length);
-                    // use border here instead. faster!
-                    if ((sourceMap.containsKey(currentRec.id) && targetMap.containsKey(key.id))) {
-                        id1 = sourceMap.get(currentRec.id);
-                        id2 = targetMap.get(key.id);
-                        // CORRECT
-                        mapping.add(id1, id2, similarity);
-                        // mapping.add(id2, id1, similarity);
-                    } else if (targetMap.containsKey(currentRec.id) && sourceMap.containsKey(key.id)) {
-                        // get uris for ids
-                        {
-                            id1 = sourceMap.get(key.id);
-                            id2 = targetMap.get(currentRec.id);
-
-                            // CORRECT
-                            mapping.add(id1, id2, similarity);
-                            // mapping.add(id2, id1, similarity);
-                        }
-                        count++;
-                    }
+            } else if (wx > wy) {
+                int ubound = currentOverlap + y.length - prefixLengths[k];
+                if (ubound >= alpha) {
+                    overlap += overlap(x, currentOverlap, y, prefixLengths[k]);
+                }
+            } else {
+                int ubound = currentOverlap
+                        + Math.min(x.length - prefixLength, y.length - prefixLengths[k]);
+                if (ubound >= alpha) {
+                    overlap += overlap(x, prefixLength, y, prefixLengths[k]);
                 }
-                // count++;
             }
+            if (overlap < alpha) {
+                return -1;
+            }
+            // the larger value comes first as in the self-join over values
+            // sorted by size
+            return measure.getSimilarity(overlap, Math.max(x.length, y.length), Math.min(x.length, y.length));
         }
-        return count;
+    }
+
+    /**
+     * Computes the similarity of two values as the mapper does, on the sets
+     * of tokens of {@link TokenColumn#split(String)}. Values without tokens
+     * are not linked by the mapper and have a similarity of 0.
+     *
+     * @param measure
+     *            Token based measure
+     * @param x
+     *            Source value
+     * @param y
+     *            Target value
+     * @return the similarity of x and y
+     */
+    public static double getSimilarity(IStringMeasure measure, String x, String y) {
+        String[] tokensX = TokenColumn.split(x);
+        String[] tokensY = TokenColumn.split(y);
+        if (tokensX.length == 0 || tokensY.length == 0) {
+            return 0;
+        }
+        Set<String> set = new HashSet<String>(Arrays.asList(tokensX));
+        int overlap = 0;
+        for (String token : tokensY) {
+            if (set.contains(token)) {
+                overlap++;
+            }
+        }
+        if (overlap == 0) {
+            return 0;
+        }
+        return measure.getSimilarity(overlap, Math.max(tokensX.length, tokensY.length),
+                Math.min(tokensX.length, tokensY.length));
+    }
+
+    private static int prefixLength(IStringMeasure measure, int tokensNumber, double threshold) {
+        return Math.max(0, Math.min(tokensNumber, measure.getPrefixLength(tokensNumber, threshold)));
     }
 
     public double getRuntimeApproximation(int sourceSize, int targetSize, double threshold, Language language) {
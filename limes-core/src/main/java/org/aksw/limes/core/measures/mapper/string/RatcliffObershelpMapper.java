@@ -6,14 +6,13 @@ import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
 
 import org.aksw.limes.core.exceptions.InvalidThresholdException;
 import org.aksw.limes.core.io.cache.ACache;
 import org.aksw.limes.core.io.mapping.AMapping;
 import org.aksw.limes.core.io.mapping.MappingFactory;
 import org.aksw.limes.core.measures.mapper.AMapper;
+import org.aksw.limes.core.measures.mapper.LinkingScheduler;
 import org.aksw.limes.core.measures.mapper.pointsets.PropertyFetcher;
 import org.aksw.limes.core.measures.mapper.string.triefilter.LengthQuicksort;
 import org.aksw.limes.core.measures.mapper.string.triefilter.TrieFilter;
@@ -109,27 +108,13 @@ public class RatcliffObershelpMapper extends AMapper {
             tempPairs.add(m);
         }
 
-        int poolSize = Runtime.getRuntime().availableProcessors();
         if (tempPairs.size() == 0) {
             return MappingFactory.createDefaultMapping();
         }
-        poolSize = poolSize > tempPairs.size() ? tempPairs.size() : poolSize;
 
-        // create thread pool, one thread per partition
-        ExecutorService executor = Executors.newFixedThreadPool(poolSize);
-        // executor = Executors.newFixedThreadPool(1);
-        for (Pair<List<String>, List<String>> tempPair : tempPairs) {
-            Runnable worker = new TrieFilter(tempPair, similarityBook, new RatcliffObershelpMeasure(), threshold);
-            executor.execute(worker);
-        }
-        executor.shutdown();
-        while (!executor.isTerminated()) {
-            try {
-                Thread.sleep(500);
-            } catch (InterruptedException e) {
-                e.printStackTrace();
-            }
-        }
+        // the scheduler splits large partitions and signals completion
+        LinkingScheduler.execute(tempPairs, TrieFilter::size, TrieFilter::split,
+                pair -> new TrieFilter(pair, similarityBook, new RatcliffObershelpMeasure(), threshold).run());
 
         return getUriToUriMapping(similarityBook, sourceMap, targetMap, swapped);
     }
@@ -0,0 +1,302 @@
+package org.aksw.limes.core.measures.mapper.string;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.StringTokenizer;
+import java.util.WeakHashMap;
+
+import org.aksw.limes.core.io.cache.ACache;
+import org.aksw.limes.core.io.cache.Instance;
+import org.aksw.limes.core.measures.mapper.LinkingScheduler;
+
+/**
+ * Tokenized values of one property of a cache. Each value is split at the
+ * characters " .,?!\t", and the k-th occurrence of a token within a value is
+ * treated as the token t.k for k &gt; 1, so that values are sets of tokens.
+ * Tokens are replaced by ids of a dictionary that also counts the number of
+ * values each token occurs in.
+ * <br>
+ * Columns are kept as long as the cache is referenced and not modified, see
+ * {@link ACache#getVersion()}, so that the values are tokenized once for all set similarity joins
+ * on the same cache and property. For each pair of columns, a
+ * {@link TokenOrder} sorts the tokens of both columns by their frequency and
+ * is kept as long as both columns are.
+ */
+public class TokenColumn {
+
+    private static final String DELIMITERS = " .,?!\t";
+
+    private static final WeakHashMap<ACache, CacheColumns> columns = new WeakHashMap<>();
+
+    /**
+     * Columns of a cache, valid for the version of the cache they were built
+     * for.
+     */
+    private static class CacheColumns {
+        final long version;
+        final Map<String, TokenColumn> byProperty = new HashMap<>();
+
+        CacheColumns(long version) {
+            this.version = version;
+        }
+    }
+
+    /**
+     * Tokens of two columns as ranks of a common order by ascending frequency,
+     * with the ranks of each value sorted.
+     */
+    public static class TokenOrder {
+        private final int[][] source;
+        private final int[][] target;
+        private final int tokenCount;
+
+        private TokenOrder(int[][] source, int[][] target, int tokenCount) {
+            this.source = source;
+            this.target = target;
+            this.tokenCount = tokenCount;
+        }
+
+        /**
+         * @return the sorted token ranks of each value of the source column
+         */
+        public int[][] getSourceRecords() {
+            return source;
+        }
+
+        /**
+         * @return the sorted token ranks of each value of the target column
+         */
+        public int[][] getTargetRecords() {
+            return target;
+        }
+
+        /**
+         * @return the number of distinct tokens of both columns, i.e. the
+         *         upper bound of the ranks
+         */
+        public int getTokenCount() {
+            return tokenCount;
+        }
+    }
+
+    private final String[] uris;
+    private final int[][] values;
+    private final String[] dictionary;
+    private final int[] frequencies;
+    private final Map<String, Integer> ids;
+    private final WeakHashMap<TokenColumn, TokenOrder> orders = new WeakHashMap<>();
+
+    private TokenColumn(String[] uris, int[][] values, String[] dictionary, int[] frequencies,
+            Map<String, Integer> ids) {
+        this.uris = uris;
+        this.values = values;
+        this.dictionary = dictionary;
+        this.frequencies = frequencies;
+        this.ids = ids;
+    }
+
+    /**
+     * Returns the tokenized column of a property of a cache, tokenizing it on
+     * the first request.
+     *
+     * @param cache
+     *            The cache of instances
+     * @param property
+     *            String property
+     * @return the column of the property
+     */
+    public static TokenColumn get(ACache cache, String property) {
+        CacheColumns cacheColumns;
+        synchronized (columns) {
+            cacheColumns = columns.get(cache);
+            if (cacheColumns == null || cacheColumns.version != cache.getVersion()) {
+                cacheColumns = new CacheColumns(cache.getVersion());
+                columns.put(cache, cacheColumns);
+            }
+        }
+        synchronized (cacheColumns) {
+            TokenColumn column = cacheColumns.byProperty.get(property);
+            if (column == null) {
+                column = tokenize(cache, property);
+                cacheColumns.byProperty.put(property, column);
+            }
+            return column;
+        }
+    }
+
+    /**
+     * Tokenizes a property of some instances of a cache, e.g. the candidates
+     * of a semi-join. Such columns are not kept, as they only serve a single
+     * join.
+     *
+     * @param cache
+     *            The cache of instances
+     * @param property
+     *            String property
+     * @param uris
+     *            URIs of the instances to tokenize
+     * @return the column of the property restricted to the instances
+     */
+    public static TokenColumn get(ACache cache, String property, Set<String> uris) {
+        List<String> uriList = new ArrayList<>();
+        List<String> valueList = new ArrayList<>();
+        for (String uri : uris) {
+            for (String value : cache.getValues(uri, property)) {
+                uriList.add(uri);
+                valueList.add(value);
+            }
+        }
+        return tokenize(uriList, valueList);
+    }
+
+    private static TokenColumn tokenize(ACache cache, String property) {
+        // collect the values first, as caches need not be thread-safe
+        List<String> uriList = new ArrayList<>();
+        List<String> valueList = new ArrayList<>();
+        Iterator<Instance> instances = cache.iterateInstances();
+        while (instances.hasNext()) {
+            Instance instance = instances.next();
+            for (String value : instance.getProperty(property)) {
+                uriList.add(instance.getUri());
+                valueList.add(value);
+            }
+        }
+        return tokenize(uriList, valueList);
+    }
+
+    private static TokenColumn tokenize(List<String> uriList, List<String> valueList) {
+        String[][] tokens = new String[valueList.size()][];
+        LinkingScheduler.forEach(tokens.length, v -> tokens[v] = split(valueList.get(v)));
+
+        Map<String, Integer> ids = new HashMap<>();
+        List<String> dictionary = new ArrayList<>();
+        List<Integer> frequencies = new ArrayList<>();
+        int[][] values = new int[tokens.length][];
+        for (int v = 0; v < tokens.length; v++) {
+            values[v] = new int[tokens[v].length];
+            for (int i = 0; i < tokens[v].length; i++) {
+                Integer id = ids.get(tokens[v][i]);
+                if (id == null) {
+                    id = dictionary.size();
+                    ids.put(tokens[v][i], id);
+                    dictionary.add(tokens[v][i]);
+                    frequencies.add(0);
+                }
+                frequencies.set(id, frequencies.get(id) + 1);
+                values[v][i] = id;
+            }
+        }
+        int[] frequencyArray = new int[frequencies.size()];
+        for (int id = 0; id < frequencyArray.length; id++) {
+            frequencyArray[id] = frequencies.get(id);
+        }
+        return new TokenColumn(uriList.toArray(new String[uriList.size()]), values,
+                dictionary.toArray(new String[dictionary.size()]), frequencyArray, ids);
+    }
+
+    /**
+     * Splits a value into tokens, renaming repeated tokens.
+     *
+     * @param value
+     *            String value
+     * @return the tokens of the value, each occurring once
+     */
+    static String[] split(String value) {
+        StringTokenizer st = new StringTokenizer(value, DELIMITERS);
+        String[] tokens = new String[st.countTokens()];
+        Map<String, Integer> occurrences = new HashMap<>();
+        for (int i = 0; i < tokens.length; i++) {
+            String token = st.nextToken();
+            // '.' is a delimiter and can not occur in tokens
+            int k = occurrences.merge(token, 1, Integer::sum);
+            tokens[i] = k == 1 ? token : token + "." + k;
+        }
+        return tokens;
+    }
+
+    /**
+     * Returns the common token order of this column as source and another
+     * column as target, computing it on the first request.
+     *
+     * @param target
+     *            Target column, may be this column
+     * @return the token order of both columns
+     */
+    public synchronized TokenOrder getOrder(TokenColumn target) {
+        TokenOrder order = orders.get(target);
+        if (order == null) {
+            order = order(target);
+            orders.put(target, order);
+        }
+        return order;
+    }
+
+    private TokenOrder order(TokenColumn target) {
+        // global ids are the ids of this column, followed by the tokens that
+        // only occur in the target column
+        int[] targetIds = new int[target.dictionary.length];
+        List<Integer> frequencyList = new ArrayList<>();
+        for (int id = 0; id < frequencies.length; id++) {
+            frequencyList.add(frequencies[id]);
+        }
+        for (int id = 0; id < targetIds.length; id++) {
+            Integer global = target == this ? Integer.valueOf(id) : ids.get(target.dictionary[id]);
+            if (global == null) {
+                global = frequencyList.size();
+                frequencyList.add(0);
+            }
+            targetIds[id] = global;
+            if (target != this) {
+                frequencyList.set(global, frequencyList.get(global) + target.frequencies[id]);
+            }
+        }
+        int tokenCount = frequencyList.size();
+        long[] keys = new long[tokenCount];
+        for (int global = 0; global < tokenCount; global++) {
+            keys[global] = ((long) frequencyList.get(global) << 32) | global;
+        }
+        Arrays.sort(keys);
+        int[] ranks = new int[tokenCount];
+        for (int rank = 0; rank < tokenCount; rank++) {
+            ranks[(int) keys[rank]] = rank;
+        }
+        int[][] source = rank(values, null, ranks);
+        int[][] targetRecords = target == this ? source : rank(target.values, targetIds, ranks);
+        return new TokenOrder(source, targetRecords, tokenCount);
+    }
+
+    private static int[][] rank(int[][] values, int[] globalIds, int[] ranks) {
+        int[][] records = new int[values.length][];
+        LinkingScheduler.forEach(values.length, v -> {
+            int[] record = new int[values[v].length];
+            for (int i = 0; i < record.length; i++) {
+                int id = values[v][i];
+                record[i] = ranks[globalIds == null ? id : globalIds[id]];
+            }
+            Arrays.sort(record);
+            records[v] = record;
+        });
+        return records;
+    }
+
+    /**
+     * @return the number of values of the column
+     */
+    public int size() {
+        return values.length;
+    }
+
+    /**
+     * @param value
+     *            Index of a value
+     * @return the URI of the instance of the value
+     */
+    public String getUri(int value) {
+        return uris[value];
+    }
+}
@@ -6,11 +6,12 @@
 package org.aksw.limes.core.measures.mapper.string.fastngram;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
-import java.util.HashSet;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
-import java.util.TreeSet;
+import java.util.TreeMap;
 
 import org.aksw.limes.core.exceptions.InvalidThresholdException;
 import org.aksw.limes.core.io.cache.ACache;
@@ -18,7 +19,7 @@ import org.aksw.limes.core.io.mapping.AMapping;
 import org.aksw.limes.core.io.mapping.MappingFactory;
 import org.aksw.limes.core.io.parser.Parser;
 import org.aksw.limes.core.measures.mapper.AMapper;
-import org.aksw.limes.core.measures.measure.string.QGramSimilarityMeasure;
+import org.aksw.limes.core.measures.mapper.LinkingScheduler;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.slf4j.MarkerFactory;
@@ -31,68 +32,204 @@ public class FastNGramMapper extends AMapper {
     static Logger logger = LoggerFactory.getLogger(FastNGramMapper.class);
     static int q = 3;
 
+    /**
+     * Number of source strings that are processed by one task.
+     */
+    private static final int CHUNK_SIZE = 1024;
+
+    /**
+     * Computes all pairs of source and target strings whose q-gram similarity
+     * is at least threshold. The q-grams of the target strings are encoded as
+     * ints and indexed by the number of q-grams of a string. The source
+     * strings are split into chunks that are processed in parallel.
+     *
+     * @param source
+     *            Source strings
+     * @param target
+     *            Target strings
+     * @param q
+     *            Length of the q-grams
+     * @param threshold
+     *            Similarity threshold
+     * @return a mapping from source to target strings
+     */
     public static AMapping compute(Set<String> source, Set<String> target, int q, double threshold) {
-        Index index = new Index(q);
         double kappa = (1 + threshold) / threshold;
-        QGramSimilarityMeasure sim = new QGramSimilarityMeasure(q);
         ITokenizer tokenizer = new NGramTokenizer();
-        Map<String, Set<String>> targetTokens = new HashMap<String, Set<String>>();
-        AMapping result = MappingFactory.createDefaultMapping();
-        // index target
-        for (String t : target) {
-            targetTokens.put(t, index.addString(t));
+        // 1. encode the q-grams of the target strings and index them by size
+        String[] targets = target.toArray(new String[target.size()]);
+        Map<String, Integer> gramIds = new HashMap<String, Integer>();
+        int[][] targetGrams = new int[targets.length][];
+        Map<Integer, List<Integer>> bucketMembers = new TreeMap<Integer, List<Integer>>();
+        for (int t = 0; t < targets.length; t++) {
+            Set<String> tokens = tokenizer.tokenize(targets[t], q);
+            int[] ids = new int[tokens.size()];
+            int i = 0;
+            for (String token : tokens) {
+                Integer id = gramIds.get(token);
+                if (id == null) {
+                    id = gramIds.size();
+                    gramIds.put(token, id);
+                }
+                ids[i++] = id;
+            }
+            targetGrams[t] = ids;
+            if (!bucketMembers.containsKey(ids.length)) {
+                bucketMembers.put(ids.length, new ArrayList<Integer>());
+            }
+            bucketMembers.get(ids.length).add(t);
+        }
+        Bucket[] buckets = new Bucket[bucketMembers.size()];
+        int b = 0, maxBucketSize = 0;
+        for (Map.Entry<Integer, List<Integer>> entry : bucketMembers.entrySet()) {
+            buckets[b++] = new Bucket(entry.getKey(), entry.getValue(), targetGrams);
+            maxBucketSize = Math.max(maxBucketSize, entry.getValue().size());
         }
-        // run similarity computation
 
-        for (String s : source) {
-            Set<Integer> allSizes = index.getAllSizes();
-            Set<String> sourceTokens = tokenizer.tokenize(s, q);
-            double sourceSize = (double) sourceTokens.size();
-            for (int size = (int) Math.ceil(sourceSize * threshold); size <= (int) Math
-                    .floor(sourceSize / threshold); size++) {
-                if (allSizes.contains(size)) {
-                    // maps tokens to strings
-                    Map<String, Set<String>> stringsOfSize = index.getStrings(size);
-                    Map<String, Integer> countMap = new HashMap<String, Integer>();
-                    for (String token : sourceTokens) {
-                        if (stringsOfSize.containsKey(token)) {
-                            // take each string and add it to the count map
-                            Set<String> candidates = stringsOfSize.get(token);
-                            for (String candidate : candidates) {
-                                if (!countMap.containsKey(candidate)) {
-                                    countMap.put(candidate, 0);
-                                }
-                                countMap.put(candidate, countMap.get(candidate) + 1);
+        // 2. probe the index with chunks of source strings
+        String[] sources = source.toArray(new String[source.size()]);
+        int chunks = (sources.length + CHUNK_SIZE - 1) / CHUNK_SIZE;
+        AMapping[] partialResults = new AMapping[chunks];
+        final int counterSize = maxBucketSize;
+        LinkingScheduler.forEach(chunks, chunk -> {
+            AMapping partial = MappingFactory.createDefaultMapping();
+            int[] counts = new int[counterSize];
+            int[] candidates = new int[counterSize];
+            int to = Math.min(sources.length, (chunk + 1) * CHUNK_SIZE);
+            for (int i = chunk * CHUNK_SIZE; i < to; i++) {
+                Set<String> tokens = tokenizer.tokenize(sources[i], q);
+                int sourceSize = tokens.size();
+                int[] ids = new int[sourceSize];
+                int known = 0;
+                for (String token : tokens) {
+                    Integer id = gramIds.get(token);
+                    if (id != null) {
+                        ids[known++] = id;
+                    }
+                }
+                int minSize = (int) Math.ceil(sourceSize * threshold);
+                int maxSize = (int) Math.floor(sourceSize / threshold);
+                for (Bucket bucket : buckets) {
+                    if (bucket.size < minSize || bucket.size > maxSize) {
+                        continue;
+                    }
+                    // count the common q-grams of the source string and the
+                    // strings of the bucket
+                    int candidateCount = 0;
+                    for (int k = 0; k < known; k++) {
+                        int[] postings = bucket.getPostings(ids[k]);
+                        if (postings == null) {
+                            continue;
+                        }
+                        for (int member : postings) {
+                            if (counts[member]++ == 0) {
+                                candidates[candidateCount++] = member;
                             }
                         }
                     }
                     // now apply filtering |X \cap Y| \geq \kappa(|X| + |Y|)
-                    for (String candidate : countMap.keySet()) {
-                        double count = (double) countMap.get(candidate);
-                        if (kappa * count >= (sourceSize + size)) {
-                            double similarity = sim.getSimilarity(targetTokens.get(candidate), sourceTokens);
+                    for (int c = 0; c < candidateCount; c++) {
+                        int member = candidates[c];
+                        double count = (double) counts[member];
+                        counts[member] = 0;
+                        if (kappa * count >= (sourceSize + bucket.size)) {
+                            double similarity = count / ((double) bucket.size + (double) sourceSize - count);
                             if (similarity >= threshold) {
-                                result.add(s, candidate, similarity);
+                                partial.add(sources[i], targets[bucket.members[member]], similarity);
                             }
                         }
                     }
                 }
             }
+            partialResults[chunk] = partial;
+        });
 
-        }
-        AMapping tempMapping = MappingFactory.createDefaultMapping();
-        for (String key : result.getMap().keySet()) {
-            for (String value : result.getMap().get(key).keySet()) {
-                double confidence = result.getConfidence(key, value);
-                if (confidence >= threshold) {
-                    tempMapping.add(key, value, confidence);
+        // 3. merge the results of the chunks
+        AMapping result = MappingFactory.createDefaultMapping();
+        for (AMapping partial : partialResults) {
+            for (String s : partial.getMap().keySet()) {
+                for (Map.Entry<String, Double> link : partial.getMap().get(s).entrySet()) {
+                    result.add(s, link.getKey(), link.getValue());
                 }
             }
         }
-        result = tempMapping;
         return result;
     }
 
+    /**
+     * Computes the q-gram similarity of two strings as
+     * {@link #compute(Set, Set, int, double)} does, i.e., the number of common
+     * q-grams divided by the number of distinct q-grams of both strings.
+     *
+     * @param source
+     *            Source string
+     * @param target
+     *            Target string
+     * @return the similarity of source and target
+     */
+    public static double getSimilarity(String source, String target) {
+        ITokenizer tokenizer = new NGramTokenizer();
+        Set<String> sourceGrams = tokenizer.tokenize(source, q);
+        Set<String> targetGrams = tokenizer.tokenize(target, q);
+        double count = 0;
+        for (String gram : targetGrams) {
+            if (sourceGrams.contains(gram)) {
+                count++;
+            }
+        }
+        return count / ((double) sourceGrams.size() + (double) targetGrams.size() - count);
+    }
+
+    /**
+     * Postings of the target strings that consist of the same number of
+     * q-grams. The q-gram ids are sorted, the postings of a q-gram are the
+     * positions of the strings in members.
+     */
+    private static class Bucket {
+
+        final int size;
+        final int[] members;
+        final int[] grams;
+        final int[][] postings;
+
+        Bucket(int size, List<Integer> targets, int[][] targetGrams) {
+            this.size = size;
+            members = new int[targets.size()];
+            Map<Integer, List<Integer>> index = new TreeMap<Integer, List<Integer>>();
+            for (int m = 0; m < members.length; m++) {
+                members[m] = targets.get(m);
+                for (int gram : targetGrams[members[m]]) {
+                    if (!index.containsKey(gram)) {
+                        index.put(gram, new ArrayList<Integer>());
+                    }
+                    index.get(gram).add(m);
+                }
+            }
+            grams = new int[index.size()];
+            postings = new int[index.size()][];
+            int g = 0;
+            for (Map.Entry<Integer, List<Integer>> entry : index.entrySet()) {
+                grams[g] = entry.getKey();
+                List<Integer> list = entry.getValue();
+                postings[g] = new int[list.size()];
+                for (int i = 0; i < postings[g].length; i++) {
+                    postings[g][i] = list.get(i);
+                }
+                g++;
+            }
+        }
+
+        /**
+         * @param gram
+         *            Id of a q-gram
+         * @return the members that contain the q-gram, null if there is none
+         */
+        int[] getPostings(int gram) {
+            int position = Arrays.binarySearch(grams, gram);
+            return position < 0 ? null : postings[position];
+        }
+    }
+
     public String getName() {
         return "FastNGram";
     }
@@ -187,33 +324,8 @@ public class FastNGramMapper extends AMapper {
         }
 
         /////////////////// This actually runs the algorithm
-        Map<String, Set<String>> sourceMap = new HashMap<String, Set<String>>();
-        ArrayList<String> sourceUris = source.getAllUris();
-        Map<String, Set<String>> targetMap = new HashMap<String, Set<String>>();
-        ArrayList<String> targetUris = target.getAllUris();
-
-        // index source values
-        for (String s : sourceUris) {
-            TreeSet<String> values = source.getInstance(s).getProperty(property1);
-            for (String v : values) {
-                if (!sourceMap.containsKey(v)) {
-                    sourceMap.put(v, new HashSet<String>());
-                }
-                sourceMap.get(v).add(s);
-            }
-        }
-
-        // index target values
-        // logger.info("Indexing target values");
-        for (String t : targetUris) {
-            TreeSet<String> values = target.getInstance(t).getProperty(property2);
-            for (String v : values) {
-                if (!targetMap.containsKey(v)) {
-                    targetMap.put(v, new HashSet<String>());
-                }
-                targetMap.get(v).add(t);
-            }
-        }
+        Map<String, Set<String>> sourceMap = getValueToUriMap(source, property1);
+        Map<String, Set<String>> targetMap = getValueToUriMap(target, property2);
 
         // run the algorithm
         // logger.info("Computing mappings");
@@ -1,5 +1,6 @@
 package org.aksw.limes.core.measures.mapper.string.triefilter;
 
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.HashMap;
 import java.util.LinkedList;
@@ -64,6 +65,44 @@ public class TrieFilter implements Runnable {
         this.maxLenInA = listA.get(listA.size() - 1).length();
     }
 
+    /**
+     * Number of comparisons of a partition pair without pruning, used by
+     * the scheduler to balance the partitions.
+     *
+     * @param lists
+     *         a partition pair (S_i, T_i)
+     * @return |S_i| * |T_i|
+     */
+    public static long size(Pair<List<String>, List<String>> lists) {
+        return (long) lists.getLeft().size() * lists.getRight().size();
+    }
+
+    /**
+     * Splits a partition pair into two by halving its larger list. The
+     * halves stay sorted by length, so each of them can be filtered by a
+     * worker of its own.
+     *
+     * @param lists
+     *         a partition pair (S_i, T_i) with lists sorted by length
+     * @return two partition pairs that cover the same pairs of strings, or
+     *         null if both lists have a single string
+     */
+    public static List<Pair<List<String>, List<String>>> split(Pair<List<String>, List<String>> lists) {
+        List<String> left = lists.getLeft();
+        List<String> right = lists.getRight();
+        boolean splitLeft = left.size() >= right.size();
+        List<String> larger = splitLeft ? left : right;
+        if (larger.size() < 2) {
+            return null;
+        }
+        List<String> first = new ArrayList<>(larger.subList(0, larger.size() / 2));
+        List<String> second = new ArrayList<>(larger.subList(larger.size() / 2, larger.size()));
+        List<Pair<List<String>, List<String>>> parts = new ArrayList<>();
+        parts.add(new MutablePair<>(splitLeft ? first : left, splitLeft ? right : first));
+        parts.add(new MutablePair<>(splitLeft ? second : left, splitLeft ? right : second));
+        return parts;
+    }
+
     @Override
     public void run() {
         // construct trie from red part
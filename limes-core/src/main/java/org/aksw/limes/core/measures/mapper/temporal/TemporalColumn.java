@@ -0,0 +1,347 @@
+package org.aksw.limes.core.measures.mapper.temporal;
+
+import java.text.ParsePosition;
+import java.time.DateTimeException;
+import java.time.OffsetDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.temporal.TemporalAccessor;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Set;
+import java.util.WeakHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.aksw.limes.core.io.cache.ACache;
+import org.aksw.limes.core.io.cache.Instance;
+import org.aksw.limes.core.measures.mapper.LinkingScheduler;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Date values of one property of a cache, parsed into epoch milliseconds and
+ * sorted. Every instance of the cache has an id, which is the same for all
+ * columns of the cache, so that e.g. the begin and end date of an event are
+ * found at the same id of two columns.
+ * <br>
+ * Values are parsed once per cache and property in parallel, with the pattern
+ * yyyy-MM-dd'T'HH:mm:ssXXX (e.g. 2015-04-22T11:29:51+02:00), optionally with
+ * fractions of seconds. Values that can not be parsed are skipped. The columns
+ * are kept as long as the cache is referenced and not modified, see
+ * {@link ACache#getVersion()}, so all temporal mappers that are executed on
+ * the same cache share them.
+ */
+public class TemporalColumn {
+
+    private static final Logger logger = LoggerFactory.getLogger(TemporalColumn.class);
+
+    private static final WeakHashMap<ACache, CacheColumns> columns = new WeakHashMap<>();
+
+    /**
+     * Ids of the instances of a cache and its parsed columns.
+     */
+    private static class CacheColumns {
+        final String[] uris;
+        // version of the cache the columns were read from
+        final long version;
+        final Map<String, TemporalColumn> byProperty = new HashMap<>();
+        Map<String, Integer> ids = null;
+
+        CacheColumns(String[] uris, long version) {
+            this.uris = uris;
+            this.version = version;
+        }
+
+        synchronized Map<String, Integer> getIds() {
+            if (ids == null) {
+                ids = new HashMap<>(uris.length * 2);
+                for (int id = 0; id < uris.length; id++) {
+                    ids.put(uris[id], id);
+                }
+            }
+            return ids;
+        }
+    }
+
+    private final String[] uris;
+    private final long[] epochs;
+    private final int[] ids;
+    private final long[] earliest;
+    private final int[] counts;
+
+    private TemporalColumn(String[] uris, long[] epochs, int[] ids, long[] earliest, int[] counts) {
+        this.uris = uris;
+        this.epochs = epochs;
+        this.ids = ids;
+        this.earliest = earliest;
+        this.counts = counts;
+    }
+
+    /**
+     * Returns the parsed column of a property of a cache, parsing it on the
+     * first request.
+     *
+     * @param cache
+     *            The cache of instances
+     * @param property
+     *            Date property
+     * @return the column of the property
+     */
+    public static TemporalColumn get(ACache cache, String property) {
+        CacheColumns cacheColumns;
+        synchronized (columns) {
+            cacheColumns = columns.get(cache);
+            if (cacheColumns == null || cacheColumns.version != cache.getVersion()) {
+                cacheColumns = null;
+                columns.remove(cache);
+            }
+        }
+        if (cacheColumns == null) {
+            long version = cache.getVersion();
+            String[] uris = new String[cache.size()];
+            int id = 0;
+            Iterator<Instance> instances = cache.iterateInstances();
+            while (instances.hasNext()) {
+                uris[id++] = instances.next().getUri();
+            }
+            synchronized (columns) {
+                CacheColumns other = columns.get(cache);
+                if (other != null && other.version == version) {
+                    cacheColumns = other;
+                } else {
+                    cacheColumns = new CacheColumns(uris, version);
+                    columns.put(cache, cacheColumns);
+                }
+            }
+        }
+        synchronized (cacheColumns) {
+            TemporalColumn column = cacheColumns.byProperty.get(property);
+            if (column == null) {
+                column = parse(cache, property, cacheColumns);
+                cacheColumns.byProperty.put(property, column);
+            }
+            return column;
+        }
+    }
+
+    private static TemporalColumn parse(ACache cache, String property, CacheColumns cacheColumns) {
+        String[] uris = cacheColumns.uris;
+        int n = uris.length;
+        // collect the values first, as caches need not be thread-safe
+        @SuppressWarnings("unchecked")
+        Set<String>[] values = new Set[n];
+        Iterator<Instance> instances = cache.iterateInstances();
+        int position = 0;
+        while (instances.hasNext()) {
+            Instance instance = instances.next();
+            int id = position < n && uris[position].equals(instance.getUri()) ? position
+                    : cacheColumns.getIds().getOrDefault(instance.getUri(), -1);
+            position++;
+            if (id >= 0) {
+                values[id] = instance.getProperty(property);
+            }
+        }
+        long[] earliest = new long[n];
+        int[] counts = new int[n];
+        long[][] parsed = new long[n][];
+        AtomicInteger failures = new AtomicInteger();
+        LinkingScheduler.forEach(n, id -> {
+            if (values[id] == null || values[id].isEmpty()) {
+                return;
+            }
+            long[] p = new long[values[id].size()];
+            int c = 0;
+            for (String value : values[id]) {
+                try {
+                    p[c] = parse(value);
+                    c++;
+                } catch (DateTimeException e) {
+                    failures.incrementAndGet();
+                }
+            }
+            if (c > 0) {
+                Arrays.sort(p, 0, c);
+                earliest[id] = p[0];
+                counts[id] = c;
+                if (c > 1) {
+                    parsed[id] = Arrays.copyOf(p, c);
+                }
+            }
+        });
+        if (failures.get() > 0) {
+            logger.warn(failures.get() + " values of property " + property + " are not dates and were skipped.");
+        }
+        int total = 0;
+        for (int id = 0; id < n; id++) {
+            total += counts[id];
+        }
+        long[] unsortedEpochs = new long[total];
+        int[] unsortedIds = new int[total];
+        int i = 0;
+        for (int id = 0; id < n; id++) {
+            if (counts[id] == 1) {
+                unsortedEpochs[i] = earliest[id];
+                unsortedIds[i++] = id;
+            } else {
+                for (int c = 0; c < counts[id]; c++) {
+                    unsortedEpochs[i] = parsed[id][c];
+                    unsortedIds[i++] = id;
+                }
+            }
+        }
+        int[] order = sortedOrder(unsortedEpochs, total);
+        long[] epochs = new long[total];
+        int[] ids = new int[total];
+        for (i = 0; i < total; i++) {
+            epochs[i] = unsortedEpochs[order[i]];
+            ids[i] = unsortedIds[order[i]];
+        }
+        return new TemporalColumn(uris, epochs, ids, earliest, counts);
+    }
+
+    /**
+     * Parses a date value.
+     *
+     * @param value
+     *            Date, e.g. 2015-04-22T11:29:51+02:00
+     * @return the date in epoch milliseconds
+     * @throws DateTimeException
+     *             if the value is not a date
+     */
+    public static long parse(String value) {
+        // text after the date, e.g. a datatype, is ignored like by DateFormat
+        TemporalAccessor date = DateTimeFormatter.ISO_OFFSET_DATE_TIME.parse(value.trim(), new ParsePosition(0));
+        return OffsetDateTime.from(date).toInstant().toEpochMilli();
+    }
+
+    /**
+     * Sorts positions by their keys with a stable merge sort on primitive
+     * arrays.
+     *
+     * @param keys
+     *            Keys of the positions
+     * @param n
+     *            Number of positions
+     * @return the positions 0 to n - 1 in ascending order of their keys
+     */
+    public static int[] sortedOrder(long[] keys, int n) {
+        int[] order = new int[n];
+        for (int i = 0; i < n; i++) {
+            order[i] = i;
+        }
+        sort(order, new int[n], 0, n, keys);
+        return order;
+    }
+
+    private static void sort(int[] order, int[] buffer, int from, int to, long[] keys) {
+        if (to - from < 2) {
+            return;
+        }
+        int mid = (from + to) >>> 1;
+        sort(order, buffer, from, mid, keys);
+        sort(order, buffer, mid, to, keys);
+        if (keys[order[mid - 1]] <= keys[order[mid]]) {
+            return;
+        }
+        System.arraycopy(order, from, buffer, from, to - from);
+        int i = from;
+        int j = mid;
+        for (int k = from; k < to; k++) {
+            if (j >= to || (i < mid && keys[buffer[i]] <= keys[buffer[j]])) {
+                order[k] = buffer[i++];
+            } else {
+                order[k] = buffer[j++];
+            }
+        }
+    }
+
+    /**
+     * @return the number of instances of the cache, i.e. the number of ids
+     */
+    public int getInstanceCount() {
+        return uris.length;
+    }
+
+    /**
+     * @param id
+     *            Instance id
+     * @return the URI of the instance
+     */
+    public String getUri(int id) {
+        return uris[id];
+    }
+
+    /**
+     * @param id
+     *            Instance id
+     * @return true if the instance has at least one date value
+     */
+    public boolean hasValue(int id) {
+        return counts[id] > 0;
+    }
+
+    /**
+     * @param id
+     *            Instance id with a value
+     * @return the earliest date value of the instance
+     */
+    public long getEarliest(int id) {
+        return earliest[id];
+    }
+
+    /**
+     * @return the number of date values of all instances
+     */
+    public int size() {
+        return epochs.length;
+    }
+
+    /**
+     * @param position
+     *            Position in the sorted column
+     * @return the date value at the position
+     */
+    public long getEpoch(int position) {
+        return epochs[position];
+    }
+
+    /**
+     * @param position
+     *            Position in the sorted column
+     * @return the id of the instance of the date value at the position
+     */
+    public int getId(int position) {
+        return ids[position];
+    }
+
+    /**
+     * @param epoch
+     *            Date value
+     * @return the first position with a date value of at least epoch, size()
+     *         if there is none
+     */
+    public int lowerBound(long epoch) {
+        int low = 0;
+        int high = epochs.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (epochs[mid] < epoch) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * @param epoch
+     *            Date value
+     * @return the first position with a date value greater than epoch, size()
+     *         if there is none
+     */
+    public int upperBound(long epoch) {
+        return epoch == Long.MAX_VALUE ? epochs.length : lowerBound(epoch + 1);
+    }
+}
@@ -0,0 +1,360 @@
+package org.aksw.limes.core.measures.mapper.temporal.allenAlgebra;
+
+import org.aksw.limes.core.io.cache.ACache;
+import org.aksw.limes.core.io.mapping.AMapping;
+import org.aksw.limes.core.io.mapping.MappingFactory;
+import org.aksw.limes.core.io.parser.Parser;
+import org.aksw.limes.core.measures.mapper.temporal.TemporalColumn;
+
+/**
+ * Interval join for Allen's temporal relations. Each of the 13 relations
+ * between a source event s = (b(s), e(s)) and a target event t = (b(t), e(t))
+ * is a range condition on one end point of t, e.g. b(s) &lt; b(t) &lt; e(s)
+ * for Overlaps, together with an optional range condition on the other end
+ * point of t, e.g. e(s) &lt; e(t).
+ * <br>
+ * The target events are sorted by the first end point into primitive long
+ * arrays, and a segment tree keeps the minimum and maximum of the second end
+ * point for each range of the sorted arrays. For each source event, the first
+ * condition is a binary search, and the segment tree is descended only into
+ * ranges that contain qualifying target events. Hence, the join needs memory
+ * linear in the number of events, and its runtime grows with the number of
+ * links instead of the product of the numbers of events. In contrast to the
+ * atomic relations, no set of target events is built for a source event.
+ * <br>
+ * Dates are read from the {@link TemporalColumn}s of the caches, which are
+ * parsed once and shared with the other temporal mappers. An event with
+ * several values of a property is represented by the earliest of them; events
+ * without a parsable value of a required property are not linked.
+ */
+public class AllenIntervalJoin {
+
+    /**
+     * Allen's temporal relations, from the point of view of the source event.
+     */
+    public enum Relation {
+        BEFORE, AFTER, MEETS, IS_MET_BY, DURING, DURING_REVERSE, EQUALS, STARTS, IS_STARTED_BY, FINISHES,
+        IS_FINISHED_BY, OVERLAPS, IS_OVERLAPPED_BY;
+
+        /**
+         * @return true if the relation compares the source begin date
+         */
+        boolean needsSourceBegin() {
+            return this != BEFORE && this != MEETS;
+        }
+
+        /**
+         * @return true if the relation compares the source end date
+         */
+        boolean needsSourceEnd() {
+            return this != AFTER && this != IS_MET_BY;
+        }
+
+        /**
+         * @return true if the target events are sorted by their begin date,
+         *         false if they are sorted by their end date
+         */
+        boolean sortsByTargetBegin() {
+            switch (this) {
+            case AFTER:
+            case IS_MET_BY:
+            case FINISHES:
+            case IS_FINISHED_BY:
+            case IS_OVERLAPPED_BY:
+                return false;
+            default:
+                return true;
+            }
+        }
+
+        /**
+         * @return true if the relation compares the target end point that the
+         *         target events are not sorted by
+         */
+        boolean needsOtherTargetPoint() {
+            return this != BEFORE && this != AFTER && this != MEETS && this != IS_MET_BY;
+        }
+
+        /**
+         * Computes the ranges of the target end points for a source event.
+         * All bounds are inclusive.
+         *
+         * @param b
+         *            Begin date of the source event
+         * @param e
+         *            End date of the source event
+         * @param bounds
+         *            Receives the lower and upper bound of the sorted end
+         *            point, followed by the lower and upper bound of the other
+         *            end point
+         */
+        void bounds(long b, long e, long[] bounds) {
+            long min = Long.MIN_VALUE;
+            long max = Long.MAX_VALUE;
+            switch (this) {
+            case BEFORE:
+                set(bounds, e + 1, max, min, max);
+                break;
+            case AFTER:
+                set(bounds, min, b - 1, min, max);
+                break;
+            case MEETS:
+                set(bounds, e, e, min, max);
+                break;
+            case IS_MET_BY:
+                set(bounds, b, b, min, max);
+                break;
+            case DURING:
+                set(bounds, min, b - 1, e + 1, max);
+                break;
+            case DURING_REVERSE:
+                set(bounds, b + 1, max, min, e - 1);
+                break;
+            case EQUALS:
+                set(bounds, b, b, e, e);
+                break;
+            case STARTS:
+                set(bounds, b, b, e + 1, max);
+                break;
+            case IS_STARTED_BY:
+                set(bounds, b, b, min, e - 1);
+                break;
+            case FINISHES:
+                set(bounds, e, e, min, b - 1);
+                break;
+            case IS_FINISHED_BY:
+                set(bounds, e, e, b + 1, max);
+                break;
+            case OVERLAPS:
+                set(bounds, b + 1, e - 1, e + 1, max);
+                break;
+            case IS_OVERLAPPED_BY:
+                set(bounds, b + 1, e - 1, min, b - 1);
+                break;
+            default:
+                throw new IllegalStateException();
+            }
+        }
+
+        private static void set(long[] bounds, long keyLow, long keyHigh, long otherLow, long otherHigh) {
+            bounds[0] = keyLow;
+            bounds[1] = keyHigh;
+            bounds[2] = otherLow;
+            bounds[3] = otherHigh;
+        }
+    }
+
+    private AllenIntervalJoin() {
+    }
+
+    /**
+     * Links each source event to the target events it stands in an Allen
+     * relation to.
+     *
+     * @param source
+     *            Source cache
+     * @param target
+     *            Target cache
+     * @param expression
+     *            Metric expression, e.g.
+     *            tmp_during(x.beginDate|endDate,y.beginDate|endDate)
+     * @param relation
+     *            The Allen relation
+     * @return a mapping that links each source event to its related target
+     *         events with similarity 1
+     */
+    public static AMapping getMapping(ACache source, ACache target, String expression, Relation relation) {
+        Parser p = new Parser(expression, 1.0d);
+        String sourceTerm = p.getLeftTerm();
+        String targetTerm = p.getRightTerm();
+        boolean byBegin = relation.sortsByTargetBegin();
+        boolean needsTargetBegin = byBegin || relation.needsOtherTargetPoint();
+        boolean needsTargetEnd = !byBegin || relation.needsOtherTargetPoint();
+
+        Events sources = new Events(source, relation.needsSourceBegin() ? getBeginProperty(sourceTerm) : null,
+                relation.needsSourceEnd() ? getEndProperty(sourceTerm) : null);
+        Events targets = new Events(target, needsTargetBegin ? getBeginProperty(targetTerm) : null,
+                needsTargetEnd ? getEndProperty(targetTerm) : null);
+        TargetIndex index = new TargetIndex(targets, byBegin, relation.needsOtherTargetPoint());
+
+        AMapping m = MappingFactory.createDefaultMapping();
+        long[] bounds = new long[4];
+        for (int s = 0; s < sources.size; s++) {
+            relation.bounds(sources.begin[s], sources.end[s], bounds);
+            if (bounds[0] > bounds[1] || bounds[2] > bounds[3]) {
+                continue;
+            }
+            index.join(sources.uris[s], bounds, m);
+        }
+        return m;
+    }
+
+    /**
+     * Extracts the begin date property of a term, e.g. beginDate of
+     * x.beginDate|endDate.
+     *
+     * @param term
+     *            Source or target term of the metric expression
+     * @return the begin date property
+     */
+    static String getBeginProperty(String term) {
+        term = term.substring(term.indexOf(".") + 1);
+        int bar = term.indexOf("|");
+        return bar == -1 ? term : term.substring(0, bar);
+    }
+
+    /**
+     * Extracts the end date property of a term, e.g. endDate of
+     * x.beginDate|endDate.
+     *
+     * @param term
+     *            Source or target term of the metric expression
+     * @return the end date property
+     * @throws IllegalArgumentException
+     *             if the term does not declare an end date property
+     */
+    static String getEndProperty(String term) {
+        term = term.substring(term.indexOf(".") + 1);
+        int bar = term.indexOf("|");
+        if (bar == -1) {
+            throw new IllegalArgumentException("No end date property declared in " + term);
+        }
+        return term.substring(bar + 1);
+    }
+
+    /**
+     * Begin and end dates of the events of a cache as epoch milliseconds.
+     */
+    private static class Events {
+        final String[] uris;
+        final long[] begin;
+        final long[] end;
+        final int size;
+
+        Events(ACache cache, String beginProperty, String endProperty) {
+            TemporalColumn beginColumn = beginProperty == null ? null : TemporalColumn.get(cache, beginProperty);
+            TemporalColumn endColumn = endProperty == null ? null : TemporalColumn.get(cache, endProperty);
+            TemporalColumn any = beginColumn != null ? beginColumn : endColumn;
+            int capacity = any.getInstanceCount();
+            uris = new String[capacity];
+            begin = new long[capacity];
+            end = new long[capacity];
+            int n = 0;
+            for (int id = 0; id < capacity; id++) {
+                if ((beginColumn != null && !beginColumn.hasValue(id))
+                        || (endColumn != null && !endColumn.hasValue(id))) {
+                    continue;
+                }
+                if (beginColumn != null) {
+                    begin[n] = beginColumn.getEarliest(id);
+                }
+                if (endColumn != null) {
+                    end[n] = endColumn.getEarliest(id);
+                }
+                uris[n++] = any.getUri(id);
+            }
+            size = n;
+        }
+    }
+
+    /**
+     * Target events sorted by one end point, with a segment tree over the
+     * other end point.
+     */
+    private static class TargetIndex {
+        final String[] uris;
+        final long[] keys;
+        final long[] others;
+        /**
+         * Minimum and maximum of the other end point per tree node, null if
+         * the other end point is not compared.
+         */
+        final long[] min;
+        final long[] max;
+
+        TargetIndex(Events events, boolean byBegin, boolean withTree) {
+            long[] sortKeys = byBegin ? events.begin : events.end;
+            long[] otherKeys = byBegin ? events.end : events.begin;
+            int[] order = TemporalColumn.sortedOrder(sortKeys, events.size);
+            uris = new String[order.length];
+            keys = new long[order.length];
+            others = new long[order.length];
+            for (int i = 0; i < order.length; i++) {
+                uris[i] = events.uris[order[i]];
+                keys[i] = sortKeys[order[i]];
+                others[i] = otherKeys[order[i]];
+            }
+            if (withTree && order.length > 0) {
+                min = new long[4 * order.length];
+                max = new long[4 * order.length];
+                build(1, 0, order.length);
+            } else {
+                min = null;
+                max = null;
+            }
+        }
+
+        private void build(int node, int from, int to) {
+            if (to - from == 1) {
+                min[node] = others[from];
+                max[node] = others[from];
+                return;
+            }
+            int mid = (from + to) >>> 1;
+            build(2 * node, from, mid);
+            build(2 * node + 1, mid, to);
+            min[node] = Math.min(min[2 * node], min[2 * node + 1]);
+            max[node] = Math.max(max[2 * node], max[2 * node + 1]);
+        }
+
+        /**
+         * Adds links from a source event to all target events within the
+         * bounds.
+         */
+        void join(String sourceUri, long[] bounds, AMapping m) {
+            int from = lowerBound(bounds[0]);
+            int to = bounds[1] == Long.MAX_VALUE ? keys.length : lowerBound(bounds[1] + 1);
+            if (from >= to) {
+                return;
+            }
+            if (min == null) {
+                for (int i = from; i < to; i++) {
+                    m.add(sourceUri, uris[i], 1);
+                }
+            } else {
+                collect(1, 0, keys.length, from, to, bounds[2], bounds[3], sourceUri, m);
+            }
+        }
+
+        private void collect(int node, int nodeFrom, int nodeTo, int from, int to, long low, long high,
+                String sourceUri, AMapping m) {
+            if (nodeTo <= from || to <= nodeFrom || max[node] < low || min[node] > high) {
+                return;
+            }
+            if (nodeTo - nodeFrom == 1) {
+                m.add(sourceUri, uris[nodeFrom], 1);
+                return;
+            }
+            int mid = (nodeFrom + nodeTo) >>> 1;
+            collect(2 * node, nodeFrom, mid, from, to, low, high, sourceUri, m);
+            collect(2 * node + 1, mid, nodeTo, from, to, low, high, sourceUri, m);
+        }
+
+        /**
+         * @return the first position with a key of at least value
+         */
+        private int lowerBound(long value) {
+            int low = 0;
+            int high = keys.length;
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+                if (keys[mid] < value) {
+                    low = mid + 1;
+                } else {
+                    high = mid;
+                }
+            }
+            return low;
+        }
+    }
+}
@@ -1,8 +1,5 @@
 package org.aksw.limes.core.measures.mapper.temporal.allenAlgebra.atomic;
 
-import java.text.ParseException;
-import java.text.SimpleDateFormat;
-import java.util.Date;
 import java.util.HashSet;
 import java.util.Map;
 import java.util.Set;
@@ -11,8 +8,8 @@ import java.util.TreeMap;
 import java.util.TreeSet;
 
 import org.aksw.limes.core.io.cache.ACache;
-import org.aksw.limes.core.io.cache.Instance;
 import org.aksw.limes.core.io.parser.Parser;
+import org.aksw.limes.core.measures.mapper.temporal.TemporalColumn;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -82,8 +79,8 @@ public abstract class AAtomicAllenAlgebraMapper {
 
     /**
      * Orders a cache of instances based on their begin date property. For each
-     * instance, it retrieves its begin date property, converts its value to an
-     * epoch (string) using the SimpleDateFormat function and places the
+     * instance, it retrieves its begin date values from the shared parsed
+     * column of the property, see {@link TemporalColumn}, and places the
      * instance inside the corresponding set("bucket") of instances.
      * 
      * 
@@ -98,7 +95,6 @@ public abstract class AAtomicAllenAlgebraMapper {
      *         instances (string representation) as values
      */
     protected static TreeMap<Long, Set<String>> orderByBeginDate(ACache cache, String expression, String kbType) {
-        TreeMap<Long, Set<String>> blocks = new TreeMap<Long, Set<String>>();
         Parser p = new Parser(expression, 1.0d);
         String property = null;
         if (kbType.equalsIgnoreCase("source"))
@@ -106,36 +102,14 @@ public abstract class AAtomicAllenAlgebraMapper {
         else
             property = getBeginProperty(p.getRightTerm());
 
-        for (Instance instance : cache.getAllInstances()) {
-            TreeSet<String> time = instance.getProperty(property);
-
-            for (String value : time) {
-                try {
-                    // 2015-04-22T11:29:51+02:00
-                    SimpleDateFormat df = new SimpleDateFormat("yyyy-MM-dd'T'HH:mm:ssXXX");
-                    Date date = df.parse(value);
-                    long epoch = date.getTime();
-                    if (!blocks.containsKey(epoch)) {
-                        Set<String> l = new HashSet<String>();
-                        l.add(instance.getUri());
-                        blocks.put(epoch, l);
-                    } else {
-                        blocks.get(epoch).add(instance.getUri());
-                    }
-                } catch (ParseException e) {
-                    e.printStackTrace();
-                }
-            }
-
-        }
-        return blocks;
+        return orderByDate(TemporalColumn.get(cache, property));
     }
 
     /**
      * Orders a cache of instances based on their end date property. For each
-     * instance, it retrieves its end date property, converts its value to an
-     * epoch (string) using the SimpleDateFormat function and places the
-     * instance inside the corresponding set("bucket") of instances.
+     * instance, it retrieves its end date values from the shared parsed column
+     * of the property, see {@link TemporalColumn}, and places the instance
+     * inside the corresponding set("bucket") of instances.
      * 
      * @param kbType
      *            TODO
@@ -151,7 +125,6 @@ public abstract class AAtomicAllenAlgebraMapper {
      *         instances (string representation) as values
      */
     protected static TreeMap<Long, Set<String>> orderByEndDate(ACache cache, String expression, String kbType) {
-        TreeMap<Long, Set<String>> blocks = new TreeMap<Long, Set<String>>();
         Parser p = new Parser(expression, 1.0d);
         String property = null;
         if (kbType.equalsIgnoreCase("source"))
@@ -159,27 +132,27 @@ public abstract class AAtomicAllenAlgebraMapper {
         else
             property = getEndProperty(p.getRightTerm());
 
-        for (Instance instance : cache.getAllInstances()) {
-            TreeSet<String> time = instance.getProperty(property);
+        return orderByDate(TemporalColumn.get(cache, property));
+    }
 
-            for (String value : time) {
-                try {
-                    // 2015-04-22T11:29:51+02:00
-                    SimpleDateFormat df = new SimpleDateFormat("yyyy-MM-dd'T'HH:mm:ssXXX");
-                    Date date = df.parse(value);
-                    long epoch = date.getTime();
-                    if (!blocks.containsKey(epoch)) {
-                        Set<String> l = new HashSet<String>();
-                        l.add(instance.getUri());
-                        blocks.put(epoch, l);
-                    } else {
-                        blocks.get(epoch).add(instance.getUri());
-                    }
-                } catch (ParseException e) {
-                    e.printStackTrace();
-                }
+    /**
+     * Places the instances of a parsed date column into sets ("buckets") of
+     * instances with the same date.
+     *
+     * @param column,
+     *            The parsed date property of a cache
+     * @return blocks, a map of sets with unique dates as keys and set of
+     *         instances (string representation) as values
+     */
+    private static TreeMap<Long, Set<String>> orderByDate(TemporalColumn column) {
+        TreeMap<Long, Set<String>> blocks = new TreeMap<Long, Set<String>>();
+        for (int i = 0; i < column.size(); i++) {
+            Set<String> l = blocks.get(column.getEpoch(i));
+            if (l == null) {
+                l = new HashSet<String>();
+                blocks.put(column.getEpoch(i), l);
             }
-
+            l.add(column.getUri(column.getId(i)));
         }
         return blocks;
     }
@@ -10,7 +10,7 @@ import org.aksw.limes.core.io.cache.ACache;
 import org.aksw.limes.core.io.mapping.AMapping;
 import org.aksw.limes.core.io.mapping.MappingFactory;
 import org.aksw.limes.core.measures.mapper.temporal.allenAlgebra.AllenAlgebraMapper;
-import org.aksw.limes.core.measures.mapper.temporal.allenAlgebra.atomic.BeginEnd;
+import org.aksw.limes.core.measures.mapper.temporal.allenAlgebra.AllenIntervalJoin;
 
 /**
  * Class for Allen's temporal relation "After".
@@ -89,26 +89,17 @@ public class AfterMapper extends AllenAlgebraMapper {
 
     /**
      * Maps each source instance to a set of target instances that occurred
-     * after the aforementioned source instance, using the BeginEnd atomic Allen
-     * relation.
+     * after the aforementioned source instance, with an interval join over
+     * the begin and end dates, see {@link AllenIntervalJoin}.
      *
      * @return a mapping, the resulting mapping
      */
     @Override
     public AMapping getMapping(ACache source, ACache target, String sourceVar, String targetVar, String expression,
             double threshold) {
-        
         this.source = source;
         this.target = target;
-        ArrayList<TreeMap<String, Set<String>>> maps = new ArrayList<TreeMap<String, Set<String>>>();
-
-        BeginEnd be = new BeginEnd();
-        // SxT \ (BE0 U BE1)
-        maps.add(be.getConcurrentEvents(source, target, expression));
-        maps.add(be.getPredecessorEvents(source, target, expression));
-
-        AMapping m = getMapping(maps);
-        return m;
+        return AllenIntervalJoin.getMapping(source, target, expression, AllenIntervalJoin.Relation.AFTER);
     }
 
     /**
@@ -9,7 +9,7 @@ import org.aksw.limes.core.io.cache.ACache;
 import org.aksw.limes.core.io.mapping.AMapping;
 import org.aksw.limes.core.io.mapping.MappingFactory;
 import org.aksw.limes.core.measures.mapper.temporal.allenAlgebra.AllenAlgebraMapper;
-import org.aksw.limes.core.measures.mapper.temporal.allenAlgebra.atomic.EndBegin;
+import org.aksw.limes.core.measures.mapper.temporal.allenAlgebra.AllenIntervalJoin;
 
 /**
  * Class for Allen's temporal relation "Before". 
@@ -64,23 +64,15 @@ public class BeforeMapper extends AllenAlgebraMapper {
 
     /**
      * Maps each source instance to a set of target instances that occurred
-     * before the aforementioned source instance, using the EndBegin atomic
-     * Allen relation.
+     * before the aforementioned source instance, with an interval join over
+     * the begin and end dates, see {@link AllenIntervalJoin}.
      *
      * @return a mapping, the resulting mapping
      */
     @Override
     public AMapping getMapping(ACache source, ACache target, String sourceVar, String targetVar, String expression,
             double threshold) {
-        
-        ArrayList<TreeMap<String, Set<String>>> maps = new ArrayList<TreeMap<String, Set<String>>>();
-        
-        EndBegin eb = new EndBegin();
-        // EB1
-        maps.add(eb.getPredecessorEvents(source, target, expression));
-
-        AMapping m = getMapping(maps);
-        return m;
+        return AllenIntervalJoin.getMapping(source, target, expression, AllenIntervalJoin.Relation.BEFORE);
     }
 
     /**
@@ -9,7 +9,7 @@ import org.aksw.limes.core.io.cache.ACache;
 import org.aksw.limes.core.io.mapping.AMapping;
 import org.aksw.limes.core.io.mapping.MappingFactory;
 import org.aksw.limes.core.measures.mapper.temporal.allenAlgebra.AllenAlgebraMapper;
-import org.aksw.limes.core.measures.mapper.temporal.allenAlgebra.atomic.BeginEnd;
+import org.aksw.limes.core.measures.mapper.temporal.allenAlgebra.AllenIntervalJoin;
 
 /**
  * Class for Allen's temporal relation "IsMetBy". Given two events X and Y, it
@@ -61,20 +61,15 @@ public class IsMetByMapper extends AllenAlgebraMapper {
 
     /**
      * Maps each source instance to a set of target instances that began
-     * strictly before the aforementioned source instance, using the BeginEnd
-     * Allen relation.
+     * strictly before the aforementioned source instance, with an interval join
+     * over the begin and end dates, see {@link AllenIntervalJoin}.
      * 
      * @return a mapping, the resulting mapping
      */
     @Override
     public AMapping getMapping(ACache source, ACache target, String sourceVar, String targetVar, String expression,
             double threshold) {
-        ArrayList<TreeMap<String, Set<String>>> maps = new ArrayList<TreeMap<String, Set<String>>>();
-        BeginEnd be = new BeginEnd();
-        // BE0
-        maps.add(be.getConcurrentEvents(source, target, expression));
-        AMapping m = getMapping(maps);
-        return m;
+        return AllenIntervalJoin.getMapping(source, target, expression, AllenIntervalJoin.Relation.IS_MET_BY);
     }
 
     /**
@@ -1,14 +1,14 @@
 package org.aksw.limes.core.measures.mapper.temporal.simpleTemporal;
 
-import java.util.Map;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Set;
-import java.util.TreeMap;
 
 import org.aksw.limes.core.io.cache.ACache;
-import org.aksw.limes.core.io.cache.Instance;
 import org.aksw.limes.core.io.mapping.AMapping;
 import org.aksw.limes.core.io.mapping.MappingFactory;
 import org.aksw.limes.core.io.parser.Parser;
+import org.aksw.limes.core.measures.mapper.temporal.TemporalColumn;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -36,26 +36,32 @@ public class ConcurrentMapper extends SimpleTemporalMapper {
         AMapping m = MappingFactory.createDefaultMapping();
         Parser p = new Parser(expression, threshold);
 
-        TreeMap<String, Set<Instance>> sources = this.orderByBeginDate(source, expression, "source");
-        TreeMap<String, Set<Instance>> targets = this.orderByBeginDate(target, expression, "target");
+        TemporalColumn sources = this.getBeginDates(source, expression, "source");
+        TemporalColumn targets = this.getBeginDates(target, expression, "target");
         String machineIDSource = this.getSecondProperty(p.getLeftTerm());
         String machineIDTarget = this.getSecondProperty(p.getRightTerm());
 
-        
-        
-        for (Map.Entry<String, Set<Instance>> sourceEntry : sources.entrySet()) {
-            String epochSource = sourceEntry.getKey();
-
-            Set<Instance> targetInstances = targets.get(epochSource);
-            if (targetInstances != null) {
-                Set<Instance> sourceInstances = sourceEntry.getValue();
-                for (Instance i : sourceInstances) {
-                    for (Instance j : targetInstances) {
-                        if (i.getProperty(machineIDSource).equals(j.getProperty(machineIDTarget)))
-                            m.add(i.getUri(), j.getUri(), 1);
+        for (int i = 0; i < sources.size();) {
+            long epochSource = sources.getEpoch(i);
+            int next = sources.upperBound(epochSource);
+            int from = targets.lowerBound(epochSource);
+            int to = targets.upperBound(epochSource);
+            if (from < to) {
+                // machine ids of the target instances with the same begin date
+                List<Set<String>> targetIDs = new ArrayList<Set<String>>(to - from);
+                for (int t = from; t < to; t++) {
+                    targetIDs.add(target.getInstance(targets.getUri(targets.getId(t))).getProperty(machineIDTarget));
+                }
+                for (int s = i; s < next; s++) {
+                    String sourceUri = sources.getUri(sources.getId(s));
+                    Set<String> sourceID = source.getInstance(sourceUri).getProperty(machineIDSource);
+                    for (int t = from; t < to; t++) {
+                        if (sourceID.equals(targetIDs.get(t - from)))
+                            m.add(sourceUri, targets.getUri(targets.getId(t)), 1);
                     }
                 }
             }
+            i = next;
         }
 
         return m;
@@ -1,13 +1,9 @@
 package org.aksw.limes.core.measures.mapper.temporal.simpleTemporal;
 
-import java.util.Map;
-import java.util.Set;
-import java.util.TreeMap;
-
 import org.aksw.limes.core.io.cache.ACache;
-import org.aksw.limes.core.io.cache.Instance;
 import org.aksw.limes.core.io.mapping.AMapping;
 import org.aksw.limes.core.io.mapping.MappingFactory;
+import org.aksw.limes.core.measures.mapper.temporal.TemporalColumn;
 
 /**
  * Implements the predecessor mapper class.
@@ -30,22 +26,19 @@ public class PredecessorMapper extends SimpleTemporalMapper {
             double threshold) {
         AMapping m = MappingFactory.createDefaultMapping();
 
-        TreeMap<String, Set<Instance>> sources = this.orderByBeginDate(source, expression, "source");
-        TreeMap<String, Set<Instance>> targets = this.orderByBeginDate(target, expression, "target");
-
-        for (Map.Entry<String, Set<Instance>> sourceEntry : sources.entrySet()) {
-            String epochSource = sourceEntry.getKey();
+        TemporalColumn sources = this.getBeginDates(source, expression, "source");
+        TemporalColumn targets = this.getBeginDates(target, expression, "target");
 
-            String lowerEpoch = targets.lowerKey(epochSource);
-            if (lowerEpoch != null) {
-                Set<Instance> sourceInstances = sourceEntry.getValue();
-                Set<Instance> targetInstances = targets.get(lowerEpoch);
-                for (Instance i : sourceInstances) {
-                    for (Instance j : targetInstances) {
-                        m.add(i.getUri(), j.getUri(), 1);
-                    }
-                }
+        for (int i = 0; i < sources.size();) {
+            long epochSource = sources.getEpoch(i);
+            int next = sources.upperBound(epochSource);
+            // targets with the highest begin date lower than epochSource
+            int to = targets.lowerBound(epochSource);
+            if (to > 0) {
+                int from = targets.lowerBound(targets.getEpoch(to - 1));
+                link(sources, i, next, targets, from, to, m);
             }
+            i = next;
         }
 
         return m;
@@ -1,17 +1,15 @@
 package org.aksw.limes.core.measures.mapper.temporal.simpleTemporal;
 
-import java.text.ParseException;
-import java.text.SimpleDateFormat;
-import java.util.Date;
 import java.util.HashSet;
 import java.util.Set;
 import java.util.TreeMap;
-import java.util.TreeSet;
 
 import org.aksw.limes.core.io.cache.ACache;
 import org.aksw.limes.core.io.cache.Instance;
+import org.aksw.limes.core.io.mapping.AMapping;
 import org.aksw.limes.core.io.parser.Parser;
 import org.aksw.limes.core.measures.mapper.AMapper;
+import org.aksw.limes.core.measures.mapper.temporal.TemporalColumn;
 
 /**
  * Abstract class of simple temporal relations mapper.
@@ -55,11 +53,34 @@ public abstract class SimpleTemporalMapper extends AMapper implements ISimpleTem
             throw new IllegalArgumentException();
     }
 
+    /**
+     * Returns the parsed begin date column of a cache, see
+     * {@link TemporalColumn}. The column is parsed only once per cache and
+     * property and shared by all temporal mappers.
+     *
+     * @param cache,
+     *            the cache of instances
+     * @param expression,
+     *            the metric expression
+     * @param kbType,
+     *            source or target
+     * @return the begin dates of the instances, sorted
+     */
+    protected TemporalColumn getBeginDates(ACache cache, String expression, String kbType) {
+        Parser p = new Parser(expression, 0.0d);
+        String property = null;
+        if (kbType.equalsIgnoreCase("source"))
+            property = getFirstProperty(p.getLeftTerm());
+        else
+            property = getFirstProperty(p.getRightTerm());
+        return TemporalColumn.get(cache, property);
+    }
+
     /**
      * Orders a cache of instances based on their begin date property. For each
-     * instance, it retrieves its begin date property, converts its value to an
-     * epoch (string) using the SimpleDateFormat function and places the
-     * instance inside the corresponding set("bucket") of instances.
+     * instance, it retrieves its begin date values from the parsed column of
+     * the property and places the instance inside the corresponding
+     * set("bucket") of instances.
      * 
      * @param cache,
      *            the cache of instances
@@ -74,35 +95,47 @@ public abstract class SimpleTemporalMapper extends AMapper implements ISimpleTem
     protected TreeMap<String, Set<Instance>> orderByBeginDate(ACache cache, String expression, String kbType) {
 
         TreeMap<String, Set<Instance>> blocks = new TreeMap<String, Set<Instance>>();
-        Parser p = new Parser(expression, 0.0d);
-        String property = null;
-        if (kbType.equalsIgnoreCase("source"))
-            property = getFirstProperty(p.getLeftTerm());
-        else
-            property = getFirstProperty(p.getRightTerm());
-        for (Instance instance : cache.getAllInstances()) {
-            TreeSet<String> time = instance.getProperty(property);
-            for (String value : time) {
-                try {
-                    // 2015-04-22T11:29:51+02:00
-                    SimpleDateFormat df = new SimpleDateFormat("yyyy-MM-dd'T'HH:mm:ssXXX");
-                    Date date = df.parse(value);
-                    long epoch = date.getTime();
-                    if (!blocks.containsKey(String.valueOf(epoch))) {
-                        Set<Instance> l = new HashSet<Instance>();
-                        l.add(instance);
-                        blocks.put(String.valueOf(epoch), l);
-                    } else {
-                        blocks.get(String.valueOf(epoch)).add(instance);
-                    }
-                } catch (ParseException e) {
-                    e.printStackTrace();
-                }
+        TemporalColumn column = getBeginDates(cache, expression, kbType);
+        for (int i = 0; i < column.size(); i++) {
+            String epoch = String.valueOf(column.getEpoch(i));
+            Set<Instance> l = blocks.get(epoch);
+            if (l == null) {
+                l = new HashSet<Instance>();
+                blocks.put(epoch, l);
             }
-
+            l.add(cache.getInstance(column.getUri(column.getId(i))));
         }
         return blocks;
 
     }
 
+    /**
+     * Links each source instance of a range of a sorted source column to each
+     * target instance of a range of a sorted target column.
+     *
+     * @param sources,
+     *            the begin dates of the source instances
+     * @param sourceFrom,
+     *            first position of the source range
+     * @param sourceTo,
+     *            position after the source range
+     * @param targets,
+     *            the begin dates of the target instances
+     * @param targetFrom,
+     *            first position of the target range
+     * @param targetTo,
+     *            position after the target range
+     * @param m,
+     *            the mapping that receives the links
+     */
+    protected static void link(TemporalColumn sources, int sourceFrom, int sourceTo, TemporalColumn targets,
+            int targetFrom, int targetTo, AMapping m) {
+        for (int s = sourceFrom; s < sourceTo; s++) {
+            String sourceUri = sources.getUri(sources.getId(s));
+            for (int t = targetFrom; t < targetTo; t++) {
+                m.add(sourceUri, targets.getUri(targets.getId(t)), 1);
+            }
+        }
+    }
+
 }
@@ -11,13 +11,12 @@ import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
 
 import org.aksw.limes.core.exceptions.InvalidThresholdException;
 import org.aksw.limes.core.io.cache.ACache;
 import org.aksw.limes.core.io.mapping.AMapping;
 import org.aksw.limes.core.io.mapping.MappingFactory;
+import org.aksw.limes.core.measures.mapper.LinkingScheduler;
 import org.aksw.limes.core.measures.mapper.pointsets.Polygon;
 import org.aksw.limes.core.measures.mapper.pointsets.PropertyFetcher;
 import org.slf4j.Logger;
@@ -43,6 +42,33 @@ public class RADON {
         public static boolean swap = false;
 
         public static double[] decideForTheta(GridSizeHeuristics s, GridSizeHeuristics t, String measure) {
+            double[] stats = stats(s, t, measure);
+            swap = decideForSwap(s, t, measure);
+            return new double[] { (2.0d) / (stats[0] + stats[2]), (2.0d) / (stats[1] + stats[3]) };
+        }
+
+        /**
+         * Decides whether source and target are swapped, without changing
+         * {@link #swap}, so that concurrent mappings do not interfere.
+         *
+         * @param s
+         *            heuristics of the source geometries
+         * @param t
+         *            heuristics of the target geometries
+         * @param measure
+         *            statistic used for the estimation
+         * @return true if the target covers the smaller estimated area
+         */
+        public static boolean decideForSwap(GridSizeHeuristics s, GridSizeHeuristics t, String measure) {
+            double[] stats = stats(s, t, measure);
+            double estAreaS = stats[0] * stats[1] * s.size;
+            double estAreaT = stats[2] * stats[3] * t.size;
+            // we want to swap towards the smallest area coverage to optimizethe
+            // number of comparisons
+            return estAreaS > estAreaT;
+        }
+
+        private static double[] stats(GridSizeHeuristics s, GridSizeHeuristics t, String measure) {
             double[] stats;
             switch (measure) {
             case MAX:
@@ -58,12 +84,7 @@ public class RADON {
             default:
                 stats = new double[] { s.minX, s.minY, t.minX, t.minY };
             }
-            double estAreaS = stats[0] * stats[1] * s.size;
-            double estAreaT = stats[2] * stats[3] * t.size;
-            // we want to swap towards the smallest area coverage to optimizethe
-            // number of comparisons
-            swap = estAreaS > estAreaT;
-            return new double[] { (2.0d) / (stats[0] + stats[2]), (2.0d) / (stats[1] + stats[3]) };
+            return stats;
         }
 
         private double size;
@@ -230,6 +251,11 @@ public class RADON {
     public static class Matcher implements Runnable {
 
         public static int maxSize = 1000;
+        /**
+         * Number of full matchers per linking thread that are collected
+         * before they are run, which bounds the scheduled pairs in memory.
+         */
+        public static int batchesPerThread = 4;
         private String relation;
         private final List<Map<String, Set<String>>> result;
         private List<MBBIndex> scheduled;
@@ -298,10 +324,16 @@ public class RADON {
     public static class Merger implements Runnable {
 
         private AMapping m;
+        private boolean swapped;
         private List<Map<String, Set<String>>> localResults = new ArrayList<>();
 
         public Merger(List<Map<String, Set<String>>> results, AMapping m) {
+            this(results, m, GridSizeHeuristics.swap);
+        }
+
+        public Merger(List<Map<String, Set<String>>> results, AMapping m, boolean swapped) {
             this.m = m;
+            this.swapped = swapped;
             // copy over entries to local list
             synchronized (results) {
                 for (Iterator<Map<String, Set<String>>> iterator = results.listIterator(); iterator.hasNext();) {
@@ -317,7 +349,7 @@ public class RADON {
             for (Map<String, Set<String>> result : localResults) {
                 for (String s : result.keySet()) {
                     for (String t : result.get(s)) {
-                        if (GridSizeHeuristics.swap)
+                        if (swapped)
                             m.add(t, s, 1.0d);
                         else
                             m.add(s, t, 1.0d);
@@ -394,7 +426,7 @@ public class RADON {
     public static AMapping getMapping(Map<String, Geometry> sourceData, Map<String, Geometry> targetData,
             String relation) {
         double thetaX, thetaY;
-        int numThreads = new Double(Math.ceil((double) Runtime.getRuntime().availableProcessors() / 2.0d)).intValue();
+        boolean parallel = LinkingScheduler.getParallelism() > 1;
         // Relation thats actually used for computation.
         // Might differ from input relation when swapping occurs or the input
         // relation is 'disjoint'.
@@ -409,13 +441,15 @@ public class RADON {
 
         GridSizeHeuristics heuristicsS = new GridSizeHeuristics(sourceData.values());
         GridSizeHeuristics heuristicsT = new GridSizeHeuristics(targetData.values());
-        double[] theta = GridSizeHeuristics.decideForTheta(heuristicsS, heuristicsT, heuristicStatMeasure);
+        String statMeasure = heuristicStatMeasure;
+        double[] theta = GridSizeHeuristics.decideForTheta(heuristicsS, heuristicsT, statMeasure);
         thetaX = theta[0];
         thetaY = theta[1];
         // swap smaller dataset to source
-        // if swap is necessary is decided in Stats.decideForTheta([...])!
+        // the static GridSizeHeuristics.swap may be changed by a concurrent
+        // mapping, hence the decision is computed again for this one
         Map<String, Geometry> swap;
-        boolean swapped = GridSizeHeuristics.swap;
+        boolean swapped = GridSizeHeuristics.decideForSwap(heuristicsS, heuristicsT, statMeasure);
         if (swapped) {
             swap = sourceData;
             sourceData = targetData;
@@ -440,9 +474,10 @@ public class RADON {
         SquareIndex sourceIndex = index(sourceData, null, thetaX, thetaY);
         SquareIndex targetIndex = index(targetData, sourceIndex, thetaX, thetaY);
 
-        // execute matching
-        ExecutorService matchExec = Executors.newFixedThreadPool(numThreads);
-        ExecutorService mergerExec = Executors.newFixedThreadPool(1);
+        // execute matching, in parallel runs of at most batchSize matchers
+        // while the grid is traversed
+        int batchSize = LinkingScheduler.getParallelism() * Matcher.batchesPerThread;
+        List<Matcher> matchers = new ArrayList<>();
         AMapping m = MappingFactory.createDefaultMapping();
         List<Map<String, Set<String>>> results = Collections.synchronizedList(new ArrayList<>());
         Map<String, Set<String>> computed = new HashMap<>();
@@ -466,7 +501,7 @@ public class RADON {
                                         || rel.equals(INTERSECTS) || rel.equals(CROSSES) || rel.equals(TOUCHES)
                                         || rel.equals(OVERLAPS);
                                 if (compute) {
-                                    if (numThreads == 1) {
+                                    if (!parallel) {
                                         if (Matcher.relate(a.polygon, b.polygon, rel)) {
                                             if (swapped)
                                                 m.add(b.origin_uri, a.origin_uri, 1.0);
@@ -476,11 +511,15 @@ public class RADON {
                                     } else {
                                         matcher.schedule(a, b);
                                         if (matcher.size() == Matcher.maxSize) {
-                                            matchExec.execute(matcher);
+                                            matchers.add(matcher);
                                             matcher = new Matcher(rel, results);
-                                            if (results.size() > 0) {
-                                                mergerExec.execute(new Merger(results, m));
-                                            }
+                                        }
+                                        if (matchers.size() == batchSize) {
+                                            // blocks until the batch is done
+                                            LinkingScheduler.execute(matchers, Matcher::size, batch -> null,
+                                                    Matcher::run);
+                                            new Merger(results, m, swapped).run();
+                                            matchers.clear();
                                         }
                                     }
                                 }
@@ -490,32 +529,13 @@ public class RADON {
                 }
             }
         }
-        if (numThreads > 1) {
+        if (parallel) {
             if (matcher.size() > 0) {
-                matchExec.execute(matcher);
-            }
-            matchExec.shutdown();
-            while (!matchExec.isTerminated()) {
-                try {
-                    if (results.size() > 0) {
-                        mergerExec.execute(new Merger(results, m));
-                    }
-                    Thread.sleep(500);
-                } catch (InterruptedException e) {
-                    e.printStackTrace();
-                }
-            }
-            if (results.size() > 0) {
-                mergerExec.execute(new Merger(results, m));
-            }
-            mergerExec.shutdown();
-            while (!mergerExec.isTerminated()) {
-                try {
-                    Thread.sleep(100);
-                } catch (InterruptedException e) {
-                    e.printStackTrace();
-                }
+                matchers.add(matcher);
             }
+            // blocks until the remaining matchers are done
+            LinkingScheduler.execute(matchers, Matcher::size, batch -> null, Matcher::run);
+            new Merger(results, m, swapped).run();
         }
 
         // Compute M = (S x T) \ M' for disjoint relation
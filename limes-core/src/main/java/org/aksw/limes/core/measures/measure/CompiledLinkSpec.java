@@ -0,0 +1,530 @@
+package org.aksw.limes.core.measures.measure;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+
+import org.aksw.limes.core.datastrutures.LogicOperator;
+import org.aksw.limes.core.io.cache.ACache;
+import org.aksw.limes.core.io.cache.HybridCache;
+import org.aksw.limes.core.io.cache.Instance;
+import org.aksw.limes.core.io.ls.LinkSpecification;
+import org.aksw.limes.core.io.mapping.AMapping;
+import org.aksw.limes.core.io.parser.Parser;
+import org.aksw.limes.core.measures.mapper.AMapper;
+import org.aksw.limes.core.measures.mapper.MapperFactory;
+import org.aksw.limes.core.measures.mapper.pointsets.PropertyFetcher;
+import org.aksw.limes.core.measures.mapper.string.EDJoinMapper;
+import org.aksw.limes.core.measures.mapper.string.PPJoinPlusPlus;
+import org.aksw.limes.core.measures.mapper.string.fastngram.FastNGramMapper;
+import org.aksw.limes.core.measures.measure.string.IStringMeasure;
+import org.aksw.limes.core.measures.measure.string.JaroMeasure;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Link specification that has been turned into a tree of measures bound to
+ * the properties they compare. Compiling a specification parses all its
+ * expressions once, hence scoring a pair of instances involves no parsing.
+ * <p>
+ * Atomic measures whose mappers compute the maximal similarity of all pairs
+ * of property values (see {@link #KERNEL_MEASURES}) are computed directly on
+ * the property values, with the similarity of a value pair defined by their
+ * mapper. All other atomic measures are computed by running their mapper on
+ * the single pair of instances, like
+ * {@link MeasureProcessor#getSimilarity(Instance, Instance, String, double, String, String)}
+ * used to do for all measures. Mappers are not thread-safe, so a compiled
+ * specification can only be shared by several threads if
+ * {@link #isThreadSafe()} holds.
+ * <p>
+ * The property values used by the measures can be read once per instance
+ * with {@link #getSourceValues(Instance)} and
+ * {@link #getTargetValues(Instance)} and then be passed to
+ * {@link #getSimilarity(String[][], String[][], Instance, Instance)}.
+ */
+public class CompiledLinkSpec {
+
+    static Logger logger = LoggerFactory.getLogger(CompiledLinkSpec.class);
+
+    /**
+     * Measures whose mappers compute the maximal similarity of all pairs of
+     * property values of two instances, in the order source value, target
+     * value. For these measures, computing the similarity of each value pair
+     * as the mapper does returns the same value as running the mapper on a
+     * single pair:
+     * <ul>
+     * <li>exactmatch and jaro use the measure itself,</li>
+     * <li>levenshtein uses the edit distance of {@link EDJoinMapper},</li>
+     * <li>qgrams uses the q-grams of {@link FastNGramMapper},</li>
+     * <li>cosine, jaccard, overlap and trigram use the tokens of
+     * {@link PPJoinPlusPlus}.</li>
+     * </ul>
+     * The trie filters of the Jaro-Winkler and Ratcliff-Obershelp mappers may
+     * swap source and target values, hence these measures are not included.
+     */
+    public static final Set<MeasureType> KERNEL_MEASURES = Collections.unmodifiableSet(
+            EnumSet.of(MeasureType.EXACTMATCH, MeasureType.JARO, MeasureType.LEVENSHTEIN, MeasureType.QGRAMS,
+                    MeasureType.COSINE, MeasureType.JACCARD, MeasureType.OVERLAP, MeasureType.TRIGRAM));
+
+    private static final String ADD = "ADD";
+    private static final String XOR = "XOR";
+    private static final String MAX = "MAX";
+    private static final String MIN = "MIN";
+    private static final String AND = "AND";
+    private static final String OR = "OR";
+
+    private final String sourceVar;
+    private final String targetVar;
+    private final List<String> sourceProperties = new ArrayList<String>();
+    private final List<String> targetProperties = new ArrayList<String>();
+    private boolean threadSafe = true;
+    private final Node root;
+
+    /**
+     * Compiles a link specification. The operators of the specification are
+     * evaluated with the thresholds of its children, i.e., in the canonical
+     * form that is executed by the execution engines.
+     *
+     * @param spec
+     *            The link specification
+     * @param sourceVar
+     *            Source variable
+     * @param targetVar
+     *            Target variable
+     */
+    public CompiledLinkSpec(LinkSpecification spec, String sourceVar, String targetVar) {
+        this.sourceVar = sourceVar;
+        this.targetVar = targetVar;
+        this.root = compile(spec);
+    }
+
+    /**
+     * Compiles a metric expression. The resulting similarities are the same
+     * as the ones of
+     * {@link MeasureProcessor#getSimilarity(Instance, Instance, String, double, String, String)}.
+     *
+     * @param expression
+     *            The metric expression
+     * @param threshold
+     *            Threshold of the expression
+     * @param sourceVar
+     *            Source variable
+     * @param targetVar
+     *            Target variable
+     */
+    public CompiledLinkSpec(String expression, double threshold, String sourceVar, String targetVar) {
+        this.sourceVar = sourceVar;
+        this.targetVar = targetVar;
+        this.root = compile(expression, threshold);
+    }
+
+    /**
+     * @return true if the compiled specification can be used by several
+     *         threads at the same time
+     */
+    public boolean isThreadSafe() {
+        return threadSafe;
+    }
+
+    /**
+     * Returns the similarity of two instances.
+     *
+     * @param s
+     *            Source instance
+     * @param t
+     *            Target instance
+     * @return the similarity of s and t
+     */
+    public double getSimilarity(Instance s, Instance t) {
+        return root.similarity(getSourceValues(s), getTargetValues(t), s, t);
+    }
+
+    /**
+     * Returns the similarity of two instances whose property values have
+     * already been read.
+     *
+     * @param sourceValues
+     *            Result of {@link #getSourceValues(Instance)} for s
+     * @param targetValues
+     *            Result of {@link #getTargetValues(Instance)} for t
+     * @param s
+     *            Source instance
+     * @param t
+     *            Target instance
+     * @return the similarity of s and t
+     */
+    public double getSimilarity(String[][] sourceValues, String[][] targetValues, Instance s, Instance t) {
+        return root.similarity(sourceValues, targetValues, s, t);
+    }
+
+    /**
+     * @param s
+     *            Source instance, may be null
+     * @return the values of the source properties compared by the
+     *         specification
+     */
+    public String[][] getSourceValues(Instance s) {
+        return values(s, sourceProperties);
+    }
+
+    /**
+     * @param t
+     *            Target instance, may be null
+     * @return the values of the target properties compared by the
+     *         specification
+     */
+    public String[][] getTargetValues(Instance t) {
+        return values(t, targetProperties);
+    }
+
+    private static String[][] values(Instance instance, List<String> properties) {
+        String[][] values = new String[properties.size()][];
+        for (int i = 0; i < values.length; i++) {
+            TreeSet<String> v = (instance == null) ? null : instance.getProperty(properties.get(i));
+            values[i] = (v == null) ? new String[0] : v.toArray(new String[v.size()]);
+        }
+        return values;
+    }
+
+    private Node compile(LinkSpecification spec) {
+        if (spec.isAtomic()) {
+            return compile(spec.getFilterExpression(), spec.getThreshold());
+        }
+        List<LinkSpecification> children = spec.getChildren();
+        Node left = compile(children.get(0));
+        Node right = compile(children.get(1));
+        double threshold1 = children.get(0).getThreshold();
+        double threshold2 = children.get(1).getThreshold();
+        Node node;
+        if (spec.getOperator() == LogicOperator.OR || spec.getOperator() == LogicOperator.XOR) {
+            node = new MaxNode(left, right, spec.getThreshold(), threshold1, threshold2);
+        } else if (spec.getOperator() == LogicOperator.AND) {
+            node = new MinNode(left, right, spec.getThreshold(), threshold1, threshold2);
+        } else {
+            node = new MinusNode(left, right, spec.getThreshold(), threshold1, threshold2);
+        }
+        if (spec.getFilterExpression() != null) {
+            // linear combinations are executed as a conjunction of their
+            // children that is filtered with the combination
+            node = new FilterNode(node, compile(spec.getFilterExpression(), spec.getThreshold()));
+        }
+        return node;
+    }
+
+    private Node compile(String expression, double threshold) {
+        try {
+            return compileExpression(expression, threshold);
+        } catch (RuntimeException e) {
+            // invalid expressions have a similarity of 0
+            logger.warn("Could not compile " + expression + ": " + e);
+            return new ZeroNode();
+        }
+    }
+
+    private Node compileExpression(String expression, double threshold) {
+        Parser p = new Parser(expression, threshold);
+        if (p.isAtomic()) {
+            return compileAtomic(expression, threshold);
+        }
+        Node left = compile(p.getLeftTerm(), p.getThreshold1());
+        Node right = compile(p.getRightTerm(), p.getThreshold2());
+        String operator = p.getOperator();
+        if (operator.equalsIgnoreCase(MAX) || operator.equalsIgnoreCase(OR) || operator.equalsIgnoreCase(XOR)) {
+            return new MaxNode(left, right, p.getThreshold(), p.getThreshold1(), p.getThreshold2());
+        } else if (operator.equalsIgnoreCase(MIN) || operator.equalsIgnoreCase(AND)) {
+            return new MinNode(left, right, p.getThreshold(), p.getThreshold1(), p.getThreshold2());
+        } else if (operator.equalsIgnoreCase(ADD)) {
+            return new AddNode(left, right, p.getThreshold(), p.getThreshold1(), p.getThreshold2(),
+                    p.getLeftCoefficient(), p.getRightCoefficient());
+        } else {
+            return new MinusNode(left, right, p.getThreshold(), p.getThreshold1(), p.getThreshold2());
+        }
+    }
+
+    private Node compileAtomic(String expression, double threshold) {
+        Parser p = new Parser(expression, threshold);
+        MeasureType type = MeasureFactory.getMeasureType(p.getOperator());
+        if (threshold <= 0 || !hasSourceAndTargetProperty(p)) {
+            logger.warn("Similarity of " + expression + " with threshold " + threshold + " is always 0");
+            return new ZeroNode();
+        }
+        List<String> properties = PropertyFetcher.getProperties(expression, threshold);
+        if (KERNEL_MEASURES.contains(type)) {
+            return new MeasureNode(type, slot(sourceProperties, properties.get(0)),
+                    slot(targetProperties, properties.get(1)), threshold);
+        }
+        threadSafe = false;
+        return new MapperNode(type, expression, threshold, sourceVar, targetVar);
+    }
+
+    /*
+     * Atomic measures whose terms do not refer to both the source and the
+     * target variable can not be computed.
+     */
+    private boolean hasSourceAndTargetProperty(Parser p) {
+        boolean source = false, target = false;
+        String term1 = "?" + p.getLeftTerm();
+        String term2 = "?" + p.getRightTerm();
+        if (term1.contains(".") && !term1.split("\\.")[0].equals(sourceVar)) {
+            target = true;
+        } else {
+            source = true;
+        }
+        if (term2.contains(".") && term2.split("\\.")[0].equals(sourceVar)) {
+            source = true;
+        } else {
+            target = true;
+        }
+        return source && target;
+    }
+
+    private static int slot(List<String> properties, String property) {
+        int index = properties.indexOf(property);
+        if (index < 0) {
+            properties.add(property);
+            index = properties.size() - 1;
+        }
+        return index;
+    }
+
+    /**
+     * Node of a compiled specification.
+     */
+    private static abstract class Node {
+        /**
+         * @param source
+         *            Property values of the source instance, by slot
+         * @param target
+         *            Property values of the target instance, by slot
+         * @param s
+         *            Source instance
+         * @param t
+         *            Target instance
+         * @return similarity of the instances
+         */
+        abstract double similarity(String[][] source, String[][] target, Instance s, Instance t);
+    }
+
+    private static class ZeroNode extends Node {
+        @Override
+        double similarity(String[][] source, String[][] target, Instance s, Instance t) {
+            return 0;
+        }
+    }
+
+    /**
+     * Atomic measure that is computed on the property values.
+     */
+    private static class MeasureNode extends Node {
+        private final MeasureType type;
+        private final ThreadLocal<IMeasure> measure;
+        private final int sourceSlot;
+        private final int targetSlot;
+        private final double threshold;
+
+        MeasureNode(MeasureType type, int sourceSlot, int targetSlot, double threshold) {
+            this.type = type;
+            // some measures keep state while computing a similarity
+            this.measure = ThreadLocal.withInitial(() -> MeasureFactory.createMeasure(type));
+            this.sourceSlot = sourceSlot;
+            this.targetSlot = targetSlot;
+            this.threshold = threshold;
+        }
+
+        @Override
+        double similarity(String[][] source, String[][] target, Instance s, Instance t) {
+            IMeasure m = measure.get();
+            double max = 0;
+            try {
+                for (String v1 : source[sourceSlot]) {
+                    for (String v2 : target[targetSlot]) {
+                        double sim = similarity(m, v1, v2);
+                        if (sim > max) {
+                            max = sim;
+                        }
+                    }
+                }
+            } catch (RuntimeException e) {
+                return 0;
+            }
+            return (max >= threshold) ? max : 0;
+        }
+
+        /**
+         * @return the similarity of a source and a target value as computed
+         *         by the mapper of the measure
+         */
+        private double similarity(IMeasure m, String v1, String v2) {
+            switch (type) {
+            case JARO:
+                return ((JaroMeasure) m).getSimilarity(v1, v2);
+            case LEVENSHTEIN:
+                return EDJoinMapper.getSimilarity(v1, v2, threshold);
+            case QGRAMS:
+                return FastNGramMapper.getSimilarity(v1, v2);
+            case COSINE:
+            case JACCARD:
+            case OVERLAP:
+            case TRIGRAM:
+                return PPJoinPlusPlus.getSimilarity((IStringMeasure) m, v1, v2);
+            default:
+                return m.getSimilarity(v1, v2);
+            }
+        }
+    }
+
+    /**
+     * Atomic measure that is computed by running its mapper on a single pair
+     * of instances.
+     */
+    private static class MapperNode extends Node {
+        private final MeasureType type;
+        private final String expression;
+        private final double threshold;
+        private final String sourceVar;
+        private final String targetVar;
+
+        MapperNode(MeasureType type, String expression, double threshold, String sourceVar, String targetVar) {
+            this.type = type;
+            this.expression = expression;
+            this.threshold = threshold;
+            this.sourceVar = sourceVar;
+            this.targetVar = targetVar;
+        }
+
+        @Override
+        double similarity(String[][] source, String[][] target, Instance s, Instance t) {
+            try {
+                AMapper mapper = MapperFactory.createMapper(type);
+                ACache sourceCache = new HybridCache();
+                ACache targetCache = new HybridCache();
+                sourceCache.addInstance(s);
+                targetCache.addInstance(t);
+                AMapping m = mapper.getMapping(sourceCache, targetCache, sourceVar, targetVar, expression, threshold);
+                double similarity = 0.0d;
+                for (String uri : m.getMap().keySet()) {
+                    for (String value : m.getMap().get(uri).keySet()) {
+                        similarity = m.getConfidence(uri, value);
+                    }
+                }
+                return (similarity >= threshold) ? similarity : 0;
+            } catch (RuntimeException e) {
+                logger.debug("Could not compute " + expression + ": " + e);
+                return 0;
+            }
+        }
+    }
+
+    private static abstract class OperatorNode extends Node {
+        final Node left;
+        final Node right;
+        final double threshold;
+        final double threshold1;
+        final double threshold2;
+
+        OperatorNode(Node left, Node right, double threshold, double threshold1, double threshold2) {
+            this.left = left;
+            this.right = right;
+            this.threshold = threshold;
+            this.threshold1 = threshold1;
+            this.threshold2 = threshold2;
+        }
+    }
+
+    private static class MaxNode extends OperatorNode {
+        MaxNode(Node left, Node right, double threshold, double threshold1, double threshold2) {
+            super(left, right, threshold, threshold1, threshold2);
+        }
+
+        @Override
+        double similarity(String[][] source, String[][] target, Instance s, Instance t) {
+            double first = left.similarity(source, target, s, t);
+            double second = right.similarity(source, target, s, t);
+            if (first < threshold1 && second < threshold2) {
+                return 0;
+            }
+            double max = Math.max(first, second);
+            return (max >= threshold) ? max : 0;
+        }
+    }
+
+    private static class MinNode extends OperatorNode {
+        MinNode(Node left, Node right, double threshold, double threshold1, double threshold2) {
+            super(left, right, threshold, threshold1, threshold2);
+        }
+
+        @Override
+        double similarity(String[][] source, String[][] target, Instance s, Instance t) {
+            double first = left.similarity(source, target, s, t);
+            double second = right.similarity(source, target, s, t);
+            if (first < threshold1 && second < threshold2) {
+                return 0;
+            }
+            double min = Math.min(first, second);
+            return (min >= threshold) ? min : 0;
+        }
+    }
+
+    private static class AddNode extends OperatorNode {
+        private final double leftCoefficient;
+        private final double rightCoefficient;
+
+        AddNode(Node left, Node right, double threshold, double threshold1, double threshold2,
+                double leftCoefficient, double rightCoefficient) {
+            super(left, right, threshold, threshold1, threshold2);
+            this.leftCoefficient = leftCoefficient;
+            this.rightCoefficient = rightCoefficient;
+        }
+
+        @Override
+        double similarity(String[][] source, String[][] target, Instance s, Instance t) {
+            double first = leftCoefficient * left.similarity(source, target, s, t);
+            double second = rightCoefficient * right.similarity(source, target, s, t);
+            if (first < threshold1 && second < threshold2) {
+                return 0;
+            }
+            return (first + second >= threshold) ? first + second : 0;
+        }
+    }
+
+    private static class MinusNode extends OperatorNode {
+        MinusNode(Node left, Node right, double threshold, double threshold1, double threshold2) {
+            super(left, right, threshold, threshold1, threshold2);
+        }
+
+        @Override
+        double similarity(String[][] source, String[][] target, Instance s, Instance t) {
+            double first = left.similarity(source, target, s, t);
+            double second = right.similarity(source, target, s, t);
+            // the right similarity must be 0 in order for the pair to be kept
+            if (second == 0 && first >= threshold1 && first >= threshold) {
+                return first;
+            }
+            return 0;
+        }
+    }
+
+    /**
+     * Operator whose result is filtered with another expression.
+     */
+    private static class FilterNode extends Node {
+        private final Node node;
+        private final Node filter;
+
+        FilterNode(Node node, Node filter) {
+            this.node = node;
+            this.filter = filter;
+        }
+
+        @Override
+        double similarity(String[][] source, String[][] target, Instance s, Instance t) {
+            if (node.similarity(source, target, s, t) == 0) {
+                return 0;
+            }
+            return filter.similarity(source, target, s, t);
+        }
+    }
+}
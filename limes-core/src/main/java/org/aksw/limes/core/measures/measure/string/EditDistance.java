@@ -0,0 +1,210 @@
+package org.aksw.limes.core.measures.measure.string;
+
+/**
+ * Levenshtein distance with unit costs for insertions, deletions and
+ * substitutions.
+ * <br>
+ * If the shorter string has at most 64 characters, the distance is computed
+ * with the bit-parallel algorithm of Myers in the formulation of Hyyro, which
+ * processes a whole column of the dynamic programming matrix in a few
+ * operations on a long. Longer strings are compared with a dynamic program
+ * that is restricted to a band around the diagonal. If a maximal distance is
+ * given, the computation stops as soon as the distance is known to exceed it,
+ * and the band is 2 * max + 1 cells wide.
+ */
+public class EditDistance {
+
+    private static final int WORD_SIZE = 64;
+
+    /**
+     * Match masks of the pattern for the characters below 128, all 0 between
+     * two computations.
+     */
+    private static final ThreadLocal<long[]> ASCII_MASKS = ThreadLocal.withInitial(() -> new long[128]);
+
+    private EditDistance() {
+    }
+
+    /**
+     * Computes the edit distance of two strings.
+     *
+     * @param a
+     *            First string
+     * @param b
+     *            Second string
+     * @return the edit distance of a and b
+     */
+    public static int distance(String a, String b) {
+        return distance(a, b, Integer.MAX_VALUE);
+    }
+
+    /**
+     * Computes the edit distance of two strings up to a maximal distance.
+     *
+     * @param a
+     *            First string
+     * @param b
+     *            Second string
+     * @param max
+     *            Maximal distance of interest, at least 0
+     * @return the edit distance of a and b if it is at most max, else max + 1
+     */
+    public static int distance(String a, String b, int max) {
+        if (max < 0) {
+            throw new IllegalArgumentException("Maximal distance must not be negative: " + max);
+        }
+        if (a.length() > b.length()) {
+            String swap = a;
+            a = b;
+            b = swap;
+        }
+        // the distance is at most the length of the longer string
+        max = Math.min(max, b.length());
+        if (b.length() - a.length() > max) {
+            return max + 1;
+        }
+        // common prefixes and suffixes do not change the distance
+        int from = 0;
+        int aTo = a.length();
+        int bTo = b.length();
+        while (from < aTo && a.charAt(from) == b.charAt(from)) {
+            from++;
+        }
+        while (aTo > from && a.charAt(aTo - 1) == b.charAt(bTo - 1)) {
+            aTo--;
+            bTo--;
+        }
+        int m = aTo - from;
+        int n = bTo - from;
+        if (m == 0) {
+            return n;
+        }
+        if (m <= WORD_SIZE) {
+            return bitParallel(a, b, from, m, n, max);
+        }
+        return banded(a, b, from, m, n, max);
+    }
+
+    /**
+     * Bit-parallel computation with the m &lt;= 64 characters of a starting
+     * at from as pattern and the n characters of b starting at from as text.
+     * Bit i of the vertical delta vectors pv and mv is set if the cell in row
+     * i + 1 of the current column is one larger or smaller than the cell
+     * above it.
+     */
+    private static int bitParallel(String a, String b, int from, int m, int n, int max) {
+        long[] ascii = ASCII_MASKS.get();
+        char[] otherChars = null;
+        long[] otherMasks = null;
+        int others = 0;
+        for (int i = 0; i < m; i++) {
+            char c = a.charAt(from + i);
+            if (c < ascii.length) {
+                ascii[c] |= 1L << i;
+            } else {
+                if (otherChars == null) {
+                    otherChars = new char[m];
+                    otherMasks = new long[m];
+                }
+                int k = indexOf(otherChars, others, c);
+                if (k < 0) {
+                    k = others++;
+                    otherChars[k] = c;
+                }
+                otherMasks[k] |= 1L << i;
+            }
+        }
+        long pv = -1L;
+        long mv = 0L;
+        long last = 1L << (m - 1);
+        int score = m;
+        for (int j = 0; j < n; j++) {
+            char c = b.charAt(from + j);
+            long eq;
+            if (c < ascii.length) {
+                eq = ascii[c];
+            } else {
+                int k = otherChars == null ? -1 : indexOf(otherChars, others, c);
+                eq = k < 0 ? 0L : otherMasks[k];
+            }
+            long xv = eq | mv;
+            long xh = (((eq & pv) + pv) ^ pv) | eq;
+            long ph = mv | ~(xh | pv);
+            long mh = pv & xh;
+            if ((ph & last) != 0) {
+                score++;
+            } else if ((mh & last) != 0) {
+                score--;
+            }
+            // the first row of the matrix grows by 1 per column
+            ph = (ph << 1) | 1L;
+            mh = mh << 1;
+            pv = mh | ~(xv | ph);
+            mv = ph & xv;
+            // the last row decreases by at most 1 per remaining column
+            if (score - (n - j - 1) > max) {
+                score = max + 1;
+                break;
+            }
+        }
+        for (int i = 0; i < m; i++) {
+            char c = a.charAt(from + i);
+            if (c < ascii.length) {
+                ascii[c] = 0L;
+            }
+        }
+        return Math.min(score, max + 1);
+    }
+
+    private static int indexOf(char[] chars, int size, char c) {
+        for (int k = 0; k < size; k++) {
+            if (chars[k] == c) {
+                return k;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Dynamic program over the cells (i, j) with |i - j| &lt;= max, with the
+     * m characters of a starting at from as rows and the n characters of b
+     * starting at from as columns. Cells outside the band are treated as max
+     * + 1.
+     */
+    private static int banded(String a, String b, int from, int m, int n, int max) {
+        int big = max + 1;
+        int[] previous = new int[n + 1];
+        int[] current = new int[n + 1];
+        for (int j = 0; j <= n; j++) {
+            previous[j] = Math.min(j, big);
+        }
+        for (int i = 1; i <= m; i++) {
+            int low = Math.max(1, i - max);
+            int high = Math.min(n, i + max);
+            current[low - 1] = low == 1 ? Math.min(i, big) : big;
+            int rowMin = current[low - 1];
+            char c = a.charAt(from + i - 1);
+            for (int j = low; j <= high; j++) {
+                int d = previous[j - 1] + (c == b.charAt(from + j - 1) ? 0 : 1);
+                d = Math.min(d, Math.min(previous[j], current[j - 1]) + 1);
+                if (d > big) {
+                    d = big;
+                }
+                current[j] = d;
+                if (d < rowMin) {
+                    rowMin = d;
+                }
+            }
+            if (high < n) {
+                current[high + 1] = big;
+            }
+            if (rowMin > max) {
+                return big;
+            }
+            int[] swap = previous;
+            previous = current;
+            current = swap;
+        }
+        return previous[n];
+    }
+}
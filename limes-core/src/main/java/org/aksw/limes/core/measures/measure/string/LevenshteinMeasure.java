@@ -32,9 +32,56 @@ public class LevenshteinMeasure extends StringMeasure {
         throw new UnsupportedOperationException("Not supported yet.");
     }
 
+    /**
+     * Computes the Levenshtein similarity 1 - d / l, where d is the edit
+     * distance of the strings and l is the length of the longer string, with
+     * the same float precision as the SimMetrics implementation.
+     *
+     * @param object1
+     *            Source object
+     * @param object2
+     *            Target object
+     * @return the Levenshtein similarity, 1 for two empty strings
+     */
     public double getSimilarity(Object object1, Object object2) {
-        return (new uk.ac.shef.wit.simmetrics.similaritymetrics.Levenshtein()).getSimilarity(object1 + "",
-                object2 + "");
+        String s1 = object1 + "";
+        String s2 = object2 + "";
+        return similarity(EditDistance.distance(s1, s2), Math.max(s1.length(), s2.length()));
+    }
+
+    /**
+     * Computes the Levenshtein similarity of two strings if it can reach a
+     * threshold. The edit distance is only computed up to the largest
+     * distance that still yields the threshold.
+     *
+     * @param s1
+     *            Source string
+     * @param s2
+     *            Target string
+     * @param threshold
+     *            Similarity threshold
+     * @return the Levenshtein similarity, or 0 if it is below the threshold
+     */
+    public double getSimilarity(String s1, String s2, double threshold) {
+        int maxLength = Math.max(s1.length(), s2.length());
+        if (threshold <= 0) {
+            return similarity(EditDistance.distance(s1, s2), maxLength);
+        }
+        // one additional edit absorbs rounding errors of the float similarity
+        int max = (int) Math.min(maxLength, Math.floor((1 - threshold) * maxLength) + 1);
+        int distance = EditDistance.distance(s1, s2, Math.max(0, max));
+        if (distance > max) {
+            return 0;
+        }
+        double sim = similarity(distance, maxLength);
+        return (sim >= threshold) ? sim : 0;
+    }
+
+    private static double similarity(int distance, int maxLength) {
+        if (maxLength == 0) {
+            return 1.0f;
+        }
+        return 1.0f - ((float) distance / (float) maxLength);
     }
 
     public String getType() {
@@ -6,6 +6,7 @@ import java.util.Map.Entry;
 
 import org.aksw.limes.core.datastrutures.GoldStandard;
 import org.aksw.limes.core.evaluation.qualititativeMeasures.IQualitativeMeasure;
+import org.aksw.limes.core.execution.engine.AtomicMappingCache;
 import org.aksw.limes.core.execution.engine.ExecutionEngine;
 import org.aksw.limes.core.execution.engine.ExecutionEngineFactory;
 import org.aksw.limes.core.execution.engine.ExecutionEngineFactory.ExecutionEngineType;
@@ -236,6 +237,7 @@ public class ExpressionFitnessFunction extends IGPFitnessFunction {
         	ExecutionEngine engine = ExecutionEngineFactory.getEngine(ExecutionEngineType.DEFAULT,
         			 sourceCache, targetCache,
                      this.m_config.source.getVar(), this.m_config.target.getVar());
+        	engine.setMappingCache(AtomicMappingCache.getDefault());
         	IPlanner planner = ExecutionPlannerFactory.getPlanner(ExecutionPlannerType.DEFAULT,
                   sC, tC);
         	return engine.execute(spec, planner);
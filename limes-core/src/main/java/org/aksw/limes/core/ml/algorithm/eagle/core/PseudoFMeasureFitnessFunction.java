@@ -2,6 +2,7 @@ package org.aksw.limes.core.ml.algorithm.eagle.core;
 
 import org.aksw.limes.core.datastrutures.GoldStandard;
 import org.aksw.limes.core.evaluation.qualititativeMeasures.PseudoFMeasure;
+import org.aksw.limes.core.execution.engine.AtomicMappingCache;
 import org.aksw.limes.core.execution.engine.ExecutionEngine;
 import org.aksw.limes.core.execution.engine.ExecutionEngineFactory;
 import org.aksw.limes.core.execution.engine.ExecutionEngineFactory.ExecutionEngineType;
@@ -47,6 +48,7 @@ public class PseudoFMeasureFitnessFunction extends IGPFitnessFunction {
         targetCache = c2;
         this.pfm = pfm;
         engine = ExecutionEngineFactory.getEngine(ExecutionEngineType.DEFAULT, c1, c2, a_config.source.getVar(), a_config.target.getVar());
+        engine.setMappingCache(AtomicMappingCache.getDefault());
     }
 
     /**
@@ -17,6 +17,7 @@ import org.aksw.limes.core.evaluation.qualititativeMeasures.FMeasure;
 import org.aksw.limes.core.evaluation.qualititativeMeasures.Precision;
 import org.aksw.limes.core.evaluation.qualititativeMeasures.PseudoFMeasure;
 import org.aksw.limes.core.evaluation.qualititativeMeasures.Recall;
+import org.aksw.limes.core.execution.engine.AtomicMappingCache;
 import org.aksw.limes.core.execution.engine.ExecutionEngine;
 import org.aksw.limes.core.execution.engine.ExecutionEngineFactory;
 import org.aksw.limes.core.execution.engine.ExecutionEngineFactory.ExecutionEngineType;
@@ -135,6 +136,7 @@ public abstract class AWombat extends ACoreMLAlgorithm {
         String measureExpression = measure + "(x." + sourceProperty + ", y." + targetProperty + ")";
         Instruction inst = new Instruction(Instruction.Command.RUN, measureExpression, threshold + "", -1, -1, -1);
         ExecutionEngine ee = ExecutionEngineFactory.getEngine(ExecutionEngineType.DEFAULT, sourceCache, targetCache, "?x", "?y");
+        ee.setMappingCache(AtomicMappingCache.getDefault());
         Plan plan = new Plan();
         plan.addInstruction(inst);
         return ((SimpleExecutionEngine) ee).executeInstructions(plan);
@@ -178,6 +180,7 @@ public abstract class AWombat extends ACoreMLAlgorithm {
             assert planner != null;
             ExecutionEngine engine = ExecutionEngineFactory.getEngine(ExecutionEngineType.DEFAULT, sourceCache, targetCache, "?x", "?y");
             assert engine != null;
+            engine.setMappingCache(AtomicMappingCache.getDefault());
             AMapping resultMap = engine.execute(rwLs, planner);
             map = resultMap.getSubMap(threshold);
         }
@@ -223,6 +226,7 @@ public abstract class AWombat extends ACoreMLAlgorithm {
         assert planner != null;
         ExecutionEngine engine = ExecutionEngineFactory.getEngine(ExecutionEngineType.DEFAULT, sCache, tCache, "?x", "?y");
         assert engine != null;
+        engine.setMappingCache(AtomicMappingCache.getDefault());
         AMapping resultMap = engine.execute(rwLs, planner);
         map = resultMap.getSubMap(ls.getThreshold());
         return map;
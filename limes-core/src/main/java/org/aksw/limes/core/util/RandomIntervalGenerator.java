@@ -0,0 +1,89 @@
+package org.aksw.limes.core.util;
+
+import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.Random;
+import java.util.TimeZone;
+
+import org.aksw.limes.core.io.cache.ACache;
+import org.aksw.limes.core.io.cache.MemoryCache;
+
+/**
+ * Generates time intervals for the temporal mappers. The begin and the end of
+ * each interval are stored as xsd:dateTime values in the properties
+ * {@link #BEGIN} and {@link #END}, e.g. for
+ * tmp_before(x.beginsAtDateTime|endsAtDateTime,y.beginsAtDateTime|endsAtDateTime).
+ */
+public class RandomIntervalGenerator implements DataGenerator {
+
+    public static final String BEGIN = "beginsAtDateTime";
+    public static final String END = "endsAtDateTime";
+
+    /**
+     * Begin of the time span of the generated intervals: 2015-05-20T00:00:00Z
+     */
+    private static final long ORIGIN = 1432080000000L;
+    private static final long MINUTE = 60000L;
+
+    int span, maxDuration;
+    double mean = 0d;
+    double stdDev = 0d;
+    Random random;
+
+    /**
+     * Constructor
+     *
+     * @param span
+     *         Number of minutes within which the intervals begin
+     * @param maxDuration
+     *         Maximal duration of an interval in minutes
+     * @param seed
+     *         Seed of the random number generator
+     */
+    public RandomIntervalGenerator(int span, int maxDuration, long seed) {
+        this.span = span;
+        this.maxDuration = maxDuration;
+        this.random = new Random(seed);
+    }
+
+    /**
+     * Generates intervals whose duration is in [0, maxDuration] minutes.
+     * Begin and end have a precision of a minute, so that some intervals meet,
+     * start or finish together.
+     *
+     * @param size
+     *         Size of the corpus that is to be generated
+     * @return Corpus
+     */
+    public ACache generateData(int size) {
+        SimpleDateFormat df = new SimpleDateFormat("yyyy-MM-dd'T'HH:mm:ssXXX");
+        df.setTimeZone(TimeZone.getTimeZone("GMT+02:00"));
+        ACache c = new MemoryCache();
+        List<Double> durations = new ArrayList<Double>();
+        for (int i = 0; i < size; i++) {
+            int begin = random.nextInt(span);
+            int duration = random.nextInt(maxDuration + 1);
+            durations.add((double) duration);
+            c.addTriple("event" + i, BEGIN, df.format(new Date(ORIGIN + begin * MINUTE)));
+            c.addTriple("event" + i, END, df.format(new Date(ORIGIN + (begin + duration) * MINUTE)));
+        }
+        stdDev = Utils.getStandardDeviation(durations);
+        mean = Utils.getMean(durations);
+        return c;
+    }
+
+    public String getName() {
+        return "randomInterval";
+    }
+
+    public double getMean() {
+        return mean;
+    }
+
+    public double getStandardDeviation() {
+        return stdDev;
+    }
+
+}
@@ -0,0 +1,76 @@
+package org.aksw.limes.core.util;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.aksw.limes.core.io.cache.ACache;
+import org.aksw.limes.core.io.cache.MemoryCache;
+
+/**
+ * Generates points with uniformly distributed latitude and longitude. The
+ * coordinates are stored in the properties {@link #LATITUDE} and
+ * {@link #LONGITUDE}, e.g. for euclidean(x.lat|long,y.lat|long).
+ */
+public class RandomPointGenerator implements DataGenerator {
+
+    public static final String LATITUDE = "lat";
+    public static final String LONGITUDE = "long";
+
+    double minValue, maxValue;
+    double mean = 0d;
+    double stdDev = 0d;
+    Random random;
+
+    /**
+     * Constructor
+     *
+     * @param minValue
+     *         Minimal value of a coordinate
+     * @param maxValue
+     *         Maximal value of a coordinate
+     * @param seed
+     *         Seed of the random number generator
+     */
+    public RandomPointGenerator(double minValue, double maxValue, long seed) {
+        this.minValue = minValue;
+        this.maxValue = maxValue;
+        this.random = new Random(seed);
+    }
+
+    /**
+     * Generates points whose coordinates are in [minValue, maxValue]
+     *
+     * @param size
+     *         Size of the corpus that is to be generated
+     * @return Corpus
+     */
+    public ACache generateData(int size) {
+        ACache c = new MemoryCache();
+        List<Double> values = new ArrayList<Double>();
+        for (int i = 0; i < size; i++) {
+            double lat = minValue + random.nextDouble() * (maxValue - minValue);
+            double lon = minValue + random.nextDouble() * (maxValue - minValue);
+            values.add(lat);
+            values.add(lon);
+            c.addTriple("point" + i, LATITUDE, String.valueOf(lat));
+            c.addTriple("point" + i, LONGITUDE, String.valueOf(lon));
+        }
+        stdDev = Utils.getStandardDeviation(values);
+        mean = Utils.getMean(values);
+        return c;
+    }
+
+    public String getName() {
+        return "randomPoint";
+    }
+
+    public double getMean() {
+        return mean;
+    }
+
+    public double getStandardDeviation() {
+        return stdDev;
+    }
+
+}
@@ -0,0 +1,95 @@
+package org.aksw.limes.core.util;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.aksw.limes.core.io.cache.ACache;
+import org.aksw.limes.core.io.cache.MemoryCache;
+
+/**
+ * Generates convex polygons in WKT for the point set and the topological
+ * mappers. The polygons are stored in the property {@link #WKT}. Their
+ * centres are uniformly distributed over [-180, 180] x [-90, 90].
+ */
+public class RandomPolygonGenerator implements DataGenerator {
+
+    public static final String WKT = "asWKT";
+
+    int minPoints, maxPoints;
+    double maxRadius;
+    double mean = 0d;
+    double stdDev = 0d;
+    Random random;
+
+    /**
+     * Constructor
+     *
+     * @param minPoints
+     *         Minimal number of vertices of a polygon, at least 3
+     * @param maxPoints
+     *         Maximal number of vertices of a polygon
+     * @param maxRadius
+     *         Maximal distance in degrees between the centre and the
+     *         vertices of a polygon
+     * @param seed
+     *         Seed of the random number generator
+     */
+    public RandomPolygonGenerator(int minPoints, int maxPoints, double maxRadius, long seed) {
+        this.minPoints = Math.max(3, minPoints);
+        this.maxPoints = Math.max(this.minPoints, maxPoints);
+        this.maxRadius = maxRadius;
+        this.random = new Random(seed);
+    }
+
+    /**
+     * Generates polygons whose vertices lie on a circle around their centre
+     *
+     * @param size
+     *         Size of the corpus that is to be generated
+     * @return Corpus
+     */
+    public ACache generateData(int size) {
+        ACache c = new MemoryCache();
+        List<Double> sizes = new ArrayList<Double>();
+        for (int i = 0; i < size; i++) {
+            int points = minPoints + random.nextInt(maxPoints - minPoints + 1);
+            sizes.add((double) points);
+            c.addTriple("polygon" + i, WKT, generatePolygon(points));
+        }
+        stdDev = Utils.getStandardDeviation(sizes);
+        mean = Utils.getMean(sizes);
+        return c;
+    }
+
+    private String generatePolygon(int points) {
+        double radius = maxRadius * (0.1 + 0.9 * random.nextDouble());
+        double x = -180 + radius + random.nextDouble() * (360 - 2 * radius);
+        double y = -90 + radius + random.nextDouble() * (180 - 2 * radius);
+        StringBuilder wkt = new StringBuilder("POLYGON((");
+        String first = null;
+        for (int j = 0; j < points; j++) {
+            double angle = 2 * Math.PI * j / points;
+            String point = (x + radius * Math.cos(angle)) + " " + (y + radius * Math.sin(angle));
+            if (first == null) {
+                first = point;
+            }
+            wkt.append(point).append(", ");
+        }
+        return wkt.append(first).append("))").toString();
+    }
+
+    public String getName() {
+        return "randomPolygon";
+    }
+
+    //average number of vertices
+    public double getMean() {
+        return mean;
+    }
+
+    public double getStandardDeviation() {
+        return stdDev;
+    }
+
+}
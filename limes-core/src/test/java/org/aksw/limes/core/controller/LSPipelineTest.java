@@ -0,0 +1,69 @@
+package org.aksw.limes.core.controller;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+import java.util.List;
+
+import org.aksw.limes.core.execution.engine.ExecutionEngineFactory.ExecutionEngineType;
+import org.aksw.limes.core.execution.planning.planner.ExecutionPlannerFactory.ExecutionPlannerType;
+import org.aksw.limes.core.execution.rewriter.RewriterFactory.RewriterType;
+import org.aksw.limes.core.io.cache.ACache;
+import org.aksw.limes.core.io.cache.MemoryCache;
+import org.aksw.limes.core.io.ls.LinkSpecification;
+import org.aksw.limes.core.io.mapping.AMapping;
+import org.junit.Before;
+import org.junit.Test;
+
+public class LSPipelineTest {
+    public ACache source = new MemoryCache();
+    public ACache target = new MemoryCache();
+
+    @Before
+    public void setUp() {
+        source = new MemoryCache();
+        target = new MemoryCache();
+        String[] surnames = { "georgala", "sandra", "depp", "swift", "paok", "ngonga", "sherif", "dressler" };
+        String[] names = { "kleanthi", "lukas", "johny", "taylor,maria", "ole", "axel", "mohamed", "kevin" };
+        for (int i = 0; i < surnames.length; i++) {
+            source.addTriple("S" + i, "surname", surnames[i]);
+            source.addTriple("S" + i, "name", names[i]);
+            target.addTriple("T" + i, "surname", i % 2 == 0 ? surnames[i] : surnames[i] + "s");
+            target.addTriple("T" + i, "name", names[(i + 1) % names.length]);
+        }
+    }
+
+    private void compareBatch(ExecutionPlannerType plannerType, ExecutionEngineType engineType) {
+        List<LinkSpecification> specs = Arrays.asList(
+                new LinkSpecification("trigrams(x.surname,y.surname)", 0.8),
+                new LinkSpecification("OR(trigrams(x.surname,y.surname)|0.6,jaccard(x.name,y.name)|0.3)", 0.3),
+                new LinkSpecification("AND(trigrams(x.surname,y.surname)|0.5,exactmatch(x.surname,y.surname)|1.0)",
+                        0.5));
+        List<AMapping> batch = LSPipeline.executeBatch(source, target, specs, "?x", "?y", RewriterType.DEFAULT,
+                plannerType, engineType);
+        assertEquals(specs.size(), batch.size());
+        for (int i = 0; i < specs.size(); i++) {
+            AMapping expected = LSPipeline.execute(source, target, specs.get(i), "?x", "?y", RewriterType.DEFAULT,
+                    plannerType, engineType);
+            assertTrue(expected.size() > 0);
+            assertEquals(specs.get(i).getFullExpression(), expected.getMap(), batch.get(i).getMap());
+            assertEquals(expected.size(), batch.get(i).size());
+        }
+    }
+
+    @Test
+    public void testExecuteBatch() {
+        System.out.println("testExecuteBatch");
+        compareBatch(ExecutionPlannerType.DEFAULT, ExecutionEngineType.DEFAULT);
+        compareBatch(ExecutionPlannerType.HELIOS, ExecutionEngineType.PARALLEL);
+        compareBatch(ExecutionPlannerType.DYNAMIC, ExecutionEngineType.SIMPLE);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testExecuteBatchChunked() {
+        System.out.println("testExecuteBatchChunked");
+        LSPipeline.executeBatch(source, target, Arrays.asList(new LinkSpecification("trigrams(x.surname,y.surname)",
+                0.8)), "?x", "?y", RewriterType.DEFAULT, ExecutionPlannerType.DEFAULT, ExecutionEngineType.CHUNKED);
+    }
+}
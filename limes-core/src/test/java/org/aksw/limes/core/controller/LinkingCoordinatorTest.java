@@ -0,0 +1,159 @@
+package org.aksw.limes.core.controller;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.BufferedReader;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.aksw.limes.core.execution.engine.ExecutionEngineFactory.ExecutionEngineType;
+import org.aksw.limes.core.execution.planning.planner.ExecutionPlannerFactory.ExecutionPlannerType;
+import org.aksw.limes.core.execution.rewriter.RewriterFactory.RewriterType;
+import org.aksw.limes.core.io.cache.ACache;
+import org.aksw.limes.core.io.cache.MemoryCache;
+import org.aksw.limes.core.io.ls.LinkSpecification;
+import org.aksw.limes.core.io.mapping.AMapping;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class LinkingCoordinatorTest {
+    public ACache source = new MemoryCache();
+    public ACache target = new MemoryCache();
+    private List<LinkingWorker> workers = new ArrayList<>();
+    private List<Process> processes = new ArrayList<>();
+
+    @Before
+    public void setUp() {
+        source = new MemoryCache();
+        target = new MemoryCache();
+        String[] surnames = { "georgala", "sandra", "depp", "swift", "paok", "ngonga", "sherif", "dressler" };
+        String[] names = { "kleanthi", "lukas", "johny", "taylor,maria", "ole", "axel", "mohamed", "kevin" };
+        for (int i = 0; i < surnames.length; i++) {
+            source.addTriple("S" + i, "surname", surnames[i]);
+            source.addTriple("S" + i, "name", names[i]);
+            source.addTriple("S" + i, "age", "" + (20 + i % 3));
+            target.addTriple("T" + i, "surname", i % 2 == 0 ? surnames[i] : surnames[i] + "s");
+            target.addTriple("T" + i, "name", names[(i + 1) % names.length]);
+        }
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        for (LinkingWorker worker : workers) {
+            worker.close();
+        }
+        for (Process process : processes) {
+            process.destroy();
+        }
+    }
+
+    private List<InetSocketAddress> startWorkers(int n) throws IOException {
+        List<InetSocketAddress> addresses = new ArrayList<>();
+        for (int i = 0; i < n; i++) {
+            LinkingWorker worker = new LinkingWorker(0);
+            worker.start();
+            workers.add(worker);
+            addresses.add(new InetSocketAddress("localhost", worker.getPort()));
+        }
+        return addresses;
+    }
+
+    private void compareWithLocalExecution(LinkingCoordinator coordinator, LinkSpecification ls) {
+        AMapping expected = LSPipeline.execute(source, target, ls, "?x", "?y", RewriterType.DEFAULT,
+                ExecutionPlannerType.DEFAULT, ExecutionEngineType.DEFAULT);
+        AMapping m = coordinator.execute(source, target, ls, "?x", "?y", RewriterType.DEFAULT,
+                ExecutionPlannerType.DEFAULT, ExecutionEngineType.DEFAULT);
+        System.out.println(m);
+        assertTrue(expected.size() > 0);
+        assertTrue(expected.getMap().equals(m.getMap()));
+    }
+
+    @Test
+    public void testWorkers() throws IOException {
+        System.out.println("testWorkers");
+        LinkingCoordinator coordinator = new LinkingCoordinator(startWorkers(3));
+        compareWithLocalExecution(coordinator, new LinkSpecification(
+                "OR(trigrams(x.surname,y.surname)|0.6,jaccard(x.name,y.name)|0.3)", 0.3));
+
+        coordinator.setBlockingProperty("age");
+        compareWithLocalExecution(coordinator, new LinkSpecification(
+                "AND(qgrams(x.surname,y.surname)|0.4,exactmatch(x.surname,y.surname)|1.0)", 0.4));
+    }
+
+    @Test
+    public void testRejectedTask() throws IOException {
+        System.out.println("testRejectedTask");
+        LinkingWorker worker = new LinkingWorker(0);
+        worker.start();
+        workers.add(worker);
+        // workers are only reachable from this machine by default
+        assertTrue(worker.getAddress().isLoopbackAddress());
+        try (Socket socket = new Socket(worker.getAddress(), worker.getPort());
+                DataOutputStream out = new DataOutputStream(socket.getOutputStream());
+                DataInputStream in = new DataInputStream(socket.getInputStream())) {
+            out.writeInt(LinkingWorker.MAGIC);
+            out.writeInt(LinkingWorker.PROTOCOL_VERSION + 1);
+            out.flush();
+            assertEquals(LinkingWorker.FAILED, in.readByte());
+            assertTrue(in.readUTF().contains("version"));
+        }
+    }
+
+    @Test
+    public void testParseWorkers() {
+        System.out.println("testParseWorkers");
+        List<InetSocketAddress> addresses = LinkingCoordinator.parseWorkers("localhost:4000, 10.0.0.2:4001");
+        assertTrue(addresses.size() == 2);
+        assertTrue(addresses.get(0).getPort() == 4000);
+        assertTrue(addresses.get(1).getHostString().equals("10.0.0.2"));
+        try {
+            LinkingCoordinator.parseWorkers("localhost");
+            fail("Addresses without port must be rejected");
+        } catch (IllegalArgumentException e) {
+        }
+    }
+
+    @Test
+    public void testWorkerProcesses() throws IOException {
+        System.out.println("testWorkerProcesses");
+        String java = System.getProperty("java.home") + File.separator + "bin" + File.separator + "java";
+        List<InetSocketAddress> addresses = new ArrayList<>();
+        for (int i = 0; i < 2; i++) {
+            Process process = new ProcessBuilder(java, "-cp", System.getProperty("java.class.path"),
+                    LinkingWorker.class.getName(), "0").redirectErrorStream(true).start();
+            processes.add(process);
+            BufferedReader out = new BufferedReader(
+                    new InputStreamReader(process.getInputStream(), StandardCharsets.UTF_8));
+            String prefix = "LIMES worker listening on port ";
+            String line;
+            while ((line = out.readLine()) != null && !line.startsWith(prefix)) {
+            }
+            assertTrue("Worker process did not start", line != null);
+            // keep reading the log of the worker, so that it does not block
+            Thread drain = new Thread(() -> {
+                try {
+                    while (out.readLine() != null) {
+                    }
+                } catch (IOException e) {
+                }
+            });
+            drain.setDaemon(true);
+            drain.start();
+            addresses.add(new InetSocketAddress("localhost", Integer.parseInt(line.substring(prefix.length()))));
+        }
+        compareWithLocalExecution(new LinkingCoordinator(addresses),
+                new LinkSpecification("trigrams(x.surname,y.surname)", 0.6));
+    }
+
+}
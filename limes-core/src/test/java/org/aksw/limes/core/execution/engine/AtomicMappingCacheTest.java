@@ -0,0 +1,159 @@
+package org.aksw.limes.core.execution.engine;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+
+import org.aksw.limes.core.io.cache.ACache;
+import org.aksw.limes.core.io.cache.MemoryCache;
+import org.aksw.limes.core.io.mapping.AMapping;
+import org.aksw.limes.core.io.mapping.MappingFactory;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class AtomicMappingCacheTest {
+
+    private static final String MEASURE = "trigram(x.name,y.name)";
+
+    private File folder;
+    private ACache source;
+    private ACache target;
+    private int computed;
+
+    @Before
+    public void setUp() throws IOException {
+        folder = Files.createTempDirectory("limes").toFile();
+        source = new MemoryCache();
+        target = new MemoryCache();
+        for (int i = 0; i < 10; i++) {
+            source.addTriple("S" + i, "name", "name" + i);
+            target.addTriple("T" + i, "name", "name" + i);
+        }
+        computed = 0;
+    }
+
+    @After
+    public void tearDown() {
+        for (File f : folder.listFiles()) {
+            f.delete();
+        }
+        folder.delete();
+    }
+
+    /**
+     * Returns the links (Si, Tj) with similarity 1 / (1 + |i - j|) of at
+     * least threshold
+     */
+    private AMapping compute(double threshold) {
+        computed++;
+        AMapping m = MappingFactory.createDefaultMapping();
+        for (int i = 0; i < 10; i++) {
+            for (int j = 0; j < 10; j++) {
+                double sim = 1d / (1 + Math.abs(i - j));
+                if (sim >= threshold) {
+                    m.add("S" + i, "T" + j, sim);
+                }
+            }
+        }
+        return m;
+    }
+
+    private AMapping get(AtomicMappingCache cache, String measure, double threshold) {
+        return cache.getMapping(source, target, "?x", "?y", measure, threshold, this::compute);
+    }
+
+    @Test
+    public void testThresholdReuse() {
+        AtomicMappingCache cache = new AtomicMappingCache(AtomicMappingCache.DEFAULT_CAPACITY);
+        assertEquals(compute(0.3).getMap(), get(cache, MEASURE, 0.3).getMap());
+        assertEquals(compute(0.5).getMap(), get(cache, MEASURE, 0.5).getMap());
+        assertEquals(compute(0.3).getMap(), get(cache, "trigram(x.name, y.name)", 0.3).getMap());
+        assertEquals(2, cache.getHits());
+        assertEquals(1, cache.getMisses());
+        // a lower threshold needs a new mapping
+        assertEquals(compute(0.2).getMap(), get(cache, MEASURE, 0.2).getMap());
+        assertEquals(2, cache.getMisses());
+        // other measures and other caches are not mixed up
+        get(cache, "jaccard(x.name,y.name)", 0.5);
+        target.addTriple("T10", "name", "name10");
+        get(cache, MEASURE, 0.5);
+        assertEquals(4, cache.getMisses());
+    }
+
+    @Test
+    public void testChangedCaches() {
+        AtomicMappingCache cache = new AtomicMappingCache(AtomicMappingCache.DEFAULT_CAPACITY);
+        source.addTriple("S10", "name", "Aa");
+        get(cache, MEASURE, 0.5);
+        // "Aa" and "BB" have the same hash code
+        ACache other = new MemoryCache();
+        for (int i = 0; i < 10; i++) {
+            other.addTriple("S" + i, "name", "name" + i);
+        }
+        other.addTriple("S10", "name", "BB");
+        cache.getMapping(other, target, "?x", "?y", MEASURE, 0.5, this::compute);
+        assertEquals(0, cache.getHits());
+        // a new value of an existing instance keeps the size of the cache
+        source.addTriple("S0", "name", "name10");
+        get(cache, MEASURE, 0.5);
+        assertEquals(0, cache.getHits());
+        assertEquals(3, cache.getMisses());
+        get(cache, MEASURE, 0.5);
+        assertEquals(1, cache.getHits());
+    }
+
+    @Test
+    public void testResultsCanBeChanged() {
+        AtomicMappingCache cache = new AtomicMappingCache(AtomicMappingCache.DEFAULT_CAPACITY);
+        get(cache, MEASURE, 0.5).add("S0", "T9", 1d);
+        get(cache, MEASURE, 0.5).add("S0", "T8", 1d);
+        assertEquals(compute(0.5).getMap(), get(cache, MEASURE, 0.5).getMap());
+    }
+
+    @Test
+    public void testEviction() {
+        AtomicMappingCache cache = new AtomicMappingCache(0);
+        get(cache, MEASURE, 0.5);
+        get(cache, MEASURE, 0.5);
+        assertEquals(0, cache.getHits());
+        assertEquals(0, cache.getFootprint());
+    }
+
+    @Test
+    public void testPersistence() {
+        AtomicMappingCache cache = new AtomicMappingCache(AtomicMappingCache.DEFAULT_CAPACITY, folder);
+        get(cache, MEASURE, 0.3);
+        assertEquals(1, folder.listFiles().length);
+        int before = computed;
+        AtomicMappingCache other = new AtomicMappingCache(AtomicMappingCache.DEFAULT_CAPACITY, folder);
+        AMapping m = get(other, MEASURE, 0.5);
+        assertEquals(before, computed);
+        assertEquals(1, other.getHits());
+        assertEquals(compute(0.5).getMap(), m.getMap());
+        assertTrue(other.getFootprint() > 0);
+    }
+
+    @Test
+    public void testOtherVersion() throws IOException {
+        AtomicMappingCache cache = new AtomicMappingCache(AtomicMappingCache.DEFAULT_CAPACITY, folder);
+        get(cache, MEASURE, 0.3);
+        File file = folder.listFiles()[0];
+        try (DataOutputStream out = new DataOutputStream(new FileOutputStream(file))) {
+            out.writeInt(AtomicMappingCache.MAGIC);
+            out.writeInt(AtomicMappingCache.VERSION + 1);
+        }
+        int before = computed;
+        AtomicMappingCache other = new AtomicMappingCache(AtomicMappingCache.DEFAULT_CAPACITY, folder);
+        AMapping m = get(other, MEASURE, 0.5);
+        // files of another version are computed again
+        assertEquals(before + 1, computed);
+        assertEquals(0, other.getHits());
+        assertEquals(compute(0.5).getMap(), m.getMap());
+    }
+}
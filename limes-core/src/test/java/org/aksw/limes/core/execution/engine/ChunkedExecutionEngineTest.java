@@ -0,0 +1,168 @@
+package org.aksw.limes.core.execution.engine;
+
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.aksw.limes.core.execution.engine.ExecutionEngineFactory.ExecutionEngineType;
+import org.aksw.limes.core.execution.planning.plan.NestedPlan;
+import org.aksw.limes.core.execution.planning.planner.CanonicalPlanner;
+import org.aksw.limes.core.execution.planning.planner.DynamicPlanner;
+import org.aksw.limes.core.execution.planning.planner.HeliosPlanner;
+import org.aksw.limes.core.execution.planning.planner.IPlanner;
+import org.aksw.limes.core.io.cache.ACache;
+import org.aksw.limes.core.io.cache.MemoryCache;
+import org.aksw.limes.core.io.ls.LinkSpecification;
+import org.aksw.limes.core.io.mapping.AMapping;
+import org.aksw.limes.core.io.mapping.ILinkSink;
+import org.aksw.limes.core.io.mapping.MappingLinkSink;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class ChunkedExecutionEngineTest {
+    public ACache source = new MemoryCache();
+    public ACache target = new MemoryCache();
+
+    @Before
+    public void setUp() {
+        source = new MemoryCache();
+        target = new MemoryCache();
+        // create source cache
+        source.addTriple("S1", "surname", "georgala");
+        source.addTriple("S1", "name", "kleanthi");
+        source.addTriple("S1", "age", "26");
+
+        source.addTriple("S2", "surname", "sandra");
+        source.addTriple("S2", "name", "lukas");
+        source.addTriple("S2", "age", "13");
+
+        source.addTriple("S3", "surname", "depp");
+        source.addTriple("S3", "name", "johny");
+        source.addTriple("S3", "age", "52");
+
+        source.addTriple("S4", "surname", "swift");
+        source.addTriple("S4", "name", "taylor,maria");
+        source.addTriple("S4", "age", "25");
+
+        source.addTriple("S5", "surname", "paok");
+        source.addTriple("S5", "name", "ole");
+        source.addTriple("S5", "age", "56");
+
+        target.addTriple("T1", "surname", "georg");
+        target.addTriple("T1", "name", "klea");
+        target.addTriple("T1", "age", "26");
+
+        target.addTriple("T2", "surname", "sandra");
+        target.addTriple("T2", "name", "lukas");
+        target.addTriple("T2", "age", "13");
+
+        target.addTriple("T3", "surname", "derp");
+        target.addTriple("T3", "name", "johnny");
+        target.addTriple("T3", "age", "52");
+
+        target.addTriple("T4", "surname", "swift");
+        target.addTriple("T4", "name", "taylor");
+        target.addTriple("T4", "age", "25");
+
+        target.addTriple("T5", "surname", "paok");
+        target.addTriple("T5", "name", "oleole");
+        target.addTriple("T5", "age", "56");
+
+    }
+
+    @After
+    public void tearDown() {
+        source = null;
+        target = null;
+    }
+
+    private void compareWithSimpleEngine(LinkSpecification ls, IPlanner p1, IPlanner p2) {
+        SimpleExecutionEngine simple = new SimpleExecutionEngine(source, target, "?x", "?y");
+        AMapping expected = simple.execute(ls, p1);
+
+        ChunkedExecutionEngine chunked = new ChunkedExecutionEngine(source, target, "?x", "?y");
+        chunked.setChunkSize(2);
+        MappingLinkSink sink = new MappingLinkSink();
+        chunked.execute(ls, p2, sink);
+        System.out.println(sink.getMapping());
+        assertTrue(expected.getMap().equals(sink.getMapping().getMap()));
+
+        chunked.setBlockingProperty("age");
+        chunked.setChunkEngineType(ExecutionEngineType.PARALLEL);
+        AMapping m = chunked.execute(ls, p2);
+        assertTrue(expected.getMap().equals(m.getMap()));
+    }
+
+    @Test
+    public void testUnion() {
+        System.out.println("testUnion");
+        LinkSpecification ls = new LinkSpecification(
+                "OR(qgrams(x.surname,y.surname)|0.4,trigrams(x.name,y.name)|0.4)", 0.4);
+        compareWithSimpleEngine(ls, new CanonicalPlanner(), new CanonicalPlanner());
+    }
+
+    @Test
+    public void testNestedSpecification() {
+        System.out.println("testNestedSpecification");
+        LinkSpecification ls = new LinkSpecification(
+                "OR(AND(jaccard(x.surname,y.surname)|0.3,trigrams(x.name,y.name)|0.5)|0.4,"
+                        + "MINUS(qgrams(x.surname,y.surname)|0.4,levenshtein(x.name,y.name)|0.6)|0.4)",
+                0.3);
+        compareWithSimpleEngine(ls, new CanonicalPlanner(), new CanonicalPlanner());
+        compareWithSimpleEngine(ls, new HeliosPlanner(source, target), new HeliosPlanner(source, target));
+    }
+
+    @Test
+    public void testDynamicPlanner() {
+        System.out.println("testDynamicPlanner");
+        LinkSpecification ls = new LinkSpecification(
+                "AND(qgrams(x.surname,y.surname)|0.2,trigrams(x.name,y.name)|0.8)", 0.6);
+        compareWithSimpleEngine(ls, new DynamicPlanner(source, target), new DynamicPlanner(source, target));
+    }
+
+    @Test
+    public void testChunks() {
+        System.out.println("testChunks");
+        List<Integer> sizes = new ArrayList<>();
+        ChunkedExecutionEngine chunked = new ChunkedExecutionEngine(source, target, "?x", "?y") {
+            @Override
+            protected void executeChunk(ACache chunk, LinkSpecification spec, NestedPlan plan, ILinkSink sink) {
+                sizes.add(chunk.size());
+                super.executeChunk(chunk, spec, plan, sink);
+            }
+        };
+        chunked.setChunkSize(2);
+        LinkSpecification ls = new LinkSpecification("exactmatch(x.surname,y.surname)", 1.0);
+        AMapping m = chunked.execute(ls, new CanonicalPlanner());
+        assertTrue(sizes.size() == 3);
+        assertTrue(sizes.get(0) == 2 && sizes.get(1) == 2 && sizes.get(2) == 1);
+        assertTrue(m.size() == 3);
+
+        // all source instances have the same blocking key
+        sizes.clear();
+        source.addTriple("S6", "surname", "swift");
+        for (String uri : source.getAllUris()) {
+            source.getInstance(uri).addProperty("type", "person");
+        }
+        chunked.setBlockingProperty("type");
+        m = chunked.execute(ls, new CanonicalPlanner());
+        assertTrue(sizes.size() == 1 && sizes.get(0) == 6);
+        assertTrue(m.size() == 4);
+    }
+
+    @Test
+    public void testProfile() {
+        System.out.println("testProfile");
+        ChunkedExecutionEngine chunked = new ChunkedExecutionEngine(source, target, "?x", "?y");
+        chunked.setChunkSize(3);
+        chunked.setProfiling(true);
+        LinkSpecification ls = new LinkSpecification("exactmatch(x.surname,y.surname)", 1.0);
+        chunked.execute(ls, new CanonicalPlanner(), new MappingLinkSink());
+        ExecutionProfile profile = chunked.getProfile();
+        assertTrue(profile.getChildren().size() == 2);
+        assertTrue(profile.getOutputSize() == 3);
+    }
+
+}
@@ -31,5 +31,19 @@ public class ExecutionEngineFactoryTest {
         assertTrue(engine instanceof SimpleExecutionEngine);
     }
 
+    @Test
+    public void testEqualParallel() {
+        ExecutionEngine engine = ExecutionEngineFactory.getEngine(ExecutionEngineType.PARALLEL, null, null, null, null);
+        assertTrue(engine instanceof ParallelExecutionEngine);
+        assertTrue(ExecutionEngineFactory.getExecutionEngineType("parallel") == ExecutionEngineType.PARALLEL);
+    }
+
+    @Test
+    public void testEqualChunked() {
+        ExecutionEngine engine = ExecutionEngineFactory.getEngine(ExecutionEngineType.CHUNKED, null, null, null, null);
+        assertTrue(engine instanceof ChunkedExecutionEngine);
+        assertTrue(ExecutionEngineFactory.getExecutionEngineType("chunked") == ExecutionEngineType.CHUNKED);
+    }
+
 
 }
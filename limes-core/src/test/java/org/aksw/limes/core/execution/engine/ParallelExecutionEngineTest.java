@@ -0,0 +1,142 @@
+package org.aksw.limes.core.execution.engine;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.concurrent.ForkJoinPool;
+
+import org.aksw.limes.core.execution.planning.planner.CanonicalPlanner;
+import org.aksw.limes.core.execution.planning.planner.DynamicPlanner;
+import org.aksw.limes.core.execution.planning.planner.HeliosPlanner;
+import org.aksw.limes.core.execution.planning.planner.IPlanner;
+import org.aksw.limes.core.io.cache.ACache;
+import org.aksw.limes.core.io.cache.MemoryCache;
+import org.aksw.limes.core.io.ls.LinkSpecification;
+import org.aksw.limes.core.io.mapping.AMapping;
+import org.aksw.limes.core.io.mapping.MappingLinkSink;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class ParallelExecutionEngineTest {
+    public ACache source = new MemoryCache();
+    public ACache target = new MemoryCache();
+
+    @Before
+    public void setUp() {
+        source = new MemoryCache();
+        target = new MemoryCache();
+        // create source cache
+        source.addTriple("S1", "surname", "georgala");
+        source.addTriple("S1", "name", "kleanthi");
+        source.addTriple("S1", "age", "26");
+
+        source.addTriple("S2", "surname", "sandra");
+        source.addTriple("S2", "name", "lukas");
+        source.addTriple("S2", "age", "13");
+
+        source.addTriple("S3", "surname", "depp");
+        source.addTriple("S3", "name", "johny");
+        source.addTriple("S3", "age", "52");
+
+        source.addTriple("S4", "surname", "swift");
+        source.addTriple("S4", "name", "taylor,maria");
+        source.addTriple("S4", "age", "25");
+
+        source.addTriple("S5", "surname", "paok");
+        source.addTriple("S5", "name", "ole");
+        source.addTriple("S5", "age", "56");
+
+        target.addTriple("T1", "surname", "georg");
+        target.addTriple("T1", "name", "klea");
+        target.addTriple("T1", "age", "26");
+
+        target.addTriple("T2", "surname", "sandra");
+        target.addTriple("T2", "name", "lukas");
+        target.addTriple("T2", "age", "13");
+
+        target.addTriple("T3", "surname", "derp");
+        target.addTriple("T3", "name", "johnny");
+        target.addTriple("T3", "age", "52");
+
+        target.addTriple("T4", "surname", "swift");
+        target.addTriple("T4", "name", "taylor");
+        target.addTriple("T4", "age", "25");
+
+        target.addTriple("T5", "surname", "paok");
+        target.addTriple("T5", "name", "oleole");
+        target.addTriple("T5", "age", "56");
+
+    }
+
+    @After
+    public void tearDown() {
+        source = null;
+        target = null;
+    }
+
+    private void compareWithSimpleEngine(LinkSpecification ls, IPlanner p1, IPlanner p2) {
+        SimpleExecutionEngine simple = new SimpleExecutionEngine(source, target, "?x", "?y");
+        AMapping expected = simple.execute(ls, p1);
+
+        try (ParallelExecutionEngine parallel = new ParallelExecutionEngine(source, target, "?x", "?y", 4)) {
+            AMapping m = parallel.execute(ls, p2);
+            System.out.println(m);
+
+            assertTrue(expected.equals(m));
+
+            MappingLinkSink sink = new MappingLinkSink();
+            parallel.execute(ls, p2, sink);
+            assertTrue(expected.getMap().equals(sink.getMapping().getMap()));
+        }
+    }
+
+    @Test
+    public void testClose() {
+        ParallelExecutionEngine owned = new ParallelExecutionEngine(source, target, "?x", "?y", 2);
+        owned.close();
+        assertTrue(owned.getPool().isShutdown());
+
+        ForkJoinPool pool = new ForkJoinPool(2);
+        ParallelExecutionEngine shared = new ParallelExecutionEngine(source, target, "?x", "?y", pool);
+        shared.close();
+        assertFalse(pool.isShutdown());
+        pool.shutdown();
+    }
+
+    @Test
+    public void testUnion() {
+        System.out.println("testUnion");
+        LinkSpecification ls = new LinkSpecification(
+                "OR(qgrams(x.surname,y.surname)|0.4,trigrams(x.name,y.name)|0.4)", 0.4);
+        compareWithSimpleEngine(ls, new CanonicalPlanner(), new CanonicalPlanner());
+    }
+
+    @Test
+    public void testNestedSpecification() {
+        System.out.println("testNestedSpecification");
+        LinkSpecification ls = new LinkSpecification(
+                "OR(AND(jaccard(x.surname,y.surname)|0.3,trigrams(x.name,y.name)|0.5)|0.4,"
+                        + "MINUS(qgrams(x.surname,y.surname)|0.4,levenshtein(x.name,y.name)|0.6)|0.4)",
+                0.3);
+        compareWithSimpleEngine(ls, new CanonicalPlanner(), new CanonicalPlanner());
+        compareWithSimpleEngine(ls, new HeliosPlanner(source, target), new HeliosPlanner(source, target));
+    }
+
+    @Test
+    public void testXor() {
+        System.out.println("testXor");
+        LinkSpecification ls = new LinkSpecification(
+                "XOR(qgrams(x.surname,y.surname)|0.4,trigrams(x.name,y.name)|0.4)", 0.4);
+        compareWithSimpleEngine(ls, new CanonicalPlanner(), new CanonicalPlanner());
+    }
+
+    @Test
+    public void testDynamicPlanner() {
+        System.out.println("testDynamicPlanner");
+        LinkSpecification ls = new LinkSpecification(
+                "AND(qgrams(x.surname,y.surname)|0.2,trigrams(x.name,y.name)|0.8)", 0.6);
+        compareWithSimpleEngine(ls, new DynamicPlanner(source, target), new DynamicPlanner(source, target));
+    }
+
+}
@@ -2,6 +2,11 @@ package org.aksw.limes.core.execution.engine;
 
 import static org.junit.Assert.assertTrue;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+
 import org.aksw.limes.core.execution.engine.filter.LinearFilter;
 import org.aksw.limes.core.execution.planning.plan.Instruction;
 import org.aksw.limes.core.execution.planning.plan.Instruction.Command;
@@ -9,12 +14,14 @@ import org.aksw.limes.core.execution.planning.plan.NestedPlan;
 import org.aksw.limes.core.execution.planning.plan.Plan;
 import org.aksw.limes.core.execution.planning.planner.CanonicalPlanner;
 import org.aksw.limes.core.execution.planning.planner.DynamicPlanner;
+import org.aksw.limes.core.execution.planning.planner.HeliosPlanner;
 import org.aksw.limes.core.execution.planning.planner.IPlanner;
 import org.aksw.limes.core.io.cache.ACache;
 import org.aksw.limes.core.io.cache.MemoryCache;
 import org.aksw.limes.core.io.ls.LinkSpecification;
 import org.aksw.limes.core.io.mapping.AMapping;
 import org.aksw.limes.core.io.mapping.MappingFactory;
+import org.aksw.limes.core.io.mapping.MappingLinkSink;
 import org.junit.After;
 import org.junit.Before;
 import org.junit.Test;
@@ -698,4 +705,168 @@ public class SimpleExecutionEngineTest {
         System.out.println("---------------------------------");
 
     }
+
+    @Test
+    public void testExecuteToSink() {
+        System.out.println("testExecuteToSink");
+        String[] expressions = { "OR(qgrams(x.surname,y.surname)|0.4,trigrams(x.name,y.name)|0.4)",
+                "AND(qgrams(x.surname,y.surname)|0.2,trigrams(x.name,y.name)|0.5)",
+                "MINUS(qgrams(x.surname,y.surname)|0.4,levenshtein(x.name,y.name)|0.6)",
+                "XOR(qgrams(x.surname,y.surname)|0.4,trigrams(x.name,y.name)|0.4)",
+                "OR(AND(jaccard(x.surname,y.surname)|0.3,trigrams(x.name,y.name)|0.5)|0.4,"
+                        + "MINUS(qgrams(x.surname,y.surname)|0.4,levenshtein(x.name,y.name)|0.6)|0.4)",
+                "trigrams(x.name,y.name)" };
+        for (String expression : expressions) {
+            for (double threshold : new double[] { 0.3, 0.7 }) {
+                LinkSpecification ls = new LinkSpecification(expression, threshold);
+                IPlanner[] planners = { new CanonicalPlanner(), new HeliosPlanner(source, target),
+                        new DynamicPlanner(source, target) };
+                for (IPlanner planner : planners) {
+                    SimpleExecutionEngine ee = new SimpleExecutionEngine(source, target, "?x", "?y");
+                    AMapping expected = ee.execute(ls, planner);
+                    MappingLinkSink sink = new MappingLinkSink();
+                    ee = new SimpleExecutionEngine(source, target, "?x", "?y");
+                    ee.execute(ls, planner, sink);
+                    assertTrue(expected.getMap().equals(sink.getMapping().getMap()));
+                }
+            }
+        }
+    }
+
+    /**
+     * Engine whose RUN instructions return fixed mappings, keyed by their
+     * measure expression
+     */
+    private static class FixedRunEngine extends SimpleExecutionEngine {
+        FixedRunEngine(ACache source, ACache target) {
+            super(source, target, "?x", "?y");
+        }
+
+        @Override
+        public AMapping executeRun(Instruction inst) {
+            AMapping m = MappingFactory.createDefaultMapping();
+            int n = inst.getMeasureExpression().length();
+            for (int i = 0; i < n; i++) {
+                m.add("S" + i, "T" + (i % 3), 1d);
+            }
+            return m;
+        }
+    }
+
+    private Plan deepPlan() {
+        Plan plan = new Plan();
+        plan.addInstruction(new Instruction(Command.RUN, "aaaa", "0.5", -1, -1, 0));
+        plan.addInstruction(new Instruction(Command.RUN, "aaaaaa", "0.5", -1, -1, 1));
+        plan.addInstruction(new Instruction(Command.UNION, "", "0.5", 0, 1, 2));
+        plan.addInstruction(new Instruction(Command.RUN, "aaaaaaaa", "0.5", -1, -1, 3));
+        plan.addInstruction(new Instruction(Command.INTERSECTION, "", "0.5", 2, 3, 4));
+        plan.addInstruction(new Instruction(Command.RUN, "aaa", "0.5", -1, -1, 5));
+        plan.addInstruction(new Instruction(Command.DIFF, "", "0.5", 4, 5, 6));
+        return plan;
+    }
+
+    @Test
+    public void testReleaseDeadMappings() {
+        Plan plan = deepPlan();
+        assertTrue(SimpleExecutionEngine.getReleases(plan.getInstructionList()).get(2).contains(0));
+        assertTrue(SimpleExecutionEngine.getReleases(plan.getInstructionList()).get(2).contains(1));
+        assertTrue(!SimpleExecutionEngine.getReleases(plan.getInstructionList()).get(6).contains(6));
+
+        SimpleExecutionEngine ee = new FixedRunEngine(source, target);
+        AMapping result = ee.executeInstructions(plan);
+        assertTrue(ee.buffer.size() == 7);
+        for (int i = 0; i < 6; i++) {
+            assertTrue(ee.buffer.get(i).getMap().isEmpty());
+        }
+        assertTrue(ee.buffer.get(6) == result);
+        // S3 is in the intersection, but not in the run with 3 links
+        assertTrue(result.contains("S3", "T0"));
+        assertTrue(!result.contains("S0", "T0"));
+        assertTrue(result.size() == 3);
+    }
+
+    @Test
+    public void testMemoryBudget() {
+        AMapping expected = new FixedRunEngine(source, target).executeInstructions(deepPlan());
+        SimpleExecutionEngine ee = new FixedRunEngine(source, target);
+        ee.setMemoryBudget(2);
+        AMapping result = ee.executeInstructions(deepPlan());
+        assertTrue(expected.getMap().equals(result.getMap()));
+    }
+
+    @Test
+    public void testProfile() {
+        NestedPlan left = new NestedPlan();
+        left.setInstructionList(deepPlan().getInstructionList());
+        NestedPlan right = new NestedPlan();
+        right.addInstruction(new Instruction(Command.RUN, "aa", "0.5", -1, -1, 0));
+        NestedPlan plan = new NestedPlan();
+        plan.addSubplan(left);
+        plan.addSubplan(right);
+        plan.setOperator(Command.UNION);
+        plan.setFilteringInstruction(new Instruction(Command.FILTER, null, "0.5", -1, -1, 0));
+        plan.setSelectivity(0.25);
+
+        SimpleExecutionEngine ee = new FixedRunEngine(source, target);
+        ee.setProfiling(true);
+        AMapping result = ee.executeStatic(plan);
+        ExecutionProfile profile = ee.getProfile();
+        assertTrue(profile.getType().equals(ExecutionProfile.PLAN));
+        assertTrue(profile.getOutputSize() == result.size());
+        assertTrue(profile.getInputSize() == 5);
+        assertTrue(profile.getEstimatedSelectivity() == 0.25);
+        // left plan, right plan, operator and filter
+        assertTrue(profile.getChildren().size() == 4);
+        ExecutionProfile deep = profile.getChildren().get(0);
+        assertTrue(deep.getChildren().size() == 7);
+        assertTrue(deep.getOutputSize() == 3);
+        ExecutionProfile run = deep.getChildren().get(0);
+        assertTrue(run.getOutputSize() == 4);
+        assertTrue(run.getComparisons() == -1);
+        ExecutionProfile union = deep.getChildren().get(2);
+        assertTrue(union.getInputSize() == 10);
+        assertTrue(union.getComparisons() == 10);
+        assertTrue(union.getSelectivity() == 6d / (source.size() * target.size()));
+        assertTrue(profile.getChildren().get(2).getType().equals(ExecutionProfile.OPERATOR));
+        assertTrue(profile.toJson().contains("\"label\": \"RUN aaaa >= 0.5\""));
+        assertTrue(profile.toText().contains("  ATOMIC  ("));
+
+        ee.setProfiling(false);
+        ee.executeStatic(plan);
+        assertTrue(ee.getProfile() == profile);
+    }
+
+    @Test
+    public void testSemiJoin() {
+        Instruction exact = new Instruction(Command.RUN, "exactmatch(x.surname, y.surname)", "1.0", -1, -1, 0);
+        Instruction trigram = new Instruction(Command.RUN, "trigram(x.name, y.name)", "0.3", -1, -1, 0);
+        AMapping[] results = new AMapping[2];
+        Command[] operators = { Command.INTERSECTION, Command.SEMIJOIN };
+        List<Set<String>> seen = new ArrayList<>();
+        for (int i = 0; i < 2; i++) {
+            NestedPlan left = new NestedPlan();
+            left.addInstruction(exact);
+            NestedPlan right = new NestedPlan();
+            right.addInstruction(trigram);
+            NestedPlan plan = new NestedPlan();
+            plan.addSubplan(left);
+            plan.addSubplan(right);
+            plan.setOperator(operators[i]);
+            plan.setFilteringInstruction(new Instruction(Command.FILTER, null, "0.3", -1, -1, 0));
+            SimpleExecutionEngine ee = new SimpleExecutionEngine(source, target, "?x", "?y") {
+                @Override
+                public AMapping executeRun(Instruction inst) {
+                    seen.add(sourceCandidates);
+                    return super.executeRun(inst);
+                }
+            };
+            results[i] = ee.executeStatic(plan);
+        }
+        assertTrue(results[0].getMap().equals(results[1].getMap()));
+        // the trigram mapper of the semi-join only sees the sources with an
+        // equal surname
+        assertTrue(seen.get(2) == null);
+        assertTrue(seen.get(3).size() == 3);
+        assertTrue(seen.get(3).containsAll(Arrays.asList("S2", "S4", "S5")));
+    }
 }
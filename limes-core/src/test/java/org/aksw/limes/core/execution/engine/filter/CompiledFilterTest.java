@@ -0,0 +1,152 @@
+package org.aksw.limes.core.execution.engine.filter;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.aksw.limes.core.io.cache.ACache;
+import org.aksw.limes.core.io.cache.Instance;
+import org.aksw.limes.core.io.cache.MemoryCache;
+import org.aksw.limes.core.io.mapping.AMapping;
+import org.aksw.limes.core.io.mapping.MappingFactory;
+import org.aksw.limes.core.measures.measure.MeasureProcessor;
+import org.aksw.limes.core.measures.measure.string.EditDistance;
+import org.junit.Before;
+import org.junit.Test;
+
+public class CompiledFilterTest {
+
+    private ACache source;
+    private ACache target;
+    private AMapping all;
+
+    @Before
+    public void setUp() {
+        source = new MemoryCache();
+        target = new MemoryCache();
+        String[] names = { "kleanthi", "lukas", "johny", "taylor", "ole", "klea", "johnny", "oleole" };
+        String[] surnames = { "georgala", "sandra", "depp", "swift", "paok", "derp" };
+        for (int i = 0; i < 40; i++) {
+            source.addTriple("S" + i, "name", names[i % names.length]);
+            source.addTriple("S" + i, "surname", surnames[i % surnames.length]);
+            target.addTriple("T" + i, "name", names[(i * 3) % names.length]);
+            target.addTriple("T" + i, "surname", surnames[(i * 5) % surnames.length]);
+            if (i % 7 == 0) {
+                target.addTriple("T" + i, "name", names[(i + 1) % names.length]);
+            }
+        }
+        all = MappingFactory.createDefaultMapping();
+        for (int i = 0; i < 40; i++) {
+            for (int j = 0; j < 40; j++) {
+                all.add("S" + i, "T" + j, ((i + j) % 10) / 10d);
+            }
+        }
+    }
+
+    private AMapping naiveFilter(AMapping map, String condition, double threshold) {
+        AMapping result = MappingFactory.createDefaultMapping();
+        for (String key : map.getMap().keySet()) {
+            Instance s = source.getInstance(key);
+            for (String value : map.getMap().get(key).keySet()) {
+                Instance t = target.getInstance(value);
+                double sim = MeasureProcessor.getSimilarity(s, t, condition, threshold, "?x", "?y");
+                if (sim >= threshold) {
+                    result.add(key, value, sim);
+                }
+            }
+        }
+        return result;
+    }
+
+    @Test
+    public void testSameResultsAsMeasureProcessor() {
+        String[] conditions = { "jaro(x.name,y.name)", "jarowinkler(x.name,y.name)",
+                "exactmatch(x.surname,y.surname)", "ratcliff(x.surname,y.surname)",
+                "trigram(x.name,y.name)", "qgrams(x.surname,y.surname)",
+                "AND(jaro(x.name,y.name)|0.6,exactmatch(x.surname,y.surname)|0.5)",
+                "OR(jarowinkler(x.name,y.name)|0.9,ratcliff(x.surname,y.surname)|0.7)",
+                "MINUS(jaro(x.name,y.name)|0.7,exactmatch(x.surname,y.surname)|0.5)" };
+        LinearFilter f = new LinearFilter();
+        for (String condition : conditions) {
+            for (double threshold : new double[] { 0.5, 0.8 }) {
+                AMapping expected = naiveFilter(all, condition, threshold);
+                AMapping actual = f.filter(all, condition, threshold, source, target, "?x", "?y");
+                assertEquals(condition, expected.getMap(), actual.getMap());
+            }
+        }
+    }
+
+    @Test
+    public void testRules() {
+        String condition = "jaro(x.name,y.name)";
+        AMapping filtered = naiveFilter(all, condition, 0.7);
+        LinearFilter f = new LinearFilter();
+
+        AMapping and = f.filter(all, condition, 0.7, 0.5, source, target, "?x", "?y");
+        for (String s : all.getMap().keySet()) {
+            for (String t : all.getMap().get(s).keySet()) {
+                double min = Math.min(filtered.getConfidence(s, t), all.getConfidence(s, t));
+                boolean kept = filtered.contains(s, t) && min >= 0.5;
+                assertEquals(kept, and.contains(s, t));
+                if (kept) {
+                    assertEquals(min, and.getConfidence(s, t), 0d);
+                }
+            }
+        }
+
+        AMapping reverse = f.reversefilter(all, condition, 0.7, 0.5, source, target, "?x", "?y");
+        for (String s : all.getMap().keySet()) {
+            for (String t : all.getMap().get(s).keySet()) {
+                boolean kept = !filtered.contains(s, t) && all.getConfidence(s, t) >= 0.5;
+                assertEquals(kept, reverse.contains(s, t));
+            }
+        }
+    }
+
+    @Test
+    public void testParallel() {
+        assertTrue(new CompiledFilter("AND(jaro(x.name,y.name)|0.6,exactmatch(x.surname,y.surname)|0.5)", 0.5,
+                "?x", "?y").isParallel());
+        assertTrue(new CompiledFilter("OR(cosine(x.name,y.name)|0.6,trigram(x.surname,y.surname)|0.5)", 0.5,
+                "?x", "?y").isParallel());
+        // ratcliff is computed by its mapper, which is not thread-safe
+        assertFalse(new CompiledFilter("OR(jaro(x.name,y.name)|0.6,ratcliff(x.surname,y.surname)|0.5)", 0.5,
+                "?x", "?y").isParallel());
+    }
+
+    @Test
+    public void testBoundedLevenshtein() {
+        String condition = "levenshtein(x.name,y.name)";
+        assertTrue(new CompiledFilter(condition, 0.3, "?x", "?y").isParallel());
+        // longer than one 64 bit word of the bit-parallel kernel
+        String prefix = new String(new char[70]).replace('\0', 'a');
+        source.addTriple("S40", "name", prefix + "kleanthi");
+        target.addTriple("T40", "name", prefix + "kleanthy");
+        target.addTriple("T41", "name", prefix + "klea");
+        all.add("S40", "T40", 1d);
+        all.add("S40", "T41", 1d);
+        LinearFilter f = new LinearFilter();
+        for (double threshold : new double[] { 0.3, 0.5 }) {
+            AMapping actual = f.filter(all, condition, threshold, source, target, "?x", "?y");
+            // distances above (1 - threshold) / threshold are not computed
+            double tau = (1 - threshold) / threshold;
+            for (String s : all.getMap().keySet()) {
+                for (String t : all.getMap().get(s).keySet()) {
+                    double max = 0;
+                    for (String v1 : source.getInstance(s).getProperty("name")) {
+                        for (String v2 : target.getInstance(t).getProperty("name")) {
+                            int ed = EditDistance.distance(v1, v2);
+                            max = Math.max(max, ed <= tau ? 1d / (1 + ed) : 0);
+                        }
+                    }
+                    assertEquals(s + " " + t, max >= threshold, actual.contains(s, t));
+                    if (max >= threshold) {
+                        assertEquals(max, actual.getConfidence(s, t), 0d);
+                    }
+                }
+            }
+            assertTrue(actual.contains("S40", "T40"));
+            assertFalse(actual.contains("S40", "T41"));
+        }
+    }
+}
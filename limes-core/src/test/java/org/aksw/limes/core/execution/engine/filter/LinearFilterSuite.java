@@ -5,7 +5,8 @@ import org.junit.runners.Suite;
 
 @RunWith(Suite.class)
 @Suite.SuiteClasses({
-        LinearFilterTest.class
+        LinearFilterTest.class,
+        CompiledFilterTest.class
 })
 public class LinearFilterSuite {
 
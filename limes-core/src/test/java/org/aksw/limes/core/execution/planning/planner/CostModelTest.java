@@ -0,0 +1,129 @@
+package org.aksw.limes.core.execution.planning.planner;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+
+import org.aksw.limes.core.io.cache.MemoryCache;
+import org.aksw.limes.core.io.ls.LinkSpecification;
+import org.aksw.limes.core.measures.mapper.IMapper.Language;
+import org.aksw.limes.core.measures.mapper.MapperFactory;
+import org.aksw.limes.core.measures.measure.MeasureType;
+import org.junit.Test;
+
+public class CostModelTest {
+
+    private static double runtime(int s, int t, double theta) {
+        return 10 + 0.002 * s + 0.001 * t - 5 * theta + 0.000003 * s * t;
+    }
+
+    private static double size(int s, int t, double theta) {
+        return (1 - theta) * 0.0001 * s * t;
+    }
+
+    private static double filterRuntime(double m) {
+        return 2 + 0.005 * m;
+    }
+
+    private CostModel fitted() {
+        CostModel model = new CostModel();
+        for (int s : new int[] { 500, 1000, 2000 }) {
+            for (int t : new int[] { 500, 1000, 4000 }) {
+                for (double theta : new double[] { 0.5, 0.7, 0.9 }) {
+                    model.record(MeasureType.TRIGRAM, Language.NULL, s, t, theta, runtime(s, t, theta),
+                            size(s, t, theta));
+                }
+            }
+        }
+        for (int m : new int[] { 1000, 2000, 4000, 8000, 16000 }) {
+            model.recordFilter(MeasureType.TRIGRAM, Language.NULL, m, filterRuntime(m));
+        }
+        model.fit();
+        return model;
+    }
+
+    @Test
+    public void testFit() {
+        CostModel model = fitted();
+        assertEquals(runtime(1500, 3000, 0.8), model.getRuntime(MeasureType.TRIGRAM, Language.EN, 1500, 3000, 0.8),
+                0.01);
+        assertTrue(model.getMappingSize(MeasureType.TRIGRAM, Language.DE, 1000, 1000, 0.7) > 0);
+        assertTrue(Double.isNaN(model.getRuntime(MeasureType.JARO, Language.EN, 1000, 1000, 0.7)));
+    }
+
+    @Test
+    public void testFilter() {
+        CostModel model = fitted();
+        assertEquals(filterRuntime(5000), model.getFilterRuntime(MeasureType.TRIGRAM, Language.EN, 5000), 0.01);
+        // the mapping size may exceed an int
+        assertEquals(filterRuntime(1e10), model.getFilterRuntime(MeasureType.TRIGRAM, Language.EN, 1e10), 1);
+        assertTrue(Double.isNaN(model.getFilterRuntime(MeasureType.JARO, Language.EN, 5000)));
+        // runs without filters are not enough to plan with the model
+        CostModel runs = new CostModel();
+        for (int s : new int[] { 500, 1000, 2000 }) {
+            for (double theta : new double[] { 0.5, 0.7 }) {
+                runs.record(MeasureType.TRIGRAM, Language.NULL, s, s, theta, runtime(s, s, theta), size(s, s, theta));
+            }
+        }
+        runs.fit();
+        assertFalse(runs.hasModel(MeasureType.TRIGRAM, Language.EN));
+    }
+
+    @Test
+    public void testTooFewObservations() {
+        CostModel model = new CostModel();
+        model.record(MeasureType.JARO, Language.NULL, 1000, 1000, 0.5, 100, 10);
+        model.fit();
+        assertTrue(model.isEmpty());
+    }
+
+    @Test
+    public void testSaveLoad() throws IOException {
+        CostModel model = fitted();
+        File file = File.createTempFile("costmodel", ".properties");
+        try {
+            model.save(file);
+            CostModel loaded = new CostModel();
+            loaded.load(file);
+            assertEquals(model.getRuntime(MeasureType.TRIGRAM, Language.NULL, 700, 800, 0.6),
+                    loaded.getRuntime(MeasureType.TRIGRAM, Language.NULL, 700, 800, 0.6), 1e-9);
+            assertEquals(model.getMappingSize(MeasureType.TRIGRAM, Language.NULL, 700, 800, 0.6),
+                    loaded.getMappingSize(MeasureType.TRIGRAM, Language.NULL, 700, 800, 0.6), 1e-9);
+            assertEquals(model.getFilterRuntime(MeasureType.TRIGRAM, Language.NULL, 3000),
+                    loaded.getFilterRuntime(MeasureType.TRIGRAM, Language.NULL, 3000), 1e-9);
+        } finally {
+            file.delete();
+        }
+    }
+
+    @Test
+    public void testCovers() {
+        CostModel model = fitted();
+        assertTrue(model.hasModel(MeasureType.TRIGRAM, Language.EN));
+        assertFalse(model.hasModel(MeasureType.JARO, Language.EN));
+        assertTrue(model.covers(new LinkSpecification("trigram(x.name,y.name)", 0.5), Language.EN));
+        assertFalse(model.covers(
+                new LinkSpecification("AND(trigram(x.name,y.name)|0.5,jaro(x.name,y.name)|0.6)", 0.5), Language.EN));
+        assertFalse(new CostModel().covers(new LinkSpecification("trigram(x.name,y.name)", 0.5), Language.EN));
+    }
+
+    @Test
+    public void testPlannerFallback() {
+        MemoryCache source = new MemoryCache();
+        MemoryCache target = new MemoryCache();
+        for (int i = 0; i < 1000; i++) {
+            source.addTriple("S" + i, "name", "name" + i);
+            target.addTriple("T" + i, "name", "name" + i);
+        }
+        HeliosPlanner planner = new HeliosPlanner(source, target, fitted());
+        planner.plan(new LinkSpecification("trigram(x.name,y.name)", 0.8));
+        assertEquals(runtime(1000, 1000, 0.8), planner.getAtomicRuntimeCosts("trigram", 0.8), 0.01);
+        // jaro has no model, so trigram is estimated by its mapper as well
+        planner.plan(new LinkSpecification("AND(trigram(x.name,y.name)|0.8,jaro(x.name,y.name)|0.8)", 0.8));
+        assertEquals(MapperFactory.createMapper(MeasureType.TRIGRAM).getRuntimeApproximation(1000, 1000, 0.8,
+                Language.EN), planner.getAtomicRuntimeCosts("trigram", 0.8), 0d);
+    }
+}
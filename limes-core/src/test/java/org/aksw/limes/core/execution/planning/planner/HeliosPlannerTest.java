@@ -12,6 +12,8 @@ import org.aksw.limes.core.io.cache.ACache;
 import org.aksw.limes.core.io.cache.MemoryCache;
 import org.aksw.limes.core.io.ls.ExtendedLinkSpecification;
 import org.aksw.limes.core.io.ls.LinkSpecification;
+import org.aksw.limes.core.measures.mapper.IMapper.Language;
+import org.aksw.limes.core.measures.measure.MeasureType;
 import org.junit.After;
 import org.junit.Before;
 import org.junit.Test;
@@ -240,5 +242,89 @@ public class HeliosPlannerTest {
 
     }
 
+    @Test
+    public void SemiJoinPlan() {
+        System.out.println("SemiJoinPlan");
+        ACache s = new MemoryCache();
+        ACache t = new MemoryCache();
+        for (int i = 0; i < 1000; i++) {
+            s.addTriple("S" + i, "name", "name" + i);
+            t.addTriple("T" + i, "name", "name" + i);
+        }
+        HeliosPlanner p = new HeliosPlanner(s, t);
+
+        // cheap and very selective left child, expensive right child
+        NestedPlan left = new NestedPlan();
+        left.addInstruction(new Instruction(Command.RUN, "exactmatch(x.name,y.name)", "1.0", -1, -1, 0));
+        left.setRuntimeCost(1);
+        left.setSelectivity(1e-4);
+        NestedPlan right = new NestedPlan();
+        right.addInstruction(new Instruction(Command.RUN, "trigram(x.name,y.name)", "0.8", -1, -1, 0));
+        right.setRuntimeCost(100);
+        right.setSelectivity(0.5);
 
+        LinkSpecification ls = new LinkSpecification(
+                "AND(exactmatch(x.name,y.name)|1.0,trigram(x.name,y.name)|0.8)", 0.8);
+        NestedPlan plan = p.getBestConjunctivePlan(ls, left, right, 0.5e-4);
+        assertTrue(plan.getOperator() == Command.SEMIJOIN);
+        assertTrue(plan.getSubPlans().get(0) == left);
+        assertTrue(plan.getSubPlans().get(1) == right);
+        assertTrue(plan.getRuntimeCost() < right.getRuntimeCost());
+
+        // reading the candidates into the reduced indexes is not free
+        assertTrue(p.getSemiJoinCosts(right, 100) > p.getAtomicRuntimeCosts("trigram", 0.8, 100, 100));
+
+        // the semi-join of an empty plan costs nothing
+        assertTrue(p.getSemiJoinCosts(new NestedPlan(), 100) == 0);
+    }
+
+    /**
+     * Returns a cost model for trigram with a runtime of 100 ms and 1000 links
+     * for all caches and thresholds, and the given runtime for filtering 1000
+     * links.
+     */
+    private static CostModel trigramModel(double filterRuntime) {
+        CostModel model = new CostModel();
+        for (int s : new int[] { 500, 1000, 2000 }) {
+            for (int t : new int[] { 500, 1000, 2000 }) {
+                for (double theta : new double[] { 0.5, 0.7, 0.9 }) {
+                    model.record(MeasureType.TRIGRAM, Language.NULL, s, t, theta, 100, 1000);
+                }
+            }
+        }
+        for (int m : new int[] { 1000, 2000, 4000, 8000, 16000 }) {
+            model.recordFilter(MeasureType.TRIGRAM, Language.NULL, m, filterRuntime * m / 1000);
+        }
+        model.fit();
+        return model;
+    }
+
+    @Test
+    public void CalibratedConjunctivePlan() {
+        System.out.println("CalibratedConjunctivePlan");
+        ACache s = new MemoryCache();
+        ACache t = new MemoryCache();
+        for (int i = 0; i < 1000; i++) {
+            s.addTriple("S" + i, "name", "name" + i);
+            s.addTriple("S" + i, "surname", "surname" + i);
+            t.addTriple("T" + i, "name", "name" + i);
+            t.addTriple("T" + i, "surname", "surname" + i);
+        }
+        LinkSpecification ls = new LinkSpecification(
+                "AND(trigram(x.name,y.name)|0.8,trigram(x.surname,y.surname)|0.8)", 0.8);
+
+        // filtering the 1000 links of the left child is cheaper than running
+        // the right child
+        NestedPlan plan = new HeliosPlanner(s, t, trigramModel(1)).plan(ls);
+        assertTrue(plan.getOperator() == null);
+        assertTrue(plan.getSubPlans().size() == 1);
+        assertTrue(plan.getFilteringInstruction().getMeasureExpression().equals("trigram(x.surname,y.surname)"));
+        assertTrue(Math.abs(plan.getRuntimeCost() - 101) < 0.1);
+
+        // filtering is more expensive than running the right child
+        plan = new HeliosPlanner(s, t, trigramModel(1000)).plan(ls);
+        assertTrue(plan.getOperator() == Command.INTERSECTION);
+        assertTrue(plan.getSubPlans().size() == 2);
+        assertTrue(plan.getRuntimeCost() < 1000);
+    }
 }
@@ -0,0 +1,192 @@
+package org.aksw.limes.core.io.cache;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.lang.ref.WeakReference;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class BinaryCacheFileTest {
+
+    private File folder;
+    private File file;
+    private MemoryCache memory;
+
+    @Before
+    public void setUp() throws IOException {
+        folder = Files.createTempDirectory("limes").toFile();
+        new File(folder, "cache").mkdir();
+        file = new File(folder, "cache" + File.separator + "test" + BinaryCacheFile.EXTENSION);
+        memory = new MemoryCache();
+        String[][] triples = {
+                { "S1", "name", "kleanthi" }, { "S1", "surname", "georgala" }, { "S2", "name", "lukas" },
+                { "S2", "surname", "sandra" }, { "S1", "name", "klea" }, { "S3", "name", "johny" },
+                { "S3", "surname", "depp" }, { "S4", "name", "lukas" }, { "S4", "age", "25" },
+                { "S5", "name", "\u00e9mile" } };
+        for (String[] t : triples) {
+            memory.addTriple(t[0], t[1], t[2]);
+        }
+    }
+
+    @After
+    public void tearDown() {
+        file.delete();
+        new File(folder, "cache").delete();
+        folder.delete();
+    }
+
+    private void assertSameInstances(ACache expected, ACache actual) {
+        assertEquals(expected.size(), actual.size());
+        for (String uri : expected.getAllUris()) {
+            Instance e = expected.getInstance(uri);
+            Instance a = actual.getInstance(uri);
+            assertEquals(e.getAllProperties(), a.getAllProperties());
+            for (String p : e.getAllProperties()) {
+                assertEquals(e.getProperty(p), a.getProperty(p));
+            }
+        }
+    }
+
+    @Test
+    public void testWriteRead() throws IOException {
+        BinaryCacheFile.write(memory, file);
+        assertTrue(BinaryCacheFile.isBinaryCacheFile(file));
+        ColumnarCache cache = BinaryCacheFile.read(file);
+        assertSameInstances(memory, cache);
+        assertEquals(memory.getValueToUriMap("name"), cache.getValueToUriMap("name"));
+    }
+
+    @Test
+    public void testWriteReadStream() throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            BinaryCacheFile.write(memory, out);
+            out.writeInt(42);
+        }
+        try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(bytes.toByteArray()))) {
+            ColumnarCache cache = BinaryCacheFile.read(in);
+            assertSameInstances(memory, cache);
+            // the cache is read up to its end only
+            assertEquals(42, in.readInt());
+        }
+    }
+
+    @Test
+    public void testUnsupportedVersion() throws IOException {
+        try (DataOutputStream out = new DataOutputStream(new FileOutputStream(file))) {
+            out.writeInt(BinaryCacheFile.MAGIC);
+            out.writeInt(BinaryCacheFile.VERSION + 1);
+        }
+        try {
+            BinaryCacheFile.read(file);
+            fail("Files with another version must be rejected");
+        } catch (IOException e) {
+            assertTrue(e.getMessage().contains("version"));
+        }
+    }
+
+    @Test
+    public void testHybridCache() throws IOException {
+        HybridCache hybrid = new HybridCache(folder);
+        for (Instance i : memory.getAllInstances()) {
+            hybrid.addInstance(i);
+        }
+        hybrid.saveToFile(file);
+        assertTrue(BinaryCacheFile.isBinaryCacheFile(file));
+
+        HybridCache loaded = HybridCache.loadFromFile(file);
+        assertEquals(memory.size(), loaded.size());
+        assertTrue(loaded.containsUri("S5"));
+        assertFalse(loaded.containsUri("S6"));
+        assertEquals(memory.getAllProperties(), loaded.getAllProperties());
+        assertEquals(memory.getValueToUriMap("surname"), loaded.getValueToUriMap("surname"));
+        assertSameInstances(memory, loaded);
+
+        loaded.addTriple("S6", "name", "ole");
+        assertEquals(memory.size() + 1, loaded.size());
+        assertEquals(memory.size() + 1, loaded.getAllInstances().size());
+        assertEquals("ole", loaded.getInstance("S6").getProperty("name").first());
+    }
+
+    @Test
+    public void testConcurrentLookups() throws Exception {
+        HybridCache hybrid = new HybridCache(folder);
+        for (Instance i : memory.getAllInstances()) {
+            hybrid.addInstance(i);
+        }
+        hybrid.saveToFile(file);
+        HybridCache loaded = HybridCache.loadFromFile(file);
+        List<String> uris = memory.getAllUris();
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<List<Instance>>> futures = new ArrayList<>();
+            for (int k = 0; k < 4; k++) {
+                futures.add(executor.submit(() -> {
+                    List<Instance> instances = new ArrayList<>();
+                    for (String uri : uris) {
+                        instances.add(loaded.getInstance(uri));
+                    }
+                    return instances;
+                }));
+            }
+            List<Instance> first = futures.get(0).get();
+            for (Future<List<Instance>> future : futures) {
+                List<Instance> instances = future.get();
+                for (int i = 0; i < uris.size(); i++) {
+                    assertSame(first.get(i), instances.get(i));
+                }
+            }
+            // lookups do not change the cache
+            assertEquals(memory.getValueToUriMap("surname"), loaded.getValueToUriMap("surname"));
+            assertEquals(memory.size(), loaded.getAllInstances().size());
+            // instances handed out by lookups are kept once the cache is modified
+            loaded.addTriple("S6", "name", "ole");
+            assertSame(first.get(0), loaded.getInstance(uris.get(0)));
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    public void testLookupsAreNotRetained() throws Exception {
+        HybridCache hybrid = new HybridCache(folder);
+        for (Instance i : memory.getAllInstances()) {
+            hybrid.addInstance(i);
+        }
+        hybrid.saveToFile(file);
+        HybridCache loaded = HybridCache.loadFromFile(file);
+        int scanned = 0;
+        for (Iterator<Instance> i = loaded.iterateInstances(); i.hasNext(); i.next()) {
+            scanned++;
+        }
+        assertEquals(memory.size(), scanned);
+        WeakReference<Instance> lookup = new WeakReference<>(loaded.getInstance("S1"));
+        for (int k = 0; k < 100 && lookup.get() != null; k++) {
+            System.gc();
+            Thread.sleep(10);
+        }
+        // the cache does not keep instances that nobody references
+        assertTrue(lookup.get() == null);
+        assertEquals(memory.getInstance("S1").getAllProperties(), loaded.getInstance("S1").getAllProperties());
+    }
+}
@@ -0,0 +1,102 @@
+package org.aksw.limes.core.io.cache;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import org.aksw.limes.core.controller.LSPipeline;
+import org.aksw.limes.core.io.ls.LinkSpecification;
+import org.aksw.limes.core.io.mapping.AMapping;
+import org.junit.Before;
+import org.junit.Test;
+
+public class ColumnarCacheTest {
+
+    private ACache memory;
+    private ColumnarCache columnar;
+
+    @Before
+    public void setUp() {
+        memory = new MemoryCache();
+        columnar = new ColumnarCache();
+        String[][] triples = {
+                { "S1", "name", "kleanthi" }, { "S1", "surname", "georgala" }, { "S2", "name", "lukas" },
+                { "S2", "surname", "sandra" }, { "S1", "name", "klea" }, { "S3", "name", "johny" },
+                { "S3", "surname", "depp" }, { "S2", "name", "lukas" }, { "S4", "name", "lukas" },
+                { "S4", "age", "25" } };
+        for (String[] t : triples) {
+            memory.addTriple(t[0], t[1], t[2]);
+            columnar.addTriple(t[0], t[1], t[2]);
+        }
+    }
+
+    @Test
+    public void testInstances() {
+        assertEquals(memory.size(), columnar.size());
+        for (String uri : memory.getAllUris()) {
+            Instance expected = memory.getInstance(uri);
+            Instance actual = columnar.getInstance(uri);
+            assertEquals(expected.getAllProperties(), actual.getAllProperties());
+            for (String p : expected.getAllProperties()) {
+                assertEquals(expected.getProperty(p), actual.getProperty(p));
+                assertEquals(expected.getProperty(p), columnar.getValues(uri, p));
+            }
+        }
+        assertNull(columnar.getInstance("S5"));
+        assertTrue(columnar.containsUri("S4"));
+        assertEquals(memory.getAllProperties(), columnar.getAllProperties());
+    }
+
+    @Test
+    public void testAddAfterRead() {
+        columnar.getInstance("S1");
+        columnar.addTriple("S1", "name", "k");
+        columnar.addTriple("S5", "name", "ole");
+        assertEquals(3, columnar.getInstance("S1").getProperty("name").size());
+        assertEquals("ole", columnar.getInstance("S5").getProperty("name").first());
+    }
+
+    @Test
+    public void testReplaceInstance() {
+        Instance i = new Instance("S2");
+        i.addProperty("name", "luke");
+        columnar.replaceInstance("S2", i);
+        assertEquals(1, columnar.getInstance("S2").getProperty("name").size());
+        assertTrue(columnar.getInstance("S2").getProperty("surname").isEmpty());
+        assertEquals(2, columnar.getInstance("S1").getProperty("name").size());
+    }
+
+    @Test
+    public void testValueToUriMap() {
+        assertEquals(memory.getValueToUriMap("name"), columnar.getValueToUriMap("name"));
+        assertTrue(columnar.getValueToUriMap("unknown").isEmpty());
+    }
+
+    @Test
+    public void testProcessData() {
+        Map<String, String> processing = new HashMap<String, String>();
+        processing.put("name", "uppercase");
+        ACache expected = memory.processData(processing);
+        ACache actual = columnar.processData(processing);
+        for (String uri : expected.getAllUris()) {
+            assertEquals(expected.getInstance(uri).getProperty("name"), actual.getInstance(uri).getProperty("name"));
+            assertEquals(expected.getInstance(uri).getProperty("surname"),
+                    actual.getInstance(uri).getProperty("surname"));
+        }
+        ACache added = columnar.addProperty("name", "upperName", "uppercase");
+        assertEquals(expected.getInstance("S1").getProperty("name"),
+                added.getInstance("S1").getProperty("upperName"));
+        assertEquals(columnar.getInstance("S1").getProperty("name"), added.getInstance("S1").getProperty("name"));
+    }
+
+    @Test
+    public void testMapping() {
+        LinkSpecification ls = new LinkSpecification("trigrams(x.name, y.name)", 0.5);
+        AMapping expected = LSPipeline.execute(memory, memory, ls);
+        AMapping actual = LSPipeline.execute(columnar, columnar, ls);
+        assertEquals(expected, actual);
+    }
+}
@@ -0,0 +1,115 @@
+package org.aksw.limes.core.io.mapping;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Before;
+import org.junit.Test;
+
+public class ShardedMappingTest {
+
+    private AMapping memory;
+    private AMapping sharded;
+
+    @Before
+    public void setUp() {
+        memory = MappingFactory.createMapping(MappingFactory.MappingType.MEMORY_MAPPING);
+        sharded = MappingFactory.createMapping(MappingFactory.MappingType.SHARDED_MAPPING);
+        Random random = new Random(42);
+        for (int i = 0; i < 5000; i++) {
+            String s = "s" + random.nextInt(500);
+            String t = "t" + random.nextInt(500);
+            double sim = random.nextInt(20) / 20d;
+            memory.add(s, t, sim);
+            sharded.add(s, t, sim);
+        }
+    }
+
+    @Test
+    public void testAdd() {
+        assertTrue(sharded instanceof ShardedMapping);
+        assertEquals(memory.size(), sharded.size());
+        assertEquals(memory.getMap(), sharded.getMap());
+        sharded.add("s1", "t1", 0.5);
+        sharded.add("s1", "t1", 0.3);
+        sharded.add("s1", "t1", 0.7);
+        assertEquals(0.7, sharded.getConfidence("s1", "t1"), 0d);
+        assertTrue(sharded.contains("s1", "t1"));
+        assertFalse(sharded.contains("s1", "unknown"));
+        assertEquals(0d, sharded.getConfidence("unknown", "t1"), 0d);
+    }
+
+    @Test
+    public void testSubMap() {
+        for (double threshold : new double[] { 0d, 0.3, 0.5, 0.95, 1d }) {
+            AMapping expected = memory.getSubMap(threshold);
+            AMapping actual = sharded.getSubMap(threshold);
+            assertEquals(expected.getMap(), actual.getMap());
+        }
+        // the index must be rebuilt after a change
+        sharded.add("new", "link", 0.99);
+        assertTrue(sharded.getSubMap(0.98).contains("new", "link"));
+    }
+
+    @Test
+    public void testOperations() {
+        assertEquals(memory.getBestOneToNMapping().getMap(), sharded.getBestOneToNMapping().getMap());
+        assertEquals(memory.reverseSourceTarget().getMap(), sharded.reverseSourceTarget().getMap());
+        ((MemoryMapping) memory).initReversedMap();
+        assertEquals(memory.getReversedMap(), sharded.getReversedMap());
+        AMapping empty = MappingFactory.createMapping(MappingFactory.MappingType.MEMORY_MAPPING);
+        assertEquals(memory.getMap(), ((MemoryMapping) empty).union(sharded).getMap());
+    }
+
+    @Test
+    public void testConcurrentAdd() throws InterruptedException {
+        final AMapping m = MappingFactory.createMapping(MappingFactory.MappingType.SHARDED_MAPPING);
+        List<Thread> threads = new ArrayList<Thread>();
+        for (int i = 0; i < 8; i++) {
+            final int offset = i;
+            Thread thread = new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    for (int j = 0; j < 10000; j++) {
+                        m.add("s" + j, "t" + (j % 100), (offset + 1) / 10d);
+                    }
+                }
+            });
+            threads.add(thread);
+            thread.start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        assertEquals(10000, m.size());
+        assertEquals(0.8, m.getConfidence("s42", "t42"), 0d);
+    }
+
+    @Test
+    public void testSnapshotDuringAdd() throws InterruptedException {
+        final AMapping m = MappingFactory.createMapping(MappingFactory.MappingType.SHARDED_MAPPING);
+        Thread writer = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                for (int j = 0; j < 20000; j++) {
+                    m.add("s" + j, "t" + (j % 100), 1d);
+                }
+            }
+        });
+        writer.start();
+        while (writer.isAlive()) {
+            m.getMap();
+        }
+        writer.join();
+        // snapshots built while links were added are not reused afterwards
+        assertEquals(20000, m.getMap().size());
+        m.add("s", "t", 1d);
+        assertEquals(20001, m.getMap().size());
+        assertTrue(m.getMap().get("s").containsKey("t"));
+    }
+}
@@ -0,0 +1,73 @@
+package org.aksw.limes.core.io.preprocessing;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+
+import org.aksw.limes.core.io.cache.ACache;
+import org.aksw.limes.core.io.cache.MemoryCache;
+import org.junit.Test;
+
+public class PreprocessingChainTest {
+
+    private static final String[] VALUES = { "http://dbpedia.org/resource/Category:Random_House_books",
+            "Leipzig (Saxony)@de", "-12,5 degrees^^xsd:string", "2015-11-23T10:00:00+02:00", "  Hello, World!  ",
+            "some (nested) (braces)", "http://example.org/a_b/", "", "abc" };
+
+    private static final String[] FUNCTIONS = { "lowercase", "uppercase", "replace(Category,)", "replace(.,-)",
+            "regexreplace([0-9]+,#)", "regexreplace(\\s+, )", "regexreplace([,)", "nolang", "cleaniri", "number",
+            "celsius", "fahrenheit", "date", "removebraces", "regularAlphabet", "uriasstring", "x", "unknown" };
+
+    private static String atomicChain(String entry, String chain) {
+        String result = entry.split("\\^")[0];
+        for (String function : chain.split("->")) {
+            result = Preprocessor.atomicProcess(result, function);
+        }
+        return result;
+    }
+
+    @Test
+    public void testSameResultsAsAtomicProcess() {
+        for (String function : FUNCTIONS) {
+            PreprocessingChain chain = new PreprocessingChain(function);
+            for (String value : VALUES) {
+                String expected;
+                try {
+                    expected = atomicChain(value, function);
+                } catch (NumberFormatException e) {
+                    continue;
+                }
+                assertEquals(function + " on " + value, expected, chain.process(value));
+            }
+        }
+    }
+
+    @Test
+    public void testChains() {
+        String[] chains = { "nolang->lowercase", "cleaniri->uriasstring->uppercase", "removebraces->regularAlphabet",
+                "lowercase->replace(house,home)->nolang" };
+        for (String c : chains) {
+            PreprocessingChain chain = Preprocessor.compile(c);
+            assertSame(chain, Preprocessor.compile(c));
+            for (String value : VALUES) {
+                assertEquals(c + " on " + value, atomicChain(value, c), chain.process(value));
+            }
+        }
+        assertEquals("abc", Preprocessor.process("abc^^xsd:string", null));
+        assertEquals("abc", Preprocessor.process("abc^^xsd:string", ""));
+    }
+
+    @Test
+    public void testProcessData() {
+        ACache cache = new MemoryCache();
+        for (int i = 0; i < 100; i++) {
+            cache.addTriple("s" + i, "label", "Label " + i + "@en");
+            cache.addTriple("s" + i, "name", "Name_" + (i % 7));
+        }
+        ACache processed = cache.addProperty("label", "plain", "nolang->lowercase");
+        for (int i = 0; i < 100; i++) {
+            assertEquals("label " + i, processed.getInstance("s" + i).getProperty("plain").first());
+            assertEquals("Label " + i + "@en", processed.getInstance("s" + i).getProperty("label").first());
+            assertEquals("Name_" + (i % 7), processed.getInstance("s" + i).getProperty("name").first());
+        }
+    }
+}
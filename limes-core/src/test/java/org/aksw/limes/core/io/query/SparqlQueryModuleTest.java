@@ -1,5 +1,6 @@
 package org.aksw.limes.core.io.query;
 
+import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertTrue;
 
 import java.util.ArrayList;
@@ -11,6 +12,11 @@ import java.util.Map;
 import org.aksw.limes.core.io.cache.ACache;
 import org.aksw.limes.core.io.cache.HybridCache;
 import org.aksw.limes.core.io.config.KBInfo;
+import org.apache.jena.rdf.model.Model;
+import org.apache.jena.rdf.model.ModelFactory;
+import org.apache.jena.rdf.model.Resource;
+import org.apache.jena.vocabulary.RDF;
+import org.apache.jena.vocabulary.RDFS;
 import org.junit.Before;
 import org.junit.Test;
 
@@ -65,4 +71,37 @@ public class SparqlQueryModuleTest {
         assertTrue(cache.size() > 0);
     }
 
+    @Test
+    public void pagedModelTest() {
+        Model model = ModelFactory.createDefaultModel();
+        Resource drug = model.createResource("http://dbpedia.org/ontology/Drug");
+        for (int i = 0; i < 95; i++) {
+            Resource r = model.createResource("http://example.org/drug" + i);
+            r.addProperty(RDF.type, drug);
+            r.addProperty(RDFS.label, "drug " + i);
+        }
+        ModelRegistry.register("paged", model);
+        try {
+            kbInfo.setEndpoint("paged");
+            kbInfo.setPageSize(-1);
+            ACache all = new HybridCache();
+            new SparqlQueryModule(kbInfo).fillCache(all, false);
+            assertEquals(95, all.size());
+
+            kbInfo.setPageSize(10);
+            for (int concurrentPages : new int[] { 1, 3, 16 }) {
+                SparqlQueryModule sqm = new SparqlQueryModule(kbInfo);
+                sqm.setMaxConcurrentPages(concurrentPages);
+                ACache paged = new HybridCache();
+                sqm.fillCache(paged, false);
+                assertEquals(all.size(), paged.size());
+                for (String uri : all.getAllUris()) {
+                    assertEquals(all.getInstance(uri).getProperty("label"), paged.getInstance(uri).getProperty("label"));
+                }
+            }
+        } finally {
+            ModelRegistry.unregister("paged");
+        }
+    }
+
 }
@@ -0,0 +1,93 @@
+package org.aksw.limes.core.io.query;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.aksw.limes.core.io.cache.HybridCache;
+import org.aksw.limes.core.io.cache.Instance;
+import org.aksw.limes.core.io.config.KBInfo;
+import org.junit.Test;
+
+public class StreamingFileQueryModuleTest {
+
+    private KBInfo getKBInfo(List<String> properties, List<String> restrictions) {
+        HashMap<String, String> prefixes = new HashMap<>();
+        prefixes.put("rdfs", "http://www.w3.org/2000/01/rdf-schema#");
+        prefixes.put("rdf", "http://www.w3.org/1999/02/22-rdf-syntax-ns#");
+        prefixes.put("dbpo", "http://dbpedia.org/ontology/");
+        prefixes.put("owl", "http://www.w3.org/2002/07/owl#");
+
+        Map<String, Map<String, String>> functions = new HashMap<>();
+        for (String property : properties) {
+            HashMap<String, String> f = new HashMap<String, String>();
+            f.put(property.substring(property.indexOf(':') + 1), null);
+            functions.put(property, f);
+        }
+        return new KBInfo("DBpedia",
+                Thread.currentThread().getContextClassLoader().getResource("ibuprofen.nt").getPath(), null, "?x",
+                new ArrayList<String>(properties), null, new ArrayList<String>(restrictions), functions, prefixes,
+                1000, "N3");
+    }
+
+    private void assertSameCache(HybridCache expected, HybridCache actual) {
+        assertEquals(expected.size(), actual.size());
+        for (Instance i : expected.getAllInstances()) {
+            Instance j = actual.getInstance(i.getUri());
+            assertEquals(i.getAllProperties(), j.getAllProperties());
+            for (String property : i.getAllProperties()) {
+                assertEquals(i.getProperty(property), j.getProperty(property));
+            }
+        }
+    }
+
+    @Test
+    public void sameAsModelTest() {
+        List<String> properties = Arrays.asList("rdfs:label", "owl:sameAs", "dbpo:drugbank");
+        List<String> restrictions = Arrays.asList("?x rdf:type dbpo:Drug");
+        KBInfo kbinfo = getKBInfo(properties, restrictions);
+        HybridCache expected = new HybridCache();
+        new FileQueryModule(kbinfo).fillCache(expected);
+        assertTrue(expected.size() > 0);
+
+        StreamingFileQueryModule module = new StreamingFileQueryModule(getKBInfo(properties, restrictions));
+        assertTrue(module.isStreamable());
+        HybridCache sequential = new HybridCache();
+        module.fillCache(sequential);
+        assertSameCache(expected, sequential);
+
+        // parse the file in chunks of a few lines
+        module.setChunkSize(512);
+        HybridCache chunked = new HybridCache();
+        module.fillCache(chunked);
+        assertSameCache(expected, chunked);
+    }
+
+    @Test
+    public void restrictionTest() {
+        List<String> properties = Arrays.asList("rdfs:label");
+        StreamingFileQueryModule module = new StreamingFileQueryModule(
+                getKBInfo(properties, Arrays.asList("?x a <http://dbpedia.org/ontology/Person>")));
+        HybridCache cache = new HybridCache();
+        module.fillCache(cache);
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    public void fallbackTest() {
+        // property paths are answered by a query against a model
+        List<String> properties = Arrays.asList("owl:sameAs/rdfs:label");
+        List<String> restrictions = Arrays.asList("?x rdf:type dbpo:Drug");
+        assertFalse(new StreamingFileQueryModule(getKBInfo(properties, restrictions)).isStreamable());
+        restrictions = Arrays.asList("?x dbpo:drugbank ?id");
+        assertFalse(new StreamingFileQueryModule(getKBInfo(Arrays.asList("rdfs:label"), restrictions))
+                .isStreamable());
+    }
+
+}
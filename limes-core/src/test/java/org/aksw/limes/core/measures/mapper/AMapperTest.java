@@ -0,0 +1,42 @@
+package org.aksw.limes.core.measures.mapper;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.fail;
+
+import java.util.Map;
+import java.util.Set;
+
+import org.aksw.limes.core.io.cache.ACache;
+import org.aksw.limes.core.io.cache.MemoryCache;
+import org.aksw.limes.core.measures.mapper.string.ExactMatchMapper;
+import org.junit.Test;
+
+public class AMapperTest {
+
+    @Test
+    public void testRetainedIndexes() {
+        ACache cache = new MemoryCache();
+        cache.addTriple("S1", "name", "klea");
+        cache.addTriple("S2", "name", "klea");
+        AMapper mapper = new ExactMatchMapper();
+        assertNotSame(mapper.getValueToUriMap(cache, "name"), mapper.getValueToUriMap(cache, "name"));
+
+        // two users, e.g. two chunked engines on the same target
+        AMapper.retainIndexes(cache);
+        AMapper.retainIndexes(cache);
+        Map<String, Set<String>> index = mapper.getValueToUriMap(cache, "name");
+        assertEquals(2, index.get("klea").size());
+        try {
+            index.get("klea").add("S3");
+            fail("Retained indexes must not be modifiable");
+        } catch (UnsupportedOperationException e) {
+        }
+        AMapper.releaseIndexes(cache);
+        // still retained by the other user
+        assertSame(index, mapper.getValueToUriMap(cache, "name"));
+        AMapper.releaseIndexes(cache);
+        assertNotSame(index, mapper.getValueToUriMap(cache, "name"));
+    }
+}
@@ -0,0 +1,139 @@
+package org.aksw.limes.core.measures.mapper;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+import org.junit.After;
+import org.junit.Test;
+
+public class LinkingSchedulerTest {
+
+    private final int parallelism = LinkingScheduler.getParallelism();
+
+    @After
+    public void tearDown() {
+        LinkingScheduler.setParallelism(parallelism);
+    }
+
+    @Test
+    public void testForEach() {
+        System.out.println("testForEach");
+        for (int p : new int[] { 1, 4 }) {
+            LinkingScheduler.setParallelism(p);
+            AtomicIntegerArray calls = new AtomicIntegerArray(10000);
+            LinkingScheduler.forEach(calls.length(), i -> calls.incrementAndGet(i));
+            for (int i = 0; i < calls.length(); i++) {
+                assertEquals(1, calls.get(i));
+            }
+            List<Integer> squares = LinkingScheduler.map(100, i -> i * i);
+            for (int i = 0; i < squares.size(); i++) {
+                assertEquals(i * i, squares.get(i).intValue());
+            }
+        }
+    }
+
+    @Test
+    public void testSkewedPartitionsAreSplit() {
+        System.out.println("testSkewedPartitionsAreSplit");
+        LinkingScheduler.setParallelism(4);
+        List<List<Integer>> partitions = new ArrayList<>();
+        partitions.add(range(0, 1000));
+        partitions.add(range(1000, 1001));
+        Set<Integer> processed = ConcurrentHashMap.newKeySet();
+        AtomicInteger leaves = new AtomicInteger();
+        LinkingScheduler.execute(partitions, List::size, p -> p.size() < 2 ? null
+                : Arrays.asList(p.subList(0, p.size() / 2), p.subList(p.size() / 2, p.size())), p -> {
+                    leaves.incrementAndGet();
+                    processed.addAll(p);
+                });
+        assertEquals(1001, processed.size());
+        // the large partition is split into tasks of at most 1001 / 16 values
+        assertTrue(leaves.get() >= 16);
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void testFailurePropagates() {
+        System.out.println("testFailurePropagates");
+        LinkingScheduler.setParallelism(4);
+        LinkingScheduler.forEach(1000, i -> {
+            if (i == 500) {
+                throw new IllegalStateException();
+            }
+        });
+    }
+
+    @Test
+    public void testInterruptCancels() {
+        System.out.println("testInterruptCancels");
+        LinkingScheduler.setParallelism(2);
+        Thread caller = Thread.currentThread();
+        AtomicInteger calls = new AtomicInteger();
+        try {
+            LinkingScheduler.execute(range(0, 1000), p -> 1, p -> null, p -> {
+                if (calls.incrementAndGet() == 10) {
+                    caller.interrupt();
+                }
+                try {
+                    Thread.sleep(1);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            });
+            fail("An interrupted call must be cancelled");
+        } catch (CancellationException e) {
+            // the interrupt is kept for the caller
+            assertTrue(Thread.interrupted());
+        }
+        // partitions that were not started are skipped
+        assertTrue(calls.get() < 1000);
+    }
+
+    @Test
+    public void testSetParallelismWhileExecuting() {
+        System.out.println("testSetParallelismWhileExecuting");
+        LinkingScheduler.setParallelism(2);
+        AtomicIntegerArray calls = new AtomicIntegerArray(1000);
+        AtomicInteger nested = new AtomicInteger();
+        LinkingScheduler.forEach(calls.length(), i -> {
+            if (i == 0) {
+                LinkingScheduler.setParallelism(3);
+                // nested calls still run in the replaced pool
+                LinkingScheduler.forEach(10, j -> nested.incrementAndGet());
+            }
+            calls.incrementAndGet(i);
+        });
+        // the replaced pool drains all partitions
+        for (int i = 0; i < calls.length(); i++) {
+            assertEquals(1, calls.get(i));
+        }
+        assertEquals(10, nested.get());
+        assertEquals(3, LinkingScheduler.getParallelism());
+        LinkingScheduler.forEach(calls.length(), i -> calls.incrementAndGet(i));
+        assertEquals(2, calls.get(calls.length() - 1));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testInvalidParallelism() {
+        System.out.println("testInvalidParallelism");
+        LinkingScheduler.setParallelism(0);
+    }
+
+    private static List<Integer> range(int from, int to) {
+        List<Integer> values = new ArrayList<>();
+        for (int i = from; i < to; i++) {
+            values.add(i);
+        }
+        return Collections.unmodifiableList(values);
+    }
+}
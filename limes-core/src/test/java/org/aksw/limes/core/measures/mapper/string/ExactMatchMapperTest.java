@@ -0,0 +1,56 @@
+package org.aksw.limes.core.measures.mapper.string;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+import java.util.HashSet;
+
+import org.aksw.limes.core.io.cache.ACache;
+import org.aksw.limes.core.io.cache.MemoryCache;
+import org.aksw.limes.core.io.mapping.AMapping;
+import org.junit.Test;
+
+public class ExactMatchMapperTest {
+
+    @Test
+    public void testMapping() {
+        System.out.println("testMapping");
+        ACache source = new MemoryCache();
+        ACache target = new MemoryCache();
+        source.addTriple("S1", "country", "de");
+        source.addTriple("S2", "country", "fr");
+        target.addTriple("T1", "country", "de");
+        target.addTriple("T2", "country", "it");
+        target.addTriple("T3", "country", "fr");
+        ExactMatchMapper mapper = new ExactMatchMapper();
+        AMapping m = mapper.getMapping(source, target, "?x", "?y", "exactmatch(x.country, y.country)", 1d);
+        assertEquals(2, m.size());
+        assertTrue(m.contains("S1", "T1"));
+        assertTrue(m.contains("S2", "T3"));
+        // more distinct source than target values
+        m = mapper.getMapping(target, source, "?x", "?y", "exactmatch(x.country, y.country)", 1d);
+        assertEquals(2, m.size());
+        assertTrue(m.contains("T1", "S1"));
+        assertTrue(m.contains("T3", "S2"));
+    }
+
+    @Test
+    public void testCandidates() {
+        System.out.println("testCandidates");
+        ACache source = new MemoryCache();
+        ACache target = new MemoryCache();
+        for (int i = 0; i < 50; i++) {
+            source.addTriple("S" + i, "country", "c" + (i % 5));
+            target.addTriple("T" + i, "country", "c" + (i % 5));
+        }
+        AMapping m = new ExactMatchMapper().getMapping(source, target, "?x", "?y",
+                "exactmatch(x.country, y.country)", 1d, new HashSet<String>(Arrays.asList("S0", "S1", "S5")),
+                new HashSet<String>(Arrays.asList("T0", "T2", "T10")));
+        assertEquals(4, m.size());
+        assertTrue(m.contains("S0", "T0"));
+        assertTrue(m.contains("S0", "T10"));
+        assertTrue(m.contains("S5", "T0"));
+        assertTrue(m.contains("S5", "T10"));
+    }
+}
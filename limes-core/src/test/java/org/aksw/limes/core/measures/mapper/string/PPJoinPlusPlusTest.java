@@ -0,0 +1,152 @@
+package org.aksw.limes.core.measures.mapper.string;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Random;
+import java.util.Set;
+
+import org.aksw.limes.core.io.cache.ACache;
+import org.aksw.limes.core.io.cache.Instance;
+import org.aksw.limes.core.io.cache.MemoryCache;
+import org.aksw.limes.core.io.mapping.AMapping;
+import org.aksw.limes.core.measures.measure.string.CosineMeasure;
+import org.aksw.limes.core.measures.measure.string.IStringMeasure;
+import org.aksw.limes.core.measures.measure.string.JaccardMeasure;
+import org.aksw.limes.core.measures.measure.string.OverlapMeasure;
+import org.aksw.limes.core.measures.measure.string.TrigramMeasure;
+import org.junit.Before;
+import org.junit.Test;
+
+public class PPJoinPlusPlusTest {
+
+    private static final String[] WORDS = { "a", "b", "c", "d", "e", "f", "g", "h", "i", "j", "k", "l" };
+
+    private ACache source;
+    private ACache target;
+
+    @Before
+    public void setUp() {
+        Random random = new Random(7);
+        source = new MemoryCache();
+        target = new MemoryCache();
+        for (int i = 0; i < 400; i++) {
+            source.addTriple("s" + i, "label", randomValue(random));
+            target.addTriple("t" + i, "name", randomValue(random));
+            if (i % 10 == 0) {
+                // multi-valued instances
+                target.addTriple("t" + i, "name", randomValue(random));
+            }
+        }
+        source.addTriple("empty", "label", "");
+    }
+
+    private static String randomValue(Random random) {
+        StringBuilder value = new StringBuilder();
+        int tokens = 1 + random.nextInt(8);
+        for (int i = 0; i < tokens; i++) {
+            // repeated words are distinct tokens
+            value.append(WORDS[random.nextInt(WORDS.length)]).append(random.nextBoolean() ? " " : ", ");
+        }
+        return value.toString();
+    }
+
+    @Test
+    public void testMeasures() {
+        System.out.println("testMeasures");
+        check("jaccard", new JaccardMeasure(), 0.5);
+        check("cosine", new CosineMeasure(), 0.6);
+        check("trigram", new TrigramMeasure(), 0.7);
+        check("overlap", new OverlapMeasure(), 3);
+    }
+
+    @Test
+    public void testTokenization() {
+        System.out.println("testTokenization");
+        assertTrue(Arrays.equals(new String[] { "a", "b", "a.2", "c", "a.3" }, TokenColumn.split("a b, a.c!a")));
+        assertEquals(0, TokenColumn.split(" .,").length);
+    }
+
+    @Test
+    public void testModifiedCache() {
+        System.out.println("testModifiedCache");
+        ACache cache = new MemoryCache();
+        cache.addTriple("S1", "name", "a b");
+        cache.addTriple("S2", "name", "c d");
+        TokenColumn column = TokenColumn.get(cache, "name");
+        assertTrue(column == TokenColumn.get(cache, "name"));
+        assertEquals(2, column.size());
+        // a new value of an existing instance keeps the size of the cache
+        cache.addTriple("S1", "name", "e f");
+        TokenColumn changed = TokenColumn.get(cache, "name");
+        assertTrue(changed != column);
+        assertEquals(3, changed.size());
+    }
+
+    @Test
+    public void testCandidates() {
+        System.out.println("testCandidates");
+        PPJoinPlusPlus mapper = new PPJoinPlusPlus();
+        String expression = "jaccard(x.label, y.name)";
+        AMapping all = mapper.getMapping(source, target, "?x", "?y", expression, 0.5);
+        Set<String> sourceCandidates = new HashSet<String>();
+        Set<String> targetCandidates = new HashSet<String>();
+        for (int i = 0; i < 400; i += 3) {
+            sourceCandidates.add("s" + i);
+            targetCandidates.add("t" + (i + 1));
+        }
+        AMapping m = mapper.getMapping(source, target, "?x", "?y", expression, 0.5, sourceCandidates,
+                targetCandidates);
+        int expected = 0;
+        for (String s : all.getMap().keySet()) {
+            for (String t : all.getMap().get(s).keySet()) {
+                if (sourceCandidates.contains(s) && targetCandidates.contains(t)) {
+                    expected++;
+                    assertEquals(all.getConfidence(s, t), m.getConfidence(s, t), 1e-9);
+                }
+            }
+        }
+        assertTrue(expected > 0);
+        assertEquals(expected, m.size());
+    }
+
+    private void check(String name, IStringMeasure measure, double threshold) {
+        PPJoinPlusPlus mapper = new PPJoinPlusPlus();
+        AMapping m = mapper.getMapping(source, target, "?x", "?y", name + "(x.label, y.name)", threshold);
+        int expected = 0;
+        for (Instance s : source.getAllInstances()) {
+            for (Instance t : target.getAllInstances()) {
+                double max = -1;
+                for (String v1 : s.getProperty("label")) {
+                    for (String v2 : t.getProperty("name")) {
+                        max = Math.max(max, similarity(measure, v1, v2));
+                    }
+                }
+                if (max >= threshold) {
+                    expected++;
+                    assertEquals(name + " " + s.getUri() + " " + t.getUri(), max,
+                            m.getConfidence(s.getUri(), t.getUri()), 1e-9);
+                }
+            }
+        }
+        assertTrue(name + " must link some instances", expected > 0);
+        assertEquals(name, expected, m.size());
+        // the join is repeated on the cached tokens
+        assertEquals(name, expected, mapper.getMapping(source, target, "?x", "?y", name + "(x.label, y.name)",
+                threshold).size());
+    }
+
+    private static double similarity(IStringMeasure measure, String v1, String v2) {
+        Set<String> x = new HashSet<String>(Arrays.asList(TokenColumn.split(v1)));
+        Set<String> y = new HashSet<String>(Arrays.asList(TokenColumn.split(v2)));
+        int size1 = x.size();
+        int size2 = y.size();
+        x.retainAll(y);
+        if (x.isEmpty()) {
+            return 0;
+        }
+        return measure.getSimilarity(x.size(), Math.max(size1, size2), Math.min(size1, size2));
+    }
+}
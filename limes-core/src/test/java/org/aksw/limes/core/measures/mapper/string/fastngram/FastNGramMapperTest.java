@@ -0,0 +1,76 @@
+package org.aksw.limes.core.measures.mapper.string.fastngram;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.HashSet;
+import java.util.Set;
+
+import org.aksw.limes.core.io.cache.ACache;
+import org.aksw.limes.core.io.cache.MemoryCache;
+import org.aksw.limes.core.io.mapping.AMapping;
+import org.aksw.limes.core.io.mapping.MappingFactory;
+import org.aksw.limes.core.measures.measure.string.QGramSimilarityMeasure;
+import org.aksw.limes.core.util.RandomStringGenerator;
+import org.junit.Test;
+
+public class FastNGramMapperTest {
+
+    private AMapping bruteForce(Set<String> source, Set<String> target, int q, double threshold) {
+        QGramSimilarityMeasure measure = new QGramSimilarityMeasure(q);
+        AMapping m = MappingFactory.createDefaultMapping();
+        for (String s : source) {
+            for (String t : target) {
+                double sim = measure.getSimilarity(t, s);
+                if (sim >= threshold) {
+                    m.add(s, t, sim);
+                }
+            }
+        }
+        return m;
+    }
+
+    private Set<String> generate(int size, long seed) {
+        RandomStringGenerator generator = new RandomStringGenerator(2, 7, seed);
+        Set<String> strings = new HashSet<String>();
+        while (strings.size() < size) {
+            strings.add(generator.generateString());
+        }
+        return strings;
+    }
+
+    @Test
+    public void testCompute() {
+        // more than one chunk of source strings, so that they are processed
+        // in parallel
+        Set<String> source = generate(3000, 1L);
+        Set<String> target = generate(2000, 2L);
+        source.add("kleanthi");
+        target.add("kleanthis");
+        for (double threshold : new double[] { 0.3, 0.5, 0.8, 1.0 }) {
+            for (int q : new int[] { 2, 3 }) {
+                AMapping expected = bruteForce(source, target, q, threshold);
+                AMapping actual = FastNGramMapper.compute(source, target, q, threshold);
+                assertEquals(expected.getMap(), actual.getMap());
+            }
+        }
+    }
+
+    @Test
+    public void testGetMapping() {
+        ACache source = new MemoryCache();
+        ACache target = new MemoryCache();
+        source.addTriple("S1", "name", "kleanthi");
+        source.addTriple("S2", "name", "kleanthi");
+        source.addTriple("S3", "name", "johny depp");
+        target.addTriple("T1", "name", "kleanthis");
+        target.addTriple("T2", "name", "johnny depp");
+        target.addTriple("T2", "name", "taylor swift");
+
+        AMapping m = new FastNGramMapper().getMapping(source, target, "?x", "?y", "qgrams(x.name,y.name)", 0.6);
+        QGramSimilarityMeasure measure = new QGramSimilarityMeasure(3);
+        assertEquals(3, m.size());
+        assertEquals(measure.getSimilarity("kleanthis", "kleanthi"), m.getConfidence("S1", "T1"), 0d);
+        assertEquals(measure.getSimilarity("kleanthis", "kleanthi"), m.getConfidence("S2", "T1"), 0d);
+        assertEquals(measure.getSimilarity("johnny depp", "johny depp"), m.getConfidence("S3", "T2"), 0d);
+    }
+}
@@ -0,0 +1,69 @@
+package org.aksw.limes.core.measures.mapper.temporal;
+
+import static org.junit.Assert.assertTrue;
+
+import org.aksw.limes.core.io.cache.ACache;
+import org.aksw.limes.core.io.cache.MemoryCache;
+import org.junit.Before;
+import org.junit.Test;
+
+public class TemporalColumnTest {
+
+    public ACache cache = new MemoryCache();
+
+    @Before
+    public void setUp() {
+        cache = new MemoryCache();
+        cache.addTriple("S1", "b", "2015-05-20T08:24:04+02:00");
+        cache.addTriple("S1", "e", "2015-05-20T08:25:04+02:00");
+        cache.addTriple("S2", "b", "2015-05-20T08:21:04+02:00");
+        cache.addTriple("S2", "b", "2015-05-20T08:22:04+02:00");
+        cache.addTriple("S2", "e", "2015-05-20T08:34:04+02:00");
+        cache.addTriple("S3", "b", "not a date");
+        cache.addTriple("S3", "e", "2015-05-20T06:21:04Z");
+    }
+
+    @Test
+    public void testParse() {
+        System.out.println("testParse");
+        assertTrue(TemporalColumn.parse("2015-05-20T08:21:04+02:00") == 1432102864000L);
+        assertTrue(TemporalColumn.parse("2015-05-20T06:21:04Z") == 1432102864000L);
+        assertTrue(TemporalColumn.parse("2015-05-20T08:21:04.500+02:00") == 1432102864500L);
+    }
+
+    @Test
+    public void testColumn() {
+        System.out.println("testColumn");
+        TemporalColumn begin = TemporalColumn.get(cache, "b");
+        TemporalColumn end = TemporalColumn.get(cache, "e");
+        assertTrue(begin == TemporalColumn.get(cache, "b"));
+        assertTrue(begin.getInstanceCount() == 3);
+        assertTrue(begin.size() == 3);
+        for (int i = 1; i < begin.size(); i++) {
+            assertTrue(begin.getEpoch(i - 1) <= begin.getEpoch(i));
+        }
+        assertTrue(begin.getUri(begin.getId(0)).equals("S2"));
+        assertTrue(begin.getUri(begin.getId(2)).equals("S1"));
+        for (int id = 0; id < begin.getInstanceCount(); id++) {
+            // the ids of the instances are the same in all columns of a cache
+            assertTrue(begin.getUri(id).equals(end.getUri(id)));
+            assertTrue(begin.hasValue(id) == !begin.getUri(id).equals("S3"));
+            assertTrue(end.hasValue(id));
+        }
+        assertTrue(begin.lowerBound(begin.getEpoch(1)) == 1);
+        assertTrue(begin.upperBound(begin.getEpoch(1)) == 2);
+        assertTrue(begin.upperBound(Long.MAX_VALUE) == 3);
+
+        cache.addTriple("S4", "b", "2015-05-20T08:24:04+02:00");
+        TemporalColumn changed = TemporalColumn.get(cache, "b");
+        assertTrue(changed != begin);
+        assertTrue(changed.size() == 4);
+
+        // modifications of existing instances also invalidate the columns
+        cache.addTriple("S3", "b", "2015-05-20T08:20:04+02:00");
+        TemporalColumn fixed = TemporalColumn.get(cache, "b");
+        assertTrue(fixed != changed);
+        assertTrue(fixed.size() == 5);
+        assertTrue(fixed.getUri(fixed.getId(0)).equals("S3"));
+    }
+}
@@ -0,0 +1,73 @@
+package org.aksw.limes.core.measures.mapper.temporal.allenAlgebra;
+
+import static org.junit.Assert.assertTrue;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import org.aksw.limes.core.io.cache.ACache;
+import org.aksw.limes.core.io.cache.MemoryCache;
+import org.aksw.limes.core.io.mapping.AMapping;
+import org.aksw.limes.core.measures.mapper.temporal.allenAlgebra.AllenIntervalJoin.Relation;
+import org.junit.Before;
+import org.junit.Test;
+
+public class AllenIntervalJoinTest {
+
+    public ACache source = new MemoryCache();
+    public ACache target = new MemoryCache();
+
+    @Before
+    public void setUp() {
+        source = new MemoryCache();
+        target = new MemoryCache();
+        // events of 1 to 3 minutes between 08:00 and 08:06, so that all
+        // relations occur
+        int i = 0;
+        for (int begin = 0; begin < 6; begin++) {
+            for (int length = 1; length <= 3; length++) {
+                source.addTriple("S" + i, "beginsAtDateTime", date(begin));
+                source.addTriple("S" + i, "endsAtDateTime", date(begin + length));
+                target.addTriple("T" + i, "b", date(begin));
+                target.addTriple("T" + i, "e", date(begin + length));
+                i++;
+            }
+        }
+    }
+
+    private static String date(int minute) {
+        return "2015-05-20T08:0" + minute + ":00+02:00";
+    }
+
+    @Test
+    public void testRelationsPartitionPairs() {
+        System.out.println("testRelationsPartitionPairs");
+        String expression = "tmp_during(x.beginsAtDateTime|endsAtDateTime,y.b|e)";
+        Map<String, Relation> relations = new HashMap<String, Relation>();
+        for (Relation relation : Relation.values()) {
+            AMapping m = AllenIntervalJoin.getMapping(source, target, expression, relation);
+            assertTrue(relation + " must link some events", m.size() > 0);
+            for (String s : m.getMap().keySet()) {
+                for (String t : m.getMap().get(s).keySet()) {
+                    // each pair of events stands in exactly one relation
+                    assertTrue(relations.put(s + " " + t, relation) == null);
+                }
+            }
+        }
+        assertTrue(relations.size() == source.size() * target.size());
+        assertTrue(relations.get("S0 T0") == Relation.EQUALS);
+        assertTrue(relations.get("S0 T1") == Relation.STARTS);
+        assertTrue(relations.get("S0 T3") == Relation.MEETS);
+        assertTrue(relations.get("S0 T6") == Relation.BEFORE);
+        assertTrue(relations.get("S3 T2") == Relation.DURING);
+        assertTrue(relations.get("S3 T1") == Relation.FINISHES);
+        assertTrue(relations.get("S1 T4") == Relation.OVERLAPS);
+        assertTrue(relations.get("S6 T0") == Relation.AFTER);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testMissingEndProperty() {
+        System.out.println("testMissingEndProperty");
+        AllenIntervalJoin.getMapping(source, target, "tmp_during(x.beginsAtDateTime,y.b)", Relation.DURING);
+    }
+}
@@ -0,0 +1,116 @@
+package org.aksw.limes.core.measures.measure;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.aksw.limes.core.io.cache.ACache;
+import org.aksw.limes.core.io.cache.Instance;
+import org.aksw.limes.core.io.cache.MemoryCache;
+import org.aksw.limes.core.io.ls.LinkSpecification;
+import org.aksw.limes.core.io.mapping.AMapping;
+import org.aksw.limes.core.measures.mapper.MapperFactory;
+import org.aksw.limes.core.measures.measure.string.JaroMeasure;
+import org.junit.Before;
+import org.junit.Test;
+
+public class CompiledLinkSpecTest {
+
+    private ACache source;
+    private ACache target;
+
+    @Before
+    public void setUp() {
+        source = new MemoryCache();
+        target = new MemoryCache();
+        source.addTriple("S1", "name", "kleanthi");
+        source.addTriple("S1", "name", "klea");
+        source.addTriple("S1", "surname", "georgala");
+        source.addTriple("S2", "name", "johny");
+        source.addTriple("S2", "surname", "depp");
+        target.addTriple("T1", "name", "klea");
+        target.addTriple("T1", "surname", "georgala");
+        target.addTriple("T2", "name", "johnny");
+        target.addTriple("T2", "surname", "derp");
+    }
+
+    @Test
+    public void testAtomic() {
+        CompiledLinkSpec spec = new CompiledLinkSpec("jaro(x.name,y.name)", 0.5, "?x", "?y");
+        assertTrue(spec.isThreadSafe());
+        JaroMeasure jaro = new JaroMeasure();
+        for (String s : source.getAllUris()) {
+            for (String t : target.getAllUris()) {
+                double max = 0;
+                for (String v1 : source.getInstance(s).getProperty("name")) {
+                    for (String v2 : target.getInstance(t).getProperty("name")) {
+                        max = Math.max(max, jaro.getSimilarity(v1, v2));
+                    }
+                }
+                double expected = (max >= 0.5) ? max : 0;
+                assertEquals(expected, spec.getSimilarity(source.getInstance(s), target.getInstance(t)), 0d);
+            }
+        }
+        // both terms refer to the source
+        CompiledLinkSpec invalid = new CompiledLinkSpec("jaro(x.name,x.name)", 0.5, "?x", "?y");
+        assertEquals(0d, invalid.getSimilarity(source.getInstance("S1"), target.getInstance("T1")), 0d);
+    }
+
+    @Test
+    public void testPrefetchedValues() {
+        CompiledLinkSpec spec = new CompiledLinkSpec(
+                "OR(jaro(x.name,y.name)|0.9,exactmatch(x.surname,y.surname)|0.5)", 0.5, "?x", "?y");
+        Instance s = source.getInstance("S1");
+        Instance t = target.getInstance("T1");
+        String[][] sv = spec.getSourceValues(s);
+        String[][] tv = spec.getTargetValues(t);
+        assertEquals(2, sv.length);
+        assertEquals(spec.getSimilarity(s, t), spec.getSimilarity(sv, tv, s, t), 0d);
+        assertEquals(1d, spec.getSimilarity(s, t), 0d);
+    }
+
+    @Test
+    public void testLinkSpecification() {
+        String expression = "AND(jaro(x.name,y.name)|0.6,exactmatch(x.surname,y.surname)|0.5)";
+        CompiledLinkSpec fromExpression = new CompiledLinkSpec(expression, 0.7, "?x", "?y");
+        CompiledLinkSpec fromSpec = new CompiledLinkSpec(new LinkSpecification(expression, 0.7), "?x", "?y");
+        for (String s : source.getAllUris()) {
+            for (String t : target.getAllUris()) {
+                assertEquals(fromExpression.getSimilarity(source.getInstance(s), target.getInstance(t)),
+                        fromSpec.getSimilarity(source.getInstance(s), target.getInstance(t)), 0d);
+            }
+        }
+        assertTrue(fromSpec.getSimilarity(source.getInstance("S1"), target.getInstance("T1")) > 0);
+        assertEquals(0d, fromSpec.getSimilarity(source.getInstance("S2"), target.getInstance("T2")), 0d);
+    }
+
+    @Test
+    public void testKernelMeasures() {
+        for (String measure : new String[] { "qgrams", "cosine", "jaccard", "overlap", "trigram" }) {
+            String expression = measure + "(x.name,y.name)";
+            CompiledLinkSpec spec = new CompiledLinkSpec(expression, 0.3, "?x", "?y");
+            assertTrue(expression, spec.isThreadSafe());
+            AMapping mapping = MapperFactory.createMapper(MeasureFactory.getMeasureType(measure)).getMapping(source,
+                    target, "?x", "?y", expression, 0.3);
+            for (String s : source.getAllUris()) {
+                for (String t : target.getAllUris()) {
+                    assertEquals(expression, mapping.getConfidence(s, t),
+                            spec.getSimilarity(source.getInstance(s), target.getInstance(t)), 1e-9);
+                }
+            }
+        }
+        CompiledLinkSpec levenshtein = new CompiledLinkSpec("levenshtein(x.name,y.name)", 0.5, "?x", "?y");
+        assertTrue(levenshtein.isThreadSafe());
+        // johny and johnny have an edit distance of 1
+        assertEquals(0.5, levenshtein.getSimilarity(source.getInstance("S2"), target.getInstance("T2")), 0d);
+        assertEquals(1d, levenshtein.getSimilarity(source.getInstance("S1"), target.getInstance("T1")), 0d);
+        assertEquals(0d, levenshtein.getSimilarity(source.getInstance("S1"), target.getInstance("T2")), 0d);
+    }
+
+    @Test
+    public void testMapperMeasures() {
+        // ratcliff is computed by its mapper, which is not thread-safe
+        assertFalse(new CompiledLinkSpec("OR(jaro(x.name,y.name)|0.6,ratcliff(x.surname,y.surname)|0.5)", 0.5,
+                "?x", "?y").isThreadSafe());
+    }
+}
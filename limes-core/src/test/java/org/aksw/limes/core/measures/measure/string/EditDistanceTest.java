@@ -0,0 +1,91 @@
+package org.aksw.limes.core.measures.measure.string;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.Random;
+
+import org.junit.Test;
+
+public class EditDistanceTest {
+
+    private static final String ALPHABET = "abcdeé€ 1";
+
+    @Test
+    public void testKnownDistances() {
+        System.out.println("testKnownDistances");
+        assertEquals(0, EditDistance.distance("", ""));
+        assertEquals(3, EditDistance.distance("", "abc"));
+        assertEquals(3, EditDistance.distance("kitten", "sitting"));
+        assertEquals(2, EditDistance.distance("flaw", "lawn"));
+        assertEquals(1, EditDistance.distance("café", "cafe"));
+        assertEquals(2, EditDistance.distance("kitten", "sitting", 1));
+        assertEquals(1, EditDistance.distance("abc", "abcdef", 0));
+    }
+
+    @Test
+    public void testRandomStrings() {
+        System.out.println("testRandomStrings");
+        Random random = new Random(42);
+        for (int run = 0; run < 3000; run++) {
+            // lengths up to 150 cover the bit-parallel and the banded case
+            String a = randomString(random, random.nextInt(run % 3 == 0 ? 150 : 70));
+            String b = mutate(random, a);
+            int expected = dynamicProgram(a, b);
+            assertEquals(a + " / " + b, expected, EditDistance.distance(a, b));
+            int max = random.nextInt(expected + 3);
+            assertEquals(a + " / " + b + " / " + max, Math.min(expected, max + 1), EditDistance.distance(a, b, max));
+        }
+    }
+
+    private static String randomString(Random random, int length) {
+        StringBuilder s = new StringBuilder();
+        for (int i = 0; i < length; i++) {
+            s.append(ALPHABET.charAt(random.nextInt(ALPHABET.length())));
+        }
+        return s.toString();
+    }
+
+    private static String mutate(Random random, String s) {
+        if (random.nextInt(5) == 0) {
+            return randomString(random, random.nextInt(150));
+        }
+        StringBuilder b = new StringBuilder(s);
+        int edits = random.nextInt(10);
+        for (int e = 0; e < edits; e++) {
+            int i = b.length() == 0 ? 0 : random.nextInt(b.length());
+            char c = ALPHABET.charAt(random.nextInt(ALPHABET.length()));
+            switch (random.nextInt(3)) {
+            case 0:
+                b.insert(i, c);
+                break;
+            case 1:
+                if (b.length() > 0) {
+                    b.deleteCharAt(i);
+                }
+                break;
+            default:
+                if (b.length() > 0) {
+                    b.setCharAt(i, c);
+                }
+            }
+        }
+        return b.toString();
+    }
+
+    private static int dynamicProgram(String a, String b) {
+        int[][] d = new int[a.length() + 1][b.length() + 1];
+        for (int i = 0; i <= a.length(); i++) {
+            d[i][0] = i;
+        }
+        for (int j = 0; j <= b.length(); j++) {
+            d[0][j] = j;
+        }
+        for (int i = 1; i <= a.length(); i++) {
+            for (int j = 1; j <= b.length(); j++) {
+                int cost = a.charAt(i - 1) == b.charAt(j - 1) ? 0 : 1;
+                d[i][j] = Math.min(d[i - 1][j - 1] + cost, Math.min(d[i - 1][j], d[i][j - 1]) + 1);
+            }
+        }
+        return d[a.length()][b.length()];
+    }
+}